@@ -0,0 +1,44 @@
+package uz.shinamagazin.api.audit;
+
+import java.util.function.Supplier;
+
+/**
+ * ThreadLocal belgisi: ichidagi entity operatsiyalari {@link AuditEntityListener}
+ * tomonidan yozilmaydi.
+ *
+ * <p>Ommaviy import kabi joylar uchun — har qator uchun xarita yig'ish,
+ * maskalash va JSON o'rniga chaqiruvchi bitta yakuniy yozuv qoldiradi
+ * ({@code AuditLogService.logBulk}). Flush ham blok ichida bo'lishi kerak:
+ * {@code @PreUpdate} flush paytida chaqiriladi.
+ *
+ * <pre>
+ * AuditBypass.run(() -&gt; repository.saveAllAndFlush(rows));
+ * </pre>
+ */
+public final class AuditBypass {
+
+    private static final ThreadLocal<Integer> DEPTH = new ThreadLocal<>();
+
+    private AuditBypass() {
+        // Utility class - prevent instantiation
+    }
+
+    /** {@code action}ni audit yozmasdan bajaradi; ichma-ich chaqirish mumkin. */
+    public static <T> T run(Supplier<T> action) {
+        Integer outer = DEPTH.get();
+        DEPTH.set(outer == null ? 1 : outer + 1);
+        try {
+            return action.get();
+        } finally {
+            if (outer == null) {
+                DEPTH.remove();
+            } else {
+                DEPTH.set(outer);
+            }
+        }
+    }
+
+    public static boolean isActive() {
+        return DEPTH.get() != null;
+    }
+}
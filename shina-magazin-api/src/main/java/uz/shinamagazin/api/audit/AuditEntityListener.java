@@ -4,15 +4,25 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.*;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.collection.spi.PersistentSet;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import uz.shinamagazin.api.security.CustomUserDetails;
 import uz.shinamagazin.api.service.AuditLogService;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 /**
@@ -26,7 +36,7 @@ import java.util.Map;
  * <h3>Lifecycle Hooks:</h3>
  * <ul>
  *   <li>{@code @PostPersist} - Called after entity is created (INSERT)</li>
- *   <li>{@code @PreUpdate} - Called before entity is updated (UPDATE)</li>
+ *   <li>{@code @PreUpdate} - Called before a dirty entity is updated (UPDATE)</li>
  *   <li>{@code @PreRemove} - Called before entity is deleted (DELETE)</li>
  * </ul>
  *
@@ -44,15 +54,18 @@ import java.util.Map;
  *
  * <h3>Performance Considerations:</h3>
  * <ul>
- *   <li>Audit yozuvi SINXRON — JPA callback'i ichida, asosiy tranzaksiya oqimida
- *       bajariladi. (Ilgari bu yerda "asinxron va tranzaksiyani bloklamaydi"
- *       deb yozilgan edi; kod hech qachon unday ishlamagan.)</li>
- *   <li>Dastlabki holat {@link AuditStateContext}da — tranzaksiya doirasida,
- *       tranzaksiya tugagach avtomatik bo'shatiladi.</li>
- *   <li>Ba'zi {@code toAuditMap()} implementatsiyalari lazy kolleksiyalarga
- *       tegadi (masalan PurchaseOrder: items/payments/returns), ya'ni har
- *       {@code @PostLoad}da qo'shimcha so'rov bo'ladi — bu alohida optimallashtirish
- *       mavzusi.</li>
+ *   <li>Callback faqat xaritalarni yig'adi va yozuvni {@link AuditLogWriter}
+ *       navbatiga qo'yadi; bazaga yozish alohida oqimda, partiyalab.</li>
+ *   <li>O'qish audit uchun hech narsa qilmaydi — {@code @PostLoad} yo'q. Ilgari
+ *       har yuklangan entity uchun {@code toAuditMap()} yig'ilardi (User uchun
+ *       rollar ham yuklanardi), ya'ni 10 000 qatorlik hisobot 10 000 ta
+ *       ishlatilmaydigan xarita va qo'shimcha so'rovlar qilardi.</li>
+ *   <li>Dastlabki holat faqat haqiqatan yangilanayotgan (dirty) entity uchun,
+ *       {@code @PreUpdate}da Hibernate'ning o'zi saqlagan yuklangan holatidan
+ *       ({@link EntityEntry#getLoadedState()}) tiklanadi — {@link #previousAuditMap}.</li>
+ *   <li>Read-only tranzaksiyada va {@link AuditBypass} ichida (ommaviy import)
+ *       callback hech narsa yig'maydi; {@link AuditPolicy} bo'yicha o'chiq
+ *       entity/amal ham maskalash va xaritagacha yetmaydi — {@link #capturable}.</li>
  * </ul>
  */
 @Component
@@ -64,11 +77,7 @@ public class AuditEntityListener {
     private static EntityManager entityManager;
     private static SensitiveDataMasker sensitiveDataMasker;
     private static ObjectMapper objectMapper;
-
-    // Dastlabki holat AuditStateContext'da (ThreadLocal, tranzaksiya doirasida).
-    // Ilgari shu yerda static ConcurrentHashMap turardi — u hech qachon
-    // bo'shatilmasdi va oqimlar orasida poygaga sabab bo'lardi (izohni
-    // AuditStateContext javadoc'ida ko'ring).
+    private static AuditPolicy auditPolicy;
 
     /**
      * Spring autowiring method to inject dependencies into static fields.
@@ -78,53 +87,22 @@ public class AuditEntityListener {
      * @param em the entity manager
      * @param masker the sensitive data masker
      * @param mapper the object mapper for JSON serialization
+     * @param policy per-entity audit policy
      */
     @Autowired
     public void init(AuditLogService service,
                      EntityManager em,
                      SensitiveDataMasker masker,
-                     ObjectMapper mapper) {
+                     ObjectMapper mapper,
+                     AuditPolicy policy) {
         AuditEntityListener.auditLogService = service;
         AuditEntityListener.entityManager = em;
         AuditEntityListener.sensitiveDataMasker = masker;
         AuditEntityListener.objectMapper = mapper;
+        AuditEntityListener.auditPolicy = policy;
         log.info("AuditEntityListener initialized successfully");
     }
 
-    /**
-     * Called after an entity is loaded from the database.
-     * Caches the original state for later comparison during updates.
-     *
-     * @param entity the entity that was loaded
-     */
-    @PostLoad
-    public void onPostLoad(Object entity) {
-        if (!(entity instanceof Auditable auditable)) {
-            return;
-        }
-
-        try {
-            // Force initialize lazy collections for User entity (for role audit)
-            if (entity instanceof uz.shinamagazin.api.entity.User user) {
-                org.hibernate.Hibernate.initialize(user.getRoles());
-            }
-
-            String cacheKey = getCacheKey(entity.getClass(), auditable.getId());
-            Map<String, Object> originalData = auditable.toAuditMap();
-            AuditStateContext.put(cacheKey, originalData);
-            log.debug("Cached original state for {} with id {}", auditable.getEntityName(), auditable.getId());
-        } catch (Exception e) {
-            log.warn("Could not cache original state for {}: {}", entity.getClass().getSimpleName(), e.getMessage());
-        }
-    }
-
-    /**
-     * Generates a cache key for an entity.
-     */
-    private String getCacheKey(Class<?> entityClass, Long entityId) {
-        return entityClass.getName() + ":" + entityId;
-    }
-
     /**
      * Called after an entity is persisted (INSERT operation).
      * Logs a CREATE action to the audit trail.
@@ -133,7 +111,8 @@ public class AuditEntityListener {
      */
     @PostPersist
     public void onPostPersist(Object entity) {
-        if (!(entity instanceof Auditable auditable)) {
+        Auditable auditable = capturable(entity, "CREATE");
+        if (auditable == null) {
             return;
         }
 
@@ -175,17 +154,15 @@ public class AuditEntityListener {
      */
     @PreUpdate
     public void onPreUpdate(Object entity) {
-        if (!(entity instanceof Auditable auditable)) {
+        Auditable auditable = capturable(entity, "UPDATE");
+        if (auditable == null) {
             return;
         }
 
         try {
-            String cacheKey = getCacheKey(entity.getClass(), auditable.getId());
-
-            // Get old data from context (captured at @PostLoad).
-            // remove() EMAS: bitta tranzaksiyada ikkinchi yangilash baseline'siz
-            // qolib, audit yozuvi jimgina tushmay qolmasligi uchun.
-            Map<String, Object> originalData = AuditStateContext.get(cacheKey);
+            // Oxirgi flush'dagi (yoki yuklangandagi) holat — Hibernate'dan
+            Map<String, Object> originalData = previousAuditMap(entity,
+                    entityManager.unwrap(SharedSessionContractImplementor.class));
 
             if (originalData == null) {
                 log.warn("No cached original state found for {} with id {}. Skipping audit log.",
@@ -236,15 +213,12 @@ public class AuditEntityListener {
      */
     @PreRemove
     public void onPreRemove(Object entity) {
-        if (!(entity instanceof Auditable auditable)) {
+        Auditable auditable = capturable(entity, "DELETE");
+        if (auditable == null) {
             return;
         }
 
         try {
-            // Entity o'chirilmoqda — baseline endi keraksiz
-            String cacheKey = getCacheKey(entity.getClass(), auditable.getId());
-            AuditStateContext.remove(cacheKey);
-
             Long userId = getCurrentUserId();
             String ipAddress = getClientIpAddress();
             String userAgent = getUserAgent();
@@ -273,6 +247,75 @@ public class AuditEntityListener {
         }
     }
 
+    /**
+     * Yozilishi kerak bo'lgan entity yoki null. Avval ThreadLocal
+     * o'qishlari (read-only tranzaksiya, {@link AuditBypass}), keyin siyosat —
+     * hammasi holat yig'ish, maskalash va JSON'dan oldin.
+     */
+    static Auditable capturable(Object entity, String action) {
+        if (AuditBypass.isActive() || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        if (!(entity instanceof Auditable auditable)) {
+            return null;
+        }
+        if (auditPolicy != null && !auditPolicy.captures(auditable.getEntityName(), action)) {
+            return null;
+        }
+        return auditable;
+    }
+
+    /**
+     * Entity'ning oxirgi flush'dagi holati bo'yicha {@code toAuditMap()}.
+     *
+     * <p>Hibernate dirty-check uchun har boshqariladigan entity'ning yuklangan
+     * holatini baribir saqlaydi. Shu qiymatlar entity'ning vaqtinchalik
+     * (persistence context'dan tashqari) nusxasiga yoziladi va nusxaning
+     * {@code toAuditMap()}i olinadi — shunda xarita kalitlari va hosila
+     * qiymatlar (brandId, rollar nomi, itemCount) joriy holat bilan bir xil
+     * qoidada yig'iladi. Boshqariladigan entity'ning o'ziga tegilmaydi.
+     *
+     * <p>Kolleksiyalar: yuklangan holatda kolleksiya obyektining o'zi turadi,
+     * shuning uchun ishga tushgan kolleksiya o'rniga uning flush'dagi nusxasi
+     * (snapshot) qo'yiladi; ishga tushmagani o'zgarmagan — o'zi qoldiriladi.
+     *
+     * @return entity boshqarilmasa yoki yuklangan holati bo'lmasa null
+     */
+    static Map<String, Object> previousAuditMap(Object entity, SharedSessionContractImplementor session) {
+        EntityEntry entry = session.getPersistenceContextInternal().getEntry(entity);
+        if (entry == null || entry.getLoadedState() == null) {
+            return null;
+        }
+        EntityPersister persister = entry.getPersister();
+        Object[] loaded = entry.getLoadedState();
+        Object[] values = new Object[loaded.length];
+        for (int i = 0; i < loaded.length; i++) {
+            values[i] = loaded[i] instanceof PersistentCollection<?> collection
+                    ? snapshotOf(collection)
+                    : loaded[i];
+        }
+        Object previous = persister.instantiate(entry.getId(), session);
+        persister.setValues(previous, values);
+        return ((Auditable) previous).toAuditMap();
+    }
+
+    private static Object snapshotOf(PersistentCollection<?> collection) {
+        if (!collection.wasInitialized() || collection.getStoredSnapshot() == null) {
+            return collection;
+        }
+        Object snapshot = collection.getStoredSnapshot();
+        if (collection instanceof PersistentSet<?> && snapshot instanceof Map<?, ?> elements) {
+            return new HashSet<>(elements.keySet());
+        }
+        if (snapshot instanceof Map<?, ?> map) {
+            return new HashMap<>(map);
+        }
+        if (snapshot instanceof Collection<?> elements) {
+            return new ArrayList<>(elements);
+        }
+        return collection;
+    }
+
     /**
      * Get the current user ID from Spring Security context.
      * Returns null if no user is authenticated (e.g., system operations).
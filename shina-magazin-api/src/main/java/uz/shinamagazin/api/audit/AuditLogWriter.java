@@ -0,0 +1,344 @@
+package uz.shinamagazin.api.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.shinamagazin.api.entity.AuditLog;
+import uz.shinamagazin.api.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Audit yozuvlarini navbat orqali, partiyalab bazaga yozuvchi.
+ *
+ * <p>Ilgari har audit hodisasi umumiy {@code @Async} pulida alohida vazifa
+ * edi: o'z tranzaksiyasi, foydalanuvchi nomi uchun {@code findById} va bitta
+ * {@code INSERT}. 5 000 qatorlik mahsulot importi 5 000 ta vazifa bo'lib,
+ * bildirishnomalar bilan bir pulda navbat kutardi. Endi:
+ * <ul>
+ *   <li>hodisa cheklangan navbatga ({@code app.audit.writer.queue-capacity})
+ *       qo'yiladi — chaqiruvchi kutmaydi;</li>
+ *   <li>bitta yozuvchi oqim navbatdan {@code batch-size} tagacha yozuvni olib,
+ *       bitta ko'p qatorli {@code INSERT} bilan yozadi;</li>
+ *   <li>foydalanuvchi nomlari keshdan, keshda yo'qlari partiya uchun bitta
+ *       so'rov bilan olinadi (nom o'zgarmaydi);</li>
+ *   <li>navbat to'lsa ({@code overflow}): {@code BLOCK} — chaqiruvchi
+ *       navbatda joy bo'shashini {@code overflow-wait-ms} gacha kutadi,
+ *       {@code DROP} — darhol tashlaydi; ikkalasida ham tashlangani
+ *       hisoblanadi. Chaqiruvchi o'zi yozmaydi: navbat to'lishi — ulanishlar
+ *       puli band degani, ulanishi bor oqim ikkinchisini olishi pulni
+ *       tiqilib qoldirardi;</li>
+ *   <li>yozuv biznes tranzaksiyasidan mustaqil: rollback bo'lsa ham audit
+ *       yozuvi qoladi va commit'dan oldin ko'rinishi mumkin. Evaziga audit
+ *       biznes ishini sekinlashtirmaydi va uning xatosi uni buzmaydi;</li>
+ *   <li>o'zgargan maydonlar ro'yxati ({@code changed_fields}) shu yerda
+ *       hisoblanadi — maydon bo'yicha so'rovlar JSON'ni solishtirmaydi;</li>
+ *   <li>to'xtashda navbat oxirigacha yozib bo'linadi.</li>
+ * </ul>
+ *
+ * <p>Metrikalar: {@code audit.writer.queue.depth}, {@code audit.writer.written},
+ * {@code audit.writer.overflow}, {@code audit.writer.dropped},
+ * {@code audit.writer.failed}, {@code audit.writer.flush} (partiya yozish vaqti).
+ */
+@Component
+@Slf4j
+public class AuditLogWriter {
+
+    public enum OverflowPolicy { BLOCK, DROP }
+
+    private static final String COLUMNS = "INSERT INTO audit_logs (entity_type, entity_id, action, old_value, "
+            + "new_value, changed_fields, user_id, username, ip_address, user_agent, correlation_id, created_at) VALUES ";
+    private static final int PARAMS_PER_ROW = 12;
+    private static final int USERNAME_CACHE_LIMIT = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTx;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+    private final long overflowWaitMs;
+    private final BlockingQueue<AuditLog> queue;
+    private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+
+    private final Counter written;
+    private final Counter overflowed;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private Thread writer;
+    private String rowSql;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          UserRepository userRepository,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.audit.writer.queue-capacity:10000}") int queueCapacity,
+                          @Value("${app.audit.writer.batch-size:500}") int batchSize,
+                          @Value("${app.audit.writer.flush-interval-ms:200}") long flushIntervalMs,
+                          @Value("${app.audit.writer.overflow:BLOCK}") OverflowPolicy overflowPolicy,
+                          @Value("${app.audit.writer.overflow-wait-ms:2000}") long overflowWaitMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ownTx = new TransactionTemplate(transactionManager);
+        this.ownTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.overflowWaitMs = overflowWaitMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("audit.writer.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.written = meterRegistry.counter("audit.writer.written");
+        this.overflowed = meterRegistry.counter("audit.writer.overflow");
+        this.dropped = meterRegistry.counter("audit.writer.dropped");
+        this.failed = meterRegistry.counter("audit.writer.failed");
+        this.flushTimer = meterRegistry.timer("audit.writer.flush");
+    }
+
+    @PostConstruct
+    void start() {
+        // PostgreSQL matnni jsonb ustuniga o'zi o'girmaydi; testdagi H2 — SQL standartidagi FORMAT JSON
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        String json = "PostgreSQL".equalsIgnoreCase(product) ? "CAST(? AS jsonb)" : "? FORMAT JSON";
+        rowSql = "(?, ?, ?, " + json + ", " + json + ", ?, ?, ?, ?, ?, ?, ?)";
+
+        running = true;
+        writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // Join'dan keyin kelib qolganlari (yoki yozuvchi ulgurmagani)
+        List<AuditLog> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest);
+        }
+    }
+
+    /** Yozuvni navbatga qo'yadi. Vaqt shu yerda qo'yiladi — yozilish emas, hodisa vaqti. */
+    public void submit(AuditLog entry) {
+        if (entry.getCreatedAt() == null) {
+            entry.setCreatedAt(LocalDateTime.now());
+        }
+        if (entry.getChangedFields() == null) {
+            entry.setChangedFields(changedFields(entry.getOldValue(), entry.getNewValue()));
+        }
+        if (!running) {
+            // Ishga tushguncha yoki to'xtagandan keyin — navbatni kutadigan hech kim yo'q.
+            // Bu yo'l faqat ishga tushish/to'xtash paytida, pul bo'sh vaqtda
+            write(List.of(entry));
+            return;
+        }
+        if (queue.offer(entry)) {
+            return;
+        }
+        overflowed.increment();
+        if (overflowPolicy == OverflowPolicy.BLOCK && offerWaiting(entry)) {
+            return;
+        }
+        dropped.increment();
+        log.warn("Audit navbati to'la ({}), yozuv tashlandi: {} {} {}",
+                queue.size(), entry.getAction(), entry.getEntityType(), entry.getEntityId());
+    }
+
+    private boolean offerWaiting(AuditLog entry) {
+        try {
+            return queue.offer(entry, overflowWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * UPDATE'ni delta sifatida yozadi: {@code old_value}/{@code new_value}da
+     * faqat {@code changed_fields} kalitlari qoladi ({@code null} qiymat ham —
+     * maydon tozalangan). Ro'yxat to'liq holatlardan hisoblanadi; boshqa amallar
+     * {@link #submit(AuditLog)} kabi o'zgarmay yoziladi.
+     */
+    public void submitDelta(AuditLog entry) {
+        if ("UPDATE".equals(entry.getAction()) && entry.getOldValue() != null && entry.getNewValue() != null) {
+            List<String> changed = changedFields(entry.getOldValue(), entry.getNewValue());
+            entry.setChangedFields(changed);
+            entry.setOldValue(only(entry.getOldValue(), changed));
+            entry.setNewValue(only(entry.getNewValue(), changed));
+        }
+        submit(entry);
+    }
+
+    private static Map<String, Object> only(Map<String, Object> values, List<String> keys) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        for (String key : keys) {
+            delta.put(key, values.get(key));
+        }
+        return delta;
+    }
+
+    /** Diagnostika va testlar uchun: navbatdagi yozuvlar soni. */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Audit yozuvchi xatosi: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Partiyani chaqiruvchi tranzaksiyasidan mustaqil yozadi; xato bo'lsa
+     * yozuvlar hisoblanib tashlanadi — audit asosiy ishni to'xtatmaydi.
+     */
+    private void write(List<AuditLog> batch) {
+        long start = System.nanoTime();
+        try {
+            ownTx.executeWithoutResult(status -> {
+                resolveUsernames(batch);
+                for (int from = 0; from < batch.size(); from += batchSize) {
+                    insert(batch.subList(from, Math.min(batch.size(), from + batchSize)));
+                }
+            });
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.error("Failed to write {} audit logs: {}", batch.size(), e.getMessage(), e);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void insert(List<AuditLog> rows) {
+        StringBuilder sql = new StringBuilder(COLUMNS.length() + rows.size() * (rowSql.length() + 2)).append(COLUMNS);
+        Object[] params = new Object[rows.size() * PARAMS_PER_ROW];
+        int p = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            AuditLog row = rows.get(i);
+            sql.append(i == 0 ? "" : ", ").append(rowSql);
+            params[p++] = row.getEntityType();
+            params[p++] = row.getEntityId();
+            params[p++] = row.getAction();
+            params[p++] = toJson(row.getOldValue());
+            params[p++] = toJson(row.getNewValue());
+            params[p++] = textArray(row.getChangedFields());
+            params[p++] = row.getUserId();
+            params[p++] = row.getUsername();
+            params[p++] = row.getIpAddress();
+            params[p++] = row.getUserAgent();
+            params[p++] = row.getCorrelationId();
+            params[p++] = Timestamp.valueOf(row.getCreatedAt());
+        }
+        jdbcTemplate.update(sql.toString(), params);
+    }
+
+    private void resolveUsernames(List<AuditLog> batch) {
+        Set<Long> missing = new HashSet<>();
+        for (AuditLog row : batch) {
+            if (row.getUsername() == null && row.getUserId() != null && !usernames.containsKey(row.getUserId())) {
+                missing.add(row.getUserId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            if (usernames.size() > USERNAME_CACHE_LIMIT) {
+                usernames.clear();
+            }
+            for (Object[] user : userRepository.findUsernamesByIds(missing)) {
+                usernames.put((Long) user[0], (String) user[1]);
+            }
+        }
+        for (AuditLog row : batch) {
+            if (row.getUsername() == null && row.getUserId() != null) {
+                row.setUsername(usernames.get(row.getUserId()));
+            }
+        }
+    }
+
+    /**
+     * Qiymati farq qilgan kalitlar, saralangan. CREATE'da — barcha to'ldirilgan
+     * maydonlar, DELETE'da — o'chgan holatniki: maydon tarixi so'rovi
+     * ({@code findFieldChanges}) boshlang'ich qiymat va o'chirishni ham
+     * ko'rsatadi. {@code null} va kalit yo'qligi bir xil.
+     */
+    static List<String> changedFields(Map<String, Object> oldValue, Map<String, Object> newValue) {
+        Map<String, Object> before = oldValue != null ? oldValue : Map.of();
+        Map<String, Object> after = newValue != null ? newValue : Map.of();
+        Set<String> keys = new TreeSet<>(before.keySet());
+        keys.addAll(after.keySet());
+        keys.removeIf(key -> Objects.equals(before.get(key), after.get(key)));
+        return List.copyOf(keys);
+    }
+
+    /** {@code TEXT[]} parametri — massiv ulanishdan yaratiladi (PostgreSQL va H2). */
+    private static SqlTypeValue textArray(List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        return (ps, index, sqlType, typeName) ->
+                ps.setArray(index, ps.getConnection().createArrayOf("varchar", values.toArray()));
+    }
+
+    private String toJson(Map<String, Object> value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize audit value: {}", e.getOriginalMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package uz.shinamagazin.api.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Entity turi bo'yicha audit siyosati (application.yml: `app.audit.policy.*`).
+ *
+ * <p>Jadval auditining narxini kod o'zgartirmasdan sozlash uchun: masalan
+ * tez-tez yangilanadigan {@code Session} uchun faqat yaratish/o'chirish,
+ * o'zi jurnal bo'lgan {@code LoginAttempt} uchun — umuman o'chiq. Kalit —
+ * {@link Auditable#getEntityName()}, katta-kichik harf farqlanmaydi.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.audit.policy")
+@Data
+public class AuditPolicy {
+
+    public enum Mode {
+        /** UPDATE'da ham ikkala to'liq nusxa saqlanadi. */
+        FULL,
+        /** UPDATE'da faqat o'zgargan maydonlar (standart). */
+        DELTA,
+        /** UPDATE yozilmaydi — faqat CREATE va DELETE. */
+        CREATE_DELETE,
+        /** Audit yozilmaydi, holat ham yig'ilmaydi. */
+        OFF
+    }
+
+    private Mode defaultMode = Mode.DELTA;
+    /**
+     * DELTA rejimida har shuncha UPDATE'dan keyin bittasi to'liq nusxa bilan
+     * yoziladi — batafsil ko'rinish holatni butun tarixdan emas, eng yaqin
+     * nusxadan yig'adi.
+     */
+    private int snapshotEvery = 50;
+    private Map<String, Mode> entities = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    public void setEntities(Map<String, Mode> entities) {
+        this.entities = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        this.entities.putAll(entities);
+    }
+
+    public Mode modeFor(String entityType) {
+        return entityType != null ? entities.getOrDefault(entityType, defaultMode) : defaultMode;
+    }
+
+    /** Shu amal yozilishi kerakmi — listener holat yig'ishdan oldin so'raydi. */
+    public boolean captures(String entityType, String action) {
+        return switch (modeFor(entityType)) {
+            case OFF -> false;
+            case CREATE_DELETE -> !"UPDATE".equals(action);
+            case FULL, DELTA -> true;
+        };
+    }
+}
@@ -0,0 +1,178 @@
+package uz.shinamagazin.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import uz.shinamagazin.api.service.catalog.CatalogVersion;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Storefront katalogi va SEO meta uchun HTTP kesh: ETag, 304 va server
+ * tomonidagi tayyor javob baytlari.
+ *
+ * <p>Katalog sahifalari, facetlar, mahsulot sahifasi va crawler meta'si har
+ * bir xaridor va bot so'rovida qayta yig'ilardi. Endi:
+ * <ul>
+ *   <li>ETag = {@link CatalogVersion} raqami — katalog o'zgarmaguncha bir xil;</li>
+ *   <li>{@code If-None-Match} mos kelsa — 304, controller va baza chaqirilmaydi;</li>
+ *   <li>aks holda kanonik so'rov (yo'l + saralangan parametrlar) bo'yicha
+ *       saqlangan JSON/HTML baytlari qaytariladi, faqat kesh bo'sh yoki
+ *       eskirgan bo'lsa controller ishlaydi;</li>
+ *   <li>{@code Cache-Control: public} va {@code Vary} — nginx/CDN ham keshlay oladi.</li>
+ * </ul>
+ * Faqat 200 javoblar keshlanadi. {@code /scroll} (cursor) va {@code /suggest}
+ * (alohida indeks, o'z kechikishi bilan) bu yerdan o'tmaydi.
+ *
+ * <p>SEO meta absolyut URL'larni {@code X-Forwarded-*}/{@code Host}dan yasaydi —
+ * shuning uchun ular kalitga ham, {@code Vary}ga ham kiradi.
+ */
+@Component
+public class CatalogHttpCacheFilter extends OncePerRequestFilter {
+
+    private static final Pattern CATALOG_PATH = Pattern.compile("/v1/catalog(/facets|/sizes/alternatives|/\\d+)?/?");
+    private static final Pattern SEO_PATH = Pattern.compile("/v1/seo/products/\\d+/?");
+
+    /** Bundan katta javob serverda saqlanmaydi (ETag/304 baribir ishlaydi). */
+    private static final int MAX_BODY_BYTES = 512 * 1024;
+
+    private final CatalogVersion catalogVersion;
+    private final String cacheControl;
+    private final Map<String, Entry> entries;
+
+    public CatalogHttpCacheFilter(
+            CatalogVersion catalogVersion,
+            @Value("${app.catalog.http-cache.max-age-seconds:60}") int maxAgeSeconds,
+            @Value("${app.catalog.http-cache.stale-while-revalidate-seconds:300}") int staleSeconds,
+            @Value("${app.catalog.http-cache.max-entries:2000}") int maxEntries) {
+        this.catalogVersion = catalogVersion;
+        this.cacheControl = "public, max-age=" + maxAgeSeconds + ", stale-while-revalidate=" + staleSeconds;
+        // Access-order LRU: eng kam so'ralgan kombinatsiyalar (filtrlar) birinchi chiqadi
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        String path = path(request);
+        return !CATALOG_PATH.matcher(path).matches() && !SEO_PATH.matcher(path).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        // Raqam javobni hisoblashdan OLDIN olinadi (CatalogVersion javadoc'i)
+        long version = catalogVersion.current();
+        String etag = catalogVersion.etag(version);
+        boolean seo = SEO_PATH.matcher(path(request)).matches();
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            writeHeaders(response, etag, seo);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String key = key(request, seo);
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null && cached.version() == version) {
+            writeHeaders(response, etag, seo);
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(cached.contentType());
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+                writeHeaders(wrapper, etag, seo);
+                byte[] body = wrapper.getContentAsByteArray();
+                if (body.length <= MAX_BODY_BYTES) {
+                    synchronized (entries) {
+                        entries.put(key, new Entry(version, wrapper.getContentType(), body));
+                    }
+                }
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void writeHeaders(HttpServletResponse response, String etag, boolean seo) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (seo) {
+            response.addHeader(HttpHeaders.VARY, "X-Forwarded-Host, X-Forwarded-Proto, Host");
+        }
+    }
+
+    /** {@code If-None-Match}: ro'yxat, {@code *} va nginx gzip qo'yadigan zaif {@code W/} shakli. */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Parametrlar tartibi farq qilgan bir xil so'rov bitta yozuvga tushadi. */
+    private static String key(HttpServletRequest request, boolean seo) {
+        StringBuilder key = new StringBuilder(path(request));
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) -> {
+            for (String value : values) {
+                key.append('&').append(name).append('=').append(value);
+            }
+        });
+        if (seo) {
+            key.append('|').append(request.getHeader("X-Forwarded-Proto"))
+                    .append('|').append(request.getHeader("X-Forwarded-Host"))
+                    .append('|').append(request.getHeader(HttpHeaders.HOST))
+                    .append('|').append(request.getScheme());
+        }
+        return key.toString();
+    }
+
+    /** Context-path ({@code /api})siz yo'l. */
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private record Entry(long version, String contentType, byte[] body) {
+    }
+}
@@ -3,8 +3,6 @@ package uz.shinamagazin.api.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,18 +13,23 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.response.ApiResponse;
+import uz.shinamagazin.api.dto.response.AuditFieldChangeResponse;
 import uz.shinamagazin.api.dto.response.AuditLogDetailResponse;
 import uz.shinamagazin.api.dto.response.AuditLogGroupResponse;
 import uz.shinamagazin.api.dto.response.AuditLogResponse;
+import uz.shinamagazin.api.dto.response.CursorResponse;
 import uz.shinamagazin.api.enums.PermissionCode;
+import uz.shinamagazin.api.repository.keyset.KeysetRequest;
 import uz.shinamagazin.api.security.RequiresPermission;
 import uz.shinamagazin.api.service.AuditLogService;
-import uz.shinamagazin.api.service.export.ExcelExportService;
 import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.PdfExportService;
+import uz.shinamagazin.api.service.export.SecurityLogExportService;
 
 import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -38,7 +41,7 @@ import java.util.List;
 public class AuditLogController {
 
     private final AuditLogService auditLogService;
-    private final ExcelExportService excelExportService;
+    private final SecurityLogExportService securityLogExportService;
     private final PdfExportService pdfExportService;
 
     @GetMapping
@@ -56,6 +59,25 @@ public class AuditLogController {
         ));
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Search audit logs (cursor)", description = "Audit loglar — keyset sahifalash, " +
+            "chuqur sahifalarda ham tez. Keyingi sahifa: ?cursor=<nextCursor>")
+    @RequiresPermission(PermissionCode.SETTINGS_VIEW)
+    public ResponseEntity<ApiResponse<CursorResponse<AuditLogResponse>>> scrollAuditLogs(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        KeysetRequest request = KeysetRequest.of(cursor, size, sort, "createdAt,desc", withTotal);
+        return ResponseEntity.ok(ApiResponse.success(CursorResponse.from(
+                auditLogService.scrollAuditLogs(entityType, action, userId, search, request))));
+    }
+
     @GetMapping("/grouped")
     @Operation(summary = "Search grouped audit logs", description = "Guruhlangan audit loglarni qidirish")
     @RequiresPermission(PermissionCode.SETTINGS_VIEW)
@@ -71,6 +93,46 @@ public class AuditLogController {
         ));
     }
 
+    @GetMapping("/grouped/scroll")
+    @Operation(summary = "Search grouped audit logs (cursor)", description = "Guruhlangan audit loglar — " +
+            "keyset sahifalash, guruhlar bazada aniqlanadi. Keyingi sahifa: ?cursor=<nextCursor>")
+    @RequiresPermission(PermissionCode.SETTINGS_VIEW)
+    public ResponseEntity<ApiResponse<CursorResponse<AuditLogGroupResponse>>> scrollGroupedAuditLogs(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        KeysetRequest request = KeysetRequest.of(cursor, size, null, "createdAt,desc", withTotal);
+        return ResponseEntity.ok(ApiResponse.success(CursorResponse.from(
+                auditLogService.scrollGroupedAuditLogs(entityType, action, userId, search, request))));
+    }
+
+    @GetMapping("/field-changes")
+    @Operation(summary = "Field change history", description = "Bitta maydon o'zgarishlari: entity, maydon, " +
+            "qiymat/oraliq, foydalanuvchi va sana bo'yicha. Keyingi sahifa: ?cursor=<nextCursor>")
+    @RequiresPermission(PermissionCode.SETTINGS_VIEW)
+    public ResponseEntity<ApiResponse<CursorResponse<AuditFieldChangeResponse>>> getFieldChanges(
+            @RequestParam String entityType,
+            @RequestParam String field,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String value,
+            @RequestParam(required = false) BigDecimal minValue,
+            @RequestParam(required = false) BigDecimal maxValue,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        KeysetRequest request = KeysetRequest.of(cursor, size, null, "createdAt,desc", false);
+        return ResponseEntity.ok(ApiResponse.success(CursorResponse.from(auditLogService.findFieldChanges(
+                entityType, field, entityId, userId, value, minValue, maxValue, from, to, request))));
+    }
+
     @GetMapping("/entity/{entityType}/{entityId}")
     @Operation(summary = "Get entity audit logs", description = "Muayyan entity uchun audit loglarni olish")
     @RequiresPermission(PermissionCode.SETTINGS_VIEW)
@@ -132,9 +194,10 @@ public class AuditLogController {
     }
 
     @GetMapping("/export")
-    @Operation(summary = "Export audit logs", description = "Audit loglarni Excel yoki PDF formatida eksport qilish")
+    @Operation(summary = "Export audit logs", description = "Audit loglarni Excel yoki PDF formatida eksport qilish. "
+            + "Excel oqim bilan, qatorlar soni cheklanmaydi; maxRecords faqat PDF uchun.")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
-    public ResponseEntity<Resource> exportAuditLogs(
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
             @RequestParam(required = false) String entityType,
             @RequestParam(required = false) String action,
             @RequestParam(required = false) Long userId,
@@ -142,6 +205,17 @@ public class AuditLogController {
             @RequestParam(defaultValue = "excel") String format,
             @RequestParam(defaultValue = "10000") int maxRecords
     ) {
+        if (!"pdf".equalsIgnoreCase(format)) {
+            // Kursordan to'g'ridan-to'g'ri javobga: fayl heap'da yig'ilmaydi
+            String filename = "audit_logs_" + LocalDate.now() + ".xlsx";
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .contentType(MediaType.parseMediaType(
+                            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                    .body(out -> securityLogExportService.writeAuditLogs(
+                            entityType, action, userId, search, "Tizim Auditlari Hisoboti", out));
+        }
+
         // Chegara tekshiruvi try'dan TASHQARIDA: pastdagi catch (Exception) uni
         // RuntimeException'ga o'rab, 400 o'rniga 500 qaytarardi.
         Pageable pageable = ExportSupport.pageable(maxRecords, Sort.by(Sort.Direction.DESC, "createdAt"));
@@ -149,30 +223,16 @@ public class AuditLogController {
             Page<AuditLogResponse> auditLogsPage = auditLogService.searchAuditLogs(
                     entityType, action, userId, search, pageable
             );
-            List<AuditLogResponse> auditLogs = auditLogsPage.getContent();
-
-            ByteArrayOutputStream outputStream;
-            String contentType;
-            String filename;
-
-            if ("pdf".equalsIgnoreCase(format)) {
-                outputStream = pdfExportService.exportAuditLogs(auditLogs, "Tizim Auditlari Hisoboti");
-                contentType = "application/pdf";
-                filename = "audit_logs_" + LocalDate.now() + ".pdf";
-            } else {
-                outputStream = excelExportService.exportAuditLogs(auditLogs, "Tizim Auditlari Hisoboti");
-                contentType = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
-                filename = "audit_logs_" + LocalDate.now() + ".xlsx";
-            }
-
-            ByteArrayResource resource = new ByteArrayResource(outputStream.toByteArray());
+            ByteArrayOutputStream outputStream = pdfExportService.exportAuditLogs(
+                    auditLogsPage.getContent(), "Tizim Auditlari Hisoboti");
+            String filename = "audit_logs_" + LocalDate.now() + ".pdf";
 
             return ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .contentLength(outputStream.size())
                     .headers(ExportSupport.truncationHeaders(auditLogsPage, "audit loglar"))
-                    .body(resource);
+                    .body(outputStream::writeTo);
         } catch (Exception e) {
             throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
         }
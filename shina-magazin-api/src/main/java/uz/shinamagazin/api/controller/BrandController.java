@@ -3,22 +3,18 @@ package uz.shinamagazin.api.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.response.ApiResponse;
 import uz.shinamagazin.api.dto.response.BrandResponse;
 import uz.shinamagazin.api.enums.PermissionCode;
 import uz.shinamagazin.api.security.RequiresPermission;
 import uz.shinamagazin.api.service.BrandService;
+import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.GenericExportService;
 
-import java.io.ByteArrayOutputStream;
-import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -40,35 +36,15 @@ public class BrandController {
     @GetMapping("/export")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
     @Operation(summary = "Export brands", description = "Brendlarni eksport qilish")
-    public ResponseEntity<Resource> exportBrands(
+    public ResponseEntity<StreamingResponseBody> exportBrands(
             @RequestParam(defaultValue = "excel") String format) {
-        try {
-            List<BrandResponse> brands = brandService.getAllBrands();
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
+        List<BrandResponse> brands = brandService.getAllBrands();
 
-            ByteArrayOutputStream output = genericExportService.export(
-                    brands,
-                    BrandResponse.class,
-                    GenericExportService.ExportFormat.valueOf(format.toUpperCase()),
-                    "Brendlar Hisoboti"
-            );
-
-            String extension = format.equalsIgnoreCase("excel") ? "xlsx" : "pdf";
-            String contentType = format.equalsIgnoreCase("excel")
-                    ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-                    : "application/pdf";
-            String filename = "brands_" + LocalDate.now() + "." + extension;
-
-            ByteArrayResource resource = new ByteArrayResource(output.toByteArray());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
-                    .body(resource);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
-        }
+        return ResponseEntity.ok()
+                .headers(ExportSupport.attachment("brands", exportFormat))
+                .body(out -> genericExportService.write(brands.stream(), BrandResponse.class,
+                        exportFormat, "Brendlar Hisoboti", out));
     }
 
     @GetMapping("/{id}")
@@ -12,19 +12,28 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import uz.shinamagazin.api.dto.response.AlternativeSizeResponse;
 import uz.shinamagazin.api.dto.response.ApiResponse;
 import uz.shinamagazin.api.dto.response.CatalogFacetsResponse;
 import uz.shinamagazin.api.dto.response.CatalogProductResponse;
+import uz.shinamagazin.api.dto.response.CursorResponse;
 import uz.shinamagazin.api.dto.response.PagedResponse;
+import uz.shinamagazin.api.dto.response.ProductSuggestion;
 import uz.shinamagazin.api.enums.Season;
+import uz.shinamagazin.api.repository.keyset.KeysetRequest;
 import uz.shinamagazin.api.service.CatalogService;
+import uz.shinamagazin.api.service.catalog.CatalogFilter;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Ommaviy storefront katalogi (`/magazin`) uchun. Auth talab qilmaydi —
  * SecurityConfig'da GET /v1/catalog/** permitAll. Faqat o'qish; tannarx
  * (purchasePrice) chiqarib tashlangan (CatalogProductResponse).
+ * Ro'yxat, facetlar va mahsulot sahifasi ETag/304 bilan keshlanadi
+ * ({@link uz.shinamagazin.api.config.CatalogHttpCacheFilter}).
  */
 @RestController
 @RequestMapping("/v1/catalog")
@@ -58,12 +67,86 @@ public class CatalogController {
         return ResponseEntity.ok(ApiResponse.success(PagedResponse.from(page)));
     }
 
+    /**
+     * Katalogning cursor rejimi (cheksiz lenta): OFFSET va COUNT'siz.
+     * Birinchi so'rovda {@code sort}, keyingilarida faqat {@code cursor}.
+     */
+    @GetMapping("/scroll")
+    @Operation(summary = "Public catalog (cursor)", description = "Ommaviy katalog — keyset sahifalash. " +
+            "Keyingi sahifa: ?cursor=<nextCursor>. sort: sellingPrice|name|createdAt|id,asc|desc")
+    public ResponseEntity<ApiResponse<CursorResponse<CatalogProductResponse>>> scrollCatalog(
+            @RequestParam(required = false) Long brandId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Season season,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Integer width,
+            @RequestParam(required = false) Integer profile,
+            @RequestParam(required = false) Integer diameter,
+            @RequestParam(required = false) BigDecimal priceMin,
+            @RequestParam(required = false) BigDecimal priceMax,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) String attrs,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "24") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        KeysetRequest request = KeysetRequest.of(cursor, size, sort, "id,desc", withTotal);
+        return ResponseEntity.ok(ApiResponse.success(CursorResponse.from(catalogService.scrollCatalog(
+                brandId, categoryId, season, search, width, profile, diameter,
+                priceMin, priceMax, inStock, CatalogService.parseAttributeFilters(attrs), request))));
+    }
+
+    /**
+     * Filtr parametrlari katalog ro'yxatidagi bilan bir xil: har bir guruh
+     * hisoblagichi qolgan tanlangan filtrlar bilan hisoblanadi.
+     */
     @GetMapping("/facets")
     @Operation(summary = "Catalog facets", description = "Filtr paneli uchun facetlar: kategoriya daraxti, " +
-            "narx diapazoni va tanlangan kategoriyaning atribut filtrlari (variant hisoblagichlari bilan)")
+            "narx diapazoni va tanlangan kategoriyaning atribut filtrlari (variant hisoblagichlari bilan). " +
+            "Tanlangan filtrlar berilsa, hisoblagichlar ularni hisobga oladi")
     public ResponseEntity<ApiResponse<CatalogFacetsResponse>> getFacets(
-            @RequestParam(required = false) Long categoryId) {
-        return ResponseEntity.ok(ApiResponse.success(catalogService.getFacets(categoryId)));
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long brandId,
+            @RequestParam(required = false) Season season,
+            @RequestParam(required = false) Integer width,
+            @RequestParam(required = false) Integer profile,
+            @RequestParam(required = false) Integer diameter,
+            @RequestParam(required = false) BigDecimal priceMin,
+            @RequestParam(required = false) BigDecimal priceMax,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) String attrs) {
+        CatalogFilter filter = new CatalogFilter(brandId, season, width, profile, diameter,
+                priceMin, priceMax, inStock, CatalogService.parseAttributeFilters(attrs));
+        return ResponseEntity.ok(ApiResponse.success(catalogService.getFacets(categoryId, filter)));
+    }
+
+    @GetMapping("/sizes/alternatives")
+    @Operation(summary = "Alternative tire sizes", description = "Muqobil o'lchamlar: tashqi diametri " +
+            "so'ralgan o'lchamnikidan ±3% ichida va vitrinada mahsuloti bor, eng yaqini birinchi. " +
+            "O'lcham size=205/55R16 yoki width/profile/diameter bilan")
+    public ResponseEntity<ApiResponse<List<AlternativeSizeResponse>>> getAlternativeSizes(
+            @RequestParam(required = false) String size,
+            @RequestParam(required = false) Integer width,
+            @RequestParam(required = false) Integer profile,
+            @RequestParam(required = false) Integer diameter,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long brandId,
+            @RequestParam(required = false) Season season,
+            @RequestParam(required = false) Boolean inStock) {
+        CatalogFilter filter = new CatalogFilter(brandId, season, null, null, null,
+                null, null, inStock, Map.of());
+        return ResponseEntity.ok(ApiResponse.success(
+                catalogService.getAlternativeSizes(size, width, profile, diameter, categoryId, filter)));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Search suggestions", description = "Qidiruv maydoni uchun takliflar (typeahead): " +
+            "nom, SKU, brend yoki o'lcham boshi bo'yicha, mashhurlik tartibida")
+    public ResponseEntity<ApiResponse<List<ProductSuggestion>>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(catalogService.suggest(q, limit)));
     }
 
     @GetMapping("/{id}")
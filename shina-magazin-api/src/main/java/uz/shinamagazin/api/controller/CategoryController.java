@@ -4,13 +4,10 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.request.CategoryAttributeBindingRequest;
 import uz.shinamagazin.api.dto.request.CategoryRequest;
 import uz.shinamagazin.api.dto.response.ApiResponse;
@@ -19,10 +16,9 @@ import uz.shinamagazin.api.dto.response.CategoryResponse;
 import uz.shinamagazin.api.enums.PermissionCode;
 import uz.shinamagazin.api.security.RequiresPermission;
 import uz.shinamagazin.api.service.CategoryService;
+import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.GenericExportService;
 
-import java.io.ByteArrayOutputStream;
-import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -44,35 +40,15 @@ public class CategoryController {
     @GetMapping("/export")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
     @Operation(summary = "Export categories", description = "Kategoriyalarni eksport qilish")
-    public ResponseEntity<Resource> exportCategories(
+    public ResponseEntity<StreamingResponseBody> exportCategories(
             @RequestParam(defaultValue = "excel") String format) {
-        try {
-            List<CategoryResponse> categories = categoryService.getAllCategories();
-
-            ByteArrayOutputStream output = genericExportService.export(
-                    categories,
-                    CategoryResponse.class,
-                    GenericExportService.ExportFormat.valueOf(format.toUpperCase()),
-                    "Kategoriyalar Hisoboti"
-            );
-
-            String extension = format.equalsIgnoreCase("excel") ? "xlsx" : "pdf";
-            String contentType = format.equalsIgnoreCase("excel")
-                    ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-                    : "application/pdf";
-            String filename = "categories_" + LocalDate.now() + "." + extension;
-
-            ByteArrayResource resource = new ByteArrayResource(output.toByteArray());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
-                    .body(resource);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
-        }
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
+        List<CategoryResponse> categories = categoryService.getAllCategories();
+
+        return ResponseEntity.ok()
+                .headers(ExportSupport.attachment("categories", exportFormat))
+                .body(out -> genericExportService.write(categories.stream(), CategoryResponse.class,
+                        exportFormat, "Kategoriyalar Hisoboti", out));
     }
 
     @GetMapping("/tree")
@@ -4,17 +4,14 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.request.CustomerRequest;
 import uz.shinamagazin.api.dto.request.CustomerSetPinRequest;
 import uz.shinamagazin.api.dto.response.ApiResponse;
@@ -27,8 +24,6 @@ import uz.shinamagazin.api.service.CustomerService;
 import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.GenericExportService;
 
-import java.io.ByteArrayOutputStream;
-import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -39,7 +34,6 @@ public class CustomerController {
 
     private final CustomerService customerService;
     private final CustomerAuthService customerAuthService;
-    private final GenericExportService genericExportService;
 
     @GetMapping
     @RequiresPermission(PermissionCode.CUSTOMERS_VIEW)
@@ -130,43 +124,13 @@ public class CustomerController {
     @GetMapping("/export")
     @Operation(summary = "Export customers", description = "Mijozlarni eksport qilish")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
-    public ResponseEntity<Resource> exportCustomers(
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
             @RequestParam(required = false) String search,
-            @RequestParam(defaultValue = "excel") String format,
-            @RequestParam(defaultValue = "10000") int maxRecords
+            @RequestParam(defaultValue = "excel") String format
     ) {
-        // Chegara tekshiruvi try'dan TASHQARIDA: pastdagi catch (Exception) uni
-        // RuntimeException'ga o'rab, 400 o'rniga 500 qaytarardi.
-        Pageable pageable = ExportSupport.pageable(maxRecords);
-        try {
-            Page<CustomerResponse> page = search != null && !search.isEmpty()
-                    ? customerService.searchCustomers(search, pageable)
-                    : customerService.getAllCustomers(pageable);
-
-            ByteArrayOutputStream output = genericExportService.export(
-                    page.getContent(),
-                    CustomerResponse.class,
-                    GenericExportService.ExportFormat.valueOf(format.toUpperCase()),
-                    "Mijozlar Hisoboti"
-            );
-
-            String extension = format.equalsIgnoreCase("excel") ? "xlsx" : "pdf";
-            String contentType = format.equalsIgnoreCase("excel")
-                    ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-                    : "application/pdf";
-            String filename = "customers_" + LocalDate.now() + "." + extension;
-
-            ByteArrayResource resource = new ByteArrayResource(output.toByteArray());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
-                    .headers(ExportSupport.truncationHeaders(page, "mijozlar"))
-                    .body(resource);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
-        }
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
+        return ResponseEntity.ok()
+                .headers(ExportSupport.attachment("customers", exportFormat))
+                .body(out -> customerService.exportCustomers(search, exportFormat, out));
     }
 }
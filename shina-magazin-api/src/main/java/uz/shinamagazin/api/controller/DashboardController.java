@@ -7,10 +7,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import uz.shinamagazin.api.dto.response.ApiResponse;
 import uz.shinamagazin.api.dto.response.ChartDataResponse;
+import uz.shinamagazin.api.dto.response.DashboardSnapshotResponse;
 import uz.shinamagazin.api.dto.response.DashboardStatsResponse;
 import uz.shinamagazin.api.enums.PermissionCode;
 import uz.shinamagazin.api.security.RequiresPermission;
 import uz.shinamagazin.api.service.DashboardService;
+import uz.shinamagazin.api.service.DashboardSnapshotService;
 
 @RestController
 @RequestMapping("/v1/dashboard")
@@ -19,12 +21,24 @@ import uz.shinamagazin.api.service.DashboardService;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardSnapshotService dashboardSnapshotService;
+
+    // /stats va standart /charts markaziy nusxadan beriladi — WebSocket'ga
+    // ulanib bo'lmagan klient ham bazaga alohida yuk bermaydi.
+
+    @GetMapping("/snapshot")
+    @Operation(summary = "Get dashboard snapshot",
+            description = "Dashboardning markaziy nusxasi (WebSocket /topic/dashboard bilan bir xil)")
+    @RequiresPermission(PermissionCode.DASHBOARD_VIEW)
+    public ResponseEntity<ApiResponse<DashboardSnapshotResponse>> getSnapshot() {
+        return ResponseEntity.ok(ApiResponse.success(dashboardSnapshotService.getSnapshot()));
+    }
 
     @GetMapping("/stats")
     @Operation(summary = "Get dashboard stats", description = "Dashboard statistikasi")
     @RequiresPermission(PermissionCode.DASHBOARD_VIEW)
     public ResponseEntity<ApiResponse<DashboardStatsResponse>> getStats() {
-        return ResponseEntity.ok(ApiResponse.success(dashboardService.getStats()));
+        return ResponseEntity.ok(ApiResponse.success(dashboardSnapshotService.getSnapshot().getStats()));
     }
 
     @GetMapping("/charts")
@@ -32,6 +46,9 @@ public class DashboardController {
     @RequiresPermission(PermissionCode.DASHBOARD_VIEW)
     public ResponseEntity<ApiResponse<ChartDataResponse>> getChartData(
             @RequestParam(defaultValue = "30") int days) {
+        if (days == dashboardSnapshotService.getChartDays()) {
+            return ResponseEntity.ok(ApiResponse.success(dashboardSnapshotService.getSnapshot().getCharts()));
+        }
         return ResponseEntity.ok(ApiResponse.success(dashboardService.getChartData(days)));
     }
 }
@@ -7,12 +7,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.request.DebtPaymentRequest;
 import uz.shinamagazin.api.dto.response.ApiResponse;
 import uz.shinamagazin.api.dto.response.DebtResponse;
@@ -25,9 +22,7 @@ import uz.shinamagazin.api.service.DebtService;
 import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.GenericExportService;
 
-import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -53,41 +48,19 @@ public class DebtController {
     @GetMapping("/export")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
     @Operation(summary = "Export debts", description = "Qarzlarni eksport qilish")
-    public ResponseEntity<Resource> exportDebts(
+    public ResponseEntity<StreamingResponseBody> exportDebts(
             @RequestParam(required = false) DebtStatus status,
             @RequestParam(defaultValue = "excel") String format,
             @RequestParam(defaultValue = "10000") int maxRecords) {
-        // Chegara tekshiruvi try'dan TASHQARIDA: pastdagi catch (Exception) uni
-        // RuntimeException'ga o'rab, 400 o'rniga 500 qaytarardi.
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
         Pageable pageable = ExportSupport.pageable(maxRecords);
-        try {
-            Page<DebtResponse> page = debtService.getAllDebts(status, pageable);
-
-            ByteArrayOutputStream output = genericExportService.export(
-                    page.getContent(),
-                    DebtResponse.class,
-                    GenericExportService.ExportFormat.valueOf(format.toUpperCase()),
-                    "Qarzlar Hisoboti"
-            );
-
-            String extension = format.equalsIgnoreCase("excel") ? "xlsx" : "pdf";
-            String contentType = format.equalsIgnoreCase("excel")
-                    ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-                    : "application/pdf";
-            String filename = "debts_" + LocalDate.now() + "." + extension;
-
-            ByteArrayResource resource = new ByteArrayResource(output.toByteArray());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
-                    .headers(ExportSupport.truncationHeaders(page, "qarzlar"))
-                    .body(resource);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
-        }
+        Page<DebtResponse> page = debtService.getAllDebts(status, pageable);
+
+        return ResponseEntity.ok()
+                .headers(ExportSupport.attachment("debts", exportFormat))
+                .headers(ExportSupport.truncationHeaders(page, "qarzlar"))
+                .body(out -> genericExportService.write(page.getContent().stream(), DebtResponse.class,
+                        exportFormat, "Qarzlar Hisoboti", out));
     }
 
     @GetMapping("/active")
@@ -4,17 +4,14 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.request.ChangeRoleRequest;
 import uz.shinamagazin.api.dto.request.EmployeeRequest;
 import uz.shinamagazin.api.dto.response.ApiResponse;
@@ -28,8 +25,6 @@ import uz.shinamagazin.api.service.EmployeeService;
 import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.GenericExportService;
 
-import java.io.ByteArrayOutputStream;
-import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -142,43 +137,21 @@ public class EmployeeController {
     @GetMapping("/export")
     @Operation(summary = "Export employees", description = "Xodimlarni eksport qilish")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
-    public ResponseEntity<Resource> exportEmployees(
+    public ResponseEntity<StreamingResponseBody> exportEmployees(
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "excel") String format,
             @RequestParam(defaultValue = "10000") int maxRecords
     ) {
-        // Chegara tekshiruvi try'dan TASHQARIDA: pastdagi catch (Exception) uni
-        // RuntimeException'ga o'rab, 400 o'rniga 500 qaytarardi.
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
         Pageable pageable = ExportSupport.pageable(maxRecords);
-        try {
-            Page<EmployeeResponse> page = search != null && !search.isEmpty()
-                    ? employeeService.searchEmployees(search, pageable)
-                    : employeeService.getAllEmployees(pageable);
-
-            ByteArrayOutputStream output = genericExportService.export(
-                    page.getContent(),
-                    EmployeeResponse.class,
-                    GenericExportService.ExportFormat.valueOf(format.toUpperCase()),
-                    "Xodimlar Hisoboti"
-            );
-
-            String extension = format.equalsIgnoreCase("excel") ? "xlsx" : "pdf";
-            String contentType = format.equalsIgnoreCase("excel")
-                    ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-                    : "application/pdf";
-            String filename = "employees_" + LocalDate.now() + "." + extension;
-
-            ByteArrayResource resource = new ByteArrayResource(output.toByteArray());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
-                    .headers(ExportSupport.truncationHeaders(page, "xodimlar"))
-                    .body(resource);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
-        }
+        Page<EmployeeResponse> page = search != null && !search.isEmpty()
+                ? employeeService.searchEmployees(search, pageable)
+                : employeeService.getAllEmployees(pageable);
+
+        return ResponseEntity.ok()
+                .headers(ExportSupport.attachment("employees", exportFormat))
+                .headers(ExportSupport.truncationHeaders(page, "xodimlar"))
+                .body(out -> genericExportService.write(page.getContent().stream(), EmployeeResponse.class,
+                        exportFormat, "Xodimlar Hisoboti", out));
     }
 }
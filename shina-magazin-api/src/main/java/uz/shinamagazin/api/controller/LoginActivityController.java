@@ -3,8 +3,6 @@ package uz.shinamagazin.api.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,16 +13,18 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.response.ApiResponse;
 import uz.shinamagazin.api.dto.response.LoginAttemptResponse;
 import uz.shinamagazin.api.entity.LoginAttempt;
+import uz.shinamagazin.api.exception.BadRequestException;
 import uz.shinamagazin.api.enums.PermissionCode;
 import uz.shinamagazin.api.security.CustomUserDetails;
 import uz.shinamagazin.api.security.RequiresPermission;
 import uz.shinamagazin.api.service.LoginAttemptService;
-import uz.shinamagazin.api.service.export.ExcelExportService;
 import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.PdfExportService;
+import uz.shinamagazin.api.service.export.SecurityLogExportService;
 
 import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
@@ -38,7 +38,7 @@ import java.util.List;
 public class LoginActivityController {
 
     private final LoginAttemptService loginAttemptService;
-    private final ExcelExportService excelExportService;
+    private final SecurityLogExportService securityLogExportService;
     private final PdfExportService pdfExportService;
 
     @GetMapping
@@ -88,9 +88,10 @@ public class LoginActivityController {
     }
 
     @GetMapping("/export")
-    @Operation(summary = "Export login activity", description = "Kirish tarixini Excel yoki PDF formatida eksport qilish")
+    @Operation(summary = "Export login activity", description = "Kirish tarixini Excel yoki PDF formatida eksport qilish. "
+            + "Excel oqim bilan, qatorlar soni cheklanmaydi; maxRecords faqat PDF uchun.")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
-    public ResponseEntity<Resource> exportLoginActivity(
+    public ResponseEntity<StreamingResponseBody> exportLoginActivity(
             @RequestParam(required = false) String username,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String ipAddress,
@@ -99,14 +100,29 @@ public class LoginActivityController {
             @RequestParam(defaultValue = "excel") String format,
             @RequestParam(defaultValue = "10000") int maxRecords
     ) {
+        // Javob boshlanishidan oldin: oqim ichidagi xato 400 bo'lib qaytmaydi
+        LoginAttempt.LoginStatus loginStatus;
+        try {
+            loginStatus = status != null ? LoginAttempt.LoginStatus.valueOf(status.toUpperCase()) : null;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Noto'g'ri holat: " + status);
+        }
+
+        if (!"pdf".equalsIgnoreCase(format)) {
+            // Kursordan to'g'ridan-to'g'ri javobga: fayl heap'da yig'ilmaydi
+            String filename = "login_activity_" + LocalDate.now() + ".xlsx";
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .contentType(MediaType.parseMediaType(
+                            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                    .body(out -> securityLogExportService.writeLoginActivity(
+                            username, loginStatus, ipAddress, fromDate, toDate, "Kirish Tarixi Hisoboti", out));
+        }
+
         // Chegara tekshiruvi try'dan TASHQARIDA: pastdagi catch (Exception) uni
         // RuntimeException'ga o'rab, 400 o'rniga 500 qaytarardi.
         Pageable pageable = ExportSupport.pageable(maxRecords, Sort.by(Sort.Direction.DESC, "createdAt"));
         try {
-            LoginAttempt.LoginStatus loginStatus = status != null
-                    ? LoginAttempt.LoginStatus.valueOf(status.toUpperCase())
-                    : null;
-
             Page<LoginAttempt> attemptsPage = loginAttemptService.getLoginHistory(
                     username, loginStatus, ipAddress, fromDate, toDate, pageable
             );
@@ -116,28 +132,15 @@ public class LoginActivityController {
                     .map(LoginAttemptResponse::from)
                     .toList();
 
-            ByteArrayOutputStream outputStream;
-            String contentType;
-            String filename;
-
-            if ("pdf".equalsIgnoreCase(format)) {
-                outputStream = pdfExportService.exportLoginActivity(attempts, "Kirish Tarixi Hisoboti");
-                contentType = "application/pdf";
-                filename = "login_activity_" + LocalDate.now() + ".pdf";
-            } else {
-                outputStream = excelExportService.exportLoginActivity(attempts, "Kirish Tarixi Hisoboti");
-                contentType = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
-                filename = "login_activity_" + LocalDate.now() + ".xlsx";
-            }
-
-            ByteArrayResource resource = new ByteArrayResource(outputStream.toByteArray());
+            ByteArrayOutputStream outputStream = pdfExportService.exportLoginActivity(attempts, "Kirish Tarixi Hisoboti");
+            String filename = "login_activity_" + LocalDate.now() + ".pdf";
 
             return ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .contentLength(outputStream.size())
                     .headers(ExportSupport.truncationHeaders(attemptsPage, "kirish tarixi"))
-                    .body(resource);
+                    .body(outputStream::writeTo);
         } catch (Exception e) {
             throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
         }
@@ -14,23 +14,30 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.request.ProductRequest;
 import uz.shinamagazin.api.dto.response.ApiResponse;
+import uz.shinamagazin.api.dto.response.CursorResponse;
 import uz.shinamagazin.api.dto.response.PagedResponse;
 import uz.shinamagazin.api.dto.response.ProductImportResult;
 import uz.shinamagazin.api.dto.response.ProductResponse;
+import uz.shinamagazin.api.dto.response.ProductSuggestion;
+import uz.shinamagazin.api.dto.response.ReportJobResponse;
 import uz.shinamagazin.api.enums.PermissionCode;
 import uz.shinamagazin.api.enums.Season;
+import uz.shinamagazin.api.repository.keyset.KeysetRequest;
+import uz.shinamagazin.api.security.CustomUserDetails;
 import uz.shinamagazin.api.security.RequiresPermission;
 import uz.shinamagazin.api.service.ProductImportService;
 import uz.shinamagazin.api.service.ProductService;
 import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.GenericExportService;
+import uz.shinamagazin.api.service.job.ReportJobService;
 import uz.shinamagazin.api.service.storage.StorageService;
 
-import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +52,7 @@ public class ProductController {
     private final ProductImportService productImportService;
     private final GenericExportService genericExportService;
     private final StorageService storageService;
+    private final ReportJobService reportJobService;
 
     @GetMapping
     @Operation(summary = "Get all products", description = "Barcha mahsulotlarni olish")
@@ -63,6 +71,33 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(PagedResponse.from(products)));
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get products (cursor)", description = "Mahsulotlar — keyset sahifalash. " +
+            "Keyingi sahifa: ?cursor=<nextCursor>. sort: name|sku|sellingPrice|createdAt|id,asc|desc")
+    @RequiresPermission(PermissionCode.PRODUCTS_VIEW)
+    public ResponseEntity<ApiResponse<CursorResponse<ProductResponse>>> scrollProducts(
+            @RequestParam(required = false) Long brandId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Season season,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        KeysetRequest request = KeysetRequest.of(cursor, size, sort, "id,desc", withTotal);
+        return ResponseEntity.ok(ApiResponse.success(CursorResponse.from(
+                productService.scrollProducts(brandId, categoryId, season, search, request))));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Product suggestions", description = "Kassa qidiruv maydoni uchun takliflar (typeahead)")
+    @RequiresPermission(PermissionCode.PRODUCTS_VIEW)
+    public ResponseEntity<ApiResponse<List<ProductSuggestion>>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(productService.suggest(q, limit)));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID", description = "ID bo'yicha mahsulotni olish")
     @RequiresPermission(PermissionCode.PRODUCTS_VIEW)
@@ -165,7 +200,7 @@ public class ProductController {
     @GetMapping("/export")
     @Operation(summary = "Export products", description = "Mahsulotlarni eksport qilish")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
-    public ResponseEntity<Resource> exportProducts(
+    public ResponseEntity<StreamingResponseBody> exportProducts(
             @RequestParam(required = false) Long brandId,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) Season season,
@@ -173,40 +208,55 @@ public class ProductController {
             @RequestParam(defaultValue = "excel") String format,
             @RequestParam(defaultValue = "10000") int maxRecords
     ) {
-        // Chegara tekshiruvi try'dan TASHQARIDA: pastdagi catch (Exception) uni
-        // RuntimeException'ga o'rab, 400 o'rniga 500 qaytarardi.
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
+        Pageable pageable = ExportSupport.pageable(maxRecords);
+        // Reuse existing filter logic
+        Page<ProductResponse> page = productService.getProductsWithFilters(
+                brandId, categoryId, season, search, pageable);
+
+        // Generic export
+        return ResponseEntity.ok()
+                .headers(ExportSupport.attachment("products", exportFormat))
+                .headers(ExportSupport.truncationHeaders(page, "mahsulotlar"))
+                .body(out -> genericExportService.write(page.getContent().stream(), ProductResponse.class,
+                        exportFormat, "Mahsulotlar Hisoboti", out));
+    }
+
+    /**
+     * Mahsulotlar eksporti — fonda. Parametrlar {@link #exportProducts} bilan
+     * bir xil; natija {@code /v1/report-jobs/{id}/download} dan olinadi.
+     */
+    @PostMapping("/export/jobs")
+    @Operation(summary = "Queue products export", description = "Mahsulotlar eksportini fonda tayyorlash")
+    @RequiresPermission(PermissionCode.REPORTS_EXPORT)
+    public ResponseEntity<ApiResponse<ReportJobResponse>> submitProductsExport(
+            @RequestParam(required = false) Long brandId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Season season,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "excel") String format,
+            @RequestParam(defaultValue = "10000") int maxRecords,
+            @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
         Pageable pageable = ExportSupport.pageable(maxRecords);
-        try {
-            // Reuse existing filter logic
-            Page<ProductResponse> page = productService.getProductsWithFilters(
-                    brandId, categoryId, season, search, pageable);
-
-            // Generic export
-            ByteArrayOutputStream output = genericExportService.export(
-                    page.getContent(),
-                    ProductResponse.class,
-                    GenericExportService.ExportFormat.valueOf(format.toUpperCase()),
-                    "Mahsulotlar Hisoboti"
-            );
-
-            // Build response
-            String extension = format.equalsIgnoreCase("excel") ? "xlsx" : "pdf";
-            String contentType = format.equalsIgnoreCase("excel")
-                    ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-                    : "application/pdf";
-            String filename = "products_" + LocalDate.now() + "." + extension;
-
-            ByteArrayResource resource = new ByteArrayResource(output.toByteArray());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
-                    .headers(ExportSupport.truncationHeaders(page, "mahsulotlar"))
-                    .body(resource);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
-        }
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
+        boolean excel = exportFormat == GenericExportService.ExportFormat.EXCEL;
+        String fileName = "products_" + LocalDate.now() + (excel ? ".xlsx" : ".pdf");
+        String contentType = excel
+                ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                : "application/pdf";
+        String key = String.join(":", "export:products", String.valueOf(brandId), String.valueOf(categoryId),
+                String.valueOf(season), String.valueOf(search), exportFormat.name(), String.valueOf(maxRecords));
+
+        ReportJobResponse job = reportJobService.submit(userDetails.getId(), "products-export", key,
+                fileName, contentType, (progress, out) -> {
+                    progress.update(5, "Mahsulotlar o'qilmoqda");
+                    Page<ProductResponse> page = productService.getProductsWithFilters(
+                            brandId, categoryId, season, search, pageable);
+                    progress.update(40, "Fayl tuzilmoqda");
+                    genericExportService.write(page.getContent().stream(), ProductResponse.class,
+                            exportFormat, "Mahsulotlar Hisoboti", out);
+                });
+        return ResponseEntity.accepted().body(ApiResponse.success(job));
     }
 }
@@ -8,13 +8,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.request.PaymentRequest;
 import uz.shinamagazin.api.dto.request.PurchaseRequest;
 import uz.shinamagazin.api.dto.request.ReturnRequest;
@@ -27,7 +24,6 @@ import uz.shinamagazin.api.service.PurchaseService;
 import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.GenericExportService;
 
-import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -83,45 +79,23 @@ public class PurchaseController {
     @GetMapping("/export")
     @Operation(summary = "Export purchases", description = "Xaridlarni eksport qilish")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
-    public ResponseEntity<Resource> exportPurchases(
+    public ResponseEntity<StreamingResponseBody> exportPurchases(
             @RequestParam(required = false) Long supplierId,
             @RequestParam(required = false) PurchaseOrderStatus status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(defaultValue = "excel") String format,
             @RequestParam(defaultValue = "10000") int maxRecords) {
-        // Chegara tekshiruvi try'dan TASHQARIDA: pastdagi catch (Exception) uni
-        // RuntimeException'ga o'rab, 400 o'rniga 500 qaytarardi.
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
         Pageable pageable = ExportSupport.pageable(maxRecords);
-        try {
-            Page<PurchaseOrderResponse> page = purchaseService.getAllPurchases(
-                    supplierId, status, startDate, endDate, pageable);
-
-            ByteArrayOutputStream output = genericExportService.export(
-                    page.getContent(),
-                    PurchaseOrderResponse.class,
-                    GenericExportService.ExportFormat.valueOf(format.toUpperCase()),
-                    "Xarid Buyurtmalari Hisoboti"
-            );
-
-            String extension = format.equalsIgnoreCase("excel") ? "xlsx" : "pdf";
-            String contentType = format.equalsIgnoreCase("excel")
-                    ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-                    : "application/pdf";
-            String filename = "purchases_" + LocalDate.now() + "." + extension;
-
-            ByteArrayResource resource = new ByteArrayResource(output.toByteArray());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
-                    .headers(ExportSupport.truncationHeaders(page, "xaridlar"))
-                    .body(resource);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
-        }
+        Page<PurchaseOrderResponse> page = purchaseService.getAllPurchases(
+                supplierId, status, startDate, endDate, pageable);
+
+        return ResponseEntity.ok()
+                .headers(ExportSupport.attachment("purchases", exportFormat))
+                .headers(ExportSupport.truncationHeaders(page, "xaridlar"))
+                .body(out -> genericExportService.write(page.getContent().stream(), PurchaseOrderResponse.class,
+                        exportFormat, "Xarid Buyurtmalari Hisoboti", out));
     }
 
     @PostMapping
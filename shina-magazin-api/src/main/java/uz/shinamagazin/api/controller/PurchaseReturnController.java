@@ -6,12 +6,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.response.ApiResponse;
 import uz.shinamagazin.api.dto.response.PagedResponse;
 import uz.shinamagazin.api.dto.response.PurchaseReturnResponse;
@@ -22,8 +19,6 @@ import uz.shinamagazin.api.service.PurchaseService;
 import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.GenericExportService;
 
-import java.io.ByteArrayOutputStream;
-import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/v1/purchase-returns")
@@ -47,41 +42,19 @@ public class PurchaseReturnController {
     @GetMapping("/export")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
     @Operation(summary = "Export purchase returns", description = "Xarid qaytarishlarni eksport qilish")
-    public ResponseEntity<Resource> exportPurchaseReturns(
+    public ResponseEntity<StreamingResponseBody> exportPurchaseReturns(
             @RequestParam(required = false) PurchaseReturnStatus status,
             @RequestParam(defaultValue = "excel") String format,
             @RequestParam(defaultValue = "10000") int maxRecords) {
-        // Chegara tekshiruvi try'dan TASHQARIDA: pastdagi catch (Exception) uni
-        // RuntimeException'ga o'rab, 400 o'rniga 500 qaytarardi.
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
         Pageable pageable = ExportSupport.pageable(maxRecords);
-        try {
-            Page<PurchaseReturnResponse> page = purchaseService.getAllReturns(status, pageable);
+        Page<PurchaseReturnResponse> page = purchaseService.getAllReturns(status, pageable);
 
-            ByteArrayOutputStream output = genericExportService.export(
-                    page.getContent(),
-                    PurchaseReturnResponse.class,
-                    GenericExportService.ExportFormat.valueOf(format.toUpperCase()),
-                    "Xarid Qaytarishlari Hisoboti"
-            );
-
-            String extension = format.equalsIgnoreCase("excel") ? "xlsx" : "pdf";
-            String contentType = format.equalsIgnoreCase("excel")
-                    ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-                    : "application/pdf";
-            String filename = "purchase_returns_" + LocalDate.now() + "." + extension;
-
-            ByteArrayResource resource = new ByteArrayResource(output.toByteArray());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
-                    .headers(ExportSupport.truncationHeaders(page, "xarid qaytarishlari"))
-                    .body(resource);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
-        }
+        return ResponseEntity.ok()
+                .headers(ExportSupport.attachment("purchase_returns", exportFormat))
+                .headers(ExportSupport.truncationHeaders(page, "xarid qaytarishlari"))
+                .body(out -> genericExportService.write(page.getContent().stream(), PurchaseReturnResponse.class,
+                        exportFormat, "Xarid Qaytarishlari Hisoboti", out));
     }
 
     @GetMapping("/{id}")
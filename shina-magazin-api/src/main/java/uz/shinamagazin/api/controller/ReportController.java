@@ -1,21 +1,29 @@
 package uz.shinamagazin.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import uz.shinamagazin.api.dto.response.ApiResponse;
 import uz.shinamagazin.api.dto.response.DebtsReportResponse;
 import uz.shinamagazin.api.dto.response.ProfitLossResponse;
+import uz.shinamagazin.api.dto.response.ReportJobResponse;
 import uz.shinamagazin.api.dto.response.SalesReportResponse;
 import uz.shinamagazin.api.dto.response.WarehouseReportResponse;
 import uz.shinamagazin.api.enums.PermissionCode;
+import uz.shinamagazin.api.exception.BadRequestException;
+import uz.shinamagazin.api.security.CustomUserDetails;
 import uz.shinamagazin.api.security.RequiresPermission;
 import uz.shinamagazin.api.service.ReportService;
+import uz.shinamagazin.api.service.job.ReportJobService;
 
 import java.time.LocalDate;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/v1/reports")
@@ -24,6 +32,8 @@ import java.time.LocalDate;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportJobService reportJobService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/sales")
     @Operation(summary = "Get sales report", description = "Sotuvlar hisoboti")
@@ -67,4 +77,73 @@ public class ReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         return ResponseEntity.ok(ApiResponse.success(reportService.getProfitLoss(startDate, endDate)));
     }
+
+    // ─── Fon vazifalari ───
+    // Katta davr uchun: so'rov darhol vazifa ID sini qaytaradi, hisobot
+    // fonda tayyorlanadi (qarang: ReportJobService). Natija sinxron
+    // endpointdagi bilan bir xil JSON.
+
+    @PostMapping("/sales/jobs")
+    @Operation(summary = "Queue sales report", description = "Sotuvlar hisobotini fonda tayyorlash")
+    @RequiresPermission(PermissionCode.REPORTS_VIEW_SALES)
+    public ResponseEntity<ApiResponse<ReportJobResponse>> submitSalesReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return submit(userDetails, "sales", startDate, endDate,
+                () -> reportService.getSalesReport(startDate, endDate));
+    }
+
+    @PostMapping("/warehouse/jobs")
+    @Operation(summary = "Queue warehouse report", description = "Ombor hisobotini fonda tayyorlash")
+    @RequiresPermission(PermissionCode.REPORTS_VIEW_WAREHOUSE)
+    public ResponseEntity<ApiResponse<ReportJobResponse>> submitWarehouseReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return submit(userDetails, "warehouse", startDate, endDate,
+                () -> reportService.getWarehouseReport(startDate, endDate));
+    }
+
+    @PostMapping("/debts/jobs")
+    @Operation(summary = "Queue debts report", description = "Qarzlar hisobotini fonda tayyorlash")
+    @RequiresPermission(PermissionCode.REPORTS_VIEW_DEBTS)
+    public ResponseEntity<ApiResponse<ReportJobResponse>> submitDebtsReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return submit(userDetails, "debts", startDate, endDate,
+                () -> reportService.getDebtsReport(startDate, endDate));
+    }
+
+    @PostMapping("/profit-loss/jobs")
+    @Operation(summary = "Queue profit & loss", description = "Foyda va zarar hisobotini fonda tayyorlash")
+    @RequiresPermission(PermissionCode.EXPENSES_VIEW)
+    public ResponseEntity<ApiResponse<ReportJobResponse>> submitProfitLoss(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return submit(userDetails, "profit-loss", startDate, endDate,
+                () -> reportService.getProfitLoss(startDate, endDate));
+    }
+
+    private ResponseEntity<ApiResponse<ReportJobResponse>> submit(
+            CustomUserDetails userDetails, String type, LocalDate startDate, LocalDate endDate,
+            Supplier<Object> report) {
+        // Noto'g'ri davr darhol 400 — fonda "xato bilan tugadi" bo'lib qolmasin.
+        if (startDate.isAfter(endDate)) {
+            throw new BadRequestException("Boshlanish sanasi tugash sanasidan keyin bo'lishi mumkin emas");
+        }
+        String key = "report:" + type + ":" + startDate + ":" + endDate;
+        String fileName = type + "-report_" + startDate + "_" + endDate + ".json";
+
+        ReportJobResponse job = reportJobService.submit(userDetails.getId(), type, key,
+                fileName, MediaType.APPLICATION_JSON_VALUE, (progress, out) -> {
+                    progress.update(5, "Ma'lumotlar yig'ilmoqda");
+                    Object result = report.get();
+                    progress.update(90, "Fayl yozilmoqda");
+                    objectMapper.writeValue(out, ApiResponse.success(result));
+                });
+        return ResponseEntity.accepted().body(ApiResponse.success(job));
+    }
 }
@@ -0,0 +1,78 @@
+package uz.shinamagazin.api.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import uz.shinamagazin.api.dto.response.ApiResponse;
+import uz.shinamagazin.api.dto.response.ReportJobResponse;
+import uz.shinamagazin.api.exception.ResourceNotFoundException;
+import uz.shinamagazin.api.security.CustomUserDetails;
+import uz.shinamagazin.api.service.job.ReportJob;
+import uz.shinamagazin.api.service.job.ReportJobService;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Fon hisobot vazifalarining holati va natijasi.
+ *
+ * <p>Vazifalar hisobot/eksport endpointlarida (o'z ruxsati bilan)
+ * yaratiladi; bu yerda faqat o'z vazifalari ko'rinadi — ID principal'dan.
+ */
+@RestController
+@RequestMapping("/v1/report-jobs")
+@RequiredArgsConstructor
+@Tag(name = "Report Jobs", description = "Fon hisobotlari API")
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    @GetMapping
+    @Operation(summary = "My report jobs", description = "Mening fon hisobotlarim")
+    public ResponseEntity<ApiResponse<List<ReportJobResponse>>> getMyJobs(
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return ResponseEntity.ok(ApiResponse.success(reportJobService.getJobs(userDetails.getId())));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Report job status", description = "Fon hisobot holati")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> getJob(
+            @PathVariable String id,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return ResponseEntity.ok(ApiResponse.success(reportJobService.getJob(id, userDetails.getId())));
+    }
+
+    /**
+     * Natijani yuklab olish.
+     *
+     * <p>{@code Resource} qaytariladi — Spring MVC {@code Range} sarlavhasini
+     * o'zi qayta ishlaydi ({@code 206 Partial Content}, {@code Accept-Ranges}),
+     * ya'ni uzilgan yuklash to'xtagan joyidan davom etadi.
+     */
+    @GetMapping("/{id}/download")
+    @Operation(summary = "Download report job result", description = "Fon hisobot natijasini yuklab olish")
+    public ResponseEntity<Resource> download(
+            @PathVariable String id,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        ReportJob job = reportJobService.getResult(id, userDetails.getId());
+        if (job.getFile() == null || !Files.isRegularFile(job.getFile())) {
+            throw new ResourceNotFoundException("Hisobot fayli", "id", id);
+        }
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(job.getFileName(), StandardCharsets.UTF_8)
+                        .build().toString())
+                .contentType(MediaType.parseMediaType(job.getContentType()))
+                .body(new FileSystemResource(job.getFile()));
+    }
+}
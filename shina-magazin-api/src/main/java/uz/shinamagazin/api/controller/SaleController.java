@@ -8,21 +8,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.request.CreateSaleReturnRequest;
 import uz.shinamagazin.api.dto.request.SaleRequest;
 import uz.shinamagazin.api.dto.response.ApiResponse;
+import uz.shinamagazin.api.dto.response.CursorResponse;
 import uz.shinamagazin.api.dto.response.PagedResponse;
 import uz.shinamagazin.api.dto.response.SaleReturnResponse;
 import uz.shinamagazin.api.dto.response.SaleResponse;
 import uz.shinamagazin.api.enums.PermissionCode;
+import uz.shinamagazin.api.repository.keyset.KeysetRequest;
 import uz.shinamagazin.api.security.CustomUserDetails;
 import uz.shinamagazin.api.security.RequiresPermission;
 import uz.shinamagazin.api.service.SaleReturnService;
@@ -30,7 +29,6 @@ import uz.shinamagazin.api.service.SaleService;
 import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.GenericExportService;
 
-import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -55,6 +53,22 @@ public class SaleController {
         return ResponseEntity.ok(ApiResponse.success(PagedResponse.from(sales)));
     }
 
+    @GetMapping("/scroll")
+    @RequiresPermission(PermissionCode.SALES_VIEW)
+    @Operation(summary = "Get sales (cursor)", description = "Sotuvlar — keyset sahifalash. " +
+            "Keyingi sahifa: ?cursor=<nextCursor>. sort: saleDate|totalAmount|id,asc|desc")
+    public ResponseEntity<ApiResponse<CursorResponse<SaleResponse>>> scrollSales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        KeysetRequest request = KeysetRequest.of(cursor, size, sort, "saleDate,desc", withTotal);
+        return ResponseEntity.ok(ApiResponse.success(CursorResponse.from(
+                saleService.scrollSales(startDate, endDate, request))));
+    }
+
     @GetMapping("/{id}")
     @RequiresPermission(PermissionCode.SALES_VIEW)
     @Operation(summary = "Get sale by ID", description = "ID bo'yicha sotuvni olish")
@@ -72,42 +86,20 @@ public class SaleController {
     @GetMapping("/export")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
     @Operation(summary = "Export sales", description = "Sotuvlarni eksport qilish")
-    public ResponseEntity<Resource> exportSales(
+    public ResponseEntity<StreamingResponseBody> exportSales(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(defaultValue = "excel") String format,
             @RequestParam(defaultValue = "10000") int maxRecords) {
-        // Chegara tekshiruvi try'dan TASHQARIDA: pastdagi catch (Exception) uni
-        // RuntimeException'ga o'rab, 400 o'rniga 500 qaytarardi.
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
         Pageable pageable = ExportSupport.pageable(maxRecords);
-        try {
-            Page<SaleResponse> page = saleService.getAllSales(startDate, endDate, pageable);
-
-            ByteArrayOutputStream output = genericExportService.export(
-                    page.getContent(),
-                    SaleResponse.class,
-                    GenericExportService.ExportFormat.valueOf(format.toUpperCase()),
-                    "Sotuvlar Hisoboti"
-            );
-
-            String extension = format.equalsIgnoreCase("excel") ? "xlsx" : "pdf";
-            String contentType = format.equalsIgnoreCase("excel")
-                    ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-                    : "application/pdf";
-            String filename = "sales_" + LocalDate.now() + "." + extension;
-
-            ByteArrayResource resource = new ByteArrayResource(output.toByteArray());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
-                    .headers(ExportSupport.truncationHeaders(page, "sotuvlar"))
-                    .body(resource);
+        Page<SaleResponse> page = saleService.getAllSales(startDate, endDate, pageable);
 
-        } catch (Exception e) {
-            throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
-        }
+        return ResponseEntity.ok()
+                .headers(ExportSupport.attachment("sales", exportFormat))
+                .headers(ExportSupport.truncationHeaders(page, "sotuvlar"))
+                .body(out -> genericExportService.write(page.getContent().stream(), SaleResponse.class,
+                        exportFormat, "Sotuvlar Hisoboti", out));
     }
 
     @PostMapping
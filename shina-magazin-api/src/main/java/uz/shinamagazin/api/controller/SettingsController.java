@@ -4,8 +4,6 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -17,8 +15,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.request.SettingsUpdateRequest;
 import uz.shinamagazin.api.dto.response.ApiResponse;
 import uz.shinamagazin.api.dto.response.DemoDataStatusResponse;
@@ -27,11 +24,10 @@ import uz.shinamagazin.api.dto.response.SettingsResponse;
 import uz.shinamagazin.api.service.DemoDataService;
 import uz.shinamagazin.api.service.SettingsService;
 import uz.shinamagazin.api.service.TelegramNotifier;
+import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.GenericExportService;
 
-import java.io.ByteArrayOutputStream;
-import java.time.LocalDate;
-import java.util.Collections;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/v1/settings")
@@ -84,35 +80,15 @@ public class SettingsController {
     @GetMapping("/export")
     @PreAuthorize("hasAuthority('PERM_REPORTS_EXPORT')")
     @Operation(summary = "Export settings", description = "Tizim sozlamalarini eksport qilish")
-    public ResponseEntity<Resource> exportSettings(
+    public ResponseEntity<StreamingResponseBody> exportSettings(
             @RequestParam(defaultValue = "excel") String format) {
-        try {
-            SettingsResponse settings = settingsService.getSettings();
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
+        SettingsResponse settings = settingsService.getSettings();
 
-            ByteArrayOutputStream output = genericExportService.export(
-                    Collections.singletonList(settings),
-                    SettingsResponse.class,
-                    GenericExportService.ExportFormat.valueOf(format.toUpperCase()),
-                    "Sozlamalar Hisoboti"
-            );
-
-            String extension = format.equalsIgnoreCase("excel") ? "xlsx" : "pdf";
-            String contentType = format.equalsIgnoreCase("excel")
-                    ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-                    : "application/pdf";
-            String filename = "settings_" + LocalDate.now() + "." + extension;
-
-            ByteArrayResource resource = new ByteArrayResource(output.toByteArray());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
-                    .body(resource);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
-        }
+        return ResponseEntity.ok()
+                .headers(ExportSupport.attachment("settings", exportFormat))
+                .body(out -> genericExportService.write(Stream.of(settings), SettingsResponse.class,
+                        exportFormat, "Sozlamalar Hisoboti", out));
     }
 
     @PutMapping
@@ -4,69 +4,108 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
-import uz.shinamagazin.api.dto.response.CatalogProductResponse;
-import uz.shinamagazin.api.service.CatalogService;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import uz.shinamagazin.api.exception.ResourceNotFoundException;
+import uz.shinamagazin.api.service.catalog.CatalogVersion;
+import uz.shinamagazin.api.service.seo.ProductSeoPages;
+import uz.shinamagazin.api.service.seo.SitemapWriter;
+
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Storefront link-preview / SEO uchun server-tomon meta HTML (CRAWLER-ONLY).
+ * Storefront link-preview / SEO uchun server-tomon meta HTML (CRAWLER-ONLY) va sitemap.
  *
  * nginx link-preview bot User-Agent'ini `/mahsulot/{id}` dan shu endpointga
  * yo'naltiradi; oddiy foydalanuvchi SPA (index.html) ni oladi (tez, o'zgarishsiz).
  * Crawler faqat <head>dagi og/twitter meta'ni o'qiydi — shuning uchun body minimal.
  * og:image = mahsulotning haqiqiy rasmi (rasm yo'q bo'lsa umumiy og-cover).
+ * Meta HTML oldindan yig'ilgan ({@link ProductSeoPages}) — bot so'rovi bazaga tegmaydi;
+ * javob katalog o'zgarmaguncha keshdan ham beriladi ({@link uz.shinamagazin.api.config.CatalogHttpCacheFilter}).
+ *
+ * Sitemap (`/sitemap.xml` -> nginx -> `/api/v1/seo/sitemap.xml`) bazadan kursor bilan
+ * to'g'ridan-to'g'ri javobga yoziladi; ETag katalog versiyasidan, gzip Accept-Encoding bo'yicha.
  */
 @RestController
 @RequiredArgsConstructor
 @Tag(name = "Shop SEO", description = "Storefront link-preview meta (crawler)")
 public class ShopSeoController {
 
-    private final CatalogService catalogService;
+    private static final MediaType XML = MediaType.parseMediaType("application/xml;charset=UTF-8");
+
+    private final ProductSeoPages seoPages;
+    private final SitemapWriter sitemapWriter;
+    private final CatalogVersion catalogVersion;
 
     @GetMapping(value = "/v1/seo/products/{id}", produces = "text/html;charset=UTF-8")
     @Operation(summary = "Product link-preview meta (HTML)")
     public ResponseEntity<String> productMeta(@PathVariable Long id, HttpServletRequest req) {
+        return ResponseEntity.ok(seoPages.page(id).render(siteBaseUrl(req)));
+    }
+
+    @GetMapping("/v1/seo/sitemap.xml")
+    @Operation(summary = "Sitemap index")
+    public ResponseEntity<StreamingResponseBody> sitemapIndex(HttpServletRequest req) {
         String base = siteBaseUrl(req);
-        CatalogProductResponse p;
-        try {
-            p = catalogService.getCatalogProduct(id);
-        } catch (RuntimeException ex) {
-            return ResponseEntity.ok(page(
-                    "Mahsulot topilmadi — Protektor",
-                    "Bunday mahsulot mavjud emas yoki sotuvdan olingan.",
-                    base + "/og-cover.jpg",
-                    base + "/mahsulot/" + id));
-        }
+        return sitemap(req, out -> sitemapWriter.writeIndex(out, base));
+    }
+
+    @GetMapping("/v1/seo/sitemap-pages.xml")
+    @Operation(summary = "Sitemap: storefront pages")
+    public ResponseEntity<StreamingResponseBody> sitemapPages(HttpServletRequest req) {
+        String base = siteBaseUrl(req);
+        return sitemap(req, out -> sitemapWriter.writePages(out, base));
+    }
 
-        String title = p.getName() + " — Protektor";
-        String desc = buildDescription(p);
-        String image = absoluteImage(p.getImageUrl(), base);
-        String url = base + "/mahsulot/" + p.getId();
-        return ResponseEntity.ok(page(title, desc, image, url));
+    @GetMapping("/v1/seo/sitemap-products-{part}.xml")
+    @Operation(summary = "Sitemap: products (50 000 per part)")
+    public ResponseEntity<StreamingResponseBody> sitemapProducts(@PathVariable int part, HttpServletRequest req) {
+        // Javob boshlanishidan oldin: oqim ichidan 404 qaytarib bo'lmaydi
+        if (part < 1 || part > sitemapWriter.productParts()) {
+            throw new ResourceNotFoundException("Sitemap", "part", part);
+        }
+        String base = siteBaseUrl(req);
+        return sitemap(req, out -> sitemapWriter.writeProducts(out, base, part));
     }
 
-    /** description bo'lsa o'shani, aks holda brend · o'lcham · narx dan yasaydi. */
-    private String buildDescription(CatalogProductResponse p) {
-        if (p.getDescription() != null && !p.getDescription().isBlank()) {
-            return p.getDescription().trim();
+    /**
+     * Shartli GET (ETag = katalog versiyasi, gzip varianti alohida) va gzip.
+     * Raqam tana yozilishidan OLDIN olinadi — yozish paytida o'zgarish bo'lsa
+     * keyingi so'rov yangi ETag bilan qayta oladi.
+     */
+    private ResponseEntity<StreamingResponseBody> sitemap(HttpServletRequest req, StreamingResponseBody content) {
+        boolean gzip = acceptsGzip(req);
+        String etag = catalogVersion.etag(catalogVersion.current(), gzip ? "gz" : null);
+        if (new ServletWebRequest(req).checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
         }
-        StringBuilder sb = new StringBuilder();
-        appendPart(sb, p.getBrandName());
-        appendPart(sb, p.getSizeString());
-        if (p.getSellingPrice() != null) {
-            appendPart(sb, String.format("%,.0f so'm", p.getSellingPrice().doubleValue()));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(XML)
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePublic())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING, "X-Forwarded-Host");
+        if (!gzip) {
+            return response.body(content);
         }
-        return sb.length() > 0 ? sb.toString() : "Protektor — shinalar onlayn do'koni.";
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+            GZIPOutputStream zipped = new GZIPOutputStream(out, 8 * 1024);
+            content.writeTo(zipped);
+            zipped.finish();
+        });
     }
 
-    private void appendPart(StringBuilder sb, String part) {
-        if (part == null || part.isBlank()) return;
-        if (sb.length() > 0) sb.append(" · ");
-        sb.append(part);
+    private static boolean acceptsGzip(HttpServletRequest req) {
+        String accept = req.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accept != null && accept.toLowerCase().contains("gzip");
     }
 
     /** Reverse-proxy (nginx) orqasidagi asl domen: X-Forwarded-* yoki Host header. */
@@ -76,48 +115,10 @@ public class ShopSeoController {
         return scheme + "://" + host;
     }
 
-    /** imageUrl to'liq URL bo'lsa o'zi; nisbiy bo'lsa domen bilan; yo'q bo'lsa og-cover. */
-    private String absoluteImage(String imageUrl, String base) {
-        if (imageUrl == null || imageUrl.isBlank()) return base + "/og-cover.jpg";
-        if (imageUrl.startsWith("http://") || imageUrl.startsWith("https://")) return imageUrl;
-        return base + (imageUrl.startsWith("/") ? "" : "/") + imageUrl;
-    }
-
     private String firstNonBlank(String... values) {
         for (String v : values) {
             if (v != null && !v.isBlank()) return v;
         }
         return "";
     }
-
-    private String esc(String s) {
-        if (s == null) return "";
-        return s.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;").replace(">", "&gt;");
-    }
-
-    private String page(String title, String desc, String image, String url) {
-        String t = esc(title);
-        String d = esc(desc);
-        String img = esc(image);
-        String u = esc(url);
-        return "<!doctype html><html lang=\"uz\"><head>"
-                + "<meta charset=\"UTF-8\"/>"
-                + "<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\"/>"
-                + "<title>" + t + "</title>"
-                + "<meta name=\"description\" content=\"" + d + "\"/>"
-                + "<meta property=\"og:type\" content=\"product\"/>"
-                + "<meta property=\"og:site_name\" content=\"Protektor\"/>"
-                + "<meta property=\"og:title\" content=\"" + t + "\"/>"
-                + "<meta property=\"og:description\" content=\"" + d + "\"/>"
-                + "<meta property=\"og:image\" content=\"" + img + "\"/>"
-                + "<meta property=\"og:url\" content=\"" + u + "\"/>"
-                + "<meta property=\"og:locale\" content=\"uz\"/>"
-                + "<meta name=\"twitter:card\" content=\"summary_large_image\"/>"
-                + "<meta name=\"twitter:title\" content=\"" + t + "\"/>"
-                + "<meta name=\"twitter:description\" content=\"" + d + "\"/>"
-                + "<meta name=\"twitter:image\" content=\"" + img + "\"/>"
-                + "<link rel=\"canonical\" href=\"" + u + "\"/>"
-                + "</head><body><h1>" + t + "</h1><p>" + d + "</p>"
-                + "<p><a href=\"" + u + "\">Protektor'da ko'rish</a></p></body></html>";
-    }
 }
@@ -4,17 +4,14 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.request.SupplierRequest;
 import uz.shinamagazin.api.dto.response.ApiResponse;
 import uz.shinamagazin.api.dto.response.PagedResponse;
@@ -25,9 +22,7 @@ import uz.shinamagazin.api.service.SupplierService;
 import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.GenericExportService;
 
-import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -37,7 +32,6 @@ import java.util.List;
 public class SupplierController {
 
     private final SupplierService supplierService;
-    private final GenericExportService genericExportService;
 
     @GetMapping
     @Operation(summary = "Get all suppliers", description = "Barcha ta'minotchilarni olish")
@@ -115,43 +109,13 @@ public class SupplierController {
     @GetMapping("/export")
     @Operation(summary = "Export suppliers", description = "Ta'minotchilarni eksport qilish")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
-    public ResponseEntity<Resource> exportSuppliers(
+    public ResponseEntity<StreamingResponseBody> exportSuppliers(
             @RequestParam(required = false) String search,
-            @RequestParam(defaultValue = "excel") String format,
-            @RequestParam(defaultValue = "10000") int maxRecords
+            @RequestParam(defaultValue = "excel") String format
     ) {
-        // Chegara tekshiruvi try'dan TASHQARIDA: pastdagi catch (Exception) uni
-        // RuntimeException'ga o'rab, 400 o'rniga 500 qaytarardi.
-        Pageable pageable = ExportSupport.pageable(maxRecords);
-        try {
-            Page<SupplierResponse> page = search != null && !search.isEmpty()
-                    ? supplierService.searchSuppliers(search, pageable)
-                    : supplierService.getAllSuppliers(pageable);
-
-            ByteArrayOutputStream output = genericExportService.export(
-                    page.getContent(),
-                    SupplierResponse.class,
-                    GenericExportService.ExportFormat.valueOf(format.toUpperCase()),
-                    "Ta'minotchilar Hisoboti"
-            );
-
-            String extension = format.equalsIgnoreCase("excel") ? "xlsx" : "pdf";
-            String contentType = format.equalsIgnoreCase("excel")
-                    ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-                    : "application/pdf";
-            String filename = "suppliers_" + LocalDate.now() + "." + extension;
-
-            ByteArrayResource resource = new ByteArrayResource(output.toByteArray());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
-                    .headers(ExportSupport.truncationHeaders(page, "ta'minotchilar"))
-                    .body(resource);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
-        }
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
+        return ResponseEntity.ok()
+                .headers(ExportSupport.attachment("suppliers", exportFormat))
+                .body(out -> supplierService.exportSuppliers(search, exportFormat, out));
     }
 }
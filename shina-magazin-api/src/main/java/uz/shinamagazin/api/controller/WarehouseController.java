@@ -7,28 +7,25 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uz.shinamagazin.api.dto.request.StockAdjustmentRequest;
 import uz.shinamagazin.api.dto.response.ApiResponse;
+import uz.shinamagazin.api.dto.response.CursorResponse;
 import uz.shinamagazin.api.dto.response.PagedResponse;
 import uz.shinamagazin.api.dto.response.ProductResponse;
 import uz.shinamagazin.api.dto.response.StockMovementResponse;
 import uz.shinamagazin.api.enums.MovementType;
 import uz.shinamagazin.api.enums.PermissionCode;
+import uz.shinamagazin.api.repository.keyset.KeysetRequest;
 import uz.shinamagazin.api.security.RequiresPermission;
 import uz.shinamagazin.api.service.ProductService;
 import uz.shinamagazin.api.service.StockMovementService;
 import uz.shinamagazin.api.service.export.ExportSupport;
 import uz.shinamagazin.api.service.export.GenericExportService;
 
-import java.io.ByteArrayOutputStream;
-import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -68,52 +65,43 @@ public class WarehouseController {
         return ResponseEntity.ok(ApiResponse.success(PagedResponse.from(movements)));
     }
 
+    @GetMapping("/movements/scroll")
+    @Operation(summary = "Get stock movements (cursor)", description = "Zaxira harakatlari — keyset sahifalash. " +
+            "Keyingi sahifa: ?cursor=<nextCursor>")
+    @RequiresPermission(PermissionCode.WAREHOUSE_VIEW)
+    public ResponseEntity<ApiResponse<CursorResponse<StockMovementResponse>>> scrollMovements(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) MovementType movementType,
+            @RequestParam(required = false) String referenceType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        KeysetRequest request = KeysetRequest.of(cursor, size, sort, "createdAt,desc", withTotal);
+        return ResponseEntity.ok(ApiResponse.success(CursorResponse.from(
+                stockMovementService.scrollMovements(productId, movementType, referenceType, request))));
+    }
+
     @GetMapping("/movements/export")
     @RequiresPermission(PermissionCode.REPORTS_EXPORT)
     @Operation(summary = "Export stock movements", description = "Zaxira harakatlarini eksport qilish")
-    public ResponseEntity<Resource> exportStockMovements(
+    public ResponseEntity<StreamingResponseBody> exportStockMovements(
             @RequestParam(required = false) Long productId,
             @RequestParam(required = false) MovementType movementType,
             @RequestParam(required = false) String referenceType,
             @RequestParam(defaultValue = "excel") String format,
             @RequestParam(defaultValue = "10000") int maxRecords) {
-        // Chegara tekshiruvi try'dan TASHQARIDA: pastdagi catch (Exception) uni
-        // RuntimeException'ga o'rab, 400 o'rniga 500 qaytarardi.
+        GenericExportService.ExportFormat exportFormat = ExportSupport.format(format);
         Pageable pageable = ExportSupport.pageable(maxRecords);
-        try {
-            Page<StockMovementResponse> page;
-
-            if (productId != null || movementType != null || referenceType != null) {
-                page = stockMovementService.getMovementsWithFilters(productId, movementType, referenceType, pageable);
-            } else {
-                page = stockMovementService.getAllMovements(pageable);
-            }
-
-            ByteArrayOutputStream output = genericExportService.export(
-                    page.getContent(),
-                    StockMovementResponse.class,
-                    GenericExportService.ExportFormat.valueOf(format.toUpperCase()),
-                    "Zaxira Harakatlari Hisoboti"
-            );
-
-            String extension = format.equalsIgnoreCase("excel") ? "xlsx" : "pdf";
-            String contentType = format.equalsIgnoreCase("excel")
-                    ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-                    : "application/pdf";
-            String filename = "stock_movements_" + LocalDate.now() + "." + extension;
-
-            ByteArrayResource resource = new ByteArrayResource(output.toByteArray());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(resource.contentLength())
-                    .headers(ExportSupport.truncationHeaders(page, "zaxira harakatlari"))
-                    .body(resource);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Eksport qilishda xatolik: " + e.getMessage(), e);
-        }
+        Page<StockMovementResponse> page = productId != null || movementType != null || referenceType != null
+                ? stockMovementService.getMovementsWithFilters(productId, movementType, referenceType, pageable)
+                : stockMovementService.getAllMovements(pageable);
+
+        return ResponseEntity.ok()
+                .headers(ExportSupport.attachment("stock_movements", exportFormat))
+                .headers(ExportSupport.truncationHeaders(page, "zaxira harakatlari"))
+                .body(out -> genericExportService.write(page.getContent().stream(), StockMovementResponse.class,
+                        exportFormat, "Zaxira Harakatlari Hisoboti", out));
     }
 
     @GetMapping("/movements/{id}")
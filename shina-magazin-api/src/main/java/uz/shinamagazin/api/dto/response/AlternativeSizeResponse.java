@@ -0,0 +1,27 @@
+package uz.shinamagazin.api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Muqobil shina o'lchami: tashqi diametri so'ralgan o'lchamnikidan ±3%
+ * ichida va vitrinada shu o'lchamdagi mahsulot bor.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlternativeSizeResponse {
+    private Integer width;
+    private Integer profile;
+    private Integer diameter;
+    /** "215/50 R17" */
+    private String size;
+    /** Tashqi diametr farqi, % (bir kasr xona; manfiy — kichikroq). */
+    private BigDecimal deviationPercent;
+    private long productCount;
+}
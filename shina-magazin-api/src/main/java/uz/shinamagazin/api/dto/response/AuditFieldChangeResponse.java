@@ -0,0 +1,31 @@
+package uz.shinamagazin.api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Bitta maydonning bitta o'zgarishi — maydon bo'yicha audit so'rovi natijasi.
+ * Qiymatlar JSON'dagi turida (son, matn, mantiqiy, obyekt).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditFieldChangeResponse {
+    private Long auditLogId;
+    private String entityType;
+    private Long entityId;
+    private String action;
+    private String field;
+    private Object oldValue;
+    private Object newValue;
+    private Long userId;
+    private String username;
+    private UUID correlationId;
+    private LocalDateTime createdAt;
+}
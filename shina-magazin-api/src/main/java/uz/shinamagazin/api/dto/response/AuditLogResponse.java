@@ -7,9 +7,20 @@ import lombok.NoArgsConstructor;
 import uz.shinamagazin.api.entity.AuditLog;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Audit yozuvi — ro'yxat, guruh va eksport uchun saqlangan ko'rinishda.
+ *
+ * <p>UPDATE'da {@code oldValue}/{@code newValue} odatda faqat o'zgargan
+ * maydonlarni ({@code changedFields}) saqlaydi, to'liq holatni emas: siyosat
+ * DELTA bo'lsa, davriy to'liq nusxalardan tashqari. CREATE va DELETE'da —
+ * to'liq holat. UPDATE'ning to'liq "oldin/keyin" ko'rinishi —
+ * {@link AuditLogDetailResponse} ({@code GET /v1/audit-logs/{id}/detail}).
+ * {@code changedFields} V42 gacha yozilgan yozuvlarda {@code null}.
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -21,6 +32,7 @@ public class AuditLogResponse {
     private String action;
     private Map<String, Object> oldValue;
     private Map<String, Object> newValue;
+    private List<String> changedFields;
     private Long userId;
     private String username;
     private String ipAddress;
@@ -36,6 +48,7 @@ public class AuditLogResponse {
                 .action(auditLog.getAction())
                 .oldValue(auditLog.getOldValue())
                 .newValue(auditLog.getNewValue())
+                .changedFields(auditLog.getChangedFields())
                 .userId(auditLog.getUserId())
                 .username(auditLog.getUsername())
                 .ipAddress(auditLog.getIpAddress())
@@ -8,6 +8,8 @@ import uz.shinamagazin.api.entity.Product;
 import uz.shinamagazin.api.enums.Season;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Ommaviy storefront katalogi uchun mahsulot DTO'si.
@@ -29,6 +31,8 @@ public class CatalogProductResponse {
     private Long brandId;
     private String categoryName;
     private Long categoryId;
+    // "Shinalar / Yengil / Yozgi" — breadcrumb uchun
+    private String categoryPath;
     private Integer width;
     private Integer profile;
     private Integer diameter;
@@ -39,11 +43,14 @@ public class CatalogProductResponse {
     private BigDecimal sellingPrice;
     private Integer quantity;
     private boolean lowStock;
+    private boolean inStock;
     private String description;
     private String imageUrl;
+    // Mahsulotning barcha atribut variantlari — tanlangan filtr chiplarini belgilash uchun
+    private List<Long> optionIds;
 
     // Xususiyatlar — faqat bitta mahsulot so'ralganda to'ldiriladi (ro'yxatda null)
-    private java.util.List<ProductAttributeValueResponse> attributes;
+    private List<ProductAttributeValueResponse> attributes;
 
     public static CatalogProductResponse from(Product product) {
         return CatalogProductResponse.builder()
@@ -64,8 +71,48 @@ public class CatalogProductResponse {
                 .sellingPrice(product.getSellingPrice())
                 .quantity(product.getQuantity())
                 .lowStock(product.getQuantity() <= product.getMinStockLevel())
+                .inStock(product.getQuantity() > 0)
                 .description(product.getDescription())
                 .imageUrl(product.getImageUrl())
                 .build();
     }
+
+    /**
+     * {@code catalog_products} qatoridan — {@code CatalogProductRepository.findListRowsByIdIn}
+     * ustunlari tartibida.
+     */
+    public static CatalogProductResponse fromRow(Object[] row) {
+        return CatalogProductResponse.builder()
+                .id((Long) row[0])
+                .sku((String) row[1])
+                .name((String) row[2])
+                .brandId((Long) row[3])
+                .brandName((String) row[4])
+                .categoryId((Long) row[5])
+                .categoryName((String) row[6])
+                .categoryPath((String) row[7])
+                .width((Integer) row[8])
+                .profile((Integer) row[9])
+                .diameter((Integer) row[10])
+                .sizeString((String) row[11])
+                .loadIndex((String) row[12])
+                .speedRating((String) row[13])
+                .season((Season) row[14])
+                .sellingPrice((BigDecimal) row[15])
+                .quantity((Integer) row[16])
+                .inStock((Boolean) row[17])
+                .lowStock((Boolean) row[18])
+                .description((String) row[19])
+                .imageUrl((String) row[20])
+                .optionIds(row[21] != null ? Arrays.asList((Long[]) row[21]) : List.of())
+                .build();
+    }
+
+    /** Mahsulot sahifasi: ro'yxat qatori + oxirgi ustunda atributlar. */
+    @SuppressWarnings("unchecked")
+    public static CatalogProductResponse fromDetailRow(Object[] row) {
+        CatalogProductResponse response = fromRow(row);
+        response.setAttributes((List<ProductAttributeValueResponse>) row[22]);
+        return response;
+    }
 }
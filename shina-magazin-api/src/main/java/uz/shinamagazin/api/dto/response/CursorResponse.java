@@ -0,0 +1,36 @@
+package uz.shinamagazin.api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uz.shinamagazin.api.repository.keyset.KeysetSlice;
+
+import java.util.List;
+
+/**
+ * Cursor (keyset) sahifasi — {@link PagedResponse}ning cheksiz lenta uchun
+ * varianti. Keyingi sahifa {@code ?cursor=<nextCursor>} bilan so'raladi.
+ * {@code totalElements} faqat {@code withTotal=true} bo'lsa to'ldiriladi.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorResponse<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+    private Long totalElements;
+
+    public static <T> CursorResponse<T> from(KeysetSlice<T> slice) {
+        return CursorResponse.<T>builder()
+                .content(slice.content())
+                .size(slice.content().size())
+                .nextCursor(slice.nextCursor())
+                .hasNext(slice.hasNext())
+                .totalElements(slice.totalElements())
+                .build();
+    }
+}
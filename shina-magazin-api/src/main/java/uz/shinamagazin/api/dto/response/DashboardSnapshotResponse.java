@@ -0,0 +1,24 @@
+package uz.shinamagazin.api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dashboardning markazda hisoblangan nusxasi — WebSocket orqali tarqatiladi
+ * va REST'da ham aynan shu nusxa qaytariladi.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardSnapshotResponse {
+    private DashboardStatsResponse stats;
+    private ChartDataResponse charts;
+    /** Grafiklar necha kunlik ({@code charts.salesTrend} uzunligi). */
+    private int chartDays;
+    private LocalDateTime generatedAt;
+}
@@ -0,0 +1,27 @@
+package uz.shinamagazin.api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Qidiruv maydonidagi taklif (typeahead). Storefront'da ham qaytadi, shuning
+ * uchun {@link CatalogProductResponse} kabi faqat ommaga ko'rinadigan
+ * maydonlar: tannarx yo'q, qoldiq o'rniga faqat "bor/yo'q".
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestion {
+    private Long id;
+    private String sku;
+    private String name;
+    private String brandName;
+    private String sizeString;
+    private BigDecimal sellingPrice;
+    private boolean inStock;
+}
@@ -0,0 +1,49 @@
+package uz.shinamagazin.api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uz.shinamagazin.api.enums.ReportJobStatus;
+import uz.shinamagazin.api.service.job.ReportJob;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fon hisobot vazifasining holati — REST javobi va
+ * {@code /user/queue/report-jobs} xabari bir xil.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+    private String id;
+    private String type;
+    private ReportJobStatus status;
+    private int progress;
+    private String message;
+    private String fileName;
+    /** Natija hajmi (bayt) — faqat {@code DONE} da. */
+    private Long size;
+    /** Yuklab olish manzili — faqat {@code DONE} da. */
+    private String downloadUrl;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+
+    public static ReportJobResponse from(ReportJob job) {
+        boolean done = job.getStatus() == ReportJobStatus.DONE;
+        return ReportJobResponse.builder()
+                .id(job.getId())
+                .type(job.getType())
+                .status(job.getStatus())
+                .progress(job.getProgress())
+                .message(job.getMessage())
+                .fileName(job.getFileName())
+                .size(done ? job.getSize() : null)
+                .downloadUrl(done ? "/v1/report-jobs/" + job.getId() + "/download" : null)
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -8,6 +8,7 @@ import uz.shinamagazin.api.audit.AuditEntityListener;
 import uz.shinamagazin.api.audit.Auditable;
 import uz.shinamagazin.api.entity.base.BaseEntity;
 import uz.shinamagazin.api.enums.AttributeType;
+import uz.shinamagazin.api.service.catalog.CatalogIndexEntityListener;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -21,7 +22,7 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "attributes")
-@EntityListeners({AuditingEntityListener.class, AuditEntityListener.class})
+@EntityListeners({AuditingEntityListener.class, AuditEntityListener.class, CatalogIndexEntityListener.class})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import uz.shinamagazin.api.entity.base.BaseEntity;
+import uz.shinamagazin.api.service.catalog.CatalogIndexEntityListener;
 
 /**
  * SELECT / MULTI_SELECT atribut uchun tanlov varianti (masalan "Asfalt", "Universal").
@@ -11,7 +12,7 @@ import uz.shinamagazin.api.entity.base.BaseEntity;
 @Entity
 @Table(name = "attribute_options",
         uniqueConstraints = @UniqueConstraint(name = "uq_attribute_option", columnNames = {"attribute_id", "value"}))
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, CatalogIndexEntityListener.class})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -6,6 +6,7 @@ import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -39,6 +40,11 @@ public class AuditLog {
     @Column(name = "new_value", columnDefinition = "jsonb")
     private Map<String, Object> newValue;
 
+    /** old/new qiymatlarda farq qilgan maydonlar — yozishda hisoblanadi (V42, GIN indeksli). */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "changed_fields")
+    private List<String> changedFields;
+
     @Column(name = "user_id")
     private Long userId;
 
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import uz.shinamagazin.api.audit.Auditable;
 import uz.shinamagazin.api.audit.AuditEntityListener;
 import uz.shinamagazin.api.entity.base.BaseEntity;
+import uz.shinamagazin.api.service.catalog.CatalogIndexEntityListener;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -14,7 +15,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "brands")
-@EntityListeners({AuditingEntityListener.class, AuditEntityListener.class})
+@EntityListeners({AuditingEntityListener.class, AuditEntityListener.class, CatalogIndexEntityListener.class})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,101 @@
+package uz.shinamagazin.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import uz.shinamagazin.api.dto.response.ProductAttributeValueResponse;
+import uz.shinamagazin.api.enums.Season;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Storefront katalogining tekis qatori (V39) — bitta faol mahsulot, JOIN'siz.
+ *
+ * <p>Faqat yozish uchun entity ({@code CatalogReadModel} qatorni o'chirib,
+ * qaytadan qo'shadi, hech qachon UPDATE qilmaydi). O'qish skalyar
+ * so'rovlar orqali — {@link uz.shinamagazin.api.repository.CatalogProductRepository}.
+ */
+@Entity
+@Immutable
+@Table(name = "catalog_products")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogProduct {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false, length = 50)
+    private String sku;
+
+    @Column(nullable = false, length = 200)
+    private String name;
+
+    @Column(name = "brand_id")
+    private Long brandId;
+
+    @Column(name = "brand_name", length = 100)
+    private String brandName;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "category_name", length = 100)
+    private String categoryName;
+
+    // "Shinalar / Yengil / Yozgi"
+    @Column(name = "category_path", length = 500)
+    private String categoryPath;
+
+    private Integer width;
+
+    private Integer profile;
+
+    private Integer diameter;
+
+    @Column(name = "size_string", length = 20)
+    private String sizeString;
+
+    @Column(name = "load_index", length = 10)
+    private String loadIndex;
+
+    @Column(name = "speed_rating", length = 5)
+    private String speedRating;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Season season;
+
+    @Column(name = "selling_price", nullable = false, precision = 15, scale = 2)
+    private BigDecimal sellingPrice;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "in_stock", nullable = false)
+    private boolean inStock;
+
+    @Column(name = "low_stock", nullable = false)
+    private boolean lowStock;
+
+    @Column(length = 1000)
+    private String description;
+
+    @Column(name = "image_url", length = 500)
+    private String imageUrl;
+
+    // Mahsulotning barcha atribut variantlari (filtr chiplarini belgilash uchun)
+    @Column(name = "option_ids", nullable = false)
+    private Long[] optionIds;
+
+    // Mahsulot sahifasidagi xususiyatlar — tayyor ko'rinishda
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "jsonb")
+    private List<ProductAttributeValueResponse> attributes;
+}
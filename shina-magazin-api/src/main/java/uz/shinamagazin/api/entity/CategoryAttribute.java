@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import uz.shinamagazin.api.entity.base.BaseEntity;
+import uz.shinamagazin.api.service.catalog.CatalogIndexEntityListener;
 
 /**
  * Kategoriya <-> atribut bog'lanishi. Bola kategoriyalar ota kategoriya
@@ -12,7 +13,7 @@ import uz.shinamagazin.api.entity.base.BaseEntity;
 @Entity
 @Table(name = "category_attributes",
         uniqueConstraints = @UniqueConstraint(name = "uq_category_attribute", columnNames = {"category_id", "attribute_id"}))
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, CatalogIndexEntityListener.class})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -8,6 +8,8 @@ import uz.shinamagazin.api.audit.Auditable;
 import uz.shinamagazin.api.audit.AuditEntityListener;
 import uz.shinamagazin.api.entity.base.BaseEntity;
 import uz.shinamagazin.api.enums.Season;
+import uz.shinamagazin.api.service.catalog.CatalogIndexEntityListener;
+import uz.shinamagazin.api.util.SearchNormalizer;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
@@ -16,7 +18,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "products")
-@EntityListeners({AuditingEntityListener.class, AuditEntityListener.class})
+@EntityListeners({AuditingEntityListener.class, AuditEntityListener.class, CatalogIndexEntityListener.class})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -86,6 +88,62 @@ public class Product extends BaseEntity implements Auditable {
     @JoinColumn(name = "created_by")
     private User createdBy;
 
+    /**
+     * Qidiruv ustunlari ({@link SearchNormalizer}): SKU, nom, brend va o'lcham —
+     * lotin yozuvida va fonetik kalit ko'rinishida. {@code pg_trgm} GIN indeksli
+     * (V37). Yozishda avtomatik hisoblanadi, qo'lda o'rnatilmaydi.
+     */
+    @Column(name = "search_text", length = 1000)
+    @Setter(AccessLevel.NONE)
+    @JsonIgnore
+    private String searchText;
+
+    @Column(name = "search_key", length = 500)
+    @Setter(AccessLevel.NONE)
+    @JsonIgnore
+    private String searchKey;
+
+    /**
+     * Qidiruv manbasi (SKU, nom, brend, o'lcham) setter orqali o'zgardi —
+     * keyingi yozishda ustunlar qayta hisoblanadi. Hibernate maydonlarga
+     * to'g'ridan-to'g'ri yozadi, shuning uchun yuklash bayroqni ko'tarmaydi.
+     */
+    @Transient
+    @Setter(AccessLevel.NONE)
+    @Getter(AccessLevel.NONE)
+    @JsonIgnore
+    private boolean searchStale;
+
+    public void setSku(String sku) {
+        this.sku = sku;
+        this.searchStale = true;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        this.searchStale = true;
+    }
+
+    public void setBrand(Brand brand) {
+        this.brand = brand;
+        this.searchStale = true;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+        this.searchStale = true;
+    }
+
+    public void setProfile(Integer profile) {
+        this.profile = profile;
+        this.searchStale = true;
+    }
+
+    public void setDiameter(Integer diameter) {
+        this.diameter = diameter;
+        this.searchStale = true;
+    }
+
     // Helper method: shina o'lchami string
     public String getSizeString() {
         if (width != null && profile != null && diameter != null) {
@@ -94,6 +152,28 @@ public class Product extends BaseEntity implements Auditable {
         return null;
     }
 
+    /**
+     * Qidiruv ustunlarini qayta hisoblaydi. Brend nomi o'zgarganda
+     * (mahsulotning o'zi "dirty" bo'lmaydi) BrandService chaqiradi.
+     */
+    public void refreshSearchText() {
+        String brandName = brand != null ? brand.getName() : null;
+        this.searchText = SearchNormalizer.searchText(sku, name, brandName,
+                SearchNormalizer.compactSize(width, profile, diameter));
+        this.searchKey = SearchNormalizer.searchKey(name, brandName);
+        this.searchStale = false;
+    }
+
+    // Faqat manba o'zgarganda: har savdoda (qoldiq o'zgarishi) brend
+    // proxy'sini yuklash qo'shimcha so'rov bo'lardi.
+    @PrePersist
+    @PreUpdate
+    void updateSearchText() {
+        if (searchText == null || searchStale) {
+            refreshSearchText();
+        }
+    }
+
     // ============================================
     // Auditable Interface Implementation
     // ============================================
@@ -0,0 +1,8 @@
+package uz.shinamagazin.api.enums;
+
+public enum ReportJobStatus {
+    QUEUED,     // Navbatda
+    RUNNING,    // Tayyorlanmoqda
+    DONE,       // Tayyor — yuklab olish mumkin
+    FAILED      // Xato bilan tugadi
+}
@@ -0,0 +1,19 @@
+package uz.shinamagazin.api.event;
+
+import java.util.List;
+
+/**
+ * {@code catalog_products} qatorlari qayta yozildi (commit bo'lgan).
+ *
+ * <p>Shu jadvaldan yasaladigan narsalar (SEO sahifalari) entity o'zgarishiga
+ * emas, shu hodisaga obuna bo'ladi: aks holda ular qator hali qayta
+ * yozilmasdan eski qatordan qurilib qolishi mumkin edi.
+ *
+ * @param productIds o'zgargan mahsulotlar; {@code null} — jadval to'liq qayta qurildi
+ */
+public record CatalogRowsChangedEvent(List<Long> productIds) {
+
+    public boolean isFullRebuild() {
+        return productIds == null;
+    }
+}
@@ -0,0 +1,10 @@
+package uz.shinamagazin.api.event;
+
+/**
+ * Savdo yaratildi, bekor qilindi yoki qaytarildi.
+ *
+ * <p>Dashboard snapshot'i shu hodisaga obuna: tranzaksiya tasdiqlangandan
+ * keyin qayta hisoblanadi, shuning uchun orqaga qaytarilgan savdo jonli
+ * dashboardda bir lahzaga ham ko'rinmaydi.
+ */
+public record SaleChangedEvent(Long saleId) {}
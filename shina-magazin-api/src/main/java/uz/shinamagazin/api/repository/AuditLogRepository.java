@@ -1,15 +1,20 @@
 package uz.shinamagazin.api.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uz.shinamagazin.api.entity.AuditLog;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
@@ -76,51 +81,210 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
         Pageable pageable
     );
 
+    /**
+     * Eksport qatorlari kursor bilan, {@link #searchAuditLogs} filtrlari bilan:
+     * [id, action, entityType, entityId, username, createdAt, ipAddress].
+     * Skalyar ustunlar — persistence context'ga entity tushmaydi, xotira
+     * qatorlar soniga bog'liq emas. Tranzaksiya ichida va
+     * {@code try-with-resources} bilan o'qiladi.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+        SELECT a.id, a.action, a.entityType, a.entityId, a.username, a.createdAt, a.ipAddress
+        FROM AuditLog a
+        WHERE (:entityType IS NULL OR a.entityType = :entityType)
+        AND (:action IS NULL OR a.action = :action)
+        AND (:userId IS NULL OR a.userId = :userId)
+        AND (:search IS NULL OR LOWER(a.username) LIKE LOWER(CONCAT('%', :search, '%')))
+        ORDER BY a.createdAt DESC, a.id DESC
+        """)
+    Stream<Object[]> streamForExport(
+        @Param("entityType") String entityType,
+        @Param("action") String action,
+        @Param("userId") Long userId,
+        @Param("search") String search
+    );
+
     @Query("SELECT DISTINCT a.entityType FROM AuditLog a ORDER BY a.entityType")
     List<String> findAllEntityTypes();
 
     @Query("SELECT DISTINCT a.action FROM AuditLog a ORDER BY a.action")
     List<String> findAllActions();
 
-    void deleteByCreatedAtBefore(LocalDateTime date);
+    /**
+     * Entity tarixi shu yozuvdan oldin, yangidan eskiga — delta yozuvlardan
+     * to'liq holatni yig'ish uchun. O'qish eng yaqin to'liq nusxada to'xtaydi,
+     * {@code pageable} esa oynani cheklaydi.
+     */
+    @Query("""
+        SELECT a FROM AuditLog a
+        WHERE a.entityType = :entityType AND a.entityId = :entityId
+        AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id))
+        ORDER BY a.createdAt DESC, a.id DESC
+        """)
+    List<AuditLog> findEntityHistoryBefore(
+        @Param("entityType") String entityType,
+        @Param("entityId") Long entityId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable pageable
+    );
 
-    // ==================== GROUPED PAGINATION QUERIES ====================
+    // ==================== FIELD-LEVEL QUERIES ====================
 
     /**
-     * Get distinct correlation IDs with filters, ordered by max created_at desc.
-     * Returns correlation_id and the max timestamp for ordering.
+     * Bitta maydonning o'zgarishlari (V42): {@code changed_fields} GIN indeksi,
+     * aniq qiymat — {@code new_value} jsonb_path_ops GIN indeksi. V42 gacha
+     * yozilgan qatorlarda {@code changed_fields} NULL — farq shu yerda JSON'dan
+     * hisoblanadi (JSON null va kalit yo'qligi bir xil, yozuvchidagi kabi).
+     * Faqat PostgreSQL.
+     * Qatorlar: [id, entity_type, entity_id, action, eski qiymat JSON, yangi qiymat JSON,
+     * user_id, username, correlation_id, created_at]; (created_at, id) bo'yicha kamayish, keyset.
      */
     @Query(value = """
-        SELECT correlation_id, MAX(created_at) as max_time
+        SELECT id, entity_type, entity_id, action,
+               CAST(old_value -> :field AS TEXT), CAST(new_value -> :field AS TEXT),
+               user_id, username, CAST(correlation_id AS TEXT), created_at
         FROM audit_logs
-        WHERE correlation_id IS NOT NULL
+        WHERE (changed_fields @> ARRAY[CAST(:field AS TEXT)]
+               OR (changed_fields IS NULL
+                   AND NULLIF(old_value -> :field, CAST('null' AS jsonb)) IS DISTINCT FROM NULLIF(new_value -> :field, CAST('null' AS jsonb))))
+        AND entity_type = :entityType
+        AND (:entityId IS NULL OR entity_id = :entityId)
+        AND (:userId IS NULL OR user_id = :userId)
+        AND created_at >= :fromDate AND created_at < :toDate
+        AND (:valueJson IS NULL OR new_value @> jsonb_build_object(CAST(:field AS TEXT), CAST(:valueJson AS jsonb)))
+        AND (:minValue IS NULL OR (jsonb_typeof(new_value -> :field) = 'number'
+                                   AND CAST(new_value ->> :field AS NUMERIC) >= :minValue))
+        AND (:maxValue IS NULL OR (jsonb_typeof(new_value -> :field) = 'number'
+                                   AND CAST(new_value ->> :field AS NUMERIC) <= :maxValue))
+        AND (created_at < :beforeCreatedAt OR (created_at = :beforeCreatedAt AND id < :beforeId))
+        ORDER BY created_at DESC, id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Object[]> findFieldChanges(
+        @Param("entityType") String entityType,
+        @Param("field") String field,
+        @Param("entityId") Long entityId,
+        @Param("userId") Long userId,
+        @Param("valueJson") String valueJson,
+        @Param("minValue") BigDecimal minValue,
+        @Param("maxValue") BigDecimal maxValue,
+        @Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate,
+        @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+        @Param("beforeId") long beforeId,
+        @Param("limit") int limit
+    );
+
+    // ==================== GROUPED PAGINATION QUERIES ====================
+
+    /*
+     * Guruh — bitta correlation_id yozuvlari, correlation_id'siz yozuvlar esa
+     * bitta foydalanuvchining ketma-ket, oralig'i 3 soniyadan oshmagan yozuvlari.
+     * Har guruhning "boshi" — eng yangi yozuvi; guruhlar boshining
+     * (created_at, id) kaliti bo'yicha kamayish tartibida.
+     *
+     * Correlation'siz guruh boshi LAG bilan: oldingi (yangiroq) yozuv boshqa
+     * foydalanuvchiniki yoki 3 soniyadan uzoq. Oyna scanFrom = cursor + 3 s dan
+     * boshlanadi — cursor'dan keyingi birinchi yozuvning yangiroq qo'shnisi
+     * faqat shu oraliqda bo'lishi mumkin, undan eskisi baribir yangi guruh.
+     * Correlation guruhi boshi — shu correlation'da filtrga mos yangiroq yozuv
+     * yo'q (idx_audit_logs_correlation_id). Har tarmoq (created_at, id)
+     * indeksidan cursor'dan pastga o'qiladi va LIMIT'da to'xtaydi.
+     */
+    String GROUP_FILTER = """
         AND (:entityType IS NULL OR entity_type = :entityType)
         AND (:action IS NULL OR action = :action)
         AND (:userId IS NULL OR user_id = :userId)
-        GROUP BY correlation_id
-        ORDER BY max_time DESC
+        AND (:search IS NULL OR LOWER(username) LIKE LOWER(CONCAT('%', :search, '%')))
+        """;
+
+    String UNCORRELATED_HEAD_FLAGS = """
+        SELECT id, created_at,
+               CASE WHEN LAG(user_id) OVER (ORDER BY created_at DESC, id DESC) IS NOT DISTINCT FROM user_id
+                     AND LAG(created_at) OVER (ORDER BY created_at DESC, id DESC) <= created_at + INTERVAL '3' SECOND
+                    THEN 0 ELSE 1 END AS head
+        FROM audit_logs
+        WHERE correlation_id IS NULL
+        AND created_at <= :scanFrom
+        """ + GROUP_FILTER;
+
+    /**
+     * Keyset cursor'dan keyingi guruh boshlari:
+     * [id, created_at, correlation_id, keyingi (eskiroq) correlation'siz boshning created_at va id'si].
+     * Oxirgi ikkisi faqat correlation'siz guruhlar uchun — guruh yozuvlari shu kalitgacha.
+     */
+    @Query(value = """
+        SELECT id, created_at, correlation_id, next_created_at, next_id FROM (
+            SELECT * FROM (
+                SELECT id, created_at, CAST(NULL AS VARCHAR(36)) AS correlation_id,
+                       LEAD(created_at) OVER (ORDER BY created_at DESC, id DESC) AS next_created_at,
+                       LEAD(id) OVER (ORDER BY created_at DESC, id DESC) AS next_id
+                FROM (""" + UNCORRELATED_HEAD_FLAGS + """
+                ) flagged
+                WHERE head = 1
+            ) uncorrelated
+            WHERE created_at < :beforeCreatedAt OR (created_at = :beforeCreatedAt AND id < :beforeId)
+            ORDER BY created_at DESC, id DESC
+            LIMIT :scanLimit
+        ) uncorrelated_heads
+        UNION ALL
+        SELECT id, created_at, correlation_id, next_created_at, next_id FROM (
+            SELECT a.id, a.created_at, CAST(a.correlation_id AS VARCHAR(36)) AS correlation_id,
+                   CAST(NULL AS TIMESTAMP) AS next_created_at, CAST(NULL AS BIGINT) AS next_id
+            FROM audit_logs a
+            WHERE a.correlation_id IS NOT NULL
+            AND (a.created_at < :beforeCreatedAt OR (a.created_at = :beforeCreatedAt AND a.id < :beforeId))
+            AND (:entityType IS NULL OR a.entity_type = :entityType)
+            AND (:action IS NULL OR a.action = :action)
+            AND (:userId IS NULL OR a.user_id = :userId)
+            AND (:search IS NULL OR LOWER(a.username) LIKE LOWER(CONCAT('%', :search, '%')))
+            AND NOT EXISTS (
+                SELECT 1 FROM audit_logs b
+                WHERE b.correlation_id = a.correlation_id
+                AND (b.created_at > a.created_at OR (b.created_at = a.created_at AND b.id > a.id))
+                AND (:entityType IS NULL OR b.entity_type = :entityType)
+                AND (:action IS NULL OR b.action = :action)
+                AND (:userId IS NULL OR b.user_id = :userId)
+                AND (:search IS NULL OR LOWER(b.username) LIKE LOWER(CONCAT('%', :search, '%')))
+            )
+            ORDER BY a.created_at DESC, a.id DESC
+            LIMIT :scanLimit
+        ) correlated_heads
+        ORDER BY created_at DESC, id DESC
+        LIMIT :limit OFFSET :offset
         """, nativeQuery = true)
-    List<Object[]> findDistinctCorrelationIds(
+    List<Object[]> findGroupHeads(
         @Param("entityType") String entityType,
         @Param("action") String action,
-        @Param("userId") Long userId
+        @Param("userId") Long userId,
+        @Param("search") String search,
+        @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+        @Param("beforeId") long beforeId,
+        @Param("scanFrom") LocalDateTime scanFrom,
+        @Param("scanLimit") int scanLimit,
+        @Param("limit") int limit,
+        @Param("offset") int offset
     );
 
     /**
-     * Count distinct correlation IDs (groups with correlation_id)
+     * Jami guruhlar soni — to'liq o'qish, faqat sahifa raqamli rejim uchun.
      */
     @Query(value = """
-        SELECT COUNT(DISTINCT correlation_id)
-        FROM audit_logs
-        WHERE correlation_id IS NOT NULL
-        AND (:entityType IS NULL OR entity_type = :entityType)
-        AND (:action IS NULL OR action = :action)
-        AND (:userId IS NULL OR user_id = :userId)
+        SELECT (SELECT COUNT(*) FROM (""" + UNCORRELATED_HEAD_FLAGS + """
+                ) flagged WHERE head = 1)
+             + (SELECT COUNT(DISTINCT correlation_id) FROM audit_logs
+                WHERE correlation_id IS NOT NULL
+        """ + GROUP_FILTER + """
+               )
         """, nativeQuery = true)
-    long countDistinctCorrelationIds(
+    long countGroups(
         @Param("entityType") String entityType,
         @Param("action") String action,
-        @Param("userId") Long userId
+        @Param("userId") Long userId,
+        @Param("search") String search,
+        @Param("scanFrom") LocalDateTime scanFrom
     );
 
     /**
@@ -134,36 +298,27 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     List<AuditLog> findByCorrelationIdIn(@Param("correlationIds") List<java.util.UUID> correlationIds);
 
     /**
-     * Get logs without correlation_id (for time-based grouping)
+     * Correlation'siz yozuvlar (from, to] kalit oralig'ida — sahifadagi vaqt guruhlari yozuvlari.
      */
     @Query("""
         SELECT a FROM AuditLog a
         WHERE a.correlationId IS NULL
+        AND (a.createdAt < :fromCreatedAt OR (a.createdAt = :fromCreatedAt AND a.id <= :fromId))
+        AND (a.createdAt > :toCreatedAt OR (a.createdAt = :toCreatedAt AND a.id > :toId))
         AND (:entityType IS NULL OR a.entityType = :entityType)
         AND (:action IS NULL OR a.action = :action)
         AND (:userId IS NULL OR a.userId = :userId)
-        ORDER BY a.createdAt DESC
+        AND (:search IS NULL OR LOWER(a.username) LIKE LOWER(CONCAT('%', :search, '%')))
+        ORDER BY a.createdAt DESC, a.id DESC
         """)
-    List<AuditLog> findUncorrelatedLogs(
+    List<AuditLog> findUncorrelatedBetween(
         @Param("entityType") String entityType,
         @Param("action") String action,
         @Param("userId") Long userId,
-        Pageable pageable
-    );
-
-    /**
-     * Count logs without correlation_id
-     */
-    @Query("""
-        SELECT COUNT(a) FROM AuditLog a
-        WHERE a.correlationId IS NULL
-        AND (:entityType IS NULL OR a.entityType = :entityType)
-        AND (:action IS NULL OR a.action = :action)
-        AND (:userId IS NULL OR a.userId = :userId)
-        """)
-    long countUncorrelatedLogs(
-        @Param("entityType") String entityType,
-        @Param("action") String action,
-        @Param("userId") Long userId
+        @Param("search") String search,
+        @Param("fromCreatedAt") LocalDateTime fromCreatedAt,
+        @Param("fromId") long fromId,
+        @Param("toCreatedAt") LocalDateTime toCreatedAt,
+        @Param("toId") long toId
     );
 }
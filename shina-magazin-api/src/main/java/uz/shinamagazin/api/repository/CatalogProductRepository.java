@@ -0,0 +1,58 @@
+package uz.shinamagazin.api.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import uz.shinamagazin.api.entity.CatalogProduct;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Storefront katalogining tekis jadvali. O'qish so'rovlari skalyar qatorlar
+ * qaytaradi — persistence context'ga entity tushmaydi, dirty-checking yo'q.
+ */
+@Repository
+public interface CatalogProductRepository extends JpaRepository<CatalogProduct, Long> {
+
+    /** Ro'yxat qatori — {@code CatalogService.fromListRow} tartibida. */
+    @Query("""
+            SELECT c.productId, c.sku, c.name, c.brandId, c.brandName, c.categoryId, c.categoryName,
+                   c.categoryPath, c.width, c.profile, c.diameter, c.sizeString, c.loadIndex, c.speedRating,
+                   c.season, c.sellingPrice, c.quantity, c.inStock, c.lowStock, c.description, c.imageUrl,
+                   c.optionIds
+            FROM CatalogProduct c WHERE c.productId IN (:ids)""")
+    List<Object[]> findListRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Barcha ro'yxat qatorlari kursor bilan (SEO sahifalarini oldindan yasash).
+     * Tranzaksiya ichida va {@code try-with-resources} bilan o'qiladi.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT c.productId, c.sku, c.name, c.brandId, c.brandName, c.categoryId, c.categoryName,
+                   c.categoryPath, c.width, c.profile, c.diameter, c.sizeString, c.loadIndex, c.speedRating,
+                   c.season, c.sellingPrice, c.quantity, c.inStock, c.lowStock, c.description, c.imageUrl,
+                   c.optionIds
+            FROM CatalogProduct c""")
+    Stream<Object[]> streamListRows();
+
+    /** Ro'yxat qatori + atributlar (oxirgi ustun) — mahsulot sahifasi uchun. */
+    @Query("""
+            SELECT c.productId, c.sku, c.name, c.brandId, c.brandName, c.categoryId, c.categoryName,
+                   c.categoryPath, c.width, c.profile, c.diameter, c.sizeString, c.loadIndex, c.speedRating,
+                   c.season, c.sellingPrice, c.quantity, c.inStock, c.lowStock, c.description, c.imageUrl,
+                   c.optionIds, c.attributes
+            FROM CatalogProduct c WHERE c.productId = :id""")
+    List<Object[]> findDetailRowById(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM CatalogProduct c WHERE c.productId IN (:ids)")
+    void deleteByProductIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -20,6 +20,10 @@ public interface CategoryAttributeRepository extends JpaRepository<CategoryAttri
             "WHERE ca.category.id IN :categoryIds ORDER BY ca.sortOrder ASC, ca.id ASC")
     List<CategoryAttribute> findByCategoryIdsWithAttribute(@Param("categoryIds") List<Long> categoryIds);
 
+    @Query("SELECT ca FROM CategoryAttribute ca JOIN FETCH ca.category JOIN FETCH ca.attribute a " +
+            "LEFT JOIN FETCH a.options ORDER BY ca.sortOrder ASC, ca.id ASC")
+    List<CategoryAttribute> findAllWithAttribute();
+
     @Query("SELECT COUNT(ca) FROM CategoryAttribute ca WHERE ca.attribute.id = :attributeId")
     long countByAttributeId(@Param("attributeId") Long attributeId);
 
@@ -1,15 +1,19 @@
 package uz.shinamagazin.api.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uz.shinamagazin.api.entity.Customer;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
@@ -30,6 +34,21 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
             "c.phone LIKE CONCAT('%', :search, '%'))")
     Page<Customer> searchCustomers(@Param("search") String search, Pageable pageable);
 
+    /**
+     * Mijozlar eksporti — kursor bilan, saralangan, chegarasiz.
+     * {@code search} null bo'lsa barcha faollar. Tranzaksiya ichida va
+     * {@code try-with-resources} bilan o'qiladi.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Customer c WHERE c.active = true AND " +
+            "(:search IS NULL OR LOWER(c.fullName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "c.phone LIKE CONCAT('%', :search, '%')) " +
+            "ORDER BY c.id")
+    Stream<Customer> streamForExport(@Param("search") String search);
+
     // Qarzli mijozlar
     @Query("SELECT c FROM Customer c WHERE c.active = true AND c.balance < 0")
     List<Customer> findCustomersWithDebt();
@@ -1,16 +1,19 @@
 package uz.shinamagazin.api.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uz.shinamagazin.api.entity.LoginAttempt;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface LoginAttemptRepository extends JpaRepository<LoginAttempt, Long> {
@@ -66,8 +69,22 @@ public interface LoginAttemptRepository extends JpaRepository<LoginAttempt, Long
         Pageable pageable
     );
 
-    // Delete old login attempts (cleanup task)
-    @Modifying
-    @Query("DELETE FROM LoginAttempt la WHERE la.createdAt < :before")
-    int deleteOldAttempts(@Param("before") LocalDateTime before);
+    // Eksport uchun kursor: findWithFilters shartlari, skalyar ustunlar
+    // [id, username, status, deviceType, browser, createdAt, ipAddress]
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT la.id, la.username, la.status, la.deviceType, la.browser, la.createdAt, la.ipAddress " +
+           "FROM LoginAttempt la WHERE " +
+           "(:username IS NULL OR la.username = :username) " +
+           "AND (:status IS NULL OR la.status = :status) " +
+           "AND (:ipAddress IS NULL OR la.ipAddress = :ipAddress) " +
+           "AND (CAST(:fromDate AS timestamp) IS NULL OR la.createdAt >= :fromDate) " +
+           "AND (CAST(:toDate AS timestamp) IS NULL OR la.createdAt <= :toDate) " +
+           "ORDER BY la.createdAt DESC, la.id DESC")
+    Stream<Object[]> streamForExport(
+        @Param("username") String username,
+        @Param("status") LoginAttempt.LoginStatus status,
+        @Param("ipAddress") String ipAddress,
+        @Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate
+    );
 }
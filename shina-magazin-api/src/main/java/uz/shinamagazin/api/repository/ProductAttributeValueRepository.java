@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uz.shinamagazin.api.entity.ProductAttributeValue;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,6 +19,22 @@ public interface ProductAttributeValueRepository extends JpaRepository<ProductAt
             "ORDER BY a.sortOrder ASC, a.id ASC, v.id ASC")
     List<ProductAttributeValue> findByProductIdWithAttribute(@Param("productId") Long productId);
 
+    /** Katalog jadvali (CatalogReadModel) uchun — bir nechta mahsulotniki birdan. */
+    @Query("SELECT v FROM ProductAttributeValue v " +
+            "JOIN FETCH v.attribute a LEFT JOIN FETCH v.option " +
+            "WHERE v.product.id IN (:productIds) " +
+            "ORDER BY a.sortOrder ASC, a.id ASC, v.id ASC")
+    List<ProductAttributeValue> findByProductIdInWithAttribute(@Param("productIds") Collection<Long> productIds);
+
+    /** Katalog jadvali: atribut yoki variant nomi o'zgarganda qayta yoziladigan faol mahsulotlar. */
+    @Query("SELECT DISTINCT v.product.id FROM ProductAttributeValue v " +
+            "WHERE v.product.active = true AND v.attribute.id IN (:attributeIds)")
+    List<Long> findActiveProductIdsByAttributeIdIn(@Param("attributeIds") Collection<Long> attributeIds);
+
+    @Query("SELECT DISTINCT v.product.id FROM ProductAttributeValue v " +
+            "WHERE v.product.active = true AND v.option.id IN (:optionIds)")
+    List<Long> findActiveProductIdsByOptionIdIn(@Param("optionIds") Collection<Long> optionIds);
+
     @Modifying
     @Query("DELETE FROM ProductAttributeValue v WHERE v.product.id = :productId")
     void deleteByProductId(@Param("productId") Long productId);
@@ -35,4 +52,13 @@ public interface ProductAttributeValueRepository extends JpaRepository<ProductAt
             "GROUP BY v.option.id")
     List<Object[]> countProductsByOption(@Param("allCategories") boolean allCategories,
                                          @Param("categoryIds") List<Long> categoryIds);
+
+    // Facet indeksi uchun mahsulot -> variant a'zoliklari (productId, optionId)
+    @Query("SELECT v.product.id, v.option.id FROM ProductAttributeValue v " +
+            "WHERE v.product.active = true AND v.option IS NOT NULL")
+    List<Object[]> findFacetOptionRows();
+
+    @Query("SELECT v.product.id, v.option.id FROM ProductAttributeValue v " +
+            "WHERE v.product.active = true AND v.option IS NOT NULL AND v.product.id IN (:productIds)")
+    List<Object[]> findFacetOptionRowsByProductIdIn(@Param("productIds") Collection<Long> productIds);
 }
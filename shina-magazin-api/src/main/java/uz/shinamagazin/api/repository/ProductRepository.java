@@ -5,6 +5,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Repository;
 import uz.shinamagazin.api.entity.Product;
 import uz.shinamagazin.api.enums.Season;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,15 +39,29 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @EntityGraph(attributePaths = {"brand", "category"})
     List<Product> findByActiveTrue();
 
+    /** Katalog sahifasi — id'lar facet indeksidan keladi. */
     @EntityGraph(attributePaths = {"brand", "category"})
-    Page<Product> findByActiveTrue(Pageable pageable);
+    List<Product> findByIdIn(Collection<Long> ids);
 
-    @Query("SELECT p FROM Product p WHERE p.active = true AND " +
-            "(LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "LOWER(p.sku) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "LOWER(p.brand.name) LIKE LOWER(CONCAT('%', :search, '%')))")
     @EntityGraph(attributePaths = {"brand", "category"})
-    Page<Product> searchProducts(@Param("search") String search, Pageable pageable);
+    Page<Product> findByActiveTrue(Pageable pageable);
+
+    /**
+     * Qidiruv ustunlari hali hisoblanmagan mahsulotlar (V37 dan oldingi qatorlar):
+     * id, sku, name, brand.name, width, profile, diameter.
+     */
+    @Query("SELECT p.id, p.sku, p.name, b.name, p.width, p.profile, p.diameter " +
+            "FROM Product p LEFT JOIN p.brand b WHERE p.searchText IS NULL ORDER BY p.id")
+    List<Object[]> findSearchTextBackfillRows(Pageable pageable);
+
+    // Bulk UPDATE — entity listener'lar (audit, facet indeksi) chaqirilmaydi:
+    // bu ma'lumot o'zgarishi emas, hosila ustunni to'ldirish.
+    @Modifying
+    @Query("UPDATE Product p SET p.searchText = :searchText, p.searchKey = :searchKey WHERE p.id = :id")
+    int updateSearchText(@Param("id") Long id, @Param("searchText") String searchText,
+                         @Param("searchKey") String searchKey);
+
+    List<Product> findByBrandId(Long brandId);
 
     // Eslatma: filtrlash endi ProductSpecs (JpaSpecificationExecutor) orqali —
     // kategoriya shajarasi va atribut filtrlarini bitta dvijok qamrab oladi.
@@ -54,9 +70,26 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @EntityGraph(attributePaths = {"brand", "category"})
     List<Product> findLowStockProducts();
 
+    // Faqat soni kerak bo'lgan joylar uchun (dashboard, ombor statistikasi):
+    // `findLowStockProducts().size()` butun entity'larni brend va kategoriyasi
+    // bilan yuklab, keyin tashlab yuborardi.
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.active = true AND p.quantity <= p.minStockLevel")
+    long countLowStockProducts();
+
     @Query("SELECT COUNT(p) FROM Product p WHERE p.active = true")
     long countActiveProducts();
 
+    // Sitemap bo'laklarining birinchi id'lari: har partSize-faol mahsulot. Bitta
+    // id indeksi o'tishi — bo'lak keyin `id >= :start` bilan o'qiladi (OFFSET'siz)
+    @Query(value = """
+            SELECT id FROM (
+                SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS rn FROM products WHERE active = true
+            ) numbered
+            WHERE MOD(rn - 1, :partSize) = 0
+            ORDER BY id
+            """, nativeQuery = true)
+    List<Long> findActivePartStartIds(@Param("partSize") int partSize);
+
     // Kategoriya bo'yicha faol mahsulotlar soni (admin daraxti va facetlar uchun)
     @Query("SELECT p.category.id, COUNT(p) FROM Product p WHERE p.active = true AND p.category IS NOT NULL GROUP BY p.category.id")
     List<Object[]> countActiveByCategory();
@@ -69,6 +102,66 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT SUM(p.quantity) FROM Product p WHERE p.active = true")
     Long getTotalStock();
 
+    // ─── Ombor hisoboti ───
+    // Ilgari hisobot barcha faol mahsulotlarni brend va kategoriyasi bilan
+    // xotiraga yuklab, keyin Java'da sanardi — 10k+ SKU'da har so'rov minglab
+    // entity hidratsiyasi edi. Endi hamma yig'indi SQL guruhlashda.
+
+    /**
+     * Umumiy ko'rsatkichlar, bitta qator: mahsulotlar soni, jami qoldiq,
+     * kam qolganlar, tugaganlar, qoldiq qiymati (xarid narxida) va
+     * potentsial tushum (sotuv narxida).
+     *
+     * <p>Xarid narxi noma'lum mahsulot qiymatga nol bo'lib kiradi — eski
+     * xotiradagi hisob ham shunday qilardi.
+     */
+    @Query("""
+            SELECT COUNT(p),
+                   COALESCE(SUM(p.quantity), 0),
+                   COALESCE(SUM(CASE WHEN p.quantity > 0 AND p.quantity <= p.minStockLevel THEN 1 ELSE 0 END), 0),
+                   COALESCE(SUM(CASE WHEN p.quantity = 0 THEN 1 ELSE 0 END), 0),
+                   COALESCE(SUM(COALESCE(p.purchasePrice, 0) * p.quantity), 0),
+                   COALESCE(SUM(p.sellingPrice * p.quantity), 0)
+            FROM Product p
+            WHERE p.active = true""")
+    List<Object[]> warehouseTotals();
+
+    /** Kategoriya kesimida: id, nom, mahsulotlar soni, qoldiq, qiymat. */
+    @Query("""
+            SELECT c.id, c.name, COUNT(p),
+                   COALESCE(SUM(p.quantity), 0),
+                   COALESCE(SUM(COALESCE(p.purchasePrice, 0) * p.quantity), 0)
+            FROM Product p
+            JOIN p.category c
+            WHERE p.active = true
+            GROUP BY c.id, c.name
+            ORDER BY COALESCE(SUM(p.quantity), 0) DESC, c.id""")
+    List<Object[]> stockByCategory();
+
+    /** Brend kesimida: id, nom, mahsulotlar soni, qoldiq, qiymat. */
+    @Query("""
+            SELECT b.id, b.name, COUNT(p),
+                   COALESCE(SUM(p.quantity), 0),
+                   COALESCE(SUM(COALESCE(p.purchasePrice, 0) * p.quantity), 0)
+            FROM Product p
+            JOIN p.brand b
+            WHERE p.active = true
+            GROUP BY b.id, b.name
+            ORDER BY COALESCE(SUM(p.quantity), 0) DESC, b.id""")
+    List<Object[]> stockByBrand();
+
+    /**
+     * Eng kam qolgan mahsulotlar — faqat kerakli sahifa.
+     *
+     * <p>{@link #findLowStockProducts()} dan farqi: ro'yxat bazada saralanib
+     * kesiladi va brend/kategoriya yuklanmaydi (hisobot ularni ko'rsatmaydi).
+     */
+    @Query("""
+            SELECT p FROM Product p
+            WHERE p.active = true AND p.quantity <= p.minStockLevel
+            ORDER BY p.quantity ASC, p.id ASC""")
+    List<Product> findLowestStock(Pageable pageable);
+
     /**
      * Brend facetlari — mahsulot soni bilan.
      *
@@ -85,6 +178,44 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     List<Object[]> brandFacets(@Param("allCategories") boolean allCategories,
                                @Param("categoryIds") List<Long> categoryIds);
 
+    // ─── Katalog facet indeksi (CatalogFacetIndex) ───
+    // Qator: id, kategoriya, brend, width, profile, diameter, season, narx, qoldiq.
+    // LEFT JOIN: kategoriyasiz/brendsiz mahsulot ham "butun katalog" facetlarida sanaladi.
+
+    @Query("""
+            SELECT p.id, c.id, b.id, p.width, p.profile, p.diameter, p.season, p.sellingPrice, p.quantity
+            FROM Product p LEFT JOIN p.category c LEFT JOIN p.brand b
+            WHERE p.active = true""")
+    List<Object[]> findFacetRows();
+
+    /** Katalog jadvali: brend nomi o'zgarganda qayta yoziladigan qatorlar. */
+    @Query("SELECT p.id FROM Product p WHERE p.active = true AND p.brand.id IN (:brandIds)")
+    List<Long> findActiveIdsByBrandIdIn(@Param("brandIds") Collection<Long> brandIds);
+
+    /** Katalog jadvali: kategoriya nomi/yo'li o'zgarganda qayta yoziladigan qatorlar. */
+    @Query("SELECT p.id FROM Product p WHERE p.active = true AND p.category.id IN (:categoryIds)")
+    List<Long> findActiveIdsByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds);
+
+    /** Bo'laklab yangilash: nofaol bo'lib qolganlari qaytmaydi — indeksdan chiqadi. */
+    @Query("""
+            SELECT p.id, c.id, b.id, p.width, p.profile, p.diameter, p.season, p.sellingPrice, p.quantity
+            FROM Product p LEFT JOIN p.category c LEFT JOIN p.brand b
+            WHERE p.active = true AND p.id IN (:ids)""")
+    List<Object[]> findFacetRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /** Typeahead indeksi (ProductSuggestIndex): id, sku, name, brand, o'lcham, narx, qoldiq. */
+    @Query("""
+            SELECT p.id, p.sku, p.name, b.name, p.width, p.profile, p.diameter, p.sellingPrice, p.quantity
+            FROM Product p LEFT JOIN p.brand b
+            WHERE p.active = true""")
+    List<Object[]> findSuggestRows();
+
+    @Query("""
+            SELECT p.id, p.sku, p.name, b.name, p.width, p.profile, p.diameter, p.sellingPrice, p.quantity
+            FROM Product p LEFT JOIN p.brand b
+            WHERE p.active = true AND p.id IN (:ids)""")
+    List<Object[]> findSuggestRowsByIdIn(@Param("ids") Collection<Long> ids);
+
     // ─── O'lcham facetlari (o'lcham tanlagich ro'yxatlari) ───
     // Ilgari tanlagich ro'yxatlari vitrinaga yuklangan birinchi 200 mahsulotdan
     // qurilardi, ya'ni katalog kattaroq bo'lsa ba'zi o'lchamlar umuman
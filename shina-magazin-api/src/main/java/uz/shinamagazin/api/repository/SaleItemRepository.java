@@ -27,6 +27,16 @@ public interface SaleItemRepository extends JpaRepository<SaleItem, Long> {
             @Param("end") LocalDateTime end
     );
 
+    // Typeahead mashhurligi: mahsulot id -> sotilgan dona
+    @Query("""
+        SELECT si.product.id, SUM(si.quantity)
+        FROM SaleItem si
+        WHERE si.sale.saleDate >= :since
+          AND si.sale.status = 'COMPLETED'
+        GROUP BY si.product.id
+        """)
+    List<Object[]> sumSoldQuantityByProductSince(@Param("since") LocalDateTime since);
+
     // Top mahsulotlar - miqdor va daromad bilan
     @Query("""
         SELECT si.product.id, si.product.name, si.product.sku,
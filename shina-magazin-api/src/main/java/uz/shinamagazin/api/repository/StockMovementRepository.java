@@ -41,9 +41,19 @@ public interface StockMovementRepository extends JpaRepository<StockMovement, Lo
             Pageable pageable
     );
 
-    @Query("SELECT sm FROM StockMovement sm WHERE sm.createdAt BETWEEN :start AND :end ORDER BY sm.createdAt DESC")
-    @EntityGraph(attributePaths = {"product", "supplier", "createdBy"})
-    List<StockMovement> findByDateRange(
+    /**
+     * Ombor hisoboti uchun kunlik harakatlar: sana, turi, soni, jami miqdor.
+     *
+     * <p>Yil davomidagi harakatlarni entity sifatida yuklab (har biri
+     * mahsulot, ta'minotchi va xodim bilan) Java'da sanash o'rniga — bazada
+     * {@code created_at} indeksi bo'yicha guruhlanadi.
+     */
+    @Query("""
+            SELECT CAST(sm.createdAt AS LocalDate), sm.movementType, COUNT(sm), COALESCE(SUM(ABS(sm.quantity)), 0)
+            FROM StockMovement sm
+            WHERE sm.createdAt BETWEEN :start AND :end
+            GROUP BY CAST(sm.createdAt AS LocalDate), sm.movementType""")
+    List<Object[]> summarizeByDayAndType(
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end
     );
@@ -1,14 +1,18 @@
 package uz.shinamagazin.api.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uz.shinamagazin.api.entity.Supplier;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SupplierRepository extends JpaRepository<Supplier, Long> {
@@ -24,6 +28,23 @@ public interface SupplierRepository extends JpaRepository<Supplier, Long> {
            "LOWER(s.email) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<Supplier> searchSuppliers(@Param("search") String search, Pageable pageable);
 
+    /**
+     * Ta'minotchilar eksporti — kursor bilan, saralangan, chegarasiz.
+     * {@code search} null bo'lsa barcha faollar. Tranzaksiya ichida va
+     * {@code try-with-resources} bilan o'qiladi.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Supplier s WHERE s.active = true AND " +
+           "(:search IS NULL OR LOWER(s.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(s.contactPerson) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(s.phone) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(s.email) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+           "ORDER BY s.id")
+    Stream<Supplier> streamForExport(@Param("search") String search);
+
     @Query("SELECT s FROM Supplier s WHERE s.active = true AND s.balance > 0")
     List<Supplier> findSuppliersWithDebt();
 
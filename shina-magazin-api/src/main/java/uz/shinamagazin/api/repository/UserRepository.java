@@ -6,6 +6,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import uz.shinamagazin.api.entity.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,4 +32,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
         WHERE u.id = :id
         """)
     Optional<User> findByIdWithRolesAndPermissions(@Param("id") Long id);
+
+    /** [id, username] — audit yozuvchisi nomlarni partiya uchun bitta so'rovda oladi. */
+    @Query("SELECT u.id, u.username FROM User u WHERE u.id IN :ids")
+    List<Object[]> findUsernamesByIds(@Param("ids") Collection<Long> ids);
 }
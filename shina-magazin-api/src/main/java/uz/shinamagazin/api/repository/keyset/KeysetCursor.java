@@ -0,0 +1,39 @@
+package uz.shinamagazin.api.repository.keyset;
+
+import org.springframework.data.domain.Sort;
+import uz.shinamagazin.api.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset sahifalashning davom ettirish belgisi: oldingi sahifa oxirgi
+ * qatorining saralash kaliti va id'si (tenglikni buzish uchun).
+ *
+ * <p>Mijoz uchun shaffof emas (base64) — ichidagi tuzilma API shartnomasi
+ * emas, faqat qaytarib yuboriladi. Saralash ham cursor ichida: keyingi
+ * sahifalar birinchi sahifa tartibida davom etadi.
+ */
+public record KeysetCursor(String property, Sort.Direction direction, long id, String value) {
+
+    private static final String VERSION = "1";
+
+    public String encode() {
+        String raw = String.join("\n", VERSION, property, direction.name(), Long.toString(id), value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // Qiymat oxirida — unda istalgan belgi bo'lishi mumkin (masalan nom)
+            String[] parts = raw.split("\n", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException(raw);
+            }
+            return new KeysetCursor(parts[1], Sort.Direction.valueOf(parts[2]), Long.parseLong(parts[3]), parts[4]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Noto'g'ri cursor");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package uz.shinamagazin.api.repository.keyset;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import uz.shinamagazin.api.exception.BadRequestException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keyset (seek) sahifalash: {@code OFFSET n} o'rniga
+ * {@code WHERE (kalit, id) < (oxirgi kalit, oxirgi id)}.
+ *
+ * <p>OFFSET bilan chuqur sahifa baza uchun oldingi barcha qatorlarni o'qib
+ * tashlash degani — {@code audit_logs} va {@code stock_movements} o'sgani
+ * sari sekinlashadi. Bu yerda har sahifa (kalit, id) indeksidan bitta
+ * diapazon o'qish (V38). Jami son (COUNT) faqat so'ralsa hisoblanadi.
+ *
+ * <p>Saralash kaliti NOT NULL ustun bo'lishi shart — NULL solishtirishda
+ * qatorlar tushib qoladi. Shuning uchun har bir chaqiruvchi ruxsat etilgan
+ * maydonlarni aniq beradi.
+ */
+@Component
+@RequiredArgsConstructor
+public class KeysetExecutor {
+
+    private static final String ID = "id";
+
+    private final EntityManager entityManager;
+
+    /**
+     * @param sortable   {@code id}dan tashqari ruxsat etilgan saralash maydonlari
+     * @param fetchPaths javob DTO'si tegadigan LAZY bog'lanishlar (N+1 bo'lmasligi uchun)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> KeysetSlice<T> find(Class<T> type, Specification<T> spec, KeysetRequest request,
+                                   Set<String> sortable, String... fetchPaths) {
+        KeysetCursor cursor = request.cursor() != null ? KeysetCursor.decode(request.cursor()) : null;
+        String property = cursor != null ? cursor.property() : request.order().getProperty();
+        Sort.Direction direction = cursor != null ? cursor.direction() : request.order().getDirection();
+        if (!ID.equals(property) && !sortable.contains(property)) {
+            throw new BadRequestException("Bu maydon bo'yicha saralab bo'lmaydi: " + property);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        Expression<Comparable> key = root.get(property);
+        Expression<Long> id = root.get(ID);
+
+        List<Predicate> where = new ArrayList<>(2);
+        Predicate filter = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (filter != null) {
+            where.add(filter);
+        }
+        if (cursor != null) {
+            Comparable last = parse(cursor.value(), key.getJavaType());
+            Predicate beyondId = direction.isAscending()
+                    ? cb.greaterThan(id, cursor.id())
+                    : cb.lessThan(id, cursor.id());
+            where.add(ID.equals(property) ? beyondId : cb.or(
+                    direction.isAscending() ? cb.greaterThan(key, last) : cb.lessThan(key, last),
+                    cb.and(cb.equal(key, last), beyondId)));
+        }
+        query.where(where.toArray(Predicate[]::new));
+        // Spetsifikatsiya o'z tartibini qo'ygan bo'lsa ham (qidiruv mosligi) — keyset tartibi ustun
+        List<Order> orders = new ArrayList<>(2);
+        if (!ID.equals(property)) {
+            orders.add(direction.isAscending() ? cb.asc(key) : cb.desc(key));
+        }
+        orders.add(direction.isAscending() ? cb.asc(id) : cb.desc(id));
+        query.orderBy(orders);
+
+        TypedQuery<T> typed = entityManager.createQuery(query).setMaxResults(request.size() + 1);
+        if (fetchPaths.length > 0) {
+            EntityGraph<T> graph = entityManager.createEntityGraph(type);
+            graph.addAttributeNodes(fetchPaths);
+            typed.setHint("jakarta.persistence.fetchgraph", graph);
+        }
+        List<T> rows = typed.getResultList();
+
+        boolean hasNext = rows.size() > request.size();
+        List<T> content = hasNext ? rows.subList(0, request.size()) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            BeanWrapperImpl lastRow = new BeanWrapperImpl(content.get(content.size() - 1));
+            nextCursor = new KeysetCursor(property, direction, (Long) lastRow.getPropertyValue(ID),
+                    String.valueOf(lastRow.getPropertyValue(property))).encode();
+        }
+        Long total = request.withTotal() ? count(type, spec) : null;
+        return new KeysetSlice<>(List.copyOf(content), nextCursor, total);
+    }
+
+    private <T> long count(Class<T> type, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(cb.count(root));
+        Predicate filter = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (filter != null) {
+            query.where(filter);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable parse(String value, Class<?> javaType) {
+        try {
+            if (javaType == Long.class) return Long.valueOf(value);
+            if (javaType == Integer.class) return Integer.valueOf(value);
+            if (javaType == BigDecimal.class) return new BigDecimal(value);
+            if (javaType == LocalDateTime.class) return LocalDateTime.parse(value);
+            if (javaType == LocalDate.class) return LocalDate.parse(value);
+            if (javaType == String.class) return value;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Noto'g'ri cursor");
+        }
+        throw new IllegalStateException("Keyset kaliti turi qo'llab-quvvatlanmaydi: " + javaType);
+    }
+}
@@ -0,0 +1,36 @@
+package uz.shinamagazin.api.repository.keyset;
+
+import org.springframework.data.domain.Sort;
+import uz.shinamagazin.api.exception.BadRequestException;
+
+/**
+ * Keyset (cursor) sahifasi so'rovi.
+ *
+ * @param cursor    oldingi javobdagi {@code nextCursor}; null — birinchi sahifa
+ * @param size      sahifa hajmi
+ * @param order     birinchi sahifa saralashi (cursor bo'lsa, cursor ichidagisi ishlatiladi)
+ * @param withTotal jami sonni ham hisoblash — har so'rovda COUNT(*), cheksiz
+ *                  lenta uchun kerak emas
+ */
+public record KeysetRequest(String cursor, int size, Sort.Order order, boolean withTotal) {
+
+    public static final int MAX_SIZE = 100;
+
+    /**
+     * Controller parametrlaridan.
+     *
+     * @param sort        {@code "maydon,asc|desc"}; null — {@code defaultSort}
+     * @param defaultSort masalan {@code "createdAt,desc"}
+     */
+    public static KeysetRequest of(String cursor, int size, String sort, String defaultSort, boolean withTotal) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new BadRequestException("Sahifa hajmi 1.." + MAX_SIZE + " oralig'ida bo'lishi kerak");
+        }
+        String[] parts = (sort == null || sort.isBlank() ? defaultSort : sort).split(",");
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim()).orElse(Sort.Direction.ASC)
+                : Sort.Direction.ASC;
+        String blankToNull = cursor == null || cursor.isBlank() ? null : cursor;
+        return new KeysetRequest(blankToNull, size, new Sort.Order(direction, parts[0].trim()), withTotal);
+    }
+}
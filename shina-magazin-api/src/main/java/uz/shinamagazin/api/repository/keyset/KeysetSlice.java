@@ -0,0 +1,21 @@
+package uz.shinamagazin.api.repository.keyset;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset sahifasi.
+ *
+ * @param nextCursor    keyingi sahifa uchun; null — bu oxirgi sahifa
+ * @param totalElements faqat {@link KeysetRequest#withTotal()} bo'lsa, aks holda null
+ */
+public record KeysetSlice<T>(List<T> content, String nextCursor, Long totalElements) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public <R> KeysetSlice<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetSlice<>(content.stream().<R>map(mapper).toList(), nextCursor, totalElements);
+    }
+}
@@ -0,0 +1,43 @@
+package uz.shinamagazin.api.repository.spec;
+
+import org.springframework.data.jpa.domain.Specification;
+import uz.shinamagazin.api.entity.AuditLog;
+
+/**
+ * Audit log filtrlari — {@code AuditLogRepository.searchAuditLogs} bilan bir
+ * xil shartlar (keyset sahifalash uchun). Null — filtr yo'q.
+ */
+public final class AuditLogSpecs {
+
+    private AuditLogSpecs() {
+    }
+
+    public static Specification<AuditLog> entityTypeIs(String entityType) {
+        if (entityType == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("entityType"), entityType);
+    }
+
+    public static Specification<AuditLog> actionIs(String action) {
+        if (action == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("action"), action);
+    }
+
+    public static Specification<AuditLog> userIdIs(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+
+    public static Specification<AuditLog> usernameContains(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
+        }
+        String like = "%" + search.trim().toLowerCase() + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("username")), like);
+    }
+}
@@ -1,14 +1,16 @@
 package uz.shinamagazin.api.repository.spec;
 
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 import uz.shinamagazin.api.entity.Product;
 import uz.shinamagazin.api.entity.ProductAttributeValue;
 import uz.shinamagazin.api.enums.Season;
+import uz.shinamagazin.api.util.SearchNormalizer;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -70,17 +72,46 @@ public final class ProductSpecs {
         };
     }
 
+    /**
+     * Matn qidiruvi {@code products.search_text}/{@code search_key} ustunlari
+     * bo'yicha ({@link SearchNormalizer}). Har bir so'z alohida mos kelishi
+     * shart (AND): so'z yoki normallashtirilgan matnda substring sifatida, yoki
+     * fonetik kaliti bo'yicha so'z boshidan — "мишлен" ham "Michelin"ni topadi.
+     *
+     * <p>Ilgari {@code LOWER(name) LIKE '%q%'} uch ustun bo'yicha edi: indeks
+     * ishlamas (har so'rov to'liq skan), brend JOIN qilinar va kirill/lotin
+     * farqi yoki so'zlar tartibi ("r16 michelin") hech narsa topmasdi. Endi
+     * ikkala ustunda {@code pg_trgm} GIN indeksi bor (V37), JOIN kerak emas.
+     *
+     * <p>Sahifa so'rovida (COUNT emas) moslik darajasi bo'yicha tartib
+     * qo'yiladi: aniq SKU, keyin so'z boshidan moslik, keyin qolganlari.
+     * Pageable'da aniq sort berilsa, u ustun turadi.
+     */
     public static Specification<Product> matchesSearch(String search) {
-        if (search == null || search.isBlank()) {
+        List<String> tokens = SearchNormalizer.tokens(search);
+        if (tokens.isEmpty()) {
             return null;
         }
-        String like = "%" + search.trim().toLowerCase() + "%";
+        String phrase = String.join(" ", tokens);
         return (root, query, cb) -> {
-            Join<Object, Object> brand = root.join("brand", JoinType.LEFT);
-            return cb.or(
-                    cb.like(cb.lower(root.get("name")), like),
-                    cb.like(cb.lower(root.get("sku")), like),
-                    cb.like(cb.lower(brand.get("name")), like));
+            Expression<String> text = root.get("searchText");
+            Expression<String> key = root.get("searchKey");
+            List<Predicate> perToken = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Predicate substring = cb.like(text, "%" + token + "%");
+                String phonetic = SearchNormalizer.phoneticKey(token);
+                perToken.add(phonetic.length() >= SearchNormalizer.MIN_KEY_LENGTH
+                        ? cb.or(substring, cb.like(key, "% " + phonetic + "%"))
+                        : substring);
+            }
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                Expression<Integer> rank = cb.<Integer>selectCase()
+                        .when(cb.like(text, " " + phrase + " %"), 0)
+                        .when(cb.like(text, "% " + phrase + "%"), 1)
+                        .otherwise(2);
+                query.orderBy(cb.asc(rank), cb.asc(root.get("name")), cb.asc(root.get("id")));
+            }
+            return cb.and(perToken.toArray(Predicate[]::new));
         };
     }
 
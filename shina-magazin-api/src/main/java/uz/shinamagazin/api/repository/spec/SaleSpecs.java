@@ -0,0 +1,20 @@
+package uz.shinamagazin.api.repository.spec;
+
+import org.springframework.data.jpa.domain.Specification;
+import uz.shinamagazin.api.entity.Sale;
+
+import java.time.LocalDateTime;
+
+/** Sotuvlar ro'yxati filtrlari (keyset sahifalash uchun). */
+public final class SaleSpecs {
+
+    private SaleSpecs() {
+    }
+
+    public static Specification<Sale> saleDateBetween(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.between(root.get("saleDate"), start, end);
+    }
+}
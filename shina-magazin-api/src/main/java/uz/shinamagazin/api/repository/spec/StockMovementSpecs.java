@@ -0,0 +1,36 @@
+package uz.shinamagazin.api.repository.spec;
+
+import org.springframework.data.jpa.domain.Specification;
+import uz.shinamagazin.api.entity.StockMovement;
+import uz.shinamagazin.api.enums.MovementType;
+
+/**
+ * Ombor harakatlari filtrlari — {@code StockMovementRepository.findWithFilters}
+ * bilan bir xil shartlar (keyset sahifalash uchun). Null — filtr yo'q.
+ */
+public final class StockMovementSpecs {
+
+    private StockMovementSpecs() {
+    }
+
+    public static Specification<StockMovement> productIs(Long productId) {
+        if (productId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("product").get("id"), productId);
+    }
+
+    public static Specification<StockMovement> movementTypeIs(MovementType movementType) {
+        if (movementType == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("movementType"), movementType);
+    }
+
+    public static Specification<StockMovement> referenceTypeIs(String referenceType) {
+        if (referenceType == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("referenceType"), referenceType);
+    }
+}
@@ -8,10 +8,14 @@ import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import uz.shinamagazin.api.enums.PermissionCode;
+import uz.shinamagazin.api.service.DashboardSnapshotService;
+import uz.shinamagazin.api.service.PermissionService;
 
 import java.security.Principal;
 import java.util.List;
@@ -22,6 +26,7 @@ import java.util.List;
 public class JwtChannelInterceptor implements ChannelInterceptor {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final PermissionService permissionService;
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -65,6 +70,46 @@ public class JwtChannelInterceptor implements ChannelInterceptor {
             }
         }
 
+        if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            authorizeSubscription(accessor);
+        }
+
         return message;
     }
+
+    /**
+     * Dashboard topic'i — tushum va qarz raqamlari, ya'ni REST'dagi
+     * {@code DASHBOARD_VIEW} ruxsati bu yerda ham talab qilinadi. Aks holda
+     * istalgan mijoz tokeni bilan ulanib, do'kon kassasini kuzatish mumkin edi.
+     */
+    private void authorizeSubscription(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(DashboardSnapshotService.DESTINATION)) {
+            return;
+        }
+
+        Principal user = accessor.getUser();
+        Long userId = staffUserId(user);
+        if (userId == null || !permissionService.hasPermission(userId, PermissionCode.DASHBOARD_VIEW)) {
+            log.warn("Dashboard topic'iga ruxsatsiz obuna rad etildi: {}", user != null ? user.getName() : null);
+            throw new AccessDeniedException("Dashboard ko'rish uchun ruxsat yo'q");
+        }
+    }
+
+    private static Long staffUserId(Principal user) {
+        if (!(user instanceof UsernamePasswordAuthenticationToken auth)) {
+            return null;
+        }
+        boolean staff = auth.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_STAFF".equals(a.getAuthority()));
+        if (!staff) {
+            return null;
+        }
+        try {
+            return Long.valueOf(auth.getName());
+        } catch (NumberFormatException e) {
+            // Eski (userId'siz) tokenlar — principal username bo'ladi
+            return null;
+        }
+    }
 }
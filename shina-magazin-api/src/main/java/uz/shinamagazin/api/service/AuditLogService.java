@@ -1,35 +1,50 @@
 package uz.shinamagazin.api.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import uz.shinamagazin.api.audit.AuditCorrelationContext;
+import uz.shinamagazin.api.audit.AuditLogWriter;
+import uz.shinamagazin.api.audit.AuditPolicy;
+import uz.shinamagazin.api.dto.response.AuditFieldChangeResponse;
 import uz.shinamagazin.api.dto.response.AuditLogDetailResponse;
 import uz.shinamagazin.api.dto.response.AuditLogGroupResponse;
 import uz.shinamagazin.api.dto.response.AuditLogResponse;
 import uz.shinamagazin.api.dto.response.UserActivityResponse;
 import uz.shinamagazin.api.entity.AuditLog;
-import uz.shinamagazin.api.entity.User;
+import uz.shinamagazin.api.exception.BadRequestException;
 import uz.shinamagazin.api.exception.ResourceNotFoundException;
 import uz.shinamagazin.api.repository.AuditLogRepository;
 import uz.shinamagazin.api.repository.EmployeeRepository;
-import uz.shinamagazin.api.repository.UserRepository;
+import uz.shinamagazin.api.repository.keyset.KeysetCursor;
+import uz.shinamagazin.api.repository.keyset.KeysetExecutor;
+import uz.shinamagazin.api.repository.keyset.KeysetRequest;
+import uz.shinamagazin.api.repository.keyset.KeysetSlice;
+import uz.shinamagazin.api.repository.spec.AuditLogSpecs;
+import uz.shinamagazin.api.security.CustomUserDetails;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,52 +53,44 @@ import java.util.stream.Collectors;
 public class AuditLogService {
 
     private final AuditLogRepository auditLogRepository;
-    private final UserRepository userRepository;
     private final EmployeeRepository employeeRepository;
     private final ObjectMapper objectMapper;
     private final FieldLabelService fieldLabelService;
-
+    private final KeysetExecutor keysetExecutor;
+    private final AuditLogWriter auditLogWriter;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final AuditPolicy auditPolicy;
+
+    /** Batafsil ko'rinish nechta nusxa oralig'igacha orqaga o'qiydi. */
+    private static final int REPLAY_SNAPSHOTS = 4;
+    /** Belgilar shundan oshsa tozalanadi — har entity'ning keyingi UPDATE'i to'liq nusxa bo'ladi. */
+    private static final int SNAPSHOT_COUNTERS_LIMIT = 100_000;
     /**
-     * Log an audit event asynchronously
+     * To'liq nusxa bundan eskirsa keyingi UPDATE yana to'liq yoziladi: kam
+     * o'zgaradigan entity'ning nusxasi saqlash muddati bilan o'chib, keyingi
+     * deltalar tayanchsiz qolmasin.
      */
-    @Async
-    @Transactional
-    public void log(String entityType, Long entityId, String action, Object oldValue, Object newValue, Long userId) {
-        try {
-            String username = null;
-            if (userId != null) {
-                username = userRepository.findById(userId)
-                        .map(User::getUsername)
-                        .orElse(null);
-            }
+    private static final Duration SNAPSHOT_MAX_AGE = Duration.ofDays(1);
 
-            String ipAddress = getClientIpAddress();
-            String userAgent = getUserAgent();
+    /** Entity ("tur:id") bo'yicha shu nusxa yozgan oxirgi to'liq nusxa. */
+    private final Map<String, SnapshotMark> lastSnapshots = new ConcurrentHashMap<>();
 
-            AuditLog auditLog = AuditLog.builder()
-                    .entityType(entityType)
-                    .entityId(entityId)
-                    .action(action)
-                    .oldValue(convertToMap(oldValue))
-                    .newValue(convertToMap(newValue))
-                    .userId(userId)
-                    .username(username)
-                    .ipAddress(ipAddress)
-                    .userAgent(userAgent)
-                    .build();
+    /** Oxirgi to'liq nusxa vaqti va undan keyingi delta UPDATE'lar soni. */
+    private record SnapshotMark(LocalDateTime writtenAt, int updates) {
+    }
 
-            auditLogRepository.save(auditLog);
-            log.debug("Audit log created: {} {} {} by {}", action, entityType, entityId, username);
-        } catch (Exception e) {
-            log.error("Failed to create audit log: {}", e.getMessage(), e);
-        }
+    /**
+     * Log an audit event. Yozuv {@link AuditLogWriter} navbatiga qo'yiladi —
+     * chaqiruvchi bazani kutmaydi, foydalanuvchi nomini yozuvchi keshdan to'ldiradi.
+     */
+    public void log(String entityType, Long entityId, String action, Object oldValue, Object newValue, Long userId) {
+        submit(entityType, entityId, action, oldValue, newValue, userId,
+                getClientIpAddress(), getUserAgent(), null);
     }
 
     /**
      * Log without old value (for CREATE operations)
      */
-    @Async
-    @Transactional
     public void logCreate(String entityType, Long entityId, Object newValue, Long userId) {
         log(entityType, entityId, "CREATE", null, newValue, userId);
     }
@@ -91,8 +98,6 @@ public class AuditLogService {
     /**
      * Log update operation
      */
-    @Async
-    @Transactional
     public void logUpdate(String entityType, Long entityId, Object oldValue, Object newValue, Long userId) {
         log(entityType, entityId, "UPDATE", oldValue, newValue, userId);
     }
@@ -100,8 +105,6 @@ public class AuditLogService {
     /**
      * Log delete operation
      */
-    @Async
-    @Transactional
     public void logDelete(String entityType, Long entityId, Object oldValue, Long userId) {
         log(entityType, entityId, "DELETE", oldValue, null, userId);
     }
@@ -109,79 +112,33 @@ public class AuditLogService {
     /**
      * Log CREATE operation with explicit IP address and user agent (from entity listener)
      */
-    @Async
-    @Transactional
     public void logCreateWithContext(String entityType, Long entityId, Object newValue, Long userId,
                                       String ipAddress, String userAgent, UUID correlationId) {
-        logWithContext(entityType, entityId, "CREATE", null, newValue, userId, ipAddress, userAgent, correlationId);
+        submit(entityType, entityId, "CREATE", null, newValue, userId, ipAddress, userAgent, correlationId);
     }
 
     /**
      * Log UPDATE operation with explicit IP address and user agent (from entity listener)
      */
-    @Async
-    @Transactional
     public void logUpdateWithContext(String entityType, Long entityId, Object oldValue, Object newValue,
                                       Long userId, String ipAddress, String userAgent, UUID correlationId) {
-        logWithContext(entityType, entityId, "UPDATE", oldValue, newValue, userId, ipAddress, userAgent, correlationId);
+        submit(entityType, entityId, "UPDATE", oldValue, newValue, userId, ipAddress, userAgent, correlationId);
     }
 
     /**
      * Log DELETE operation with explicit IP address and user agent (from entity listener)
      */
-    @Async
-    @Transactional
     public void logDeleteWithContext(String entityType, Long entityId, Object oldValue, Long userId,
                                       String ipAddress, String userAgent, UUID correlationId) {
-        logWithContext(entityType, entityId, "DELETE", oldValue, null, userId, ipAddress, userAgent, correlationId);
-    }
-
-    /**
-     * Log an audit event with explicit IP and user agent (bypasses RequestContextHolder)
-     */
-    private void logWithContext(String entityType, Long entityId, String action, Object oldValue,
-                                 Object newValue, Long userId, String ipAddress, String userAgent,
-                                 UUID correlationId) {
-        try {
-            String username = null;
-            if (userId != null) {
-                username = userRepository.findById(userId)
-                        .map(User::getUsername)
-                        .orElse(null);
-            }
-
-            AuditLog auditLog = AuditLog.builder()
-                    .entityType(entityType)
-                    .entityId(entityId)
-                    .action(action)
-                    .oldValue(convertToMap(oldValue))
-                    .newValue(convertToMap(newValue))
-                    .userId(userId)
-                    .username(username)
-                    .ipAddress(ipAddress)
-                    .userAgent(userAgent)
-                    .correlationId(correlationId)
-                    .build();
-
-            auditLogRepository.save(auditLog);
-            log.debug("Audit log created with context: {} {} {} by {} from {} ({}) correlationId={}",
-                    action, entityType, entityId, username, ipAddress, userAgent, correlationId);
-        } catch (Exception e) {
-            log.error("Failed to create audit log with context: {}", e.getMessage(), e);
-        }
+        submit(entityType, entityId, "DELETE", oldValue, null, userId, ipAddress, userAgent, correlationId);
     }
 
     /**
-     * Log an audit event in a new transaction.
-     * This method ensures that audit logs are persisted even if the main transaction rolls back.
-     * Uses REQUIRES_NEW propagation to create a new transaction independent of the calling code.
+     * Log an audit event independently of the caller's transaction.
      *
-     * <p>This is particularly useful for:</p>
-     * <ul>
-     *   <li>Critical audit events that must be recorded regardless of transaction outcome</li>
-     *   <li>Operations that might be rolled back due to validation errors</li>
-     *   <li>Ensuring audit trail completeness for compliance purposes</li>
-     * </ul>
+     * <p>Navbatdagi yozuv chaqiruvchi tranzaksiyasiga bog'liq emas — u rollback
+     * bo'lsa ham yozuv qoladi. Metod avvalgi chaqiruvlar uchun saqlangan;
+     * endi {@link #log} bilan bir xil yo'ldan o'tadi.
      *
      * @param entityType the type of entity (e.g., "User", "Product")
      * @param entityId the ID of the entity
@@ -190,41 +147,87 @@ public class AuditLogService {
      * @param newValue the new state of the entity (null for DELETE)
      * @param userId the ID of the user who performed the action
      */
-    @Async
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logInNewTransaction(String entityType, Long entityId, String action,
                                      Object oldValue, Object newValue, Long userId) {
-        try {
-            String username = null;
-            if (userId != null) {
-                username = userRepository.findById(userId)
-                        .map(User::getUsername)
-                        .orElse(null);
-            }
+        log(entityType, entityId, action, oldValue, newValue, userId);
+    }
 
-            String ipAddress = getClientIpAddress();
-            String userAgent = getUserAgent();
+    /**
+     * Ommaviy operatsiya uchun bitta yakuniy yozuv — har qator
+     * {@link uz.shinamagazin.api.audit.AuditBypass} ichida yozilmagan bo'lsa.
+     * Foydalanuvchi joriy xavfsizlik kontekstidan olinadi.
+     */
+    public void logBulk(String entityType, String action, Map<String, Object> summary) {
+        submit(entityType, null, action, null, summary, getCurrentUserId(),
+                getClientIpAddress(), getUserAgent(), AuditCorrelationContext.get());
+    }
 
-            AuditLog auditLog = AuditLog.builder()
+    /**
+     * Qiymatlar shu yerda, chaqiruvchi oqimida xaritaga o'giriladi — entity
+     * keyin o'zgarsa ham yozuv hodisa paytidagi holatni saqlaydi.
+     *
+     * <p>UPDATE'da faqat o'zgargan maydonlar (delta) saqlanadi: mahsulot
+     * qoldig'i o'zgarganda 20 maydonli ikki nusxa emas, bitta maydon. To'liq
+     * holat CREATE/DELETE'da va har {@link AuditPolicy#getSnapshotEvery()}
+     * UPDATE'dan birida; batafsil ko'rinish uni {@link #getAuditLogDetail}da
+     * eng yaqin to'liq nusxadan qayta yig'adi. Entity turi bo'yicha
+     * {@link AuditPolicy}: FULL — ikkala to'liq nusxa, CREATE_DELETE/OFF — yozilmaydi.
+     */
+    private void submit(String entityType, Long entityId, String action, Object oldValue, Object newValue,
+                        Long userId, String ipAddress, String userAgent, UUID correlationId) {
+        if (!auditPolicy.captures(entityType, action)) {
+            return;
+        }
+        try {
+            AuditLog entry = AuditLog.builder()
                     .entityType(entityType)
                     .entityId(entityId)
                     .action(action)
                     .oldValue(convertToMap(oldValue))
                     .newValue(convertToMap(newValue))
                     .userId(userId)
-                    .username(username)
                     .ipAddress(ipAddress)
                     .userAgent(userAgent)
+                    .correlationId(correlationId)
+                    .createdAt(LocalDateTime.now())
                     .build();
-
-            auditLogRepository.save(auditLog);
-            log.debug("Audit log created in new transaction: {} {} {} by {}",
-                    action, entityType, entityId, username);
+            if (auditPolicy.modeFor(entityType) == AuditPolicy.Mode.FULL || snapshotDue(entry)) {
+                auditLogWriter.submit(entry);
+            } else {
+                auditLogWriter.submitDelta(entry);
+            }
+            log.debug("Audit log queued: {} {} {} by {} correlationId={}",
+                    action, entityType, entityId, userId, correlationId);
         } catch (Exception e) {
-            log.error("Failed to create audit log in new transaction: {}", e.getMessage(), e);
+            log.error("Failed to create audit log: {}", e.getMessage(), e);
         }
     }
 
+    /**
+     * Shu UPDATE to'liq nusxa bilan yozilsinmi: belgi yo'q bo'lsa (qayta ishga
+     * tushish, tozalash, boshqa nusxa yozgan entity), oxirgi nusxadan beri
+     * {@code snapshot-every} UPDATE bo'lgan yoki nusxa {@link #SNAPSHOT_MAX_AGE}
+     * dan eski bo'lsa. Shunday qilib har nusxa o'zi ko'rgan birinchi UPDATE'ni
+     * to'liq yozadi va bazadagi tayanch {@link #replayWindow()} ichida qoladi.
+     */
+    private boolean snapshotDue(AuditLog entry) {
+        if (!"UPDATE".equals(entry.getAction()) || entry.getEntityId() == null) {
+            return false;
+        }
+        if (lastSnapshots.size() >= SNAPSHOT_COUNTERS_LIMIT) {
+            lastSnapshots.clear();
+        }
+        String key = entry.getEntityType() + ":" + entry.getEntityId();
+        int every = Math.max(1, auditPolicy.getSnapshotEvery());
+        LocalDateTime now = entry.getCreatedAt();
+        SnapshotMark mark = lastSnapshots.compute(key, (k, last) -> last == null
+                || last.updates() + 1 >= every
+                || last.writtenAt().isBefore(now.minus(SNAPSHOT_MAX_AGE))
+                ? new SnapshotMark(now, 0)
+                : new SnapshotMark(last.writtenAt(), last.updates() + 1));
+        return mark.updates() == 0;
+    }
+
     /**
      * Get audit logs for an entity
      */
@@ -256,222 +259,269 @@ public class AuditLogService {
                 .map(AuditLogResponse::from);
     }
 
-    // ==================== GROUPED AUDIT LOGS ====================
-
     /**
-     * Time window for grouping logs without correlation_id (in seconds)
+     * {@link #searchAuditLogs}ning cursor (keyset) rejimi. audit_logs eng tez
+     * o'sadigan jadval: OFFSET bilan chuqur sahifa va har sahifadagi COUNT(*)
+     * jadval bilan birga sekinlashadi, bu yerda esa (created_at, id) indeksidan
+     * bitta diapazon.
      */
-    private static final int GROUPING_TIME_WINDOW_SECONDS = 3;
+    @Transactional(readOnly = true)
+    public KeysetSlice<AuditLogResponse> scrollAuditLogs(
+            String entityType, String action, Long userId, String search, KeysetRequest request) {
+        return keysetExecutor.find(AuditLog.class,
+                        Specification.allOf(
+                                AuditLogSpecs.entityTypeIs(entityType),
+                                AuditLogSpecs.actionIs(action),
+                                AuditLogSpecs.userIdIs(userId),
+                                AuditLogSpecs.usernameContains(search)),
+                        request, Set.of("createdAt"))
+                .map(AuditLogResponse::from);
+    }
+
+    /** Maydon so'rovi cursor'i: oxirgi qatorning (created_at, id) kaliti. */
+    private static final String FIELD_CURSOR_PROPERTY = "fieldChange";
 
     /**
-     * Get grouped audit logs.
-     * Groups by correlationId when available, otherwise by time window + userId.
-     * Uses database-level grouping for efficient pagination of large datasets.
+     * Bitta maydonning o'zgarishlari tarixi: "X mahsulot sotish narxini kim
+     * o'zgartirdi", "Customer.balance tahrirlari". {@code changed_fields} va
+     * {@code new_value} GIN indekslaridan o'qiladi — audit qatorlari ilovada
+     * solishtirilmaydi.
+     *
+     * @param value aniq yangi qiymat (JSON sifatida o'qiladi: {@code 100}, {@code true};
+     *              aks holda matn)
+     * @param minValue,maxValue yangi qiymat oralig'i — faqat son qiymatli maydonlar
      */
-    public Page<AuditLogGroupResponse> searchGroupedAuditLogs(
-            String entityType,
-            String action,
-            Long userId,
-            String search,
-            Pageable pageable
-    ) {
-        String trimmedSearch = (search == null || search.trim().isEmpty()) ? null : search.trim();
-
-        // For search queries, fall back to memory-based grouping with reasonable limit
-        if (trimmedSearch != null) {
-            return searchGroupedAuditLogsWithSearch(entityType, action, userId, trimmedSearch, pageable);
+    @Transactional(readOnly = true)
+    public KeysetSlice<AuditFieldChangeResponse> findFieldChanges(
+            String entityType, String field, Long entityId, Long userId,
+            String value, BigDecimal minValue, BigDecimal maxValue,
+            LocalDateTime from, LocalDateTime to, KeysetRequest request) {
+        if (entityType == null || entityType.isBlank() || field == null || field.isBlank()) {
+            throw new BadRequestException("entityType va field majburiy");
+        }
+        LocalDateTime beforeCreatedAt = GROUPS_START;
+        long beforeId = Long.MAX_VALUE;
+        if (request.cursor() != null) {
+            KeysetCursor cursor = KeysetCursor.decode(request.cursor());
+            if (!FIELD_CURSOR_PROPERTY.equals(cursor.property())) {
+                throw new BadRequestException("Noto'g'ri cursor");
+            }
+            beforeCreatedAt = LocalDateTime.parse(cursor.value());
+            beforeId = cursor.id();
         }
 
-        // Step 1: Get all distinct correlation IDs ordered by max timestamp
-        List<Object[]> correlationResults = auditLogRepository.findDistinctCorrelationIds(entityType, action, userId);
-        List<UUID> allCorrelationIds = correlationResults.stream()
-                .map(row -> (UUID) row[0])
+        List<Object[]> rows = auditLogRepository.findFieldChanges(entityType, field.trim(), entityId, userId,
+                toJsonValue(value), minValue, maxValue,
+                from != null ? from : GROUPS_END, to != null ? to : GROUPS_START,
+                beforeCreatedAt, beforeId, request.size() + 1);
+        String nextCursor = null;
+        if (rows.size() > request.size()) {
+            rows = rows.subList(0, request.size());
+            Object[] last = rows.get(rows.size() - 1);
+            nextCursor = new KeysetCursor(FIELD_CURSOR_PROPERTY, Sort.Direction.DESC,
+                    ((Number) last[0]).longValue(), GroupHead.toLocalDateTime(last[9]).toString()).encode();
+        }
+        List<AuditFieldChangeResponse> content = rows.stream()
+                .map(row -> AuditFieldChangeResponse.builder()
+                        .auditLogId(((Number) row[0]).longValue())
+                        .entityType((String) row[1])
+                        .entityId(row[2] != null ? ((Number) row[2]).longValue() : null)
+                        .action((String) row[3])
+                        .field(field.trim())
+                        .oldValue(parseJson((String) row[4]))
+                        .newValue(parseJson((String) row[5]))
+                        .userId(row[6] != null ? ((Number) row[6]).longValue() : null)
+                        .username((String) row[7])
+                        .correlationId(row[8] != null ? UUID.fromString(row[8].toString()) : null)
+                        .createdAt(GroupHead.toLocalDateTime(row[9]))
+                        .build())
                 .toList();
+        return new KeysetSlice<>(content, nextCursor, null);
+    }
 
-        // Step 2: Get uncorrelated logs and group them by time window
-        // Limit to 5000 for performance, this covers most use cases
-        Pageable uncorrelatedPageable = org.springframework.data.domain.PageRequest.of(0, 5000);
-        List<AuditLog> uncorrelatedLogs = auditLogRepository.findUncorrelatedLogs(entityType, action, userId, uncorrelatedPageable);
-        List<AuditLogGroupResponse> uncorrelatedGroups = groupByTimeWindow(uncorrelatedLogs);
-
-        // Step 3: Combine correlated group count + uncorrelated groups count
-        int totalCorrelatedGroups = allCorrelationIds.size();
-        int totalUncorrelatedGroups = uncorrelatedGroups.size();
-        int totalGroups = totalCorrelatedGroups + totalUncorrelatedGroups;
-
-        // Step 4: Determine which groups are on the current page
-        int pageStart = pageable.getPageNumber() * pageable.getPageSize();
-        int pageEnd = Math.min(pageStart + pageable.getPageSize(), totalGroups);
-
-        if (pageStart >= totalGroups) {
-            return new org.springframework.data.domain.PageImpl<>(
-                    Collections.emptyList(), pageable, totalGroups
-            );
+    /** So'rov parametridagi qiymat JSON ko'rinishida: son/mantiqiy/JSON o'zicha, qolgani matn. */
+    private String toJsonValue(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
         }
-
-        List<AuditLogGroupResponse> pageContent = new ArrayList<>();
-
-        // Correlated groups come first (they're usually more recent due to correlation)
-        if (pageStart < totalCorrelatedGroups) {
-            // Need some correlated groups
-            int correlatedStart = pageStart;
-            int correlatedEnd = Math.min(pageEnd, totalCorrelatedGroups);
-
-            List<UUID> pageCorrelationIds = allCorrelationIds.subList(correlatedStart, correlatedEnd);
-
-            if (!pageCorrelationIds.isEmpty()) {
-                List<AuditLog> logsForPage = auditLogRepository.findByCorrelationIdIn(pageCorrelationIds);
-
-                // Group by correlation ID
-                Map<UUID, List<AuditLog>> groupedLogs = logsForPage.stream()
-                        .collect(Collectors.groupingBy(AuditLog::getCorrelationId));
-
-                // Create responses in the same order as pageCorrelationIds
-                for (UUID correlationId : pageCorrelationIds) {
-                    List<AuditLog> groupLogs = groupedLogs.get(correlationId);
-                    if (groupLogs != null && !groupLogs.isEmpty()) {
-                        pageContent.add(createGroupResponse(correlationId, groupLogs));
-                    }
-                }
+        try {
+            JsonNode node = objectMapper.readTree(value);
+            if (node != null && node.isValueNode()) {
+                return node.toString();
             }
+        } catch (JsonProcessingException e) {
+            // oddiy matn
         }
+        return objectMapper.valueToTree(value).toString();
+    }
 
-        // Add uncorrelated groups if needed
-        if (pageEnd > totalCorrelatedGroups && !uncorrelatedGroups.isEmpty()) {
-            int uncorrelatedStart = Math.max(0, pageStart - totalCorrelatedGroups);
-            int uncorrelatedEnd = Math.min(pageEnd - totalCorrelatedGroups, totalUncorrelatedGroups);
-
-            if (uncorrelatedStart < uncorrelatedEnd) {
-                pageContent.addAll(uncorrelatedGroups.subList(uncorrelatedStart, uncorrelatedEnd));
-            }
+    private Object parseJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, Object.class);
+        } catch (JsonProcessingException e) {
+            return json;
         }
+    }
 
-        // Sort combined results by timestamp descending
-        pageContent.sort((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()));
+    // ==================== GROUPED AUDIT LOGS ====================
 
-        return new org.springframework.data.domain.PageImpl<>(
-                pageContent,
-                pageable,
-                totalGroups
-        );
-    }
+    /** Guruh cursor'i: oxirgi guruh boshining (created_at, id) kaliti. */
+    private static final String GROUP_CURSOR_PROPERTY = "group";
+
+    /** Birinchi sahifa: hamma yozuvdan keyingi kalit. */
+    private static final LocalDateTime GROUPS_START = LocalDateTime.of(3000, 1, 1, 0, 0);
+    private static final LocalDateTime GROUPS_END = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Correlation'siz yozuvlar guruhi oralig'i (soniya) — {@link AuditLogRepository}
+     * so'rovidagi {@code INTERVAL '3' SECOND} bilan bir xil.
+     */
+    private static final int GROUPING_TIME_WINDOW_SECONDS = 3;
 
     /**
-     * Fallback method for search queries - uses memory-based grouping
+     * Get grouped audit logs.
+     * Groups by correlationId when available, otherwise by time window + userId.
+     *
+     * <p>Guruhlar bazada (oyna funksiyalari) aniqlanadi — sahifaga faqat shu
+     * sahifa guruhlarining yozuvlari o'qiladi. Sahifa raqami OFFSET bo'lgani
+     * uchun chuqur sahifa va jami son qimmatroq; cheksiz lenta uchun
+     * {@link #scrollGroupedAuditLogs}.
      */
-    private Page<AuditLogGroupResponse> searchGroupedAuditLogsWithSearch(
+    @Transactional(readOnly = true)
+    public Page<AuditLogGroupResponse> searchGroupedAuditLogs(
             String entityType,
             String action,
             Long userId,
             String search,
             Pageable pageable
     ) {
-        // For search, use memory-based grouping with limit
-        int maxFetchSize = 5000;
-        Pageable fetchPageable = org.springframework.data.domain.PageRequest.of(0, maxFetchSize, pageable.getSort());
-
-        Page<AuditLog> page = auditLogRepository.searchAuditLogs(entityType, action, userId, search, fetchPageable);
-        List<AuditLog> allLogs = page.getContent();
-
-        List<AuditLogGroupResponse> allGroups = groupAuditLogs(allLogs);
-
-        int totalGroups = allGroups.size();
-        int start = pageable.getPageNumber() * pageable.getPageSize();
-        int end = Math.min(start + pageable.getPageSize(), totalGroups);
-
-        List<AuditLogGroupResponse> pageContent = (start < totalGroups)
-                ? allGroups.subList(start, end)
-                : Collections.emptyList();
+        String trimmedSearch = (search == null || search.trim().isEmpty()) ? null : search.trim();
+        int offset = (int) pageable.getOffset();
+        List<Object[]> heads = auditLogRepository.findGroupHeads(entityType, action, userId, trimmedSearch,
+                GROUPS_START, Long.MAX_VALUE, GROUPS_START, offset + pageable.getPageSize(),
+                pageable.getPageSize(), offset);
+        long total = auditLogRepository.countGroups(entityType, action, userId, trimmedSearch, GROUPS_START);
 
         return new org.springframework.data.domain.PageImpl<>(
-                pageContent,
+                loadGroups(heads, entityType, action, userId, trimmedSearch),
                 pageable,
-                totalGroups
+                total
         );
     }
 
     /**
-     * Group audit logs by correlation ID or time window
+     * Guruhlangan audit — keyset (cursor) rejimi. Cursor oxirgi guruh boshining
+     * kaliti: N-sahifa birinchisi kabi indeksdan bitta diapazon va bitta sahifa yozuvlari.
      */
-    private List<AuditLogGroupResponse> groupAuditLogs(List<AuditLog> logs) {
-        if (logs.isEmpty()) {
-            return Collections.emptyList();
+    @Transactional(readOnly = true)
+    public KeysetSlice<AuditLogGroupResponse> scrollGroupedAuditLogs(
+            String entityType, String action, Long userId, String search, KeysetRequest request) {
+        String trimmedSearch = (search == null || search.trim().isEmpty()) ? null : search.trim();
+        LocalDateTime beforeCreatedAt = GROUPS_START;
+        long beforeId = Long.MAX_VALUE;
+        if (request.cursor() != null) {
+            KeysetCursor cursor = KeysetCursor.decode(request.cursor());
+            if (!GROUP_CURSOR_PROPERTY.equals(cursor.property())) {
+                throw new BadRequestException("Noto'g'ri cursor");
+            }
+            beforeCreatedAt = LocalDateTime.parse(cursor.value());
+            beforeId = cursor.id();
         }
 
-        // Separate logs with and without correlation_id
-        Map<UUID, List<AuditLog>> correlatedGroups = logs.stream()
-                .filter(log -> log.getCorrelationId() != null)
-                .collect(Collectors.groupingBy(AuditLog::getCorrelationId));
-
-        List<AuditLog> uncorrelatedLogs = logs.stream()
-                .filter(log -> log.getCorrelationId() == null)
-                .toList();
-
-        List<AuditLogGroupResponse> groups = new ArrayList<>();
-
-        // Convert correlated groups
-        for (Map.Entry<UUID, List<AuditLog>> entry : correlatedGroups.entrySet()) {
-            groups.add(createGroupResponse(entry.getKey(), entry.getValue()));
+        List<Object[]> heads = auditLogRepository.findGroupHeads(entityType, action, userId, trimmedSearch,
+                beforeCreatedAt, beforeId, beforeCreatedAt.plusSeconds(GROUPING_TIME_WINDOW_SECONDS),
+                request.size() + 1, request.size() + 1, 0);
+        String nextCursor = null;
+        if (heads.size() > request.size()) {
+            heads = heads.subList(0, request.size());
+            GroupHead last = GroupHead.of(heads.get(heads.size() - 1));
+            nextCursor = new KeysetCursor(GROUP_CURSOR_PROPERTY, Sort.Direction.DESC, last.id(),
+                    last.createdAt().toString()).encode();
         }
-
-        // Group uncorrelated logs by time window and userId
-        groups.addAll(groupByTimeWindow(uncorrelatedLogs));
-
-        // Sort groups by timestamp (most recent first)
-        groups.sort((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()));
-
-        return groups;
+        Long total = request.withTotal()
+                ? auditLogRepository.countGroups(entityType, action, userId, trimmedSearch, GROUPS_START)
+                : null;
+        return new KeysetSlice<>(loadGroups(heads, entityType, action, userId, trimmedSearch), nextCursor, total);
     }
 
     /**
-     * Group logs without correlation_id by time window and userId
+     * Sahifa guruhlari yozuvlari: correlation guruhlari — bitta IN so'rovi,
+     * vaqt guruhlari — birinchi boshdan oxirgisining keyingi boshigacha bitta diapazon.
      */
-    private List<AuditLogGroupResponse> groupByTimeWindow(List<AuditLog> logs) {
-        if (logs.isEmpty()) {
-            return Collections.emptyList();
-        }
+    private List<AuditLogGroupResponse> loadGroups(List<Object[]> rows, String entityType, String action,
+                                                   Long userId, String search) {
+        List<GroupHead> heads = rows.stream().map(GroupHead::of).toList();
 
-        List<AuditLogGroupResponse> groups = new ArrayList<>();
-        List<AuditLog> sorted = logs.stream()
-                .sorted(Comparator.comparing(AuditLog::getCreatedAt).reversed())
+        List<UUID> correlationIds = heads.stream()
+                .map(GroupHead::correlationId)
+                .filter(Objects::nonNull)
                 .toList();
+        Map<UUID, List<AuditLog>> correlated = correlationIds.isEmpty()
+                ? Map.of()
+                : auditLogRepository.findByCorrelationIdIn(correlationIds).stream()
+                        .collect(Collectors.groupingBy(AuditLog::getCorrelationId));
 
-        List<AuditLog> currentGroup = new ArrayList<>();
-        LocalDateTime groupStart = null;
-        Long groupUserId = null;
-
-        for (AuditLog log : sorted) {
-            if (groupStart == null) {
-                // Start new group
-                currentGroup.add(log);
-                groupStart = log.getCreatedAt();
-                groupUserId = log.getUserId();
-            } else {
-                long secondsDiff = ChronoUnit.SECONDS.between(log.getCreatedAt(), groupStart);
-                boolean sameUser = Objects.equals(log.getUserId(), groupUserId);
-
-                if (secondsDiff <= GROUPING_TIME_WINDOW_SECONDS && sameUser) {
-                    // Add to current group
-                    currentGroup.add(log);
-                } else {
-                    // Close current group and start new one
-                    groups.add(createGroupResponse(null, currentGroup));
-                    currentGroup = new ArrayList<>();
-                    currentGroup.add(log);
-                    groupStart = log.getCreatedAt();
-                    groupUserId = log.getUserId();
+        List<GroupHead> timeHeads = heads.stream().filter(h -> h.correlationId() == null).toList();
+        Map<Long, List<AuditLog>> timeGroups = new HashMap<>();
+        if (!timeHeads.isEmpty()) {
+            GroupHead first = timeHeads.get(0);
+            GroupHead last = timeHeads.get(timeHeads.size() - 1);
+            List<AuditLog> logs = auditLogRepository.findUncorrelatedBetween(entityType, action, userId, search,
+                    first.createdAt(), first.id(),
+                    last.nextCreatedAt() != null ? last.nextCreatedAt() : GROUPS_END,
+                    last.nextId() != null ? last.nextId() : 0L);
+            // Yozuv o'zidan yangi yoki teng eng yaqin boshga tegishli
+            int current = 0;
+            for (AuditLog log : logs) {
+                while (current + 1 < timeHeads.size() && !timeHeads.get(current + 1).isOlderThan(log)) {
+                    current++;
                 }
+                timeGroups.computeIfAbsent(timeHeads.get(current).id(), id -> new ArrayList<>()).add(log);
             }
         }
 
-        // Don't forget the last group
-        if (!currentGroup.isEmpty()) {
-            groups.add(createGroupResponse(null, currentGroup));
+        List<AuditLogGroupResponse> groups = new ArrayList<>(heads.size());
+        for (GroupHead head : heads) {
+            List<AuditLog> logs = head.correlationId() != null
+                    ? correlated.get(head.correlationId())
+                    : timeGroups.get(head.id());
+            if (logs != null && !logs.isEmpty()) {
+                groups.add(createGroupResponse(head.correlationId(), logs));
+            }
         }
-
         return groups;
     }
 
+    /** {@link AuditLogRepository#findGroupHeads} qatori. */
+    private record GroupHead(long id, LocalDateTime createdAt, UUID correlationId,
+                             LocalDateTime nextCreatedAt, Long nextId) {
+
+        static GroupHead of(Object[] row) {
+            return new GroupHead(
+                    ((Number) row[0]).longValue(),
+                    toLocalDateTime(row[1]),
+                    row[2] != null ? UUID.fromString(row[2].toString()) : null,
+                    toLocalDateTime(row[3]),
+                    row[4] != null ? ((Number) row[4]).longValue() : null);
+        }
+
+        /** Yozuv shu boshdan yangiroq — ya'ni bu guruhga kirmaydi. */
+        boolean isOlderThan(AuditLog log) {
+            int byTime = log.getCreatedAt().compareTo(createdAt);
+            return byTime > 0 || (byTime == 0 && log.getId() > id);
+        }
+
+        static LocalDateTime toLocalDateTime(Object value) {
+            if (value instanceof java.sql.Timestamp timestamp) {
+                return timestamp.toLocalDateTime();
+            }
+            return (LocalDateTime) value;
+        }
+    }
+
     /**
      * Create a group response from a list of audit logs
      */
@@ -740,13 +790,11 @@ public class AuditLogService {
     }
 
     /**
-     * Clean up old audit logs
+     * Clean up old audit logs — butun oy bo'limlari o'chiriladi
+     * ({@link PartitionMaintenanceService}), qator-qator DELETE emas.
      */
-    @Transactional
     public void cleanupOldLogs(int daysToKeep) {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysToKeep);
-        auditLogRepository.deleteByCreatedAtBefore(cutoffDate);
-        log.info("Cleaned up audit logs older than {} days", daysToKeep);
+        partitionMaintenanceService.dropOlderThan("audit_logs", LocalDateTime.now().minusDays(daysToKeep));
     }
 
     private Map<String, Object> convertToMap(Object obj) {
@@ -764,6 +812,14 @@ public class AuditLogService {
         }
     }
 
+    private Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
+            return userDetails.getId();
+        }
+        return null;
+    }
+
     private String getClientIpAddress() {
         try {
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
@@ -799,6 +855,7 @@ public class AuditLogService {
     /**
      * Get detailed audit log with parsed field changes
      */
+    @Transactional(readOnly = true)
     public AuditLogDetailResponse getAuditLogDetail(Long auditLogId) {
         AuditLog auditLog = auditLogRepository.findById(auditLogId)
             .orElseThrow(() -> new ResourceNotFoundException("Audit log not found"));
@@ -806,15 +863,101 @@ public class AuditLogService {
         return buildDetailResponse(auditLog);
     }
 
+    /**
+     * UPDATE yozuvi uchun to'liq "oldin/keyin" holati: eng yaqin to'liq
+     * holatdan (CREATE, davriy to'liq nusxa yoki V42 gacha yozilgan UPDATE)
+     * shu yozuvgacha bo'lgan deltalar ketma-ket qo'llanadi. Tarix yangidan
+     * eskiga {@link #replayWindow()} tagacha o'qiladi — nusxa har
+     * {@link AuditPolicy#getSnapshotEvery()} UPDATE'da yoziladi, shuning uchun
+     * oyna odatda uni o'z ichiga oladi. Oynada to'liq holat bo'lmasa (masalan
+     * CREATE saqlash muddati bilan o'chgan), holat oynadagi maydonlar bilan
+     * cheklanadi.
+     */
+    private FullViews fullViews(AuditLog auditLog) {
+        if (!"UPDATE".equals(auditLog.getAction()) || auditLog.getEntityId() == null) {
+            return new FullViews(auditLog.getOldValue(), auditLog.getNewValue());
+        }
+        Deque<AuditLog> replay = new ArrayDeque<>();
+        for (AuditLog entry : auditLogRepository.findEntityHistoryBefore(auditLog.getEntityType(),
+                auditLog.getEntityId(), auditLog.getCreatedAt(), auditLog.getId(),
+                PageRequest.of(0, replayWindow()))) {
+            replay.push(entry);
+            if (isFullState(entry)) {
+                break;
+            }
+        }
+        Map<String, Object> state = new LinkedHashMap<>();
+        replay.forEach(entry -> apply(state, entry));
+        Map<String, Object> before = new LinkedHashMap<>(state);
+        if (auditLog.getOldValue() != null) {
+            before.putAll(auditLog.getOldValue());
+        }
+        Map<String, Object> after = new LinkedHashMap<>(before);
+        if (auditLog.getNewValue() != null) {
+            after.putAll(auditLog.getNewValue());
+        }
+        return new FullViews(before, after);
+    }
+
+    private int replayWindow() {
+        return REPLAY_SNAPSHOTS * Math.max(1, auditPolicy.getSnapshotEvery());
+    }
+
+    /**
+     * Yozuvda entity'ning to'liq holati bormi: CREATE, {@code changed_fields}siz
+     * (V42 gacha) yozuv yoki o'zgarmagan maydonlari ham saqlangan UPDATE
+     * (davriy nusxa, FULL siyosat). Delta'da kalitlar aynan o'zgargan maydonlar.
+     */
+    private static boolean isFullState(AuditLog entry) {
+        if ("CREATE".equals(entry.getAction())) {
+            return true;
+        }
+        if (!"UPDATE".equals(entry.getAction())) {
+            return false;
+        }
+        return entry.getChangedFields() == null
+                || (entry.getNewValue() != null && entry.getNewValue().size() > entry.getChangedFields().size());
+    }
+
+    private record FullViews(Map<String, Object> before, Map<String, Object> after) {
+    }
+
+    private static void apply(Map<String, Object> state, AuditLog entry) {
+        switch (entry.getAction()) {
+            case "CREATE" -> {
+                state.clear();
+                if (entry.getNewValue() != null) {
+                    state.putAll(entry.getNewValue());
+                }
+            }
+            case "UPDATE" -> {
+                // Tarix boshi yo'qolgan bo'lsa — hech bo'lmasa eski qiymatlardan
+                if (entry.getOldValue() != null) {
+                    entry.getOldValue().forEach(state::putIfAbsent);
+                }
+                if (entry.getNewValue() != null) {
+                    state.putAll(entry.getNewValue());
+                }
+            }
+            default -> {
+                // DELETE va boshqa amallar holatni o'zgartirmaydi
+            }
+        }
+    }
+
     /**
      * Build detailed response with field-by-field comparison
      */
     private AuditLogDetailResponse buildDetailResponse(AuditLog auditLog) {
+        FullViews views = fullViews(auditLog);
+        Map<String, Object> oldView = views.before();
+        Map<String, Object> newView = views.after();
+
         List<AuditLogDetailResponse.FieldChange> fieldChanges =
             calculateFieldChanges(
                 auditLog.getEntityType(),
-                auditLog.getOldValue(),
-                auditLog.getNewValue()
+                oldView,
+                newView
             );
 
         AuditLogDetailResponse.DeviceInfo deviceInfo =
@@ -838,8 +981,8 @@ public class AuditLogService {
             .ipAddress(auditLog.getIpAddress())
             .deviceInfo(deviceInfo)
             .fieldChanges(fieldChanges)
-            .oldValue(auditLog.getOldValue())
-            .newValue(auditLog.getNewValue())
+            .oldValue(oldView)
+            .newValue(newView)
             .entityName(getEntityName(auditLog.getEntityType(), auditLog.getEntityId()))
             .entityLink(entityLink)
             .operatorLink(operatorLink)
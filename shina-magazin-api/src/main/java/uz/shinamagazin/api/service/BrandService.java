@@ -5,9 +5,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uz.shinamagazin.api.dto.response.BrandResponse;
 import uz.shinamagazin.api.entity.Brand;
+import uz.shinamagazin.api.entity.Product;
 import uz.shinamagazin.api.exception.BadRequestException;
 import uz.shinamagazin.api.exception.ResourceNotFoundException;
 import uz.shinamagazin.api.repository.BrandRepository;
+import uz.shinamagazin.api.repository.ProductRepository;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,6 +19,7 @@ import java.util.stream.Collectors;
 public class BrandService {
 
     private final BrandRepository brandRepository;
+    private final ProductRepository productRepository;
 
     public List<BrandResponse> getAllBrands() {
         return brandRepository.findByActiveTrue().stream()
@@ -55,11 +58,17 @@ public class BrandService {
             throw new BadRequestException("Bu brend allaqachon mavjud: " + name);
         }
 
+        // Brend nomi mahsulotlarning qidiruv ustunlarida ham saqlanadi
+        boolean renamed = !brand.getName().equals(name);
         brand.setName(name);
         brand.setCountry(country);
         brand.setLogoUrl(logoUrl);
 
-        return BrandResponse.from(brandRepository.save(brand));
+        Brand saved = brandRepository.save(brand);
+        if (renamed) {
+            productRepository.findByBrandId(id).forEach(Product::refreshSearchText);
+        }
+        return BrandResponse.from(saved);
     }
 
     @Transactional
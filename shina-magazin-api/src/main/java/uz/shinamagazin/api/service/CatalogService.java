@@ -2,21 +2,31 @@ package uz.shinamagazin.api.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import uz.shinamagazin.api.dto.response.AlternativeSizeResponse;
 import uz.shinamagazin.api.dto.response.CatalogFacetsResponse;
 import uz.shinamagazin.api.dto.response.CatalogProductResponse;
-import uz.shinamagazin.api.dto.response.CategoryAttributeResponse;
 import uz.shinamagazin.api.dto.response.ProductAttributeValueResponse;
+import uz.shinamagazin.api.dto.response.ProductSuggestion;
 import uz.shinamagazin.api.entity.Product;
-import uz.shinamagazin.api.enums.AttributeType;
 import uz.shinamagazin.api.enums.Season;
+import uz.shinamagazin.api.exception.BadRequestException;
 import uz.shinamagazin.api.exception.ResourceNotFoundException;
+import uz.shinamagazin.api.repository.CatalogProductRepository;
 import uz.shinamagazin.api.repository.ProductAttributeValueRepository;
 import uz.shinamagazin.api.repository.ProductRepository;
+import uz.shinamagazin.api.repository.keyset.KeysetExecutor;
+import uz.shinamagazin.api.repository.keyset.KeysetRequest;
+import uz.shinamagazin.api.repository.keyset.KeysetSlice;
 import uz.shinamagazin.api.repository.spec.ProductSpecs;
+import uz.shinamagazin.api.service.catalog.CatalogFacetIndex;
+import uz.shinamagazin.api.service.catalog.CatalogFilter;
+import uz.shinamagazin.api.service.catalog.ProductSuggestIndex;
+import uz.shinamagazin.api.service.catalog.TireSize;
 import uz.shinamagazin.api.util.TireSizeQuery;
 
 import java.math.BigDecimal;
@@ -24,6 +34,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -37,9 +49,16 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class CatalogService {
 
+    /** Cursor rejimidagi saralash maydonlari (hammasi NOT NULL). */
+    private static final Set<String> SORTABLE = Set.of("sellingPrice", "name", "createdAt");
+
     private final ProductRepository productRepository;
     private final ProductAttributeValueRepository valueRepository;
+    private final CatalogProductRepository catalogProductRepository;
     private final CategoryService categoryService;
+    private final CatalogFacetIndex facetIndex;
+    private final ProductSuggestIndex suggestIndex;
+    private final KeysetExecutor keysetExecutor;
 
     @Transactional(readOnly = true)
     /**
@@ -68,28 +87,104 @@ public class CatalogService {
         // matn qidiruvi sifatida ishlatiladi.
         String textSearch = parsed.hasAnySize() ? parsed.remainingText() : search;
 
-        Specification<Product> spec = Specification.allOf(
+        Integer sizeWidth = width != null ? width : parsed.width();
+        Integer sizeProfile = profile != null ? profile : parsed.profile();
+        Integer sizeDiameter = diameter != null ? diameter : parsed.diameter();
+
+        // Matn qidiruvisiz so'rov (vitrinaning asosiy holati) to'liq facet
+        // indeksidan yechiladi: har bir atribut guruhi endi alohida EXISTS
+        // so'rovi emas, bitmap kesishmasi. Matn qidiruvi indeksda yo'q — SQL.
+        if (textSearch == null || textSearch.isBlank()) {
+            CatalogFilter filter = new CatalogFilter(brandId, season, sizeWidth, sizeProfile, sizeDiameter,
+                    priceMin, priceMax, inStock, attributeFilters);
+            Optional<Page<Long>> ids = facetIndex.findProductIds(categoryId, filter, pageable);
+            if (ids.isPresent()) {
+                return loadPage(ids.get());
+            }
+        }
+
+        Specification<Product> spec = catalogSpec(brandId, categoryId, season, textSearch,
+                sizeWidth, sizeProfile, sizeDiameter, priceMin, priceMax, inStock, attributeFilters);
+        return productRepository.findAll(spec, pageable)
+                .map(CatalogProductResponse::from);
+    }
+
+    /**
+     * Katalogning cursor (keyset) rejimi — cheksiz lenta uchun. Filtrlar
+     * {@link #getCatalog} bilan bir xil; matn qidiruvida ham tartib saralash
+     * maydoni bo'yicha (moslik darajasi keyset kaliti bo'la olmaydi).
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<CatalogProductResponse> scrollCatalog(
+            Long brandId, Long categoryId, Season season, String search,
+            Integer width, Integer profile, Integer diameter,
+            BigDecimal priceMin, BigDecimal priceMax, Boolean inStock,
+            Map<Long, List<Long>> attributeFilters, KeysetRequest request) {
+
+        TireSizeQuery parsed = TireSizeQuery.parse(search);
+        String textSearch = parsed.hasAnySize() ? parsed.remainingText() : search;
+        Specification<Product> spec = catalogSpec(brandId, categoryId, season, textSearch,
+                width != null ? width : parsed.width(),
+                profile != null ? profile : parsed.profile(),
+                diameter != null ? diameter : parsed.diameter(),
+                priceMin, priceMax, inStock, attributeFilters);
+        return keysetExecutor.find(Product.class, spec, request, SORTABLE, "brand", "category")
+                .map(CatalogProductResponse::from);
+    }
+
+    private Specification<Product> catalogSpec(
+            Long brandId, Long categoryId, Season season, String textSearch,
+            Integer width, Integer profile, Integer diameter,
+            BigDecimal priceMin, BigDecimal priceMax, Boolean inStock,
+            Map<Long, List<Long>> attributeFilters) {
+        return Specification.allOf(
                 ProductSpecs.activeTrue(),
                 ProductSpecs.brandIs(brandId),
                 ProductSpecs.categoryIn(categoryId != null
                         ? categoryService.collectDescendantIds(categoryId) : null),
                 ProductSpecs.seasonIs(season),
-                ProductSpecs.sizeIs(
-                        width != null ? width : parsed.width(),
-                        profile != null ? profile : parsed.profile(),
-                        diameter != null ? diameter : parsed.diameter()),
+                ProductSpecs.sizeIs(width, profile, diameter),
                 ProductSpecs.matchesSearch(textSearch),
                 ProductSpecs.priceGte(priceMin),
                 ProductSpecs.priceLte(priceMax),
                 ProductSpecs.inStock(inStock),
                 ProductSpecs.hasAttributeOptions(attributeFilters));
+    }
 
-        return productRepository.findAll(spec, pageable)
-                .map(CatalogProductResponse::from);
+    /**
+     * Indeks bergan id sahifasini {@code catalog_products} tekis jadvalidan
+     * bitta so'rovda yuklaydi (JOIN'siz, entity'siz), tartibini saqlab.
+     *
+     * <p>Indeks {@code refresh-ms} gacha kechikishi mumkin: shu orada nofaol
+     * bo'lib qolgan mahsulot sahifadan tushib qoladi (ommaga ko'rinmaydi).
+     * Jadvalda hali qatori yo'q (endigina qo'shilgan) mahsulotlar eski yo'l
+     * bilan o'qiladi.
+     */
+    private Page<CatalogProductResponse> loadPage(Page<Long> ids) {
+        Map<Long, CatalogProductResponse> byId = new HashMap<>();
+        catalogProductRepository.findListRowsByIdIn(ids.getContent())
+                .forEach(row -> byId.put((Long) row[0], CatalogProductResponse.fromRow(row)));
+        List<Long> missing = ids.getContent().stream().filter(id -> !byId.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            productRepository.findByIdIn(missing).stream()
+                    .filter(p -> Boolean.TRUE.equals(p.getActive()))
+                    .forEach(p -> byId.put(p.getId(), CatalogProductResponse.from(p)));
+        }
+        List<CatalogProductResponse> content = ids.getContent().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
     }
 
+    /** Mahsulot sahifasi — {@code catalog_products}dagi bitta qatordan, atributlari ichida. */
     @Transactional(readOnly = true)
     public CatalogProductResponse getCatalogProduct(Long id) {
+        List<Object[]> rows = catalogProductRepository.findDetailRowById(id);
+        if (!rows.isEmpty()) {
+            return CatalogProductResponse.fromDetailRow(rows.get(0));
+        }
+        // Jadvalga hali yozilmagan (yoki nofaol) — avvalgi yo'l
         Product product = productRepository.findById(id)
                 .filter(p -> Boolean.TRUE.equals(p.getActive())) // faol bo'lmagan mahsulot ommaga ko'rinmaydi
                 .orElseThrow(() -> new ResourceNotFoundException("Mahsulot", "id", id));
@@ -104,79 +199,40 @@ public class CatalogService {
      * narx diapazoni va tanlangan kategoriyaning (merosi bilan) filtrlanadigan
      * atributlari — har bir variantda mos mahsulotlar soni.
      */
-    @Transactional(readOnly = true)
     public CatalogFacetsResponse getFacets(Long categoryId) {
-        boolean allCategories = categoryId == null;
-        List<Long> categoryIds = allCategories
-                ? List.of(-1L)
-                : new ArrayList<>(categoryService.collectDescendantIds(categoryId));
-
-        // Narx diapazoni
-        BigDecimal priceMin = null;
-        BigDecimal priceMax = null;
-        List<Object[]> range = productRepository.priceRange(allCategories, categoryIds);
-        if (!range.isEmpty() && range.get(0)[0] != null) {
-            priceMin = (BigDecimal) range.get(0)[0];
-            priceMax = (BigDecimal) range.get(0)[1];
-        }
+        return getFacets(categoryId, CatalogFilter.none());
+    }
 
-        // Variant -> mahsulotlar soni
-        Map<Long, Long> countsByOption = new HashMap<>();
-        for (Object[] row : valueRepository.countProductsByOption(allCategories, categoryIds)) {
-            countsByOption.put((Long) row[0], (Long) row[1]);
-        }
+    /**
+     * Tanlangan filtrlarni hisobga olgan facetlar — {@link CatalogFacetIndex}dan,
+     * bazaga so'rovsiz (kategoriya atributlari birinchi marta bundan mustasno).
+     */
+    public CatalogFacetsResponse getFacets(Long categoryId, CatalogFilter filter) {
+        return facetIndex.getFacets(categoryId, filter);
+    }
 
-        // Atribut facetlari: kategoriya tanlangan bo'lsa — effektiv (meros bilan)
-        // filtrlanadigan SELECT/MULTI_SELECT atributlar
-        List<CatalogFacetsResponse.AttributeFacet> facets = new ArrayList<>();
-        if (!allCategories) {
-            for (CategoryAttributeResponse ca : categoryService.getEffectiveAttributes(categoryId)) {
-                var attribute = ca.getAttribute();
-                boolean selectable = attribute.getType() == AttributeType.SELECT
-                        || attribute.getType() == AttributeType.MULTI_SELECT;
-                if (!Boolean.TRUE.equals(attribute.getFilterable()) || !selectable) {
-                    continue;
-                }
-                List<CatalogFacetsResponse.OptionFacet> options = attribute.getOptions().stream()
-                        .map(o -> new CatalogFacetsResponse.OptionFacet(
-                                o.getId(), o.getValue(), countsByOption.getOrDefault(o.getId(), 0L)))
-                        .filter(o -> o.getCount() > 0)
-                        .toList();
-                if (options.isEmpty()) {
-                    continue;
-                }
-                facets.add(CatalogFacetsResponse.AttributeFacet.builder()
-                        .id(attribute.getId())
-                        .name(attribute.getName())
-                        .code(attribute.getCode())
-                        .type(attribute.getType())
-                        .unit(attribute.getUnit())
-                        .options(options)
-                        .build());
-            }
+    /**
+     * Muqobil o'lchamlar: tashqi diametri ±3% ichida, vitrinada mahsuloti bor —
+     * {@link CatalogFacetIndex}dan, bazaga so'rovsiz. O'lcham matn sifatida
+     * ("205/55R16", {@link TireSizeQuery}) yoki alohida parametrlar bilan.
+     */
+    public List<AlternativeSizeResponse> getAlternativeSizes(String size, Integer width, Integer profile,
+                                                             Integer diameter, Long categoryId,
+                                                             CatalogFilter filter) {
+        TireSizeQuery parsed = TireSizeQuery.parse(size);
+        TireSize tireSize = TireSize.of(
+                width != null ? width : parsed.width(),
+                profile != null ? profile : parsed.profile(),
+                diameter != null ? diameter : parsed.diameter());
+        if (tireSize == null) {
+            throw new BadRequestException("To'liq o'lcham kerak (har bo'lak 0..999), masalan 205/55R16");
         }
+        return facetIndex.findAlternativeSizes(tireSize, categoryId, filter);
+    }
 
-        List<CatalogFacetsResponse.BrandFacet> brands = productRepository
-                .brandFacets(allCategories, categoryIds).stream()
-                .map(row -> CatalogFacetsResponse.BrandFacet.builder()
-                        .id((Long) row[0])
-                        .name((String) row[1])
-                        .count(((Number) row[2]).longValue())
-                        .build())
-                .toList();
-
-        return CatalogFacetsResponse.builder()
-                .categories(categoryService.getCategoryTree())
-                .priceMin(priceMin)
-                .priceMax(priceMax)
-                .attributes(facets)
-                .brands(brands)
-                .sizes(CatalogFacetsResponse.SizeFacet.builder()
-                        .widths(productRepository.distinctWidths(allCategories, categoryIds))
-                        .profiles(productRepository.distinctProfiles(allCategories, categoryIds))
-                        .diameters(productRepository.distinctDiameters(allCategories, categoryIds))
-                        .build())
-                .build();
+    /** Qidiruv maydoni takliflari — {@link ProductSuggestIndex}dan, bazaga so'rovsiz. */
+    public List<ProductSuggestion> suggest(String query, int limit) {
+        return suggestIndex.suggest(query, limit);
     }
 
     /**
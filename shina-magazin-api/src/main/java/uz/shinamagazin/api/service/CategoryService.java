@@ -16,14 +16,13 @@ import uz.shinamagazin.api.repository.AttributeRepository;
 import uz.shinamagazin.api.repository.CategoryAttributeRepository;
 import uz.shinamagazin.api.repository.CategoryRepository;
 import uz.shinamagazin.api.repository.ProductRepository;
+import uz.shinamagazin.api.service.catalog.CategoryTree;
+import uz.shinamagazin.api.service.catalog.CategoryTreeCache;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,23 +35,15 @@ public class CategoryService {
     private final CategoryAttributeRepository categoryAttributeRepository;
     private final AttributeRepository attributeRepository;
     private final ProductRepository productRepository;
+    private final CategoryTreeCache categoryTree;
 
-    @Transactional(readOnly = true)
     public List<CategoryResponse> getAllCategories() {
-        Map<Long, Long> counts = productCounts();
-        return categoryRepository.findByActiveTrue().stream()
-                .sorted(Comparator.comparing(Category::getSortOrder).thenComparing(Category::getId))
-                .map(c -> CategoryResponse.from(c, counts))
-                .toList();
+        return categoryTree.get().allActive(categoryTree.productCounts());
     }
 
-    @Transactional(readOnly = true)
+    /** Xotiradagi daraxtdan — bazaga faqat mahsulot sonlari eskirganda murojaat. */
     public List<CategoryResponse> getCategoryTree() {
-        Map<Long, Long> counts = productCounts();
-        return categoryRepository.findByParentIsNullAndActiveTrue().stream()
-                .sorted(Comparator.comparing(Category::getSortOrder).thenComparing(Category::getId))
-                .map(c -> CategoryResponse.from(c, counts))
-                .toList();
+        return categoryTree.roots();
     }
 
     @Transactional(readOnly = true)
@@ -103,7 +94,7 @@ public class CategoryService {
         } else if (!parentId.equals(id)) {
             Category parent = requireCategory(parentId);
             // Halqa (cycle) oldini olish: yangi ota — o'zining bolasi bo'lmasin
-            if (collectDescendantIds(id).contains(parentId)) {
+            if (loadStructure().subtree(id).contains(parentId)) {
                 throw new BadRequestException("Kategoriyani o'z bolasiga ko'chirib bo'lmaydi");
             }
             category.setParent(parent);
@@ -116,7 +107,7 @@ public class CategoryService {
     @Transactional
     public void deleteCategory(Long id) {
         Category category = requireCategory(id);
-        Set<Long> subtree = collectDescendantIds(id);
+        Set<Long> subtree = loadStructure().subtree(id);
         List<Category> toDeactivate = categoryRepository.findAllById(subtree);
         toDeactivate.forEach(c -> c.setActive(false));
         categoryRepository.saveAll(toDeactivate);
@@ -159,7 +150,8 @@ public class CategoryService {
             reordered.get(i).setSortOrder(i);
         }
         categoryRepository.saveAll(reordered);
-        return getCategoryTree();
+        // Kesh commit'dan keyin yangilanadi — javob shu tranzaksiyadagi holatdan
+        return loadStructure().roots(productCounts());
     }
 
     // ============================================
@@ -170,28 +162,12 @@ public class CategoryService {
      * Kategoriyaning effektiv atributlari: o'ziniki + barcha ota kategoriyalarniki
      * (meros). Bir xil atribut ikki joyda bo'lsa, eng yaqin (pastki) g'olib.
      */
-    @Transactional(readOnly = true)
     public List<CategoryAttributeResponse> getEffectiveAttributes(Long categoryId) {
-        Category category = requireCategory(categoryId);
-
-        Map<Long, CategoryAttributeResponse> byAttribute = new LinkedHashMap<>();
-        boolean inherited = false;
-        Category current = category;
-        while (current != null) {
-            List<CategoryAttribute> bindings =
-                    categoryAttributeRepository.findByCategoryIdWithAttribute(current.getId());
-            for (CategoryAttribute binding : bindings) {
-                if (!Boolean.TRUE.equals(binding.getAttribute().getActive())) {
-                    continue;
-                }
-                byAttribute.putIfAbsent(
-                        binding.getAttribute().getId(),
-                        CategoryAttributeResponse.from(binding, inherited));
-            }
-            current = current.getParent();
-            inherited = true;
+        List<CategoryAttributeResponse> attributes = categoryTree.get().effectiveAttributes(categoryId);
+        if (attributes == null) {
+            throw new ResourceNotFoundException("Kategoriya", "id", categoryId);
         }
-        return new ArrayList<>(byAttribute.values());
+        return attributes;
     }
 
     /** Kategoriyaning O'Z bog'lanishlarini to'liq almashtiradi. */
@@ -234,7 +210,8 @@ public class CategoryService {
         categoryAttributeRepository.deleteAll(toDelete);
         categoryAttributeRepository.saveAll(toSave);
 
-        return getEffectiveAttributes(categoryId);
+        return CategoryTree.of(categoryRepository.findAll(), categoryAttributeRepository.findAllWithAttribute())
+                .effectiveAttributes(categoryId);
     }
 
     // ============================================
@@ -242,20 +219,13 @@ public class CategoryService {
     // ============================================
 
     /** Kategoriya + barcha (faol) avlodlari id'lari — filtrlarda subtree qidiruv uchun. */
-    @Transactional(readOnly = true)
     public Set<Long> collectDescendantIds(Long rootId) {
-        Set<Long> ids = new HashSet<>();
-        Deque<Long> queue = new ArrayDeque<>();
-        queue.add(rootId);
-        while (!queue.isEmpty()) {
-            Long current = queue.poll();
-            if (!ids.add(current)) {
-                continue;
-            }
-            categoryRepository.findByParentIdAndActiveTrue(current)
-                    .forEach(child -> queue.add(child.getId()));
-        }
-        return ids;
+        return categoryTree.get().subtree(rootId);
+    }
+
+    /** Joriy tranzaksiyadagi tuzilma (yozish amallari uchun — kesh commit'dan keyin yangilanadi). */
+    private CategoryTree loadStructure() {
+        return CategoryTree.of(categoryRepository.findAll(), List.of());
     }
 
     private Category requireCategory(Long id) {
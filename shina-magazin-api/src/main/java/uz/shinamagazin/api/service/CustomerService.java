@@ -15,8 +15,11 @@ import uz.shinamagazin.api.exception.ResourceNotFoundException;
 import uz.shinamagazin.api.repository.CustomerRepository;
 import uz.shinamagazin.api.repository.UserRepository;
 import uz.shinamagazin.api.security.CustomUserDetails;
+import uz.shinamagazin.api.service.export.GenericExportService;
 import uz.shinamagazin.api.util.PhoneNumberUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,6 +31,7 @@ public class CustomerService {
     private final CustomerRepository customerRepository;
     private final UserRepository userRepository;
     private final StaffNotificationService notificationService;
+    private final GenericExportService genericExportService;
 
     public Page<CustomerResponse> getAllCustomers(Pageable pageable) {
         return customerRepository.findByActiveTrue(pageable)
@@ -39,6 +43,17 @@ public class CustomerService {
                 .map(CustomerResponse::from);
     }
 
+    /**
+     * Barcha faol mijozlar — kursordan to'g'ridan-to'g'ri {@code out}ga,
+     * qatorlar soni cheklanmaydi. Javob oqimida chaqiriladi.
+     */
+    public void exportCustomers(String search, GenericExportService.ExportFormat format,
+                                OutputStream out) throws IOException {
+        String trimmed = (search == null || search.isBlank()) ? null : search.trim();
+        genericExportService.writeCursor(() -> customerRepository.streamForExport(trimmed),
+                CustomerResponse::from, CustomerResponse.class, format, "Mijozlar Hisoboti", out);
+    }
+
     public CustomerResponse getCustomerById(Long id) {
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Mijoz", "id", id));
@@ -1,6 +1,9 @@
 package uz.shinamagazin.api.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import uz.shinamagazin.api.dto.response.ChartDataResponse;
@@ -18,6 +21,9 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,6 +46,49 @@ public class DashboardService {
 
     private static final String[] WEEKDAY_NAMES = {"Yak", "Dush", "Sesh", "Chor", "Pay", "Jum", "Shan"};
 
+    /**
+     * Bir vaqtda bajariladigan dashboard so'rovlari (= band qilinadigan
+     * ulanishlar) soni. Hikari pulining default hajmi 10 — qolgani kassaga.
+     */
+    @Value("${app.dashboard.query-parallelism:4}")
+    private int queryParallelism;
+
+    // Alohida `Executor` bean emas: u Spring Boot'ning @Async uchun default
+    // executorini o'chirib qo'yardi.
+    private ExecutorService queryExecutor;
+
+    /**
+     * Ulanish band qiladigan har bir dashboard so'rovi shu ruxsatlardan
+     * birini oladi — pul oqimlarida ham, navbat to'lganda chaqiruvchi
+     * oqimda ham. Shu sababli umumiy parallellik {@link #queryParallelism}
+     * dan oshmaydi.
+     */
+    private Semaphore querySlots;
+
+    @PostConstruct
+    void startQueryExecutor() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        querySlots = new Semaphore(queryParallelism);
+        // Navbat cheklangan; to'lsa vazifa rad etiladi va query() uni
+        // chaqiruvchi oqimda, lekin querySlots ostida bajaradi.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                queryParallelism, queryParallelism, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(64),
+                r -> {
+                    Thread t = new Thread(r, "dashboard-query-" + threadCounter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        queryExecutor = executor;
+    }
+
+    @PreDestroy
+    void stopQueryExecutor() {
+        queryExecutor.shutdownNow();
+    }
+
     public DashboardStatsResponse getStats() {
         LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
         LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
@@ -49,7 +98,7 @@ public class DashboardService {
         BigDecimal totalRevenue = saleRepository.getTotalRevenue();
         long totalProducts = productRepository.countActiveProducts();
         Long totalStock = productRepository.getTotalStock();
-        long lowStockCount = productRepository.findLowStockProducts().size();
+        long lowStockCount = productRepository.countLowStockProducts();
         long totalCustomers = customerRepository.countActiveCustomers();
         BigDecimal totalDebt = debtRepository.getTotalActiveDebt();
 
@@ -65,6 +114,17 @@ public class DashboardService {
                 .build();
     }
 
+    /**
+     * Grafiklar uchun ma'lumotlar.
+     *
+     * <p>O'n ikkita mustaqil so'rov ilgari ketma-ket bajarilardi — kechikish
+     * ularning YIG'INDISI edi. Endi ular {@link #queryExecutor} da parallel
+     * ketadi va kechikish eng sekinining vaqtiga tushadi. Har so'rov
+     * repozitoriyning o'z read-only tranzaksiyasida, ya'ni o'z ulanishida
+     * bajariladi; bir vaqtda band qilinadigan ulanishlar soni
+     * {@code app.dashboard.query-parallelism} bilan cheklangan — dashboard
+     * yangilanishi kassa tranzaksiyalariga ulanish qoldirmay qo'ymaydi.
+     */
     public ChartDataResponse getChartData(int days) {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime startDate = now.minusDays(days).toLocalDate().atStartOfDay();
@@ -82,46 +142,54 @@ public class DashboardService {
         LocalDateTime lastMonthEnd = thisMonthStart;
 
         // 1. Sotuvlar trendi
-        List<SalesTrendItem> salesTrend = buildSalesTrend(startDate, days);
+        CompletableFuture<List<SalesTrendItem>> salesTrend = query(() -> buildSalesTrend(startDate, days));
 
         // 2. Top mahsulotlar
-        List<TopProductItem> topProducts = buildTopProducts(startDate, 10);
+        CompletableFuture<List<TopProductItem>> topProducts = query(() -> buildTopProducts(startDate, 10));
 
         // 3. To'lov usullari
-        List<PaymentMethodItem> paymentMethods = buildPaymentMethodStats(startDate);
+        CompletableFuture<List<PaymentMethodItem>> paymentMethods = query(() -> buildPaymentMethodStats(startDate));
 
         // 4. Kategoriyalar bo'yicha
-        List<CategorySalesItem> categorySales = buildCategorySales(startDate);
+        CompletableFuture<List<CategorySalesItem>> categorySales = query(() -> buildCategorySales(startDate));
 
         // 5. Hafta kunlari bo'yicha
-        List<WeekdaySalesItem> weekdaySales = buildWeekdaySales(startDate);
+        CompletableFuture<List<WeekdaySalesItem>> weekdaySales = query(() -> buildWeekdaySales(startDate));
 
         // 6. Soatlar bo'yicha (bugungi)
-        List<HourlySalesItem> hourlySales = buildHourlySales(startOfToday, endOfToday);
+        CompletableFuture<List<HourlySalesItem>> hourlySales = query(() -> buildHourlySales(startOfToday, endOfToday));
 
         // 7. Daromad statistikasi
-        BigDecimal thisWeekRevenue = saleRepository.getRevenueForPeriod(thisWeekStart, now);
-        BigDecimal lastWeekRevenue = saleRepository.getRevenueForPeriod(lastWeekStart, lastWeekEnd);
-        BigDecimal thisMonthRevenue = saleRepository.getRevenueForPeriod(thisMonthStart, now);
-        BigDecimal lastMonthRevenue = saleRepository.getRevenueForPeriod(lastMonthStart, lastMonthEnd);
+        CompletableFuture<BigDecimal> thisWeekRevenueF = query(() -> saleRepository.getRevenueForPeriod(thisWeekStart, now));
+        CompletableFuture<BigDecimal> lastWeekRevenueF = query(() -> saleRepository.getRevenueForPeriod(lastWeekStart, lastWeekEnd));
+        CompletableFuture<BigDecimal> thisMonthRevenueF = query(() -> saleRepository.getRevenueForPeriod(thisMonthStart, now));
+        CompletableFuture<BigDecimal> lastMonthRevenueF = query(() -> saleRepository.getRevenueForPeriod(lastMonthStart, lastMonthEnd));
+
+        CompletableFuture<Long> thisWeekSalesF = query(() -> saleRepository.getSalesCountForPeriod(thisWeekStart, now));
+        CompletableFuture<Long> lastWeekSalesF = query(() -> saleRepository.getSalesCountForPeriod(lastWeekStart, lastWeekEnd));
+
+        BigDecimal thisWeekRevenue = await(thisWeekRevenueF);
+        BigDecimal lastWeekRevenue = await(lastWeekRevenueF);
+        BigDecimal thisMonthRevenue = await(thisMonthRevenueF);
+        BigDecimal lastMonthRevenue = await(lastMonthRevenueF);
 
         // O'sish foizlari
         Double revenueGrowthPercent = calculateGrowthPercent(thisWeekRevenue, lastWeekRevenue);
 
-        Long thisWeekSales = saleRepository.getSalesCountForPeriod(thisWeekStart, now);
-        Long lastWeekSales = saleRepository.getSalesCountForPeriod(lastWeekStart, lastWeekEnd);
+        Long thisWeekSales = await(thisWeekSalesF);
+        Long lastWeekSales = await(lastWeekSalesF);
         Double salesGrowthPercent = calculateGrowthPercent(
                 BigDecimal.valueOf(thisWeekSales != null ? thisWeekSales : 0),
                 BigDecimal.valueOf(lastWeekSales != null ? lastWeekSales : 0)
         );
 
         return ChartDataResponse.builder()
-                .salesTrend(salesTrend)
-                .topProducts(topProducts)
-                .paymentMethods(paymentMethods)
-                .categorySales(categorySales)
-                .weekdaySales(weekdaySales)
-                .hourlySales(hourlySales)
+                .salesTrend(await(salesTrend))
+                .topProducts(await(topProducts))
+                .paymentMethods(await(paymentMethods))
+                .categorySales(await(categorySales))
+                .weekdaySales(await(weekdaySales))
+                .hourlySales(await(hourlySales))
                 .thisWeekRevenue(thisWeekRevenue != null ? thisWeekRevenue : BigDecimal.ZERO)
                 .lastWeekRevenue(lastWeekRevenue != null ? lastWeekRevenue : BigDecimal.ZERO)
                 .thisMonthRevenue(thisMonthRevenue != null ? thisMonthRevenue : BigDecimal.ZERO)
@@ -131,6 +199,47 @@ public class DashboardService {
                 .build();
     }
 
+    private <T> CompletableFuture<T> query(Supplier<T> supplier) {
+        Supplier<T> slotted = () -> withQuerySlot(supplier);
+        try {
+            return CompletableFuture.supplyAsync(slotted, queryExecutor);
+        } catch (RejectedExecutionException e) {
+            // Navbat to'la (bir nechta dashboard bir vaqtda) — ketma-ket,
+            // shu oqimda, lekin umumiy chegara ichida
+            try {
+                return CompletableFuture.completedFuture(slotted.get());
+            } catch (RuntimeException failure) {
+                return CompletableFuture.failedFuture(failure);
+            }
+        }
+    }
+
+    private <T> T withQuerySlot(Supplier<T> supplier) {
+        try {
+            querySlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Dashboard so'rovi to'xtatildi", e);
+        }
+        try {
+            return supplier.get();
+        } finally {
+            querySlots.release();
+        }
+    }
+
+    /** Natijani kutadi; so'rov xatosi o'zining asl turida qayta otiladi. */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
     private List<SalesTrendItem> buildSalesTrend(LocalDateTime startDate, int days) {
         List<Object[]> rawData = saleRepository.getSalesTrend(startDate);
         Map<LocalDate, Object[]> dataMap = new HashMap<>();
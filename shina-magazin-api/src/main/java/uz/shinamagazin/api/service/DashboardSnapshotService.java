@@ -0,0 +1,126 @@
+package uz.shinamagazin.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import uz.shinamagazin.api.dto.response.DashboardSnapshotResponse;
+import uz.shinamagazin.api.event.SaleChangedEvent;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Jonli dashboard — bitta markaziy nusxa.
+ *
+ * <p>Ilgari har bir ochiq dashboard tab'i {@code getStats} va
+ * {@code getChartData} ni o'zi so'rab turardi: har chaqiriq o'ndan ortiq
+ * agregat so'rov, ya'ni N ta menejer — N barobar baza yuki. Endi nusxa shu
+ * yerda jadval bo'yicha va savdo hodisalarida qayta hisoblanadi va
+ * {@value #DESTINATION} ga tarqatiladi; baza yuki tomoshabinlar soniga
+ * bog'liq emas.
+ *
+ * <p>Savdo hodisalari birlashtiriladi: hisoblash davom etayotganda kelgan
+ * istalgan miqdordagi hodisa ortidan faqat BITTA qayta hisoblash bo'ladi —
+ * tushlikdagi savdo to'lqini dashboard so'rovlari to'lqiniga aylanmaydi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardSnapshotService {
+
+    public static final String DESTINATION = "/topic/dashboard";
+
+    private final DashboardService dashboardService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${app.dashboard.chart-days:30}")
+    private int chartDays;
+
+    private final AtomicReference<DashboardSnapshotResponse> current = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    /**
+     * Oxirgi nusxa. Ilova endi ishga tushgan va hali birorta hisoblash
+     * bo'lmagan bo'lsa — shu yerda hisoblanadi.
+     */
+    public DashboardSnapshotResponse getSnapshot() {
+        DashboardSnapshotResponse snapshot = current.get();
+        if (snapshot == null) {
+            requestRefresh();
+            snapshot = current.get();
+        }
+        return snapshot != null ? snapshot : build();
+    }
+
+    public int getChartDays() {
+        return chartDays;
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.refresh-interval-ms:60000}",
+            initialDelayString = "${app.dashboard.initial-delay-ms:10000}")
+    public void scheduledRefresh() {
+        requestRefresh();
+    }
+
+    /**
+     * {@code AFTER_COMMIT} — bekor bo'lgan tranzaksiyadagi savdo dashboardga
+     * tushmasligi uchun. {@code @Async} — kassir chekni hisoblash tugashini
+     * kutib turmasligi uchun.
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSaleChanged(SaleChangedEvent event) {
+        requestRefresh();
+    }
+
+    /**
+     * Qayta hisoblashni so'raydi. Boshqa oqim hozir hisoblayotgan bo'lsa —
+     * faqat belgi qo'yiladi va u oqim tugagach yana bir marta hisoblaydi.
+     */
+    void requestRefresh() {
+        pending.set(true);
+        while (pending.get() && refreshing.compareAndSet(false, true)) {
+            try {
+                pending.set(false);
+                refresh();
+            } finally {
+                refreshing.set(false);
+            }
+        }
+    }
+
+    private void refresh() {
+        DashboardSnapshotResponse snapshot;
+        try {
+            snapshot = build();
+        } catch (Exception e) {
+            // Eski nusxa qoladi — bo'sh dashboarddan ko'ra bir daqiqa eskisi yaxshi.
+            log.error("Dashboard snapshot'ini hisoblab bo'lmadi", e);
+            return;
+        }
+        current.set(snapshot);
+
+        try {
+            messagingTemplate.convertAndSend(DESTINATION, snapshot);
+        } catch (Exception e) {
+            log.error("Dashboard snapshot'ini WebSocket orqali yuborib bo'lmadi", e);
+        }
+    }
+
+    private DashboardSnapshotResponse build() {
+        return DashboardSnapshotResponse.builder()
+                .stats(dashboardService.getStats())
+                .charts(dashboardService.getChartData(chartDays))
+                .chartDays(chartDays)
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -4,7 +4,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uz.shinamagazin.api.entity.LoginAttempt;
@@ -141,16 +140,4 @@ public class LoginAttemptService {
                 username, status, ipAddress, fromDate, toDate, pageable
         );
     }
-
-    /**
-     * Cleanup old login attempts (scheduled task)
-     */
-    @Transactional
-    @Scheduled(cron = "0 0 3 * * *") // Daily at 3 AM
-    public void cleanupOldAttempts() {
-        // Keep login attempts for 90 days
-        LocalDateTime before = LocalDateTime.now().minusDays(90);
-        int deleted = loginAttemptRepository.deleteOldAttempts(before);
-        log.info("Cleaned up {} old login attempts", deleted);
-    }
 }
@@ -0,0 +1,153 @@
+package uz.shinamagazin.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Oylik bo'limlangan jadvallarga (V41: {@code audit_logs},
+ * {@code login_attempts}, {@code stock_movements}) texnik xizmat.
+ *
+ * <ul>
+ *   <li>Ishga tushganda va har kuni kelgusi {@code months-ahead} oy bo'limlari
+ *       oldindan yaratiladi — yozuvlar {@code <jadval>_default}ga tushmaydi;</li>
+ *   <li>saqlash muddati butun oy bo'limlarini {@code DROP} qiladi: katta
+ *       {@code DELETE}, jadval shishishi va uzoq VACUUM yo'q. Oy to'liq
+ *       eskirgandagina o'chadi, ya'ni yozuv muddatdan bir oygacha ortiq turishi mumkin.
+ *       {@code <jadval>_default}ning eskirgan qatorlari ham shu bilan o'chadi;</li>
+ *   <li>bo'limlar yaratilgandan keyin ham {@code <jadval>_default}da qator
+ *       qolsa (oraliqdan tashqari sana — soat xatosi, qo'lda import)
+ *       ogohlantirish yoziladi: bunday qatorlar pruning'dan foydalanmaydi.</li>
+ * </ul>
+ * Bo'limlar faqat PostgreSQL'da; boshqa bazada (testlardagi H2) saqlash
+ * muddati oddiy {@code DELETE} bilan bajariladi.
+ */
+@Service
+@Slf4j
+public class PartitionMaintenanceService {
+
+    static final List<String> PARTITIONED_TABLES = List.of("audit_logs", "login_attempts", "stock_movements");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int loginAttemptsRetentionDays;
+    private final int auditLogsRetentionDays;
+
+    private Boolean partitioned;
+
+    public PartitionMaintenanceService(JdbcTemplate jdbcTemplate,
+                                       @Value("${app.partitions.months-ahead:3}") int monthsAhead,
+                                       @Value("${app.partitions.retention.login-attempts-days:90}") int loginAttemptsRetentionDays,
+                                       @Value("${app.partitions.retention.audit-logs-days:0}") int auditLogsRetentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.loginAttemptsRetentionDays = loginAttemptsRetentionDays;
+        this.auditLogsRetentionDays = auditLogsRetentionDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensurePartitions();
+        warnAboutDefaultRows();
+    }
+
+    /**
+     * Har kuni soat 3:00 da: oldindagi bo'limlar va saqlash muddati.
+     * {@code stock_movements} — zaxira tarixi, muddat bilan o'chirilmaydi.
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void maintain() {
+        ensurePartitions();
+        if (loginAttemptsRetentionDays > 0) {
+            dropOlderThan("login_attempts", LocalDateTime.now().minusDays(loginAttemptsRetentionDays));
+        }
+        if (auditLogsRetentionDays > 0) {
+            dropOlderThan("audit_logs", LocalDateTime.now().minusDays(auditLogsRetentionDays));
+        }
+        warnAboutDefaultRows();
+    }
+
+    /** Kelgusi oylar bo'limlari; yaratilganlar soni. */
+    public int ensurePartitions() {
+        if (!isPartitioned()) {
+            return 0;
+        }
+        int created = 0;
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                Integer count = jdbcTemplate.queryForObject(
+                        "SELECT ensure_monthly_partitions(?, ?)", Integer.class, table, monthsAhead);
+                created += count != null ? count : 0;
+            } catch (RuntimeException e) {
+                log.error("Failed to create partitions for {}: {}", table, e.getMessage(), e);
+            }
+        }
+        if (created > 0) {
+            log.info("Created {} monthly partitions", created);
+        }
+        return created;
+    }
+
+    /**
+     * {@code before}dan oldingi yozuvlarni o'chiradi. PostgreSQL'da — butunlay
+     * shu sanadan oldin tugagan oy bo'limlari (natija: o'chirilgan bo'limlar),
+     * boshqa bazada — qatorlar (natija: o'chirilgan qatorlar).
+     */
+    public int dropOlderThan(String table, LocalDateTime before) {
+        if (!PARTITIONED_TABLES.contains(table)) {
+            throw new IllegalArgumentException("Not a partitioned table: " + table);
+        }
+        if (isPartitioned()) {
+            Integer dropped = jdbcTemplate.queryForObject(
+                    "SELECT drop_monthly_partitions_before(?, ?)", Integer.class, table, Timestamp.valueOf(before));
+            log.info("Dropped {} monthly partitions of {} older than {}", dropped, table, before);
+            return dropped != null ? dropped : 0;
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM " + table + " WHERE created_at < ?", Timestamp.valueOf(before));
+        log.info("Cleaned up {} rows of {} older than {}", deleted, table, before);
+        return deleted;
+    }
+
+    /** {@code <jadval>_default} bo'limidagi qatorlar soni (PostgreSQL bo'lmasa 0). */
+    public long defaultPartitionRows(String table) {
+        if (!PARTITIONED_TABLES.contains(table)) {
+            throw new IllegalArgumentException("Not a partitioned table: " + table);
+        }
+        if (!isPartitioned()) {
+            return 0;
+        }
+        Long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + "_default", Long.class);
+        return rows != null ? rows : 0;
+    }
+
+    private void warnAboutDefaultRows() {
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                long rows = defaultPartitionRows(table);
+                if (rows > 0) {
+                    log.warn("{} rows of {} are in {}_default (created_at outside monthly partitions)",
+                            rows, table, table);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to check {}_default: {}", table, e.getMessage(), e);
+            }
+        }
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            partitioned = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return partitioned;
+    }
+}
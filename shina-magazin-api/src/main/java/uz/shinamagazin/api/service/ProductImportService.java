@@ -7,6 +7,7 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import uz.shinamagazin.api.audit.AuditBypass;
 import uz.shinamagazin.api.dto.response.ProductImportResult;
 import uz.shinamagazin.api.entity.Brand;
 import uz.shinamagazin.api.entity.Category;
@@ -75,9 +76,26 @@ public class ProductImportService {
     private final ProductRepository productRepository;
     private final BrandRepository brandRepository;
     private final CategoryRepository categoryRepository;
+    private final AuditLogService auditLogService;
 
+    /**
+     * Har mahsulot uchun audit o'rniga bitta yakuniy {@code IMPORT} yozuvi.
+     * Butun jarayon {@link AuditBypass} ichida: mavjud mahsulot o'zgarishlari
+     * keyingi {@code findBySku}dagi avtomatik flush'da ham yozilib ketadi.
+     */
     @Transactional
     public ProductImportResult importProducts(MultipartFile file, boolean dryRun) {
+        ProductImportResult result = AuditBypass.run(() -> readAndApply(file, dryRun));
+        if (!result.isDryRun()) {
+            auditLogService.logBulk("Product", "IMPORT", Map.of(
+                    "file", String.valueOf(file.getOriginalFilename()),
+                    "created", result.getCreated(),
+                    "updated", result.getUpdated()));
+        }
+        return result;
+    }
+
+    private ProductImportResult readAndApply(MultipartFile file, boolean dryRun) {
         List<ProductImportResult.RowError> errors = new ArrayList<>();
         List<Product> toSave = new ArrayList<>();
         int created = 0;
@@ -140,7 +158,8 @@ public class ProductImportService {
         // ko'ra, foydalanuvchi faylni tuzatib qayta yuklagani yaxshi.
         boolean apply = !dryRun && errors.isEmpty();
         if (apply) {
-            productRepository.saveAll(toSave);
+            // Flush shu yerda — UPDATE callback'lari hali AuditBypass ichida
+            productRepository.saveAllAndFlush(toSave);
             log.info("Excel import: {} yangi, {} yangilangan mahsulot", created, updated);
         }
 
@@ -0,0 +1,70 @@
+package uz.shinamagazin.api.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.shinamagazin.api.repository.ProductRepository;
+import uz.shinamagazin.api.util.SearchNormalizer;
+
+import java.util.List;
+
+/**
+ * {@code products.search_text}/{@code search_key} ustunlarini eski qatorlar
+ * uchun to'ldiradi.
+ *
+ * <p>Transliteratsiya va fonetik kalit Java'da hisoblanadi
+ * ({@link SearchNormalizer}) — Postgres'da kirill -> lotin o'giruvchi yo'q,
+ * shuning uchun V37 migratsiyasi ustunlarni faqat qo'shadi. Yangi va
+ * o'zgargan mahsulotlar entity callback'i orqali to'ldiriladi; bu yerda
+ * faqat NULL qolganlar, bir marta, kichik tranzaksiyalarda.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchTextBackfill {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @PostConstruct
+    void init() {
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int total = 0;
+        int updated;
+        do {
+            updated = tx.execute(status -> fillBatch());
+            total += updated;
+        } while (updated == BATCH_SIZE);
+        if (total > 0) {
+            log.info("Mahsulot qidiruv ustunlari to'ldirildi: {} ta", total);
+        }
+    }
+
+    private int fillBatch() {
+        List<Object[]> rows = productRepository.findSearchTextBackfillRows(PageRequest.of(0, BATCH_SIZE));
+        for (Object[] row : rows) {
+            String sku = (String) row[1];
+            String name = (String) row[2];
+            String brandName = (String) row[3];
+            String size = SearchNormalizer.compactSize((Integer) row[4], (Integer) row[5], (Integer) row[6]);
+            productRepository.updateSearchText((Long) row[0],
+                    SearchNormalizer.searchText(sku, name, brandName, size),
+                    SearchNormalizer.searchKey(name, brandName));
+        }
+        return rows.size();
+    }
+}
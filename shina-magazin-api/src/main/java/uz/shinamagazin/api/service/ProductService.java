@@ -11,6 +11,7 @@ import uz.shinamagazin.api.dto.request.ProductAttributeValueRequest;
 import uz.shinamagazin.api.dto.request.ProductRequest;
 import uz.shinamagazin.api.dto.response.ProductAttributeValueResponse;
 import uz.shinamagazin.api.dto.response.ProductResponse;
+import uz.shinamagazin.api.dto.response.ProductSuggestion;
 import uz.shinamagazin.api.entity.Attribute;
 import uz.shinamagazin.api.entity.AttributeOption;
 import uz.shinamagazin.api.entity.Brand;
@@ -24,16 +25,23 @@ import uz.shinamagazin.api.exception.BadRequestException;
 import uz.shinamagazin.api.exception.ResourceNotFoundException;
 import uz.shinamagazin.api.repository.AttributeRepository;
 import uz.shinamagazin.api.repository.BrandRepository;
+import uz.shinamagazin.api.repository.CatalogProductRepository;
 import uz.shinamagazin.api.repository.CategoryRepository;
 import uz.shinamagazin.api.repository.ProductAttributeValueRepository;
 import uz.shinamagazin.api.repository.ProductRepository;
 import uz.shinamagazin.api.repository.UserRepository;
+import uz.shinamagazin.api.repository.keyset.KeysetExecutor;
+import uz.shinamagazin.api.repository.keyset.KeysetRequest;
+import uz.shinamagazin.api.repository.keyset.KeysetSlice;
 import uz.shinamagazin.api.repository.spec.ProductSpecs;
 import uz.shinamagazin.api.security.CustomUserDetails;
+import uz.shinamagazin.api.service.catalog.CatalogIndexEntityListener;
+import uz.shinamagazin.api.service.catalog.ProductSuggestIndex;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -41,13 +49,19 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductService {
 
+    /** Cursor rejimidagi saralash maydonlari (hammasi NOT NULL). */
+    private static final Set<String> SORTABLE = Set.of("name", "sku", "sellingPrice", "createdAt");
+
     private final ProductRepository productRepository;
     private final BrandRepository brandRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
     private final AttributeRepository attributeRepository;
     private final ProductAttributeValueRepository valueRepository;
+    private final CatalogProductRepository catalogProductRepository;
     private final CategoryService categoryService;
+    private final ProductSuggestIndex suggestIndex;
+    private final KeysetExecutor keysetExecutor;
 
     public Page<ProductResponse> getAllProducts(Pageable pageable) {
         return productRepository.findByActiveTrue(pageable)
@@ -55,22 +69,42 @@ public class ProductService {
     }
 
     public Page<ProductResponse> searchProducts(String search, Pageable pageable) {
-        return productRepository.searchProducts(search, pageable)
+        Specification<Product> spec = Specification.allOf(
+                ProductSpecs.activeTrue(),
+                ProductSpecs.matchesSearch(search));
+        return productRepository.findAll(spec, pageable)
                 .map(ProductResponse::from);
     }
 
+    /** Kassa qidiruv maydoni — har tugmada sahifali so'rov o'rniga xotiradagi indeks. */
+    public List<ProductSuggestion> suggest(String query, int limit) {
+        return suggestIndex.suggest(query, limit);
+    }
+
     public Page<ProductResponse> getProductsWithFilters(
             Long brandId, Long categoryId, Season season, String search, Pageable pageable) {
+        return productRepository.findAll(filterSpec(brandId, categoryId, season, search), pageable)
+                .map(ProductResponse::from);
+    }
+
+    /** {@link #getProductsWithFilters}ning cursor (keyset) rejimi — OFFSET va majburiy COUNT'siz. */
+    @Transactional(readOnly = true)
+    public KeysetSlice<ProductResponse> scrollProducts(
+            Long brandId, Long categoryId, Season season, String search, KeysetRequest request) {
+        return keysetExecutor.find(Product.class, filterSpec(brandId, categoryId, season, search),
+                        request, SORTABLE, "brand", "category")
+                .map(ProductResponse::from);
+    }
+
+    private Specification<Product> filterSpec(Long brandId, Long categoryId, Season season, String search) {
         // Kategoriya tanlansa uning butun shajarasi (avlodlari) ham qamrab olinadi
-        Specification<Product> spec = Specification.allOf(
+        return Specification.allOf(
                 ProductSpecs.activeTrue(),
                 ProductSpecs.brandIs(brandId),
                 ProductSpecs.categoryIn(categoryId != null
                         ? categoryService.collectDescendantIds(categoryId) : null),
                 ProductSpecs.seasonIs(season),
                 ProductSpecs.matchesSearch(search));
-        return productRepository.findAll(spec, pageable)
-                .map(ProductResponse::from);
     }
 
     @Transactional(readOnly = true)
@@ -133,6 +167,8 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Mahsulot", "id", id));
         product.setActive(false);
         productRepository.save(product);
+        // Vitrina jadvalidan shu tranzaksiyada — navbatdagi yangilanishni kutmasdan
+        catalogProductRepository.deleteByProductIdIn(List.of(id));
     }
 
     public List<ProductResponse> getLowStockProducts() {
@@ -215,6 +251,7 @@ public class ProductService {
             return;
         }
         valueRepository.deleteByProductId(product.getId());
+        CatalogIndexEntityListener.attributeValuesDeleted(product.getId());
         if (requests.isEmpty()) {
             return;
         }
@@ -1,6 +1,7 @@
 package uz.shinamagazin.api.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import uz.shinamagazin.api.dto.response.DebtsReportResponse;
 import uz.shinamagazin.api.dto.response.ProfitLossResponse;
@@ -14,6 +15,7 @@ import uz.shinamagazin.api.enums.PaymentMethod;
 import uz.shinamagazin.api.enums.SaleStatus;
 import uz.shinamagazin.api.exception.BadRequestException;
 import uz.shinamagazin.api.repository.*;
+import uz.shinamagazin.api.util.MoneyAccumulator;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -22,6 +24,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -71,15 +74,11 @@ public class ReportService {
 
         List<SaleReturn> returns = saleReturnRepository.findByReturnDateBetweenWithItems(start, end);
 
-        BigDecimal totalRevenue = sales.stream()
-                .map(Sale::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal returnsTotal = returns.stream()
-                .map(SaleReturn::getRefundAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalRevenue = sumOf(sales, Sale::getTotalAmount);
+        BigDecimal returnsTotal = sumOf(returns, SaleReturn::getRefundAmount);
 
-        BigDecimal totalProfit = calculateProfit(sales).subtract(returnsProfitImpact(returns));
+        BigDecimal totalProfit = calculateProfit(sales).subtract(returnsProfitImpact(returns))
+                .toBigDecimal();
 
         long cancelledCount = allSales.size() - sales.size();
 
@@ -95,9 +94,7 @@ public class ReportService {
         BigDecimal cardTotal = sumPaidByMethod(sales, PaymentMethod.CARD);
         BigDecimal transferTotal = sumPaidByMethod(sales, PaymentMethod.TRANSFER);
 
-        BigDecimal debtTotal = sales.stream()
-                .map(Sale::getDebtAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal debtTotal = sumOf(sales, Sale::getDebtAmount);
 
         List<SalesReportResponse.DailySalesData> dailyData =
                 getDailyData(sales, returns, startDate, endDate);
@@ -142,12 +139,12 @@ public class ReportService {
      *       narx o'zgarsa o'tgan oyning foydasi ham o'zgarardi.
      * </ul>
      */
-    private BigDecimal calculateProfit(List<Sale> sales) {
-        BigDecimal revenue = BigDecimal.ZERO;
-        BigDecimal cost = BigDecimal.ZERO;
+    private MoneyAccumulator calculateProfit(List<Sale> sales) {
+        MoneyAccumulator revenue = new MoneyAccumulator();
+        MoneyAccumulator cost = new MoneyAccumulator();
         for (Sale sale : sales) {
-            revenue = revenue.add(sale.getTotalAmount());
-            cost = cost.add(salesCost(sale));
+            revenue.add(sale.getTotalAmount());
+            addSalesCost(sale, cost);
         }
         return revenue.subtract(cost);
     }
@@ -159,12 +156,11 @@ public class ReportService {
      * o'sha qatorning tushumini ham yashirardi. Bunday qatorlar soni
      * hisobotda alohida qaytariladi ({@code itemsWithoutCost}).
      */
-    private BigDecimal salesCost(Sale sale) {
-        BigDecimal total = BigDecimal.ZERO;
+    private MoneyAccumulator addSalesCost(Sale sale, MoneyAccumulator total) {
         for (SaleItem item : sale.getItems()) {
-            BigDecimal cost = lineCost(item);
-            if (cost != null) {
-                total = total.add(cost);
+            BigDecimal unitCost = unitCost(item);
+            if (unitCost != null) {
+                total.addProduct(unitCost, item.getQuantity());
             }
         }
         return total;
@@ -173,7 +169,7 @@ public class ReportService {
     private long countItemsWithoutCost(List<Sale> sales) {
         return sales.stream()
                 .flatMap(s -> s.getItems().stream())
-                .filter(i -> lineCost(i) == null)
+                .filter(i -> unitCost(i) == null)
                 .count();
     }
 
@@ -184,24 +180,25 @@ public class ReportService {
      * tannarxi ham sotilganlar tannarxidan chiqishi kerak. Aks holda
      * qaytarish foydani ikki marta urardi.
      */
-    private BigDecimal returnsProfitImpact(List<SaleReturn> returns) {
-        BigDecimal impact = BigDecimal.ZERO;
+    private MoneyAccumulator returnsProfitImpact(List<SaleReturn> returns) {
+        MoneyAccumulator impact = new MoneyAccumulator();
+        MoneyAccumulator returnedCost = new MoneyAccumulator();
         for (SaleReturn saleReturn : returns) {
-            impact = impact.add(saleReturn.getRefundAmount()).subtract(returnedCost(saleReturn));
+            impact.add(saleReturn.getRefundAmount())
+                    .subtract(addReturnedCost(saleReturn, returnedCost.clear()));
         }
         return impact;
     }
 
-    /** Qaytarilgan tovarlarning tannarxi. */
-    private BigDecimal returnedCost(SaleReturn saleReturn) {
-        BigDecimal total = BigDecimal.ZERO;
+    /** Qaytarilgan tovarlarning tannarxi — {@code total} ga qo'shiladi. */
+    private MoneyAccumulator addReturnedCost(SaleReturn saleReturn, MoneyAccumulator total) {
         for (SaleReturnItem item : saleReturn.getItems()) {
             BigDecimal unitCost = item.getSaleItem() != null ? item.getSaleItem().getCostPrice() : null;
             if (unitCost == null && item.getProduct() != null) {
                 unitCost = item.getProduct().getPurchasePrice();
             }
             if (unitCost != null) {
-                total = total.add(unitCost.multiply(BigDecimal.valueOf(item.getQuantity())));
+                total.addProduct(unitCost, item.getQuantity());
             }
         }
         return total;
@@ -228,26 +225,38 @@ public class ReportService {
     }
 
     private BigDecimal sumPaidByMethod(List<Sale> sales, PaymentMethod method) {
-        return sales.stream()
-                .filter(s -> s.getPaymentMethod() == method)
-                .map(Sale::getPaidAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        MoneyAccumulator total = new MoneyAccumulator();
+        for (Sale sale : sales) {
+            if (sale.getPaymentMethod() == method) {
+                total.add(sale.getPaidAmount());
+            }
+        }
+        return total.toBigDecimal();
+    }
+
+    /** {@code BigDecimal.ZERO} dan boshlangan {@code reduce(add)} bilan bir xil, oraliq obyektlarsiz. */
+    private static <T> BigDecimal sumOf(List<T> items, Function<T, BigDecimal> amount) {
+        MoneyAccumulator total = new MoneyAccumulator();
+        for (T item : items) {
+            total.add(amount.apply(item));
+        }
+        return total.toBigDecimal();
     }
 
     /**
-     * Savdo qatorining tannarxi (miqdorga ko'paytirilgan).
+     * Savdo qatorining BIRLIK tannarxi.
      *
      * <p>Avval qatorda muhrlangan tannarx, u yo'q bo'lsa (V34 gacha yozilgan
      * savdolar) mahsulotning joriy xarid narxi. Ikkalasi ham yo'q bo'lsa
      * {@code null} — bunday qator tannarxi NOMA'LUM, uni nol deb hisoblash
      * foydani soxta oshirardi.
      */
-    private BigDecimal lineCost(SaleItem item) {
+    private BigDecimal unitCost(SaleItem item) {
         BigDecimal unitCost = item.getCostPrice();
         if (unitCost == null && item.getProduct() != null) {
             unitCost = item.getProduct().getPurchasePrice();
         }
-        return unitCost == null ? null : unitCost.multiply(BigDecimal.valueOf(item.getQuantity()));
+        return unitCost;
     }
 
     /**
@@ -279,8 +288,11 @@ public class ReportService {
                 .filter(s -> s.getStatus() != SaleStatus.CANCELLED)
                 .toList();
 
-        BigDecimal revenue = BigDecimal.ZERO;
-        BigDecimal cogs = BigDecimal.ZERO;
+        // Yig'indilar tiyinlarda (MoneyAccumulator) — har qator uchun yangi
+        // BigDecimal yaratilmaydi; BigDecimal ga faqat javobda aylantiriladi.
+        MoneyAccumulator revenue = new MoneyAccumulator();
+        MoneyAccumulator cogs = new MoneyAccumulator();
+        MoneyAccumulator saleCost = new MoneyAccumulator();
         long itemsWithoutCost = 0;
 
         for (Sale sale : sales) {
@@ -291,42 +303,46 @@ public class ReportService {
             // yig'indisi savdo darajasidagi chegirmani bilmaydi, ya'ni mijoz
             // to'lagan summadan katta chiqardi.
             BigDecimal saleRevenue = sale.getTotalAmount();
-            BigDecimal saleCost = salesCost(sale);
-            itemsWithoutCost += sale.getItems().stream().filter(i -> lineCost(i) == null).count();
+            addSalesCost(sale, saleCost.clear());
+            itemsWithoutCost += sale.getItems().stream().filter(i -> unitCost(i) == null).count();
 
-            revenue = revenue.add(saleRevenue);
-            cogs = cogs.add(saleCost);
+            revenue.add(saleRevenue);
+            cogs.add(saleCost);
             if (agg != null) {
-                agg.revenue = agg.revenue.add(saleRevenue);
-                agg.cogs = agg.cogs.add(saleCost);
+                agg.revenue.add(saleRevenue);
+                agg.cogs.add(saleCost);
             }
         }
 
         // ─── Qaytarishlar: tushumni ham, tannarxni ham kamaytiradi ───
         List<SaleReturn> returns = saleReturnRepository.findByReturnDateBetweenWithItems(start, end);
-        BigDecimal returnsTotal = BigDecimal.ZERO;
+        MoneyAccumulator returnsTotal = new MoneyAccumulator();
+        MoneyAccumulator returnedCost = new MoneyAccumulator();
 
         for (SaleReturn saleReturn : returns) {
             String dateKey = saleReturn.getReturnDate().toLocalDate().format(formatter);
             PlAggregator agg = daily.get(dateKey);
 
-            returnsTotal = returnsTotal.add(saleReturn.getRefundAmount());
+            returnsTotal.add(saleReturn.getRefundAmount());
             if (agg != null) {
-                agg.returns = agg.returns.add(saleReturn.getRefundAmount());
+                agg.returns.add(saleReturn.getRefundAmount());
             }
 
             // Tovar omborga qaytdi — uning tannarxi sotilganlar tannarxidan
             // chiqadi. Aks holda qaytarish yalpi foydani ikki marta urardi:
             // ham tushum kamayardi, ham tannarx qolib ketardi.
-            BigDecimal returnedCost = returnedCost(saleReturn);
-            cogs = cogs.subtract(returnedCost);
+            addReturnedCost(saleReturn, returnedCost.clear());
+            cogs.subtract(returnedCost);
             if (agg != null) {
-                agg.cogs = agg.cogs.subtract(returnedCost);
+                agg.cogs.subtract(returnedCost);
             }
         }
 
-        BigDecimal netRevenue = revenue.subtract(returnsTotal);
-        BigDecimal grossProfit = netRevenue.subtract(cogs);
+        BigDecimal revenueTotal = revenue.toBigDecimal();
+        BigDecimal returnsAmount = returnsTotal.toBigDecimal();
+        BigDecimal cogsTotal = cogs.toBigDecimal();
+        BigDecimal netRevenue = revenueTotal.subtract(returnsAmount);
+        BigDecimal grossProfit = netRevenue.subtract(cogsTotal);
 
         // ─── Xarajatlar ───
         BigDecimal totalExpenses = expenseRepository.sumTotal(startDate, endDate);
@@ -351,7 +367,7 @@ public class ReportService {
         for (Object[] row : expenseRepository.sumByDate(startDate, endDate)) {
             PlAggregator agg = daily.get(((LocalDate) row[0]).format(formatter));
             if (agg != null) {
-                agg.expenses = agg.expenses.add((BigDecimal) row[1]);
+                agg.expenses.add((BigDecimal) row[1]);
             }
         }
 
@@ -360,14 +376,15 @@ public class ReportService {
         List<ProfitLossResponse.DailyProfitLoss> dailyData = daily.entrySet().stream()
                 .map(e -> {
                     PlAggregator a = e.getValue();
-                    BigDecimal dayRevenue = a.revenue.subtract(a.returns);
-                    BigDecimal dayGross = dayRevenue.subtract(a.cogs);
+                    BigDecimal dayRevenue = a.revenue.toBigDecimal().subtract(a.returns.toBigDecimal());
+                    BigDecimal dayGross = dayRevenue.subtract(a.cogs.toBigDecimal());
+                    BigDecimal dayExpenses = a.expenses.toBigDecimal();
                     return ProfitLossResponse.DailyProfitLoss.builder()
                             .date(e.getKey())
                             .revenue(dayRevenue)
                             .grossProfit(dayGross)
-                            .expenses(a.expenses)
-                            .netProfit(dayGross.subtract(a.expenses))
+                            .expenses(dayExpenses)
+                            .netProfit(dayGross.subtract(dayExpenses))
                             .build();
                 })
                 .collect(Collectors.toList());
@@ -375,10 +392,10 @@ public class ReportService {
         return ProfitLossResponse.builder()
                 .startDate(startDate.format(formatter))
                 .endDate(endDate.format(formatter))
-                .revenue(revenue)
-                .returns(returnsTotal)
+                .revenue(revenueTotal)
+                .returns(returnsAmount)
                 .netRevenue(netRevenue)
-                .costOfGoodsSold(cogs)
+                .costOfGoodsSold(cogsTotal)
                 .grossProfit(grossProfit)
                 .grossMarginPercent(percentOf(grossProfit, netRevenue))
                 .totalExpenses(totalExpenses)
@@ -403,10 +420,10 @@ public class ReportService {
     }
 
     private static class PlAggregator {
-        BigDecimal revenue = BigDecimal.ZERO;
-        BigDecimal returns = BigDecimal.ZERO;
-        BigDecimal cogs = BigDecimal.ZERO;
-        BigDecimal expenses = BigDecimal.ZERO;
+        final MoneyAccumulator revenue = new MoneyAccumulator();
+        final MoneyAccumulator returns = new MoneyAccumulator();
+        final MoneyAccumulator cogs = new MoneyAccumulator();
+        final MoneyAccumulator expenses = new MoneyAccumulator();
     }
 
     /**
@@ -430,7 +447,7 @@ public class ReportService {
         for (Sale sale : sales) {
             DailyAggregator agg = dailyMap.get(sale.getSaleDate().toLocalDate().format(formatter));
             if (agg != null) {
-                agg.revenue = agg.revenue.add(sale.getTotalAmount());
+                agg.revenue.add(sale.getTotalAmount());
                 agg.count++;
             }
         }
@@ -439,18 +456,22 @@ public class ReportService {
             DailyAggregator agg =
                     dailyMap.get(saleReturn.getReturnDate().toLocalDate().format(formatter));
             if (agg != null) {
-                agg.returns = agg.returns.add(saleReturn.getRefundAmount());
+                agg.returns.add(saleReturn.getRefundAmount());
             }
         }
 
         return dailyMap.entrySet().stream()
-                .map(e -> SalesReportResponse.DailySalesData.builder()
-                        .date(e.getKey())
-                        .revenue(e.getValue().revenue)
-                        .returns(e.getValue().returns)
-                        .netRevenue(e.getValue().revenue.subtract(e.getValue().returns))
-                        .salesCount(e.getValue().count)
-                        .build())
+                .map(e -> {
+                    BigDecimal revenue = e.getValue().revenue.toBigDecimal();
+                    BigDecimal returned = e.getValue().returns.toBigDecimal();
+                    return SalesReportResponse.DailySalesData.builder()
+                            .date(e.getKey())
+                            .revenue(revenue)
+                            .returns(returned)
+                            .netRevenue(revenue.subtract(returned))
+                            .salesCount(e.getValue().count)
+                            .build();
+                })
                 .collect(Collectors.toList());
     }
 
@@ -469,7 +490,7 @@ public class ReportService {
             for (SaleItem item : sale.getItems()) {
                 ProductAggregator agg = aggregatorFor(productMap, item.getProduct());
                 agg.quantitySold += item.getQuantity();
-                agg.totalRevenue = agg.totalRevenue.add(effectiveLineRevenue(sale, item));
+                agg.totalRevenue.add(effectiveLineRevenue(sale, item));
             }
         }
 
@@ -477,7 +498,7 @@ public class ReportService {
             for (SaleReturnItem item : saleReturn.getItems()) {
                 ProductAggregator agg = aggregatorFor(productMap, item.getProduct());
                 agg.quantityReturned += item.getQuantity();
-                agg.totalRevenue = agg.totalRevenue.subtract(item.getTotalPrice());
+                agg.totalRevenue.subtract(item.getTotalPrice());
             }
         }
 
@@ -495,7 +516,7 @@ public class ReportService {
                         .productSku(a.productSku)
                         .quantitySold(a.quantitySold - a.quantityReturned)
                         .quantityReturned(a.quantityReturned)
-                        .totalRevenue(a.totalRevenue)
+                        .totalRevenue(a.totalRevenue.toBigDecimal())
                         .build())
                 .collect(Collectors.toList());
     }
@@ -533,7 +554,7 @@ public class ReportService {
                 return a;
             });
             agg.purchaseCount++;
-            agg.totalSpent = agg.totalSpent.add(sale.getTotalAmount());
+            agg.totalSpent.add(sale.getTotalAmount());
         }
 
         // Qaytarish faqat MAVJUD mijozdan ayiriladi: agar uning savdosi bu
@@ -545,108 +566,79 @@ public class ReportService {
 
             CustomerAggregator agg = customerMap.get(sale.getCustomer().getId());
             if (agg != null) {
-                agg.totalSpent = agg.totalSpent.subtract(saleReturn.getRefundAmount());
+                agg.totalSpent.subtract(saleReturn.getRefundAmount());
             }
         }
 
+        // Avval BigDecimal ga aylantiriladi, keyin saralanadi — solishtirish
+        // har juftlikda qayta aylantirmasin.
         return customerMap.values().stream()
-                .sorted((a, b) -> b.totalSpent.compareTo(a.totalSpent))
-                .limit(10)
                 .map(a -> SalesReportResponse.TopCustomer.builder()
                         .customerId(a.customerId)
                         .customerName(a.customerName)
                         .customerPhone(a.customerPhone)
                         .purchaseCount(a.purchaseCount)
-                        .totalSpent(a.totalSpent)
+                        .totalSpent(a.totalSpent.toBigDecimal())
                         .build())
+                .sorted((a, b) -> b.getTotalSpent().compareTo(a.getTotalSpent()))
+                .limit(10)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Ombor hisoboti.
+     *
+     * <p>Barcha bo'limlar bazada guruhlanadi: ilgari bu yerda har bir faol
+     * mahsulot (brend va kategoriyasi bilan) va davrdagi har bir harakat
+     * (mahsulot, ta'minotchi, xodim bilan) xotiraga yuklanardi — yillik
+     * hisobot 10k+ SKU'da soniyalab ishlardi. Endi xotiraga faqat yig'indi
+     * qatorlar va 20 ta eng kam qolgan mahsulot keladi.
+     */
     public WarehouseReportResponse getWarehouseReport(LocalDate startDate, LocalDate endDate) {
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
 
-        List<Product> allProducts = productRepository.findByActiveTrue();
-        List<StockMovement> movements = stockMovementRepository.findByDateRange(start, end);
-
-        // Basic stats
-        long totalProducts = allProducts.size();
-        long totalStock = allProducts.stream().mapToLong(Product::getQuantity).sum();
-        long lowStockCount = allProducts.stream()
-                .filter(p -> p.getQuantity() > 0 && p.getQuantity() <= p.getMinStockLevel())
-                .count();
-        long outOfStockCount = allProducts.stream()
-                .filter(p -> p.getQuantity() == 0)
-                .count();
-
-        // Stock value calculation
-        BigDecimal totalStockValue = allProducts.stream()
-                .map(p -> {
-                    BigDecimal price = p.getPurchasePrice() != null ? p.getPurchasePrice() : BigDecimal.ZERO;
-                    return price.multiply(BigDecimal.valueOf(p.getQuantity()));
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalPotentialRevenue = allProducts.stream()
-                .map(p -> p.getSellingPrice().multiply(BigDecimal.valueOf(p.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Movement stats
-        long totalIncoming = movements.stream()
-                .filter(m -> m.getMovementType() == MovementType.IN)
-                .mapToInt(m -> Math.abs(m.getQuantity()))
-                .sum();
-
-        long totalOutgoing = movements.stream()
-                .filter(m -> m.getMovementType() == MovementType.OUT)
-                .mapToInt(m -> Math.abs(m.getQuantity()))
-                .sum();
+        Object[] totals = productRepository.warehouseTotals().get(0);
 
-        long inMovementsCount = movements.stream()
-                .filter(m -> m.getMovementType() == MovementType.IN)
-                .count();
-
-        long outMovementsCount = movements.stream()
-                .filter(m -> m.getMovementType() == MovementType.OUT)
-                .count();
-
-        // Stock by category
-        List<WarehouseReportResponse.StockByCategory> stockByCategory = getStockByCategory(allProducts);
-
-        // Stock by brand
-        List<WarehouseReportResponse.StockByBrand> stockByBrand = getStockByBrand(allProducts);
+        List<WarehouseReportResponse.MovementSummary> recentMovements =
+                getMovementSummary(stockMovementRepository.summarizeByDayAndType(start, end), startDate, endDate);
 
-        // Low stock products
-        List<WarehouseReportResponse.LowStockProduct> lowStockProducts = allProducts.stream()
-                .filter(p -> p.getQuantity() <= p.getMinStockLevel())
-                .sorted(Comparator.comparingInt(Product::getQuantity))
-                .limit(20)
-                .map(p -> WarehouseReportResponse.LowStockProduct.builder()
-                        .productId(p.getId())
-                        .productName(p.getName())
-                        .productSku(p.getSku())
-                        .currentStock(p.getQuantity())
-                        .minStockLevel(p.getMinStockLevel())
-                        .sellingPrice(p.getSellingPrice())
-                        .build())
-                .collect(Collectors.toList());
+        long totalIncoming = 0;
+        long totalOutgoing = 0;
+        long inMovementsCount = 0;
+        long outMovementsCount = 0;
+        for (WarehouseReportResponse.MovementSummary day : recentMovements) {
+            totalIncoming += day.getInQuantity();
+            totalOutgoing += day.getOutQuantity();
+            inMovementsCount += day.getInCount();
+            outMovementsCount += day.getOutCount();
+        }
 
-        // Daily movement summary
-        List<WarehouseReportResponse.MovementSummary> recentMovements = getMovementSummary(movements, startDate, endDate);
+        List<WarehouseReportResponse.LowStockProduct> lowStockProducts =
+                productRepository.findLowestStock(PageRequest.of(0, 20)).stream()
+                        .map(p -> WarehouseReportResponse.LowStockProduct.builder()
+                                .productId(p.getId())
+                                .productName(p.getName())
+                                .productSku(p.getSku())
+                                .currentStock(p.getQuantity())
+                                .minStockLevel(p.getMinStockLevel())
+                                .sellingPrice(p.getSellingPrice())
+                                .build())
+                        .collect(Collectors.toList());
 
         return WarehouseReportResponse.builder()
-                .totalProducts(totalProducts)
-                .totalStock(totalStock)
-                .lowStockCount(lowStockCount)
-                .outOfStockCount(outOfStockCount)
-                .totalStockValue(totalStockValue)
-                .totalPotentialRevenue(totalPotentialRevenue)
+                .totalProducts(((Number) totals[0]).longValue())
+                .totalStock(((Number) totals[1]).longValue())
+                .lowStockCount(((Number) totals[2]).longValue())
+                .outOfStockCount(((Number) totals[3]).longValue())
+                .totalStockValue(toBigDecimal(totals[4]))
+                .totalPotentialRevenue(toBigDecimal(totals[5]))
                 .totalIncoming(totalIncoming)
                 .totalOutgoing(totalOutgoing)
                 .inMovementsCount(inMovementsCount)
                 .outMovementsCount(outMovementsCount)
-                .stockByCategory(stockByCategory)
-                .stockByBrand(stockByBrand)
+                .stockByCategory(getStockByCategory())
+                .stockByBrand(getStockByBrand())
                 .lowStockProducts(lowStockProducts)
                 .recentMovements(recentMovements)
                 .build();
@@ -858,70 +850,37 @@ public class ReportService {
         BigDecimal amount = BigDecimal.ZERO;
     }
 
-    private List<WarehouseReportResponse.StockByCategory> getStockByCategory(List<Product> products) {
-        Map<Long, CategoryAggregator> categoryMap = new HashMap<>();
-
-        for (Product product : products) {
-            if (product.getCategory() == null) continue;
-
-            Long categoryId = product.getCategory().getId();
-            CategoryAggregator agg = categoryMap.computeIfAbsent(categoryId, k -> {
-                CategoryAggregator a = new CategoryAggregator();
-                a.categoryId = categoryId;
-                a.categoryName = product.getCategory().getName();
-                return a;
-            });
-            agg.productCount++;
-            agg.totalStock += product.getQuantity();
-            BigDecimal price = product.getPurchasePrice() != null ? product.getPurchasePrice() : BigDecimal.ZERO;
-            agg.stockValue = agg.stockValue.add(price.multiply(BigDecimal.valueOf(product.getQuantity())));
-        }
-
-        return categoryMap.values().stream()
-                .sorted((a, b) -> Long.compare(b.totalStock, a.totalStock))
-                .map(a -> WarehouseReportResponse.StockByCategory.builder()
-                        .categoryId(a.categoryId)
-                        .categoryName(a.categoryName)
-                        .productCount(a.productCount)
-                        .totalStock(a.totalStock)
-                        .stockValue(a.stockValue)
+    private List<WarehouseReportResponse.StockByCategory> getStockByCategory() {
+        return productRepository.stockByCategory().stream()
+                .map(row -> WarehouseReportResponse.StockByCategory.builder()
+                        .categoryId((Long) row[0])
+                        .categoryName((String) row[1])
+                        .productCount(((Number) row[2]).longValue())
+                        .totalStock(((Number) row[3]).longValue())
+                        .stockValue(toBigDecimal(row[4]))
                         .build())
                 .collect(Collectors.toList());
     }
 
-    private List<WarehouseReportResponse.StockByBrand> getStockByBrand(List<Product> products) {
-        Map<Long, BrandAggregator> brandMap = new HashMap<>();
-
-        for (Product product : products) {
-            if (product.getBrand() == null) continue;
-
-            Long brandId = product.getBrand().getId();
-            BrandAggregator agg = brandMap.computeIfAbsent(brandId, k -> {
-                BrandAggregator a = new BrandAggregator();
-                a.brandId = brandId;
-                a.brandName = product.getBrand().getName();
-                return a;
-            });
-            agg.productCount++;
-            agg.totalStock += product.getQuantity();
-            BigDecimal price = product.getPurchasePrice() != null ? product.getPurchasePrice() : BigDecimal.ZERO;
-            agg.stockValue = agg.stockValue.add(price.multiply(BigDecimal.valueOf(product.getQuantity())));
-        }
-
-        return brandMap.values().stream()
-                .sorted((a, b) -> Long.compare(b.totalStock, a.totalStock))
-                .map(a -> WarehouseReportResponse.StockByBrand.builder()
-                        .brandId(a.brandId)
-                        .brandName(a.brandName)
-                        .productCount(a.productCount)
-                        .totalStock(a.totalStock)
-                        .stockValue(a.stockValue)
+    private List<WarehouseReportResponse.StockByBrand> getStockByBrand() {
+        return productRepository.stockByBrand().stream()
+                .map(row -> WarehouseReportResponse.StockByBrand.builder()
+                        .brandId((Long) row[0])
+                        .brandName((String) row[1])
+                        .productCount(((Number) row[2]).longValue())
+                        .totalStock(((Number) row[3]).longValue())
+                        .stockValue(toBigDecimal(row[4]))
                         .build())
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Kunlik harakatlar jadvali — davrning har bir kuni, harakat bo'lmasa ham.
+     *
+     * @param rows {@code [sana, turi, soni, miqdori]} — bazadagi guruhlash natijasi
+     */
     private List<WarehouseReportResponse.MovementSummary> getMovementSummary(
-            List<StockMovement> movements, LocalDate startDate, LocalDate endDate) {
+            List<Object[]> rows, LocalDate startDate, LocalDate endDate) {
 
         Map<String, MovementAggregator> movementMap = new LinkedHashMap<>();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
@@ -931,18 +890,19 @@ public class ReportService {
             movementMap.put(date.format(formatter), new MovementAggregator());
         }
 
-        // Aggregate movements
-        for (StockMovement movement : movements) {
-            String dateKey = movement.getCreatedAt().toLocalDate().format(formatter);
-            MovementAggregator agg = movementMap.get(dateKey);
-            if (agg != null) {
-                if (movement.getMovementType() == MovementType.IN) {
-                    agg.inCount++;
-                    agg.inQuantity += Math.abs(movement.getQuantity());
-                } else if (movement.getMovementType() == MovementType.OUT) {
-                    agg.outCount++;
-                    agg.outQuantity += Math.abs(movement.getQuantity());
-                }
+        for (Object[] row : rows) {
+            MovementAggregator agg = movementMap.get(((LocalDate) row[0]).format(formatter));
+            if (agg == null) continue;
+
+            MovementType type = (MovementType) row[1];
+            long count = ((Number) row[2]).longValue();
+            int quantity = ((Number) row[3]).intValue();
+            if (type == MovementType.IN) {
+                agg.inCount += count;
+                agg.inQuantity += quantity;
+            } else if (type == MovementType.OUT) {
+                agg.outCount += count;
+                agg.outQuantity += quantity;
             }
         }
 
@@ -957,29 +917,21 @@ public class ReportService {
                 .collect(Collectors.toList());
     }
 
+    /** SQL {@code SUM} natijasi dialektga qarab BigDecimal yoki boshqa Number bo'lishi mumkin. */
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return value == null ? BigDecimal.ZERO : new BigDecimal(value.toString());
+    }
+
     // Helper classes
     private static class DailyAggregator {
-        BigDecimal revenue = BigDecimal.ZERO;
-        BigDecimal returns = BigDecimal.ZERO;
+        final MoneyAccumulator revenue = new MoneyAccumulator();
+        final MoneyAccumulator returns = new MoneyAccumulator();
         long count = 0;
     }
 
-    private static class CategoryAggregator {
-        Long categoryId;
-        String categoryName;
-        long productCount = 0;
-        long totalStock = 0;
-        BigDecimal stockValue = BigDecimal.ZERO;
-    }
-
-    private static class BrandAggregator {
-        Long brandId;
-        String brandName;
-        long productCount = 0;
-        long totalStock = 0;
-        BigDecimal stockValue = BigDecimal.ZERO;
-    }
-
     private static class MovementAggregator {
         long inCount = 0;
         long outCount = 0;
@@ -993,7 +945,7 @@ public class ReportService {
         String productSku;
         int quantitySold = 0;
         int quantityReturned = 0;
-        BigDecimal totalRevenue = BigDecimal.ZERO;
+        final MoneyAccumulator totalRevenue = new MoneyAccumulator();
     }
 
     private static class CustomerAggregator {
@@ -1001,6 +953,6 @@ public class ReportService {
         String customerName;
         String customerPhone;
         int purchaseCount = 0;
-        BigDecimal totalSpent = BigDecimal.ZERO;
+        final MoneyAccumulator totalSpent = new MoneyAccumulator();
     }
 }
@@ -2,6 +2,7 @@ package uz.shinamagazin.api.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import uz.shinamagazin.api.dto.request.CreateSaleReturnRequest;
@@ -9,6 +10,7 @@ import uz.shinamagazin.api.dto.response.SaleReturnResponse;
 import uz.shinamagazin.api.entity.*;
 import uz.shinamagazin.api.enums.MovementType;
 import uz.shinamagazin.api.enums.SaleStatus;
+import uz.shinamagazin.api.event.SaleChangedEvent;
 import uz.shinamagazin.api.exception.BadRequestException;
 import uz.shinamagazin.api.exception.ResourceNotFoundException;
 import uz.shinamagazin.api.repository.*;
@@ -45,6 +47,7 @@ public class SaleReturnService {
     private final UserRepository userRepository;
     private final DocumentNumberService documentNumberService;
     private final CashShiftService cashShiftService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<SaleReturnResponse> getBySale(Long saleId) {
@@ -160,6 +163,7 @@ public class SaleReturnService {
                 saved.getReturnNumber(), sale.getInvoiceNumber(),
                 refundAmount, debtReduced, cashRefunded);
 
+        eventPublisher.publishEvent(new SaleChangedEvent(sale.getId()));
         return SaleReturnResponse.from(saved);
     }
 
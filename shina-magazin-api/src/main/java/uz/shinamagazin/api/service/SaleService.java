@@ -1,6 +1,7 @@
 package uz.shinamagazin.api.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,10 +12,15 @@ import uz.shinamagazin.api.dto.request.SaleRequest;
 import uz.shinamagazin.api.dto.response.SaleResponse;
 import uz.shinamagazin.api.entity.*;
 import uz.shinamagazin.api.enums.*;
+import uz.shinamagazin.api.event.SaleChangedEvent;
 import uz.shinamagazin.api.exception.BadRequestException;
 import uz.shinamagazin.api.exception.InsufficientStockException;
 import uz.shinamagazin.api.exception.ResourceNotFoundException;
 import uz.shinamagazin.api.repository.*;
+import uz.shinamagazin.api.repository.keyset.KeysetExecutor;
+import uz.shinamagazin.api.repository.keyset.KeysetRequest;
+import uz.shinamagazin.api.repository.keyset.KeysetSlice;
+import uz.shinamagazin.api.repository.spec.SaleSpecs;
 import uz.shinamagazin.api.security.CustomUserDetails;
 
 import java.math.BigDecimal;
@@ -24,12 +30,16 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SaleService {
 
+    /** Cursor rejimidagi saralash maydonlari (hammasi NOT NULL). */
+    private static final Set<String> SORTABLE = Set.of("saleDate", "totalAmount");
+
     private final SaleRepository saleRepository;
     private final ProductRepository productRepository;
     private final CustomerRepository customerRepository;
@@ -41,8 +51,32 @@ public class SaleService {
     private final SettingsService settingsService;
     private final DocumentNumberService documentNumberService;
     private final CashShiftService cashShiftService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final KeysetExecutor keysetExecutor;
 
     public Page<SaleResponse> getAllSales(LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        LocalDateTime[] range = dateRange(startDate, endDate);
+        if (range != null) {
+            return saleRepository.findBySaleDateBetween(range[0], range[1], pageable)
+                    .map(SaleResponse::from);
+        }
+
+        return saleRepository.findAll(pageable)
+                .map(SaleResponse::from);
+    }
+
+    /** {@link #getAllSales}ning cursor (keyset) rejimi — OFFSET va majburiy COUNT'siz. */
+    @Transactional(readOnly = true)
+    public KeysetSlice<SaleResponse> scrollSales(LocalDate startDate, LocalDate endDate, KeysetRequest request) {
+        LocalDateTime[] range = dateRange(startDate, endDate);
+        return keysetExecutor.find(Sale.class,
+                        range != null ? SaleSpecs.saleDateBetween(range[0], range[1]) : null,
+                        request, SORTABLE, "customer", "createdBy")
+                .map(SaleResponse::from);
+    }
+
+    /** Bitta sana berilsa — o'sha kun. Ikkalasi ham yo'q bo'lsa null. */
+    private static LocalDateTime[] dateRange(LocalDate startDate, LocalDate endDate) {
         LocalDate effectiveStart = startDate;
         LocalDate effectiveEnd = endDate;
 
@@ -54,15 +88,10 @@ public class SaleService {
             effectiveEnd = effectiveStart;
         }
 
-        if (effectiveStart != null && effectiveEnd != null) {
-            LocalDateTime start = effectiveStart.atStartOfDay();
-            LocalDateTime end = effectiveEnd.atTime(LocalTime.MAX);
-            return saleRepository.findBySaleDateBetween(start, end, pageable)
-                    .map(SaleResponse::from);
+        if (effectiveStart == null) {
+            return null;
         }
-
-        return saleRepository.findAll(pageable)
-                .map(SaleResponse::from);
+        return new LocalDateTime[]{effectiveStart.atStartOfDay(), effectiveEnd.atTime(LocalTime.MAX)};
     }
 
     public SaleResponse getSaleById(Long id) {
@@ -244,6 +273,7 @@ public class SaleService {
             customerRepository.save(customer);
         }
 
+        eventPublisher.publishEvent(new SaleChangedEvent(savedSale.getId()));
         return SaleResponse.from(savedSale);
     }
 
@@ -288,6 +318,7 @@ public class SaleService {
         }
 
         sale.setStatus(SaleStatus.CANCELLED);
+        eventPublisher.publishEvent(new SaleChangedEvent(sale.getId()));
         return SaleResponse.from(saleRepository.save(sale));
     }
 
@@ -3,6 +3,7 @@ package uz.shinamagazin.api.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +20,10 @@ import uz.shinamagazin.api.repository.ProductRepository;
 import uz.shinamagazin.api.repository.StockMovementRepository;
 import uz.shinamagazin.api.repository.SupplierRepository;
 import uz.shinamagazin.api.repository.UserRepository;
+import uz.shinamagazin.api.repository.keyset.KeysetExecutor;
+import uz.shinamagazin.api.repository.keyset.KeysetRequest;
+import uz.shinamagazin.api.repository.keyset.KeysetSlice;
+import uz.shinamagazin.api.repository.spec.StockMovementSpecs;
 import uz.shinamagazin.api.security.CustomUserDetails;
 
 import java.time.LocalDate;
@@ -26,6 +31,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -35,6 +41,7 @@ public class StockMovementService {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final SupplierRepository supplierRepository;
+    private final KeysetExecutor keysetExecutor;
 
     public Page<StockMovementResponse> getAllMovements(Pageable pageable) {
         return stockMovementRepository.findAllByOrderByCreatedAtDesc(pageable)
@@ -47,6 +54,22 @@ public class StockMovementService {
                 .map(StockMovementResponse::from);
     }
 
+    /**
+     * Harakatlar ro'yxatining cursor (keyset) rejimi — OFFSET va majburiy
+     * COUNT'siz; stock_movements har savdo bilan o'sadi.
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<StockMovementResponse> scrollMovements(
+            Long productId, MovementType movementType, String referenceType, KeysetRequest request) {
+        return keysetExecutor.find(StockMovement.class,
+                        Specification.allOf(
+                                StockMovementSpecs.productIs(productId),
+                                StockMovementSpecs.movementTypeIs(movementType),
+                                StockMovementSpecs.referenceTypeIs(referenceType)),
+                        request, Set.of("createdAt"), "product", "supplier", "createdBy")
+                .map(StockMovementResponse::from);
+    }
+
     public Page<StockMovementResponse> getProductMovements(Long productId, Pageable pageable) {
         return stockMovementRepository.findByProductId(productId, pageable)
                 .map(StockMovementResponse::from);
@@ -146,7 +169,7 @@ public class StockMovementService {
         Long totalStock = productRepository.getTotalStock();
 
         // Low stock count
-        long lowStockCount = productRepository.findLowStockProducts().size();
+        long lowStockCount = productRepository.countLowStockProducts();
 
         // Today's movements
         Integer todayIncoming = stockMovementRepository.getTotalIncomingToday(startOfDay);
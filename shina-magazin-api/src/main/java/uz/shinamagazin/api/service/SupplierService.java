@@ -11,7 +11,10 @@ import uz.shinamagazin.api.entity.Supplier;
 import uz.shinamagazin.api.exception.BadRequestException;
 import uz.shinamagazin.api.exception.ResourceNotFoundException;
 import uz.shinamagazin.api.repository.SupplierRepository;
+import uz.shinamagazin.api.service.export.GenericExportService;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -21,6 +24,7 @@ import java.util.stream.Collectors;
 public class SupplierService {
 
     private final SupplierRepository supplierRepository;
+    private final GenericExportService genericExportService;
 
     public Page<SupplierResponse> getAllSuppliers(Pageable pageable) {
         return supplierRepository.findByActiveTrue(pageable)
@@ -32,6 +36,17 @@ public class SupplierService {
                 .map(SupplierResponse::from);
     }
 
+    /**
+     * Barcha faol ta'minotchilar — kursordan to'g'ridan-to'g'ri {@code out}ga,
+     * qatorlar soni cheklanmaydi. Javob oqimida chaqiriladi.
+     */
+    public void exportSuppliers(String search, GenericExportService.ExportFormat format,
+                                OutputStream out) throws IOException {
+        String trimmed = (search == null || search.isBlank()) ? null : search.trim();
+        genericExportService.writeCursor(() -> supplierRepository.streamForExport(trimmed),
+                SupplierResponse::from, SupplierResponse.class, format, "Ta'minotchilar Hisoboti", out);
+    }
+
     public List<SupplierResponse> getActiveSuppliers() {
         return supplierRepository.findByActiveTrue().stream()
                 .map(SupplierResponse::from)
@@ -0,0 +1,731 @@
+package uz.shinamagazin.api.service.catalog;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.shinamagazin.api.dto.response.AlternativeSizeResponse;
+import uz.shinamagazin.api.dto.response.CatalogFacetsResponse;
+import uz.shinamagazin.api.dto.response.CategoryAttributeResponse;
+import uz.shinamagazin.api.dto.response.CategoryResponse;
+import uz.shinamagazin.api.entity.Brand;
+import uz.shinamagazin.api.entity.Category;
+import uz.shinamagazin.api.enums.AttributeType;
+import uz.shinamagazin.api.enums.Season;
+import uz.shinamagazin.api.repository.BrandRepository;
+import uz.shinamagazin.api.repository.CategoryRepository;
+import uz.shinamagazin.api.repository.ProductAttributeValueRepository;
+import uz.shinamagazin.api.repository.ProductRepository;
+import uz.shinamagazin.api.service.CategoryService;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Storefront filtr paneli uchun xotiradagi facet indeksi.
+ *
+ * <p>Ilgari har bir filtr paneli yuklanishi ~10 ta so'rov edi: narx diapazoni,
+ * variant hisoblagichlari, brendlar, uchta o'lcham ro'yxati, kategoriya daraxti
+ * va meros zanjiri bo'ylab har daraja uchun bittadan atribut so'rovi. Endi
+ * mahsulot -> kategoriya/brend/o'lcham/mavsum/variant a'zoliklari
+ * {@link ProductBitmap}larda turadi va facetlar bitmap kesishmalaridan
+ * mikrosekundlarda hisoblanadi.
+ *
+ * <p>Facetlar tanlangan filtrlarni hisobga oladi (odatiy facet semantikasi):
+ * har bir guruhning hisoblagichi BOSHQA barcha guruhlar filtri bilan
+ * hisoblanadi — "Michelin" tanlangan bo'lsa ham boshqa brendlar soni
+ * ko'rinib turadi, diametrlar esa faqat Michelin'dagilar.
+ *
+ * <p>Katalog ro'yxatining filtrlari ham shu yerda hisoblanadi
+ * ({@link #findProductIds}) — bazadan faqat yakuniy sahifa o'qiladi.
+ *
+ * <p>Yangilanish:
+ * <ul>
+ *   <li>mahsulot yoki uning atribut qiymati o'zgarsa ({@link CatalogIndexEntityListener},
+ *       commit'dan keyin) — faqat shu mahsulotlar qayta o'qiladi;</li>
+ *   <li>kategoriya, brend, atribut yoki variant o'zgarsa — indeks to'liq
+ *       qayta quriladi (kam bo'ladigan, admin amallari);</li>
+ *   <li>o'zgarishlar {@code app.catalog.facet-index.refresh-ms} oralig'ida
+ *       yig'ilib qo'llanadi, ya'ni facetlar shu qadar kechikishi mumkin.</li>
+ * </ul>
+ * Indeks birinchi so'rovda quriladi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogFacetIndex {
+
+    /** Bundan ko'p mahsulot birdan o'zgarsa (import), bo'laklab emas, to'liq qayta quriladi. */
+    private static final int MAX_INCREMENTAL_BATCH = 2000;
+
+    /** Vitrina ishlatadigan saralashlar: "yangi" (id) va narx. */
+    private static final Set<String> SORTABLE = Set.of("id", "sellingPrice");
+
+    private final ProductRepository productRepository;
+    private final ProductAttributeValueRepository valueRepository;
+    private final CategoryRepository categoryRepository;
+    private final BrandRepository brandRepository;
+    private final CategoryService categoryService;
+    private final CatalogVersion catalogVersion;
+    private final PlatformTransactionManager transactionManager;
+
+    /** Bitmaplarni bo'laklab o'zgartirish (yozish) va facet hisoblash (o'qish) orasida. */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> pendingProducts = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean structureChanged = new AtomicBoolean();
+
+    /** null — hali qurilmagan. */
+    private volatile Snapshot snapshot;
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    /** Mahsulotlar o'zgardi (commit'dan keyin chaqiriladi). */
+    public void productsChanged(Collection<Long> productIds) {
+        pendingProducts.addAll(productIds);
+    }
+
+    /** Kategoriya/brend/atribut tuzilmasi o'zgardi — keyingi qadamda to'liq qayta qurish. */
+    public void structureChanged() {
+        structureChanged.set(true);
+    }
+
+    /**
+     * Facetlar.
+     *
+     * @param categoryId null — butun katalog (atribut facetlarisiz, avvalgidek)
+     */
+    public CatalogFacetsResponse getFacets(Long categoryId, CatalogFilter filter) {
+        Snapshot current = ensureBuilt();
+        // Meros zanjiri bo'ylab so'rovlar bir marta, keyingilari xotiradan.
+        // Kesh snapshot'ga bog'langan: tuzilma o'zgarsa yangi snapshot bilan tozalanadi.
+        List<CategoryAttributeResponse> attributes = categoryId != null
+                ? current.effectiveAttributes(categoryId, categoryService)
+                : List.of();
+
+        lock.readLock().lock();
+        try {
+            return current.facets(categoryId, filter, attributes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filtrlarga mos mahsulotlarning bitta sahifasi — faqat id'lar, tartib bilan.
+     *
+     * <p>Filtrlar bitmaplar ustida hisoblanadi (guruh ichida OR, guruhlar orasida
+     * AND), shuning uchun tanlangan guruhlar soni so'rov narxini oshirmaydi;
+     * bazadan faqat shu sahifadagi mahsulotlar o'qiladi.
+     *
+     * @return bo'sh — bu so'rovni indeks bajara olmaydi (sahifasiz yoki
+     *         {@code id}/{@code sellingPrice} dan boshqa saralash): SQL yo'liga qayting
+     */
+    public Optional<Page<Long>> findProductIds(Long categoryId, CatalogFilter filter, Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().stream().count() > 1) {
+            return Optional.empty();
+        }
+        Sort.Order order = pageable.getSort().stream().findFirst().orElse(Sort.Order.asc("id"));
+        if (!SORTABLE.contains(order.getProperty())) {
+            return Optional.empty();
+        }
+
+        Snapshot current = ensureBuilt();
+        lock.readLock().lock();
+        try {
+            return Optional.of(current.page(categoryId, filter, order, pageable));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Muqobil o'lchamlar (tashqi diametr ±3%), vitrinada mahsuloti borlari,
+     * eng yaqini birinchi. O'lcham filtrlaridan tashqari tanlangan filtrlar
+     * (mavsum, brend, mavjudlik, ...) hisoblagichga ta'sir qiladi.
+     */
+    public List<AlternativeSizeResponse> findAlternativeSizes(TireSize size, Long categoryId, CatalogFilter filter) {
+        Snapshot current = ensureBuilt();
+        lock.readLock().lock();
+        try {
+            return current.alternatives(size, categoryId, filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** To'plangan o'zgarishlarni qo'llaydi. */
+    @Scheduled(fixedDelayString = "${app.catalog.facet-index.refresh-ms:2000}")
+    public synchronized void applyPendingChanges() {
+        if (snapshot == null) {
+            return; // birinchi so'rov to'liq quradi
+        }
+        if (structureChanged.get() || pendingProducts.size() > MAX_INCREMENTAL_BATCH) {
+            rebuild();
+            return;
+        }
+        if (pendingProducts.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(pendingProducts);
+        pendingProducts.removeAll(ids);
+
+        Loaded loaded = readOnlyTx.execute(status -> new Loaded(
+                productRepository.findFacetRowsByIdIn(ids),
+                valueRepository.findFacetOptionRowsByProductIdIn(ids),
+                categoryService.getCategoryTree()));
+
+        Snapshot current = snapshot;
+        lock.writeLock().lock();
+        try {
+            ids.forEach(current::remove);
+            Map<Long, List<Long>> options = groupOptions(loaded.optionRows());
+            for (Object[] row : loaded.productRows()) {
+                current.put(toEntry(row, options));
+            }
+            // Daraxtdagi mahsulot sonlari ham o'zgargan bo'lishi mumkin
+            current.tree = loaded.tree();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        catalogVersion.bump();
+        log.debug("Catalog facet index: {} products refreshed", ids.size());
+    }
+
+    /** Indeksni bazadan to'liq quradi. */
+    public synchronized void rebuild() {
+        // Tozalash yuklashdan OLDIN: yuklash davomida commit bo'lganlar
+        // navbatda qoladi va keyingi qadamda qayta o'qiladi.
+        structureChanged.set(false);
+        pendingProducts.clear();
+
+        long started = System.nanoTime();
+        Snapshot built = readOnlyTx.execute(status -> {
+            Snapshot s = new Snapshot(categoryRepository.findAll(), brandRepository.findAll(),
+                    categoryService.getCategoryTree());
+            Map<Long, List<Long>> options = groupOptions(valueRepository.findFacetOptionRows());
+            for (Object[] row : productRepository.findFacetRows()) {
+                s.put(toEntry(row, options));
+            }
+            return s;
+        });
+        snapshot = built;
+        catalogVersion.bump();
+        log.info("Catalog facet index built: {} products in {} ms",
+                built.all.cardinality(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private Snapshot ensureBuilt() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static Map<Long, List<Long>> groupOptions(List<Object[]> rows) {
+        Map<Long, List<Long>> byProduct = new HashMap<>();
+        for (Object[] row : rows) {
+            byProduct.computeIfAbsent((Long) row[0], k -> new ArrayList<>(4)).add((Long) row[1]);
+        }
+        return byProduct;
+    }
+
+    /** {@link ProductRepository#findFacetRows()} qatori. */
+    private static Entry toEntry(Object[] row, Map<Long, List<Long>> options) {
+        Long id = (Long) row[0];
+        Integer quantity = (Integer) row[8];
+        return new Entry(id, (Long) row[1], (Long) row[2],
+                (Integer) row[3], (Integer) row[4], (Integer) row[5], (Season) row[6],
+                (BigDecimal) row[7], quantity != null && quantity > 0,
+                options.getOrDefault(id, List.of()));
+    }
+
+    private record Loaded(List<Object[]> productRows, List<Object[]> optionRows, List<CategoryResponse> tree) {
+    }
+
+    /** Indeksdagi bitta faol mahsulot — eski bitlarini o'chirish uchun saqlanadi. */
+    private record Entry(Long productId, Long categoryId, Long brandId,
+                         Integer width, Integer profile, Integer diameter, Season season,
+                         BigDecimal price, boolean inStock, List<Long> options) {
+    }
+
+    /**
+     * Indeksning bir "avlodi". Tuzilma (kategoriyalar, brendlar) o'zgarmas;
+     * mahsulot bitmaplari bo'laklab yangilanadi — tashqi qulf ostida.
+     */
+    private static final class Snapshot {
+
+        private final Map<Long, List<Long>> activeChildren = new HashMap<>();
+        /** Brendlar nom bo'yicha — facet tartibi avvalgi {@code ORDER BY b.name} bilan bir xil. */
+        private final List<Brand> brandsByName;
+        private final Map<Long, List<CategoryAttributeResponse>> effectiveAttributes = new ConcurrentHashMap<>();
+        private volatile List<CategoryResponse> tree;
+
+        private final Map<Long, Integer> positions = new HashMap<>();
+        private final List<Entry> entries = new ArrayList<>();
+        private final ProductBitmap all = new ProductBitmap();
+        private final ProductBitmap inStock = new ProductBitmap();
+        private final Map<Long, ProductBitmap> byCategory = new HashMap<>();
+        private final Map<Long, ProductBitmap> byBrand = new HashMap<>();
+        private final Map<Long, ProductBitmap> byOption = new HashMap<>();
+        private final Map<Season, ProductBitmap> bySeason = new EnumMap<>(Season.class);
+        private final NavigableMap<Integer, ProductBitmap> byWidth = new TreeMap<>();
+        private final NavigableMap<Integer, ProductBitmap> byProfile = new TreeMap<>();
+        private final NavigableMap<Integer, ProductBitmap> byDiameter = new TreeMap<>();
+        /** {@link TireSize#packed()} -> to'liq o'lchamli mahsulotlar. */
+        private final Map<Integer, ProductBitmap> bySize = new HashMap<>();
+        /** O'lchamlar to'plami o'zgarganda bekor qilinadi, birinchi so'rovda quriladi. */
+        private volatile TireSizeEquivalents equivalents;
+        /** Saralangan tartiblar — o'zgarishda bekor qilinadi, birinchi so'rovda quriladi. */
+        private volatile Ordering idOrder;
+        private volatile Ordering priceOrder;
+
+        Snapshot(List<Category> categories, List<Brand> brands, List<CategoryResponse> tree) {
+            for (Category category : categories) {
+                if (Boolean.TRUE.equals(category.getActive()) && category.getParent() != null) {
+                    activeChildren.computeIfAbsent(category.getParent().getId(), k -> new ArrayList<>())
+                            .add(category.getId());
+                }
+            }
+            this.brandsByName = brands.stream()
+                    .sorted(Comparator.comparing(Brand::getName).thenComparing(Brand::getId))
+                    .toList();
+            this.tree = tree;
+        }
+
+        List<CategoryAttributeResponse> effectiveAttributes(Long categoryId, CategoryService categoryService) {
+            List<CategoryAttributeResponse> cached = effectiveAttributes.get(categoryId);
+            if (cached == null) {
+                // Mavjud bo'lmagan kategoriya — ResourceNotFoundException (avvalgidek 404)
+                cached = categoryService.getEffectiveAttributes(categoryId);
+                effectiveAttributes.put(categoryId, cached);
+            }
+            return cached;
+        }
+
+        void put(Entry entry) {
+            Integer position = positions.get(entry.productId());
+            if (position == null) {
+                position = entries.size();
+                entries.add(null);
+                positions.put(entry.productId(), position);
+            } else {
+                remove(entry.productId());
+            }
+            int pos = position;
+            entries.set(pos, entry);
+            invalidateOrder();
+            all.set(pos);
+            if (entry.inStock()) {
+                inStock.set(pos);
+            }
+            bitmap(byCategory, entry.categoryId()).set(pos);
+            bitmap(byBrand, entry.brandId()).set(pos);
+            bitmap(bySeason, entry.season()).set(pos);
+            bitmap(byWidth, entry.width()).set(pos);
+            bitmap(byProfile, entry.profile()).set(pos);
+            bitmap(byDiameter, entry.diameter()).set(pos);
+            TireSize size = TireSize.of(entry.width(), entry.profile(), entry.diameter());
+            if (size != null) {
+                ProductBitmap members = bitmap(bySize, size.packed());
+                if (members.isEmpty()) {
+                    equivalents = null;
+                }
+                members.set(pos);
+            }
+            for (Long optionId : entry.options()) {
+                bitmap(byOption, optionId).set(pos);
+            }
+        }
+
+        /** Mahsulot indeksdan chiqadi (o'chirilgan/nofaol). Pozitsiya qayta faollashsa ishlatiladi. */
+        void remove(Long productId) {
+            Integer position = positions.get(productId);
+            if (position == null || entries.get(position) == null) {
+                return;
+            }
+            int pos = position;
+            Entry old = entries.set(pos, null);
+            invalidateOrder();
+            all.clear(pos);
+            inStock.clear(pos);
+            bitmap(byCategory, old.categoryId()).clear(pos);
+            bitmap(byBrand, old.brandId()).clear(pos);
+            bitmap(bySeason, old.season()).clear(pos);
+            bitmap(byWidth, old.width()).clear(pos);
+            bitmap(byProfile, old.profile()).clear(pos);
+            bitmap(byDiameter, old.diameter()).clear(pos);
+            TireSize size = TireSize.of(old.width(), old.profile(), old.diameter());
+            if (size != null) {
+                ProductBitmap members = bitmap(bySize, size.packed());
+                members.clear(pos);
+                if (members.isEmpty()) {
+                    equivalents = null;
+                }
+            }
+            for (Long optionId : old.options()) {
+                bitmap(byOption, optionId).clear(pos);
+            }
+        }
+
+        Page<Long> page(Long categoryId, CatalogFilter filter, Sort.Order order, Pageable pageable) {
+            ProductBitmap matches = maskExcept(scope(categoryId), groups(filter), null);
+            int total = matches.cardinality();
+
+            List<Long> ids = new ArrayList<>(pageable.getPageSize());
+            long skip = pageable.getOffset();
+            if (skip < total) {
+                // Mos kelganlar saralangan tartibdagi o'rinlariga ko'chiriladi
+                // (O(mos kelganlar)), so'ng sahifa boshiga select() bilan
+                // sakraladi — butun tartib bo'ylab yurilmaydi.
+                Ordering sorted = order.getProperty().equals("sellingPrice") ? priceOrder() : idOrder();
+                ProductBitmap ranked = sorted.ranked(matches);
+                boolean descending = order.isDescending();
+                int i = ranked.select((int) (descending ? total - 1 - skip : skip));
+                while (i >= 0 && ids.size() < pageable.getPageSize()) {
+                    ids.add(entries.get(sorted.positions()[i]).productId());
+                    i = descending ? ranked.previousSetBit(i - 1) : ranked.nextSetBit(i + 1);
+                }
+            }
+            return new PageImpl<>(ids, pageable, total);
+        }
+
+        private Ordering idOrder() {
+            Ordering order = idOrder;
+            if (order == null) {
+                order = ordering(Comparator.comparing(pos -> entries.get(pos).productId()));
+                idOrder = order;
+            }
+            return order;
+        }
+
+        private Ordering priceOrder() {
+            Ordering order = priceOrder;
+            if (order == null) {
+                Comparator<Integer> byPrice = Comparator.comparing(pos -> entries.get(pos).price(),
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+                order = ordering(byPrice.thenComparing(pos -> entries.get(pos).productId()));
+                priceOrder = order;
+            }
+            return order;
+        }
+
+        private Ordering ordering(Comparator<Integer> comparator) {
+            int[] positions = IntStream.range(0, entries.size())
+                    .filter(pos -> entries.get(pos) != null)
+                    .boxed()
+                    .sorted(comparator)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            int[] rank = new int[entries.size()];
+            BigDecimal[] prices = new BigDecimal[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                rank[positions[i]] = i;
+                prices[i] = entries.get(positions[i]).price();
+            }
+            return new Ordering(positions, rank, prices);
+        }
+
+        /**
+         * Narx oralig'i — narx tartibida uzluksiz bo'lak: chegaralar ikkilik
+         * qidiruv bilan topiladi, faqat oraliqdagilar belgilanadi.
+         */
+        private ProductBitmap priceBand(BigDecimal min, BigDecimal max) {
+            Ordering byPrice = priceOrder();
+            int priced = byPrice.priced();
+            int from = min == null ? 0 : byPrice.firstPriceIndex(min, true);
+            int to = max == null ? priced : byPrice.firstPriceIndex(max, false);
+            ProductBitmap band = new ProductBitmap(entries.size());
+            for (int i = from; i < to; i++) {
+                band.set(byPrice.positions()[i]);
+            }
+            return band;
+        }
+
+        private void invalidateOrder() {
+            idOrder = null;
+            priceOrder = null;
+        }
+
+        CatalogFacetsResponse facets(Long categoryId, CatalogFilter filter,
+                                     List<CategoryAttributeResponse> attributes) {
+            ProductBitmap scope = scope(categoryId);
+            Map<String, ProductBitmap> groups = groups(filter);
+
+            // Narx tartibidagi birinchi va oxirgi narxli mos mahsulot
+            BigDecimal priceMin = null;
+            BigDecimal priceMax = null;
+            Ordering byPrice = priceOrder();
+            ProductBitmap pricedRanks = byPrice.ranked(maskExcept(scope, groups, "price"));
+            int lowest = pricedRanks.nextSetBit(0);
+            if (lowest >= 0 && lowest < byPrice.priced()) {
+                priceMin = byPrice.prices()[lowest];
+                priceMax = byPrice.prices()[pricedRanks.previousSetBit(byPrice.priced() - 1)];
+            }
+
+            List<CatalogFacetsResponse.AttributeFacet> attributeFacets = new ArrayList<>();
+            for (CategoryAttributeResponse ca : attributes) {
+                var attribute = ca.getAttribute();
+                boolean selectable = attribute.getType() == AttributeType.SELECT
+                        || attribute.getType() == AttributeType.MULTI_SELECT;
+                if (!Boolean.TRUE.equals(attribute.getFilterable()) || !selectable) {
+                    continue;
+                }
+                ProductBitmap mask = maskExcept(scope, groups, "attr:" + attribute.getId());
+                List<CatalogFacetsResponse.OptionFacet> options = attribute.getOptions().stream()
+                        .map(o -> new CatalogFacetsResponse.OptionFacet(
+                                o.getId(), o.getValue(), count(mask, byOption.get(o.getId()))))
+                        .filter(o -> o.getCount() > 0)
+                        .toList();
+                if (options.isEmpty()) {
+                    continue;
+                }
+                attributeFacets.add(CatalogFacetsResponse.AttributeFacet.builder()
+                        .id(attribute.getId())
+                        .name(attribute.getName())
+                        .code(attribute.getCode())
+                        .type(attribute.getType())
+                        .unit(attribute.getUnit())
+                        .options(options)
+                        .build());
+            }
+
+            ProductBitmap brandMask = maskExcept(scope, groups, "brand");
+            List<CatalogFacetsResponse.BrandFacet> brands = new ArrayList<>();
+            for (Brand brand : brandsByName) {
+                long count = count(brandMask, byBrand.get(brand.getId()));
+                if (count > 0) {
+                    brands.add(CatalogFacetsResponse.BrandFacet.builder()
+                            .id(brand.getId())
+                            .name(brand.getName())
+                            .count(count)
+                            .build());
+                }
+            }
+
+            return CatalogFacetsResponse.builder()
+                    .categories(tree)
+                    .priceMin(priceMin)
+                    .priceMax(priceMax)
+                    .attributes(attributeFacets)
+                    .brands(brands)
+                    .sizes(CatalogFacetsResponse.SizeFacet.builder()
+                            .widths(present(byWidth, maskExcept(scope, groups, "width")))
+                            .profiles(present(byProfile, maskExcept(scope, groups, "profile")))
+                            .diameters(present(byDiameter, maskExcept(scope, groups, "diameter")))
+                            .build())
+                    .build();
+        }
+
+        List<AlternativeSizeResponse> alternatives(TireSize size, Long categoryId, CatalogFilter filter) {
+            ProductBitmap scope = scope(categoryId);
+            CatalogFilter withoutSize = new CatalogFilter(filter.brandId(), filter.season(), null, null, null,
+                    filter.priceMin(), filter.priceMax(), filter.inStock(), filter.attributes());
+            ProductBitmap mask = maskExcept(scope, groups(withoutSize), null);
+
+            List<AlternativeSizeResponse> result = new ArrayList<>();
+            for (TireSizeEquivalents.Alternative alternative : equivalents().alternatives(size)) {
+                TireSize alt = alternative.size();
+                long count = count(mask, bySize.get(alt.packed()));
+                if (count > 0) {
+                    result.add(AlternativeSizeResponse.builder()
+                            .width(alt.width())
+                            .profile(alt.profile())
+                            .diameter(alt.diameter())
+                            .size(alt.label())
+                            .deviationPercent(BigDecimal.valueOf(alternative.deviationPercent())
+                                    .setScale(1, RoundingMode.HALF_UP))
+                            .productCount(count)
+                            .build());
+                }
+            }
+            return result;
+        }
+
+        private TireSizeEquivalents equivalents() {
+            TireSizeEquivalents current = equivalents;
+            if (current == null) {
+                List<Integer> present = new ArrayList<>();
+                bySize.forEach((packed, members) -> {
+                    if (!members.isEmpty()) {
+                        present.add(packed);
+                    }
+                });
+                current = TireSizeEquivalents.of(present);
+                equivalents = current;
+            }
+            return current;
+        }
+
+        /** Kategoriya + faol avlodlari (avvalgi {@code collectDescendantIds} bilan bir xil). */
+        private ProductBitmap scope(Long categoryId) {
+            if (categoryId == null) {
+                return all;
+            }
+            ProductBitmap scope = new ProductBitmap(entries.size());
+            Deque<Long> queue = new ArrayDeque<>();
+            Set<Long> seen = new HashSet<>();
+            queue.add(categoryId);
+            while (!queue.isEmpty()) {
+                Long current = queue.poll();
+                if (!seen.add(current)) {
+                    continue;
+                }
+                ProductBitmap members = byCategory.get(current);
+                if (members != null) {
+                    scope.or(members);
+                }
+                queue.addAll(activeChildren.getOrDefault(current, List.of()));
+            }
+            return scope;
+        }
+
+        /** Har bir faol filtr guruhi — mos mahsulotlar to'plami. Guruhlar orasida AND. */
+        private Map<String, ProductBitmap> groups(CatalogFilter filter) {
+            Map<String, ProductBitmap> groups = new LinkedHashMap<>();
+            if (filter.brandId() != null) {
+                groups.put("brand", orEmpty(byBrand.get(filter.brandId())));
+            }
+            if (filter.season() != null) {
+                groups.put("season", orEmpty(bySeason.get(filter.season())));
+            }
+            if (filter.width() != null) {
+                groups.put("width", orEmpty(byWidth.get(filter.width())));
+            }
+            if (filter.profile() != null) {
+                groups.put("profile", orEmpty(byProfile.get(filter.profile())));
+            }
+            if (filter.diameter() != null) {
+                groups.put("diameter", orEmpty(byDiameter.get(filter.diameter())));
+            }
+            if (Boolean.TRUE.equals(filter.inStock())) {
+                groups.put("stock", inStock);
+            }
+            if (filter.priceMin() != null || filter.priceMax() != null) {
+                groups.put("price", priceBand(filter.priceMin(), filter.priceMax()));
+            }
+            if (filter.attributes() != null) {
+                filter.attributes().forEach((attributeId, optionIds) -> {
+                    if (optionIds == null || optionIds.isEmpty()) {
+                        return;
+                    }
+                    // Guruh ichida OR
+                    ProductBitmap any = new ProductBitmap(entries.size());
+                    for (Long optionId : optionIds) {
+                        ProductBitmap members = byOption.get(optionId);
+                        if (members != null) {
+                            any.or(members);
+                        }
+                    }
+                    groups.put("attr:" + attributeId, any);
+                });
+            }
+            return groups;
+        }
+
+        /** {@code scope} ∩ {@code excluded} dan boshqa barcha guruhlar ({@code null} — hammasi). */
+        private static ProductBitmap maskExcept(ProductBitmap scope, Map<String, ProductBitmap> groups,
+                                                String excluded) {
+            ProductBitmap mask = scope.copy();
+            groups.forEach((key, members) -> {
+                if (!key.equals(excluded)) {
+                    mask.and(members);
+                }
+            });
+            return mask;
+        }
+
+        private static long count(ProductBitmap mask, ProductBitmap members) {
+            return members == null ? 0 : mask.andCardinality(members);
+        }
+
+        private static List<Integer> present(NavigableMap<Integer, ProductBitmap> values, ProductBitmap mask) {
+            List<Integer> result = new ArrayList<>();
+            values.forEach((value, members) -> {
+                if (mask.intersects(members)) {
+                    result.add(value);
+                }
+            });
+            return result;
+        }
+
+        private static ProductBitmap orEmpty(ProductBitmap bitmap) {
+            return bitmap != null ? bitmap : new ProductBitmap();
+        }
+
+        /** null kalit (kategoriyasiz/brendsiz/o'lchamsiz) indekslanmaydi — soxta bitmap qaytadi. */
+        private static <K> ProductBitmap bitmap(Map<K, ProductBitmap> map, K key) {
+            return key == null ? new ProductBitmap() : map.computeIfAbsent(key, k -> new ProductBitmap());
+        }
+    }
+
+    /**
+     * Saralangan tartib: {@code positions[i]} — i-o'rindagi mahsulot
+     * pozitsiyasi, {@code rank[pos]} — teskarisi, {@code prices[i]} — uning
+     * narxi (narxsizlar oxirida).
+     */
+    private record Ordering(int[] positions, int[] rank, BigDecimal[] prices) {
+
+        /** {@code members}ning shu tartibdagi o'rinlari — faqat a'zolar bo'ylab. */
+        ProductBitmap ranked(ProductBitmap members) {
+            ProductBitmap ranked = new ProductBitmap(positions.length);
+            for (int pos = members.nextSetBit(0); pos >= 0; pos = members.nextSetBit(pos + 1)) {
+                ranked.set(rank[pos]);
+            }
+            return ranked;
+        }
+
+        /** Narxi bor o'rinlar soni (ular boshida turadi). */
+        int priced() {
+            int lo = 0;
+            int hi = prices.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (prices[mid] != null) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /** Narxi {@code value} dan katta (yoki {@code inclusive} bo'lsa teng) birinchi o'rin. */
+        int firstPriceIndex(BigDecimal value, boolean inclusive) {
+            int lo = 0;
+            int hi = priced();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = prices[mid].compareTo(value);
+                if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
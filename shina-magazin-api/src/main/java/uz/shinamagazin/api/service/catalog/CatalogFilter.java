@@ -0,0 +1,23 @@
+package uz.shinamagazin.api.service.catalog;
+
+import uz.shinamagazin.api.enums.Season;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vitrinada tanlangan filtrlar (kategoriyadan tashqari — u facetlar
+ * "doirasi"). Har bir maydon null bo'lishi mumkin = filtr yo'q.
+ *
+ * @param attributes attributeId -> tanlangan variantlar (guruh ichida OR)
+ */
+public record CatalogFilter(Long brandId, Season season,
+                            Integer width, Integer profile, Integer diameter,
+                            BigDecimal priceMin, BigDecimal priceMax, Boolean inStock,
+                            Map<Long, List<Long>> attributes) {
+
+    public static CatalogFilter none() {
+        return new CatalogFilter(null, null, null, null, null, null, null, null, Map.of());
+    }
+}
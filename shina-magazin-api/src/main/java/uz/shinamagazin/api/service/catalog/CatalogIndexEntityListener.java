@@ -0,0 +1,280 @@
+package uz.shinamagazin.api.service.catalog;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PreUpdate;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uz.shinamagazin.api.entity.Attribute;
+import uz.shinamagazin.api.entity.AttributeOption;
+import uz.shinamagazin.api.entity.Brand;
+import uz.shinamagazin.api.entity.Category;
+import uz.shinamagazin.api.entity.CategoryAttribute;
+import uz.shinamagazin.api.entity.Product;
+import uz.shinamagazin.api.entity.ProductAttributeValue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Katalog ma'lumotlari o'zgarishini {@link CatalogFacetIndex},
+ * {@link ProductSuggestIndex}, {@link CategoryTreeCache}, {@link CatalogReadModel}
+ * va {@link CatalogVersion}ga yetkazadi.
+ *
+ * <p>Mahsulot qoldig'i ko'p joyda o'zgaradi (savdo, qaytarish, kirim,
+ * harakatlar, buyurtmalar, import) — har bir servisga hodisa qo'shish o'rniga
+ * entity darajasida ushlanadi. {@link uz.shinamagazin.api.audit.AuditEntityListener}
+ * kabi static injection: JPA listener'larini Spring boshqarmaydi.
+ *
+ * <p>Indeksga faqat COMMIT'dan keyin xabar beriladi: aks holda indeks hali
+ * commit bo'lmagan (yoki rollback bo'ladigan) holatni o'qib, keyin
+ * o'zgarishni "qo'llangan" deb hisoblashi mumkin edi. O'zgarishlar
+ * tranzaksiya bo'yicha bitta {@link Pending}ga yig'iladi va commit'dan keyin
+ * har iste'molchiga bir marta, to'plam bilan yetkaziladi — import yoki
+ * ko'p qatorli savdoda entity × iste'molchi sonicha synchronization emas.
+ *
+ * <p>Faqat qoldiq o'zgargan mahsulot (savdo, kirim) vitrinada ko'rinadigan
+ * hech narsani o'zgartirmaydi, agar "bor"/"kam qoldi" belgisi o'zgarmasa:
+ * katalog versiyasi oshmaydi (HTTP keshi saqlanadi), facet indeksi va
+ * daraxt tegilmaydi, faqat {@code catalog_products} qatoridagi son jimgina
+ * yangilanadi.
+ */
+@Component
+public class CatalogIndexEntityListener {
+
+    /** Vitrinada ko'rinmaydigan Product maydonlari. Yangi maydon sukut bo'yicha ko'rinadi. */
+    private static final Set<String> HIDDEN_PRODUCT_FIELDS = Set.of(
+            "quantity", "minStockLevel", "purchasePrice", "createdBy", "createdAt", "updatedAt", "version",
+            "searchText", "searchKey");
+
+    private static CatalogFacetIndex index;
+    private static ProductSuggestIndex suggestIndex;
+    private static CategoryTreeCache categoryTree;
+    private static CatalogReadModel readModel;
+    private static CatalogVersion catalogVersion;
+    private static EntityManager entityManager;
+
+    @Autowired
+    public void init(CatalogFacetIndex catalogFacetIndex, ProductSuggestIndex productSuggestIndex,
+                     CategoryTreeCache categoryTreeCache, CatalogReadModel catalogReadModel,
+                     CatalogVersion version, EntityManager em) {
+        CatalogIndexEntityListener.index = catalogFacetIndex;
+        CatalogIndexEntityListener.suggestIndex = productSuggestIndex;
+        CatalogIndexEntityListener.categoryTree = categoryTreeCache;
+        CatalogIndexEntityListener.readModel = catalogReadModel;
+        CatalogIndexEntityListener.catalogVersion = version;
+        CatalogIndexEntityListener.entityManager = em;
+    }
+
+    /** Faqat facet indeksi (testlar uchun); boshqa iste'molchilar o'chiriladi. */
+    void init(CatalogFacetIndex catalogFacetIndex) {
+        init(catalogFacetIndex, null, null, null, null, null);
+    }
+
+    @PostPersist
+    @PostRemove
+    public void onChange(Object entity) {
+        Pending pending = pending();
+        pending.add(entity);
+        pending.dispatchIfUnsynchronized();
+    }
+
+    /** Yangilanish — dirty-check'dan keyin, haqiqatan o'zgargan entity uchun. */
+    @PreUpdate
+    public void onUpdate(Object entity) {
+        Pending pending = pending();
+        if (entity instanceof Product product && stockOnly(product)) {
+            pending.stock.add(product.getId());
+        } else {
+            pending.add(entity);
+        }
+        pending.dispatchIfUnsynchronized();
+    }
+
+    /**
+     * Mahsulotning atribut qiymatlari ommaviy {@code DELETE} bilan o'chirildi —
+     * JPQL bulk so'rovi entity callback'larini chaqirmaydi, shuning uchun
+     * o'chirgan kod buni o'zi xabar qiladi. Qiymatlar shu tranzaksiyada qayta
+     * yozilsa ham zarari yo'q: to'plam mahsulotni bir marta oladi.
+     */
+    public static void attributeValuesDeleted(Long productId) {
+        Pending pending = pending();
+        pending.visible = true;
+        pending.valueProducts.add(productId);
+        pending.dispatchIfUnsynchronized();
+    }
+
+    /**
+     * Faqat yashirin maydonlar o'zgargan va qoldiq belgilari (bor / kam)
+     * o'sha-o'sha — Hibernate saqlagan yuklangan holat bilan solishtiriladi.
+     */
+    private static boolean stockOnly(Product product) {
+        EntityManager em = entityManager;
+        if (em == null) {
+            return false;
+        }
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        EntityEntry entry = session.getPersistenceContextInternal().getEntry(product);
+        if (entry == null || entry.getLoadedState() == null) {
+            return false;
+        }
+        EntityPersister persister = entry.getPersister();
+        Object[] loaded = entry.getLoadedState();
+        int[] dirty = persister.findDirty(persister.getValues(product), loaded, product, session);
+        if (dirty == null) {
+            return false;
+        }
+        String[] names = persister.getPropertyNames();
+        for (int i : dirty) {
+            if (!HIDDEN_PRODUCT_FIELDS.contains(names[i])) {
+                return false;
+            }
+        }
+        Integer oldQuantity = (Integer) loaded[persister.getPropertyIndex("quantity")];
+        Integer oldMinStock = (Integer) loaded[persister.getPropertyIndex("minStockLevel")];
+        return inStock(oldQuantity) == inStock(product.getQuantity())
+                && lowStock(oldQuantity, oldMinStock) == lowStock(product.getQuantity(), product.getMinStockLevel());
+    }
+
+    // CatalogReadModel qatoridagi inStock/lowStock bilan bir xil qoida
+    private static boolean inStock(Integer quantity) {
+        return quantity != null && quantity > 0;
+    }
+
+    private static boolean lowStock(Integer quantity, Integer minStockLevel) {
+        return minStockLevel != null && (quantity != null ? quantity : 0) <= minStockLevel;
+    }
+
+    /** Joriy tranzaksiyaning to'plami; tranzaksiyasiz — bir martalik, darhol yetkaziladi. */
+    private static Pending pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Pending(false);
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(Pending.class);
+        if (pending == null) {
+            pending = new Pending(true);
+            TransactionSynchronizationManager.bindResource(Pending.class, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    /** Bitta tranzaksiyadagi katalog o'zgarishlari. */
+    private static final class Pending implements TransactionSynchronization {
+
+        private final boolean bound;
+        private final Set<Long> products = new LinkedHashSet<>();
+        /** Atribut qiymati o'zgargan mahsulotlar — daraxt va qidiruv uchun ahamiyatsiz. */
+        private final Set<Long> valueProducts = new LinkedHashSet<>();
+        private final Set<Long> stock = new LinkedHashSet<>();
+        private final Set<Long> brands = new LinkedHashSet<>();
+        private final Set<Long> categories = new LinkedHashSet<>();
+        private final Set<Long> attributes = new LinkedHashSet<>();
+        private final Set<Long> options = new LinkedHashSet<>();
+        private boolean visible;
+        /** Kategoriya daraxti (nomlar, atribut bog'lanishlari). */
+        private boolean treeStructure;
+        /** Facet indeksining tuzilmasi (brendlar, kategoriyalar, atributlar). */
+        private boolean facetStructure;
+
+        Pending(boolean bound) {
+            this.bound = bound;
+        }
+
+        void add(Object entity) {
+            visible = true;
+            if (entity instanceof Product product) {
+                products.add(product.getId());
+                return;
+            }
+            if (entity instanceof ProductAttributeValue value) {
+                valueProducts.add(value.getProduct().getId());
+                return;
+            }
+            facetStructure = true;
+            if (entity instanceof Brand brand) {
+                brands.add(brand.getId());
+            } else if (entity instanceof Category category) {
+                categories.add(category.getId());
+                treeStructure = true;
+            } else if (entity instanceof CategoryAttribute) {
+                treeStructure = true;
+            } else if (entity instanceof Attribute attribute) {
+                attributes.add(attribute.getId());
+                treeStructure = true;
+            } else if (entity instanceof AttributeOption option) {
+                options.add(option.getId());
+                treeStructure = true;
+            }
+        }
+
+        void dispatchIfUnsynchronized() {
+            if (!bound) {
+                dispatch();
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            dispatch();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(Pending.class);
+        }
+
+        private void dispatch() {
+            List<Long> changed = new ArrayList<>(products);
+            changed.addAll(valueProducts);
+
+            CatalogVersion version = catalogVersion;
+            if (visible && version != null) {
+                version.bump();
+            }
+            CategoryTreeCache tree = categoryTree;
+            if (tree != null) {
+                if (!products.isEmpty()) {
+                    tree.productsChanged();
+                }
+                if (treeStructure) {
+                    tree.structureChanged();
+                }
+            }
+            CatalogReadModel catalog = readModel;
+            if (catalog != null) {
+                if (!changed.isEmpty()) {
+                    catalog.productsChanged(changed);
+                }
+                if (!stock.isEmpty()) {
+                    catalog.stockChanged(List.copyOf(stock));
+                }
+                brands.forEach(catalog::brandChanged);
+                categories.forEach(catalog::categoryChanged);
+                attributes.forEach(catalog::attributeChanged);
+                options.forEach(catalog::optionChanged);
+            }
+            ProductSuggestIndex suggest = suggestIndex;
+            if (suggest != null && !products.isEmpty()) {
+                suggest.productsChanged(List.copyOf(products));
+            }
+            CatalogFacetIndex target = index;
+            if (target != null) {
+                if (!changed.isEmpty()) {
+                    target.productsChanged(changed);
+                }
+                if (facetStructure) {
+                    target.structureChanged();
+                }
+            }
+        }
+    }
+}
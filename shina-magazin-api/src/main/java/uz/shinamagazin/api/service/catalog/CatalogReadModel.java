@@ -0,0 +1,276 @@
+package uz.shinamagazin.api.service.catalog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.shinamagazin.api.dto.response.ProductAttributeValueResponse;
+import uz.shinamagazin.api.entity.CatalogProduct;
+import uz.shinamagazin.api.entity.Product;
+import uz.shinamagazin.api.entity.ProductAttributeValue;
+import uz.shinamagazin.api.event.CatalogRowsChangedEvent;
+import uz.shinamagazin.api.repository.CatalogProductRepository;
+import uz.shinamagazin.api.repository.ProductAttributeValueRepository;
+import uz.shinamagazin.api.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code catalog_products} jadvalini (V39) yuritadi — storefront ro'yxati va
+ * mahsulot sahifasi shu jadvaldan JOIN'siz o'qiladi.
+ *
+ * <p>Yangilanish ({@link CatalogIndexEntityListener}, commit'dan keyin):
+ * <ul>
+ *   <li>mahsulot yoki uning atribut qiymati o'zgarsa — faqat shu qatorlar
+ *       qayta yoziladi;</li>
+ *   <li>brend, kategoriya, atribut yoki variant o'zgarsa — faqat nomi
+ *       qatorida takrorlangan mahsulotlar: brenddagilar, kategoriya va
+ *       uning avlodlaridagilar (kategoriya yo'li), shu atribut/variant
+ *       qiymati borlar;</li>
+ *   <li>ilova ishga tushganda — to'liq (xotiradagi navbat qayta ishga tushishda
+ *       yo'qoladi).</li>
+ * </ul>
+ * Har qadam bitta tranzaksiyada: o'quvchilar commit'gacha eski qatorlarni
+ * ko'radi. Nofaol qilingan mahsulot qatori esa {@code ProductService}da
+ * shu tranzaksiyaning o'zida o'chiriladi — vitrinadan darhol chiqadi.
+ * Qatori hali yozilmagan mahsulotni {@code CatalogService} eski yo'l bilan
+ * o'qiydi. Har commit'dan keyin {@link CatalogRowsChangedEvent} chiqariladi —
+ * faqat qoldig'i o'zgargan qatorlar uchun emas ({@link #stockChanged}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogReadModel {
+
+    private static final int BATCH_SIZE = 500;
+
+    /** Bundan ko'p mahsulot birdan o'zgarsa (import), to'liq qayta quriladi. */
+    private static final int MAX_INCREMENTAL_BATCH = 2000;
+
+    private static final String PATH_SEPARATOR = " / ";
+
+    private final CatalogProductRepository catalogProductRepository;
+    private final ProductRepository productRepository;
+    private final ProductAttributeValueRepository valueRepository;
+    private final CategoryTreeCache categoryTree;
+    private final CatalogVersion catalogVersion;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Set<Long> pendingProducts = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingBrands = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingCategories = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingAttributes = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingOptions = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingStock = ConcurrentHashMap.newKeySet();
+    private TransactionTemplate tx;
+
+    @PostConstruct
+    void init() {
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /** Mahsulotlar o'zgardi (commit'dan keyin chaqiriladi). */
+    public void productsChanged(Collection<Long> productIds) {
+        pendingProducts.addAll(productIds);
+    }
+
+    /**
+     * Faqat qoldiq o'zgardi, "bor"/"kam qoldi" belgisi o'sha-o'sha — qator
+     * yangilanadi, lekin katalog versiyasi oshmaydi va hodisa chiqmaydi.
+     */
+    public void stockChanged(Collection<Long> productIds) {
+        pendingStock.addAll(productIds);
+    }
+
+    public void brandChanged(Long brandId) {
+        pendingBrands.add(brandId);
+    }
+
+    /** Kategoriya nomi yoki o'rni o'zgardi — uning va avlodlarining mahsulotlari. */
+    public void categoryChanged(Long categoryId) {
+        pendingCategories.add(categoryId);
+    }
+
+    public void attributeChanged(Long attributeId) {
+        pendingAttributes.add(attributeId);
+    }
+
+    public void optionChanged(Long optionId) {
+        pendingOptions.add(optionId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.read-model.refresh-ms:1000}")
+    public synchronized void applyPendingChanges() {
+        if (pendingProducts.size() > MAX_INCREMENTAL_BATCH) {
+            rebuild();
+            return;
+        }
+        List<Long> products = drain(pendingProducts);
+        List<Long> brands = drain(pendingBrands);
+        List<Long> categories = drain(pendingCategories);
+        List<Long> attributes = drain(pendingAttributes);
+        List<Long> options = drain(pendingOptions);
+        List<Long> stock = drain(pendingStock);
+        if (products.isEmpty() && brands.isEmpty() && categories.isEmpty()
+                && attributes.isEmpty() && options.isEmpty() && stock.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = tx.execute(status -> {
+            Set<Long> affected = new LinkedHashSet<>(products);
+            if (!brands.isEmpty()) {
+                affected.addAll(productRepository.findActiveIdsByBrandIdIn(brands));
+            }
+            if (!categories.isEmpty()) {
+                CategoryTree tree = categoryTree.get();
+                Set<Long> subtree = new HashSet<>();
+                categories.forEach(id -> subtree.addAll(tree.withAllDescendants(id)));
+                affected.addAll(productRepository.findActiveIdsByCategoryIdIn(subtree));
+            }
+            if (!attributes.isEmpty()) {
+                affected.addAll(valueRepository.findActiveProductIdsByAttributeIdIn(attributes));
+            }
+            if (!options.isEmpty()) {
+                affected.addAll(valueRepository.findActiveProductIdsByOptionIdIn(options));
+            }
+            List<Long> visible = List.copyOf(affected);
+            affected.addAll(stock);
+            List<Long> all = List.copyOf(affected);
+            for (int from = 0; from < all.size(); from += BATCH_SIZE) {
+                List<Long> batch = all.subList(from, Math.min(all.size(), from + BATCH_SIZE));
+                catalogProductRepository.deleteByProductIdIn(batch);
+                // Nofaol bo'lib qolganlari qaytadan yozilmaydi — vitrinadan chiqadi
+                write(productRepository.findByIdIn(batch).stream()
+                        .filter(p -> Boolean.TRUE.equals(p.getActive()))
+                        .toList());
+                entityManager.flush();
+                entityManager.clear();
+            }
+            return visible;
+        });
+        if (ids.isEmpty()) {
+            return;
+        }
+        catalogVersion.bump();
+        eventPublisher.publishEvent(new CatalogRowsChangedEvent(ids));
+        log.debug("Catalog read model: {} products refreshed", ids.size());
+    }
+
+    private static List<Long> drain(Set<Long> pending) {
+        List<Long> ids = new ArrayList<>(pending);
+        pending.removeAll(ids);
+        return ids;
+    }
+
+    /** Jadvalni mahsulotlardan to'liq qayta quradi. */
+    public synchronized void rebuild() {
+        // Tozalash yuklashdan OLDIN: yuklash davomida commit bo'lganlar navbatda qoladi
+        pendingProducts.clear();
+        pendingBrands.clear();
+        pendingCategories.clear();
+        pendingAttributes.clear();
+        pendingOptions.clear();
+        pendingStock.clear();
+
+        long started = System.nanoTime();
+        Integer written = tx.execute(status -> {
+            catalogProductRepository.deleteAllInBatch();
+            int count = 0;
+            Pageable page = PageRequest.of(0, BATCH_SIZE, Sort.by("id"));
+            while (true) {
+                List<Product> batch = productRepository.findByActiveTrue(page).getContent();
+                write(batch);
+                count += batch.size();
+                // Bitta katta tranzaksiya — persistence context'ni bo'laklab bo'shatamiz
+                entityManager.flush();
+                entityManager.clear();
+                if (batch.size() < BATCH_SIZE) {
+                    return count;
+                }
+                page = page.next();
+            }
+        });
+        catalogVersion.bump();
+        eventPublisher.publishEvent(new CatalogRowsChangedEvent(null));
+        log.info("Catalog read model built: {} products in {} ms",
+                written, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void write(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        Map<Long, List<ProductAttributeValue>> values = new HashMap<>();
+        valueRepository.findByProductIdInWithAttribute(products.stream().map(Product::getId).toList())
+                .forEach(v -> values.computeIfAbsent(v.getProduct().getId(), k -> new ArrayList<>()).add(v));
+        CategoryTree tree = categoryTree.get();
+        List<CatalogProduct> rows = new ArrayList<>(products.size());
+        for (Product product : products) {
+            CatalogProduct row = toRow(product, values.getOrDefault(product.getId(), List.of()), tree);
+            entityManager.persist(row);
+            rows.add(row);
+        }
+        // Qatorlar faqat yoziladi: keyingi DELETE + INSERT bilan to'qnashmasligi uchun context'da qolmaydi
+        entityManager.flush();
+        rows.forEach(entityManager::detach);
+    }
+
+    private static CatalogProduct toRow(Product product, List<ProductAttributeValue> values, CategoryTree tree) {
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        int quantity = product.getQuantity() != null ? product.getQuantity() : 0;
+        return CatalogProduct.builder()
+                .productId(product.getId())
+                .sku(product.getSku())
+                .name(product.getName())
+                .brandId(product.getBrand() != null ? product.getBrand().getId() : null)
+                .brandName(product.getBrand() != null ? product.getBrand().getName() : null)
+                .categoryId(categoryId)
+                .categoryName(product.getCategory() != null ? product.getCategory().getName() : null)
+                .categoryPath(categoryId != null ? String.join(PATH_SEPARATOR, tree.path(categoryId)) : null)
+                .width(product.getWidth())
+                .profile(product.getProfile())
+                .diameter(product.getDiameter())
+                .sizeString(product.getSizeString())
+                .loadIndex(product.getLoadIndex())
+                .speedRating(product.getSpeedRating())
+                .season(product.getSeason())
+                .sellingPrice(product.getSellingPrice())
+                .quantity(quantity)
+                .inStock(quantity > 0)
+                .lowStock(product.getMinStockLevel() != null && quantity <= product.getMinStockLevel())
+                .description(product.getDescription())
+                .imageUrl(product.getImageUrl())
+                .optionIds(values.stream()
+                        .filter(v -> v.getOption() != null)
+                        .map(v -> v.getOption().getId())
+                        .distinct()
+                        .toArray(Long[]::new))
+                .attributes(ProductAttributeValueResponse.fromValues(values))
+                .build();
+    }
+}
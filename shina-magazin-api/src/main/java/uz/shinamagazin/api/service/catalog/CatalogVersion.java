@@ -0,0 +1,48 @@
+package uz.shinamagazin.api.service.catalog;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Storefront katalogining o'zgarish raqami — HTTP ETag va javob keshi
+ * ({@link uz.shinamagazin.api.config.CatalogHttpCacheFilter}) shunga bog'langan.
+ *
+ * <p>Raqam ikki joyda oshadi:
+ * <ul>
+ *   <li>katalog entity'si commit bo'lganda ({@link CatalogIndexEntityListener});</li>
+ *   <li>{@link CatalogFacetIndex} va {@link CatalogReadModel} o'zgarishni
+ *       qo'llab bo'lganda — ular bir-ikki soniya kechikadi, shu oraliqda
+ *       hisoblangan (eski) javob oxirgi raqam bilan qolib ketmasligi uchun.</li>
+ * </ul>
+ * O'quvchi raqamni javobni hisoblashdan OLDIN oladi: hisoblash paytida
+ * o'zgarish bo'lsa javob eski raqam bilan saqlanadi va keyingi so'rovda
+ * qayta quriladi — aksincha bo'lmaydi.
+ *
+ * <p>Raqam xotirada; ilova qayta ishga tushganda {@code epoch} o'zgaradi,
+ * shuning uchun oldingi ETag'lar mos kelmaydi.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    /** Kuchli ETag, masalan {@code "m1x2y3z-42"}. */
+    public String etag(long version) {
+        return etag(version, null);
+    }
+
+    /** @param variant bir URL'ning boshqa ko'rinishi (masalan {@code gz}) — alohida teg oladi */
+    public String etag(long version, String variant) {
+        return "\"" + epoch + "-" + version + (variant != null ? "-" + variant : "") + "\"";
+    }
+}
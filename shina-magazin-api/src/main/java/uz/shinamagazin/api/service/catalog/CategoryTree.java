@@ -0,0 +1,239 @@
+package uz.shinamagazin.api.service.catalog;
+
+import uz.shinamagazin.api.dto.response.CategoryAttributeResponse;
+import uz.shinamagazin.api.dto.response.CategoryResponse;
+import uz.shinamagazin.api.entity.Category;
+import uz.shinamagazin.api.entity.CategoryAttribute;
+import uz.shinamagazin.api.enums.CategoryTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Kategoriyalar daraxtining o'zgarmas nusxasi: avlodlar, ajdodlar, yo'l va
+ * meros atributlar bazaga murojaatsiz.
+ *
+ * <p>Bir marta quriladi va boshqa o'zgartirilmaydi — o'qiyotgan oqimlar qulfsiz
+ * ishlaydi; kategoriya o'zgarsa {@link CategoryTreeCache} yangisini quradi va
+ * havolani almashtiradi.
+ *
+ * <p>Semantika avvalgi so'rovlar bilan bir xil: avlodlar faqat faol bolalar
+ * orqali yig'iladi, meros esa ota zanjiri bo'ylab (nofaol otalar ham) va faqat
+ * faol atributlar bilan.
+ */
+public final class CategoryTree {
+
+    private static final Comparator<Category> ORDER =
+            Comparator.comparing(Category::getSortOrder).thenComparing(Category::getId);
+
+    private final Map<Long, Node> nodes;
+    private final List<Long> activeRoots;
+    /** id -> o'zi + faol avlodlari (BFS tartibida). */
+    private final Map<Long, Set<Long>> subtrees;
+    private final Map<Long, List<CategoryAttributeResponse>> effectiveAttributes;
+
+    private CategoryTree(Map<Long, Node> nodes, List<Long> activeRoots, Map<Long, Set<Long>> subtrees,
+                         Map<Long, List<CategoryAttributeResponse>> effectiveAttributes) {
+        this.nodes = nodes;
+        this.activeRoots = activeRoots;
+        this.subtrees = subtrees;
+        this.effectiveAttributes = effectiveAttributes;
+    }
+
+    /**
+     * @param categories barcha kategoriyalar (nofaollari ham)
+     * @param bindings   atribut bog'lanishlari (atribut va variantlari bilan) yoki bo'sh —
+     *                   faqat tuzilma kerak bo'lsa
+     */
+    public static CategoryTree of(List<Category> categories, List<CategoryAttribute> bindings) {
+        Map<Long, List<Category>> childrenByParent = new HashMap<>();
+        for (Category category : categories) {
+            if (category.getParent() != null) {
+                childrenByParent.computeIfAbsent(category.getParent().getId(), k -> new ArrayList<>())
+                        .add(category);
+            }
+        }
+
+        Map<Long, Node> nodes = new HashMap<>(categories.size() * 2);
+        List<Long> activeRoots = new ArrayList<>();
+        for (Category category : categories) {
+            List<Category> children = childrenByParent.getOrDefault(category.getId(), List.of());
+            List<Long> activeChildren = children.stream()
+                    .filter(c -> Boolean.TRUE.equals(c.getActive()))
+                    .sorted(ORDER)
+                    .map(Category::getId)
+                    .toList();
+            nodes.put(category.getId(), new Node(category.getId(), category.getName(),
+                    category.getDescription(), category.getIcon(), category.getTemplate(),
+                    category.getSortOrder(), category.getActive(),
+                    category.getParent() != null ? category.getParent().getId() : null,
+                    !children.isEmpty(), activeChildren));
+        }
+        categories.stream()
+                .filter(c -> c.getParent() == null && Boolean.TRUE.equals(c.getActive()))
+                .sorted(ORDER)
+                .forEach(c -> activeRoots.add(c.getId()));
+
+        Map<Long, List<CategoryAttribute>> ownBindings = new HashMap<>();
+        for (CategoryAttribute binding : bindings) {
+            ownBindings.computeIfAbsent(binding.getCategory().getId(), k -> new ArrayList<>()).add(binding);
+        }
+        Map<Long, Set<Long>> subtrees = new HashMap<>(nodes.size() * 2);
+        Map<Long, List<CategoryAttributeResponse>> effective = new HashMap<>(nodes.size() * 2);
+        for (Long id : nodes.keySet()) {
+            subtrees.put(id, Collections.unmodifiableSet(collectSubtree(nodes, id)));
+            effective.put(id, inherit(nodes, id, ownBindings));
+        }
+        return new CategoryTree(nodes, List.copyOf(activeRoots), subtrees, effective);
+    }
+
+    /** Kategoriya mavjudmi (nofaol bo'lsa ham). */
+    public boolean contains(Long id) {
+        return nodes.containsKey(id);
+    }
+
+    /** Kategoriya + barcha faol avlodlari. Noma'lum id — faqat o'zi (avvalgidek). */
+    public Set<Long> subtree(Long id) {
+        Set<Long> subtree = subtrees.get(id);
+        return subtree != null ? subtree : Set.of(id);
+    }
+
+    /**
+     * Kategoriya + barcha avlodlari, nofaollari ham — ularning mahsulotlari
+     * katalog yo'lida shu kategoriya nomini takrorlaydi.
+     */
+    public Set<Long> withAllDescendants(Long id) {
+        Set<Long> result = new HashSet<>();
+        result.add(id);
+        for (Long candidate : nodes.keySet()) {
+            if (ancestorIds(candidate).contains(id)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    /** Ota, bobo, ... ildizgacha (o'zisiz). */
+    public List<Long> ancestorIds(Long id) {
+        return ancestorIds(nodes, id);
+    }
+
+    private static List<Long> ancestorIds(Map<Long, Node> nodes, Long id) {
+        List<Long> ancestors = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        seen.add(id);
+        Node node = nodes.get(id);
+        while (node != null && node.parentId() != null && seen.add(node.parentId())) {
+            ancestors.add(node.parentId());
+            node = nodes.get(node.parentId());
+        }
+        return ancestors;
+    }
+
+    /** Ildizdan shu kategoriyagacha nomlar, masalan {@code [Shinalar, Yengil, Yozgi]}. */
+    public List<String> path(Long id) {
+        Node node = nodes.get(id);
+        if (node == null) {
+            return List.of();
+        }
+        List<String> path = new ArrayList<>();
+        List<Long> ancestors = ancestorIds(id);
+        for (int i = ancestors.size() - 1; i >= 0; i--) {
+            path.add(nodes.get(ancestors.get(i)).name());
+        }
+        path.add(node.name());
+        return path;
+    }
+
+    /**
+     * O'ziniki + ota kategoriyalardan meros atributlar; bir xil atribut ikki
+     * joyda bo'lsa eng yaqini. Noma'lum kategoriya — null.
+     */
+    public List<CategoryAttributeResponse> effectiveAttributes(Long id) {
+        return effectiveAttributes.get(id);
+    }
+
+    /** Faol ildiz kategoriyalar, bolalari bilan (admin va vitrina menyusi). */
+    public List<CategoryResponse> roots(Map<Long, Long> productCounts) {
+        return activeRoots.stream().map(id -> render(id, productCounts)).toList();
+    }
+
+    /** Barcha faol kategoriyalar tekis ro'yxati (har biri bolalari bilan). */
+    public List<CategoryResponse> allActive(Map<Long, Long> productCounts) {
+        return nodes.values().stream()
+                .filter(n -> Boolean.TRUE.equals(n.active()))
+                .sorted(Comparator.comparing(Node::sortOrder).thenComparing(Node::id))
+                .map(n -> render(n.id(), productCounts))
+                .toList();
+    }
+
+    private CategoryResponse render(Long id, Map<Long, Long> productCounts) {
+        Node node = nodes.get(id);
+        Node parent = node.parentId() != null ? nodes.get(node.parentId()) : null;
+        return CategoryResponse.builder()
+                .id(node.id())
+                .name(node.name())
+                .description(node.description())
+                .parentId(node.parentId())
+                .parentName(parent != null ? parent.name() : null)
+                .children(node.hasChildren()
+                        ? node.activeChildren().stream().map(child -> render(child, productCounts)).toList()
+                        : null)
+                .icon(node.icon())
+                .template(node.template())
+                .sortOrder(node.sortOrder())
+                .productCount(productCounts != null ? productCounts.getOrDefault(node.id(), 0L) : null)
+                .active(node.active())
+                .build();
+    }
+
+    private static Set<Long> collectSubtree(Map<Long, Node> nodes, Long rootId) {
+        Set<Long> ids = new LinkedHashSet<>();
+        Deque<Long> queue = new ArrayDeque<>();
+        queue.add(rootId);
+        while (!queue.isEmpty()) {
+            Long current = queue.poll();
+            if (!ids.add(current)) {
+                continue;
+            }
+            Node node = nodes.get(current);
+            if (node != null) {
+                queue.addAll(node.activeChildren());
+            }
+        }
+        return ids;
+    }
+
+    private static List<CategoryAttributeResponse> inherit(Map<Long, Node> nodes, Long id,
+                                                           Map<Long, List<CategoryAttribute>> ownBindings) {
+        Map<Long, CategoryAttributeResponse> byAttribute = new LinkedHashMap<>();
+        List<Long> chain = new ArrayList<>();
+        chain.add(id);
+        chain.addAll(ancestorIds(nodes, id));
+        for (int level = 0; level < chain.size(); level++) {
+            for (CategoryAttribute binding : ownBindings.getOrDefault(chain.get(level), List.of())) {
+                if (!Boolean.TRUE.equals(binding.getAttribute().getActive())) {
+                    continue;
+                }
+                byAttribute.putIfAbsent(binding.getAttribute().getId(),
+                        CategoryAttributeResponse.from(binding, level > 0));
+            }
+        }
+        return List.copyOf(byAttribute.values());
+    }
+
+    private record Node(Long id, String name, String description, String icon, CategoryTemplate template,
+                        Integer sortOrder, Boolean active, Long parentId,
+                        boolean hasChildren, List<Long> activeChildren) {
+    }
+}
@@ -0,0 +1,126 @@
+package uz.shinamagazin.api.service.catalog;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.shinamagazin.api.dto.response.CategoryResponse;
+import uz.shinamagazin.api.repository.CategoryAttributeRepository;
+import uz.shinamagazin.api.repository.CategoryRepository;
+import uz.shinamagazin.api.repository.ProductRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Joriy {@link CategoryTree} nusxasi.
+ *
+ * <p>Ilgari subtree filtri har tugun uchun bitta so'rov, meros atributlar
+ * esa har daraja uchun bitta so'rov edi — kategoriya tanlangan har bir
+ * katalog va facet so'rovida. Endi daraxt bir marta o'qiladi va kategoriya
+ * (yoki atribut bog'lanishi) o'zgarguncha xotiradan beriladi.
+ *
+ * <p>O'zgarish {@link CatalogIndexEntityListener} orqali commit'dan keyin
+ * keladi: avlod raqami oshadi, keyingi o'qishda yangi nusxa quriladi va
+ * havola almashtiriladi. Qurish davomida kelgan o'zgarish avlod raqamida
+ * qoladi — eskirgan nusxa ishlatilmaydi.
+ *
+ * <p>Daraxtdagi mahsulot sonlari alohida saqlanadi (bitta guruhlangan so'rov)
+ * va mahsulot o'zgarganda bekor qilinadi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTreeCache {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryAttributeRepository categoryAttributeRepository;
+    private final ProductRepository productRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final AtomicLong structureGeneration = new AtomicLong();
+    private final AtomicLong countsGeneration = new AtomicLong();
+
+    private volatile Versioned<CategoryTree> tree;
+    private volatile Versioned<Map<Long, Long>> productCounts;
+    /** Oxirgi chizilgan ildizlar ro'yxati — daraxt ham, sonlar ham o'zgarmagan bo'lsa qayta ishlatiladi. */
+    private volatile Rendered rendered;
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    /** Kategoriya yoki atribut tuzilmasi o'zgardi (commit'dan keyin chaqiriladi). */
+    public void structureChanged() {
+        structureGeneration.incrementAndGet();
+    }
+
+    /** Mahsulotlar o'zgardi — daraxtdagi sonlar eskirdi. */
+    public void productsChanged() {
+        countsGeneration.incrementAndGet();
+    }
+
+    public CategoryTree get() {
+        Versioned<CategoryTree> current = tree;
+        if (current != null && current.generation() == structureGeneration.get()) {
+            return current.value();
+        }
+        synchronized (this) {
+            current = tree;
+            long generation = structureGeneration.get();
+            if (current == null || current.generation() != generation) {
+                long started = System.nanoTime();
+                CategoryTree built = readOnlyTx.execute(status -> CategoryTree.of(
+                        categoryRepository.findAll(), categoryAttributeRepository.findAllWithAttribute()));
+                current = new Versioned<>(generation, built);
+                tree = current;
+                log.debug("Category tree built in {} ms", (System.nanoTime() - started) / 1_000_000);
+            }
+            return current.value();
+        }
+    }
+
+    /** categoryId -> shu kategoriyaning o'zidagi faol mahsulotlar soni. */
+    public Map<Long, Long> productCounts() {
+        Versioned<Map<Long, Long>> current = productCounts;
+        long generation = countsGeneration.get();
+        if (current != null && current.generation() == generation) {
+            return current.value();
+        }
+        Map<Long, Long> counts = readOnlyTx.execute(status -> {
+            Map<Long, Long> result = new HashMap<>();
+            for (Object[] row : productRepository.countActiveByCategory()) {
+                result.put((Long) row[0], (Long) row[1]);
+            }
+            return Map.copyOf(result);
+        });
+        productCounts = new Versioned<>(generation, counts);
+        return counts;
+    }
+
+    /** Faol ildiz kategoriyalar bolalari va mahsulot sonlari bilan. */
+    public List<CategoryResponse> roots() {
+        CategoryTree currentTree = get();
+        Map<Long, Long> counts = productCounts();
+        Rendered current = rendered;
+        if (current != null && current.tree() == currentTree && current.counts() == counts) {
+            return current.roots();
+        }
+        List<CategoryResponse> roots = currentTree.roots(counts);
+        rendered = new Rendered(currentTree, counts, roots);
+        return roots;
+    }
+
+    private record Versioned<T>(long generation, T value) {
+    }
+
+    private record Rendered(CategoryTree tree, Map<Long, Long> counts, List<CategoryResponse> roots) {
+    }
+}
@@ -0,0 +1,380 @@
+package uz.shinamagazin.api.service.catalog;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.shinamagazin.api.dto.response.ProductSuggestion;
+import uz.shinamagazin.api.repository.ProductRepository;
+import uz.shinamagazin.api.repository.SaleItemRepository;
+import uz.shinamagazin.api.util.SearchNormalizer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Qidiruv maydoni uchun tezkor takliflar (typeahead) — xotiradagi prefiks
+ * daraxti (trie).
+ *
+ * <p>Storefront va kassa har bir tugma bosilishida to'liq sahifali qidiruv
+ * qilardi ({@code getCatalog}, {@code searchProducts}): COUNT + sahifa +
+ * brend/kategoriya. Taklif uchun bu ortiqcha — bu yerda so'rov bazaga
+ * umuman tushmaydi.
+ *
+ * <p>Daraxtga har bir mahsulotning so'zlari kiradi: nom va brend so'zlari,
+ * SKU (butun va bo'laklari), o'lcham ({@code 205/55r16}, {@code r16}) va nom/
+ * brendning fonetik kalitlari ({@link SearchNormalizer}, {@code #} belgisi
+ * bilan — "миш" ham Michelin'ga olib keladi). Har bir tugun o'z
+ * shoxidagi mahsulotlarni mashhurlik (so'nggi {@value #POPULARITY_DAYS} kun
+ * sotilgan dona) bo'yicha tartiblangan holda keshlaydi — birinchi so'rovdan
+ * keyin top-K shunchaki ro'yxat boshi.
+ *
+ * <p>Yangilanish {@link CatalogFacetIndex} bilan bir xil: o'zgargan
+ * mahsulotlar commit'dan keyin navbatga tushadi va
+ * {@code app.catalog.suggest.refresh-ms} oralig'ida qo'llanadi. Faqat narx
+ * yoki qoldiq o'zgarsa (har savdo) daraxt keshlariga tegilmaydi. Mashhurlik
+ * {@code app.catalog.suggest.rebuild-ms} oralig'ida to'liq qayta qurishda
+ * yangilanadi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSuggestIndex {
+
+    public static final int MAX_LIMIT = 20;
+    static final int POPULARITY_DAYS = 90;
+
+    /** Fonetik kalitlar oddiy so'zlar bilan aralashmasligi uchun (normalize '#' bermaydi). */
+    private static final char KEY_MARK = '#';
+    private static final int MIN_PREFIX_KEY = 2;
+
+    private final ProductRepository productRepository;
+    private final SaleItemRepository saleItemRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> pendingProducts = ConcurrentHashMap.newKeySet();
+
+    private final Node root = new Node();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private Map<Long, Long> popularity = Map.of();
+    private volatile boolean built;
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    /** Mahsulotlar o'zgardi (commit'dan keyin chaqiriladi). */
+    public void productsChanged(Collection<Long> productIds) {
+        pendingProducts.addAll(productIds);
+    }
+
+    /**
+     * Qidiruv matni bo'yicha takliflar, mashhurlik tartibida. Har bir so'z
+     * mahsulotning biror so'zining boshi bo'lishi shart (yozilayotgan oxirgi
+     * so'z chala bo'ladi): "mich 205" — Michelin'ning 205 kenglikdagilari.
+     */
+    public List<ProductSuggestion> suggest(String query, int limit) {
+        List<String> tokens = SearchNormalizer.tokens(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        ensureBuilt();
+
+        // Eng uzun so'z — eng tanlab oluvchi: nomzodlar shundan, qolganlari tekshiruv
+        String primary = tokens.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        List<String> others = new ArrayList<>(tokens);
+        others.remove(primary);
+
+        lock.readLock().lock();
+        try {
+            List<ProductSuggestion> result = new ArrayList<>(k);
+            Set<Long> seen = new HashSet<>();
+            for (long id : candidates(primary)) {
+                Entry entry = entries.get(id);
+                if (entry == null || !seen.add(id) || !others.stream().allMatch(entry::matches)) {
+                    continue;
+                }
+                result.add(entry.toSuggestion());
+                if (result.size() == k) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** To'plangan o'zgarishlarni qo'llaydi. */
+    @Scheduled(fixedDelayString = "${app.catalog.suggest.refresh-ms:1000}")
+    public synchronized void applyPendingChanges() {
+        if (!built || pendingProducts.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(pendingProducts);
+        pendingProducts.removeAll(ids);
+        List<Object[]> rows = readOnlyTx.execute(status -> productRepository.findSuggestRowsByIdIn(ids));
+
+        Map<Long, Entry> loaded = new HashMap<>();
+        for (Object[] row : rows) {
+            Entry entry = toEntry(row);
+            loaded.put(entry.id(), entry);
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                Entry before = entries.get(id);
+                Entry after = loaded.get(id);
+                if (before != null && after != null && before.terms().equals(after.terms())) {
+                    entries.put(id, after); // faqat narx/qoldiq — keshlar o'z o'rnida
+                    continue;
+                }
+                if (before != null) {
+                    before.terms().forEach(term -> root.remove(term, id));
+                    entries.remove(id);
+                }
+                if (after != null) {
+                    after.terms().forEach(term -> root.add(term, id));
+                    entries.put(id, after);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Product suggest index: {} products refreshed", ids.size());
+    }
+
+    /** Mashhurlik tartibini yangilash — faqat indeks ishlatilayotgan bo'lsa. */
+    @Scheduled(fixedDelayString = "${app.catalog.suggest.rebuild-ms:600000}")
+    public void refreshPopularity() {
+        if (built) {
+            rebuild();
+        }
+    }
+
+    /** Indeksni bazadan to'liq quradi (mashhurlik ham yangilanadi). */
+    public synchronized void rebuild() {
+        pendingProducts.clear();
+        long started = System.nanoTime();
+        LocalDateTime since = LocalDateTime.now().minusDays(POPULARITY_DAYS);
+        record Loaded(List<Object[]> products, List<Object[]> sold) {
+        }
+        Loaded loaded = readOnlyTx.execute(status -> new Loaded(
+                productRepository.findSuggestRows(),
+                saleItemRepository.sumSoldQuantityByProductSince(since)));
+
+        Map<Long, Long> sold = new HashMap<>();
+        for (Object[] row : loaded.sold()) {
+            sold.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        lock.writeLock().lock();
+        try {
+            root.clear();
+            entries.clear();
+            popularity = sold;
+            for (Object[] row : loaded.products()) {
+                Entry entry = toEntry(row);
+                entry.terms().forEach(term -> root.add(term, entry.id()));
+                entries.put(entry.id(), entry);
+            }
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product suggest index built: {} products in {} ms",
+                loaded.products().size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void ensureBuilt() {
+        if (!built) {
+            synchronized (this) {
+                if (!built) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    /** So'z prefiksi va uning fonetik kaliti bo'yicha nomzodlar, mashhurlik tartibida. */
+    private Iterable<Long> candidates(String token) {
+        long[] direct = ranked(root.find(token));
+        String key = SearchNormalizer.phoneticKey(token);
+        long[] phonetic = key.length() >= MIN_PREFIX_KEY ? ranked(root.find(KEY_MARK + key)) : new long[0];
+        if (phonetic.length == 0) {
+            return () -> Arrays.stream(direct).iterator();
+        }
+        // Ikkala ro'yxat bir xil tartibda — birlashtirish (dublikatlarni chaqiruvchi tashlaydi)
+        Comparator<Long> order = rankOrder();
+        return () -> new Iterator<>() {
+            int i;
+            int j;
+
+            @Override
+            public boolean hasNext() {
+                return i < direct.length || j < phonetic.length;
+            }
+
+            @Override
+            public Long next() {
+                if (j >= phonetic.length || (i < direct.length && order.compare(direct[i], phonetic[j]) <= 0)) {
+                    return direct[i++];
+                }
+                return phonetic[j++];
+            }
+        };
+    }
+
+    /**
+     * Tugun shoxidagi barcha mahsulotlar, tartiblangan. O'qish qulfi ostida
+     * chaqiriladi: ikki oqim bir vaqtda hisoblasa, natija bir xil — zararsiz.
+     */
+    private long[] ranked(Node node) {
+        if (node == null) {
+            return new long[0];
+        }
+        long[] cached = node.ranked;
+        if (cached != null) {
+            return cached;
+        }
+        Set<Long> ids = new HashSet<>();
+        node.collect(ids);
+        long[] sorted = ids.stream().sorted(rankOrder()).mapToLong(Long::longValue).toArray();
+        node.ranked = sorted;
+        return sorted;
+    }
+
+    private Comparator<Long> rankOrder() {
+        Map<Long, Long> sold = popularity;
+        return Comparator.<Long>comparingLong(id -> -sold.getOrDefault(id, 0L))
+                .thenComparing(Comparator.naturalOrder());
+    }
+
+    /** Qator: id, sku, name, brand.name, width, profile, diameter, sellingPrice, quantity. */
+    private static Entry toEntry(Object[] row) {
+        String sku = (String) row[1];
+        String name = (String) row[2];
+        String brandName = (String) row[3];
+        Integer width = (Integer) row[4];
+        Integer profile = (Integer) row[5];
+        Integer diameter = (Integer) row[6];
+
+        Set<String> terms = new LinkedHashSet<>();
+        for (String part : new String[]{name, brandName}) {
+            for (String word : SearchNormalizer.tokens(part)) {
+                terms.add(word);
+                String key = SearchNormalizer.phoneticKey(word);
+                if (key.length() >= MIN_PREFIX_KEY) {
+                    terms.add(KEY_MARK + key);
+                }
+            }
+        }
+        String normalizedSku = SearchNormalizer.normalize(sku);
+        if (!normalizedSku.isEmpty()) {
+            terms.add(normalizedSku);
+            terms.addAll(Arrays.asList(normalizedSku.split("[ /.\\-]+")));
+        }
+        String size = SearchNormalizer.compactSize(width, profile, diameter);
+        if (size != null) {
+            terms.add(size);
+        }
+        if (diameter != null) {
+            terms.add("r" + diameter);
+        }
+        terms.remove("");
+        return new Entry((Long) row[0], sku, name, brandName, width, profile, diameter,
+                (BigDecimal) row[7], (Integer) row[8], Set.copyOf(terms));
+    }
+
+    private record Entry(Long id, String sku, String name, String brandName,
+                         Integer width, Integer profile, Integer diameter,
+                         BigDecimal sellingPrice, Integer quantity, Set<String> terms) {
+
+        boolean matches(String token) {
+            String phonetic = SearchNormalizer.phoneticKey(token);
+            boolean useKey = phonetic.length() >= MIN_PREFIX_KEY;
+            String key = KEY_MARK + phonetic;
+            for (String term : terms) {
+                if (term.startsWith(token) || (useKey && term.startsWith(key))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        ProductSuggestion toSuggestion() {
+            return ProductSuggestion.builder()
+                    .id(id)
+                    .sku(sku)
+                    .name(name)
+                    .brandName(brandName)
+                    .sizeString(width != null && profile != null && diameter != null
+                            ? String.format("%d/%d R%d", width, profile, diameter) : null)
+                    .sellingPrice(sellingPrice)
+                    .inStock(quantity != null && quantity > 0)
+                    .build();
+        }
+    }
+
+    /** Trie tuguni. O'zgarishlar faqat yozish qulfi ostida. */
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        /** Aynan shu tugunda tugaydigan so'zlarning mahsulotlari. */
+        private final Set<Long> ids = new HashSet<>();
+        /** Shoxdagi mahsulotlar, tartiblangan; null — hisoblanmagan yoki eskirgan. */
+        private volatile long[] ranked;
+
+        Node find(String prefix) {
+            Node node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            return node;
+        }
+
+        void add(String term, Long id) {
+            Node node = this;
+            node.ranked = null;
+            for (int i = 0; i < term.length(); i++) {
+                node = node.children.computeIfAbsent(term.charAt(i), c -> new Node());
+                node.ranked = null;
+            }
+            node.ids.add(id);
+        }
+
+        void remove(String term, Long id) {
+            Node node = this;
+            node.ranked = null;
+            for (int i = 0; i < term.length() && node != null; i++) {
+                node = node.children.get(term.charAt(i));
+                if (node != null) {
+                    node.ranked = null;
+                }
+            }
+            if (node != null) {
+                node.ids.remove(id);
+            }
+        }
+
+        void collect(Set<Long> into) {
+            into.addAll(ids);
+            children.values().forEach(child -> child.collect(into));
+        }
+
+        void clear() {
+            children.clear();
+            ids.clear();
+            ranked = null;
+        }
+    }
+}
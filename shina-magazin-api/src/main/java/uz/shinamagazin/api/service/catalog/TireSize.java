@@ -0,0 +1,56 @@
+package uz.shinamagazin.api.service.catalog;
+
+/**
+ * To'liq shina o'lchami (kenglik/profil/diametr), bitta {@code int}ga
+ * joylanadigan kalit bilan — xotiradagi o'lcham indeksi uchun.
+ */
+public record TireSize(int width, int profile, int diameter) {
+
+    private static final double MM_PER_INCH = 25.4;
+
+    /** Kalitda har bo'lakka uch o'nlik xona ajratilgan. */
+    private static final int MAX_PART = 999;
+
+    public TireSize {
+        if (!inRange(width) || !inRange(profile) || !inRange(diameter)) {
+            throw new IllegalArgumentException(
+                    "O'lcham bo'lagi 0.." + MAX_PART + " oralig'ida emas: " + width + "/" + profile + "/" + diameter);
+        }
+    }
+
+    /**
+     * Uchala bo'lak bo'lsa va har biri 0..999 ichida — o'lcham, aks holda null:
+     * oraliqdan tashqari qiymat kalitda qo'shni bo'lakka o'tib, boshqa
+     * o'lcham bilan to'qnashardi.
+     */
+    public static TireSize of(Integer width, Integer profile, Integer diameter) {
+        if (width == null || profile == null || diameter == null
+                || !inRange(width) || !inRange(profile) || !inRange(diameter)) {
+            return null;
+        }
+        return new TireSize(width, profile, diameter);
+    }
+
+    private static boolean inRange(int part) {
+        return part >= 0 && part <= MAX_PART;
+    }
+
+    /** {@code 205/55R16} -> {@code 205_055_016}. Har bo'lak 0..999. */
+    public int packed() {
+        return width * 1_000_000 + profile * 1_000 + diameter;
+    }
+
+    public static TireSize unpack(int packed) {
+        return new TireSize(packed / 1_000_000, packed / 1_000 % 1_000, packed % 1_000);
+    }
+
+    /** G'ildirakning tashqi diametri, mm: disk + ikki yon devor. */
+    public double rollingDiameterMm() {
+        return diameter * MM_PER_INCH + 2.0 * width * profile / 100.0;
+    }
+
+    /** {@code Product.getSizeString()} bilan bir xil ko'rinish: "205/55 R16". */
+    public String label() {
+        return width + "/" + profile + " R" + diameter;
+    }
+}
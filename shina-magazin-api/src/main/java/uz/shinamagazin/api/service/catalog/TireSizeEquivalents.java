@@ -0,0 +1,91 @@
+package uz.shinamagazin.api.service.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Katalogdagi o'lchamlarning muqobillari: tashqi diametri berilgan
+ * o'lchamnikidan {@value #MAX_DEVIATION_PERCENT}% dan ko'p farq qilmaydiganlar
+ * (spidometr va g'ildirak arkasi uchun odatiy chegara).
+ *
+ * <p>O'zgarmas nusxa. O'lchamlar tashqi diametr bo'yicha saralanadi, har bir
+ * mavjud o'lcham uchun muqobillar oynasi oldindan hisoblanadi; katalogda
+ * yo'q o'lcham (mijoz mashinasidagi) uchun oyna ikkilik qidiruv bilan
+ * topiladi.
+ */
+public final class TireSizeEquivalents {
+
+    static final double MAX_DEVIATION_PERCENT = 3.0;
+
+    private static final Comparator<Alternative> CLOSEST_FIRST =
+            Comparator.comparingDouble((Alternative a) -> Math.abs(a.deviationPercent()))
+                    .thenComparingInt(a -> a.size().packed());
+
+    /** Tashqi diametr bo'yicha saralangan. */
+    private final TireSize[] sizes;
+    private final double[] diameters;
+    private final Map<Integer, List<Alternative>> precomputed;
+
+    private TireSizeEquivalents(TireSize[] sizes) {
+        this.sizes = sizes;
+        this.diameters = Arrays.stream(sizes).mapToDouble(TireSize::rollingDiameterMm).toArray();
+        Map<Integer, List<Alternative>> byPacked = new HashMap<>(sizes.length * 2);
+        for (TireSize size : sizes) {
+            byPacked.put(size.packed(), window(size));
+        }
+        this.precomputed = byPacked;
+    }
+
+    /** @param packedSizes {@link TireSize#packed()} kalitlari */
+    public static TireSizeEquivalents of(Collection<Integer> packedSizes) {
+        return new TireSizeEquivalents(packedSizes.stream()
+                .distinct()
+                .map(TireSize::unpack)
+                .sorted(Comparator.comparingDouble(TireSize::rollingDiameterMm)
+                        .thenComparingInt(TireSize::packed))
+                .toArray(TireSize[]::new));
+    }
+
+    /** O'lchamning o'zidan boshqa muqobillari, eng yaqini birinchi. */
+    public List<Alternative> alternatives(TireSize size) {
+        List<Alternative> cached = precomputed.get(size.packed());
+        return cached != null ? cached : window(size);
+    }
+
+    private List<Alternative> window(TireSize size) {
+        double base = size.rollingDiameterMm();
+        double tolerance = base * MAX_DEVIATION_PERCENT / 100.0;
+        List<Alternative> result = new ArrayList<>();
+        for (int i = lowerBound(base - tolerance); i < sizes.length && diameters[i] <= base + tolerance; i++) {
+            if (sizes[i].packed() != size.packed()) {
+                result.add(new Alternative(sizes[i], (diameters[i] - base) / base * 100.0));
+            }
+        }
+        result.sort(CLOSEST_FIRST);
+        return List.copyOf(result);
+    }
+
+    /** {@code value}dan kichik bo'lmagan birinchi diametr indeksi. */
+    private int lowerBound(double value) {
+        int low = 0;
+        int high = diameters.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (diameters[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** @param deviationPercent tashqi diametr farqi, % (manfiy — kichikroq) */
+    public record Alternative(TireSize size, double deviationPercent) {
+    }
+}
@@ -1,7 +1,7 @@
 package uz.shinamagazin.api.service.export;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
@@ -14,191 +14,167 @@ import uz.shinamagazin.api.dto.response.UserActivityResponse;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.IntStream;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ExcelExportService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
     private static final DateTimeFormatter FILE_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd_MM_yyyy");
 
+    /** Oqimli eksport ustunlari kengligi (belgi) — autoSize har qatorni o'lchardi. */
+    private static final int[] AUDIT_COLUMN_WIDTHS = {10, 16, 20, 12, 22, 20, 18};
+    private static final int[] LOGIN_COLUMN_WIDTHS = {10, 22, 16, 14, 16, 20, 18};
+    /** Generic eksportda ustun kengligi chegarasi (belgi). */
+    private static final int MAX_COLUMN_WIDTH = 60;
+
     /**
-     * Export audit logs to Excel format
+     * Varaqning oxirgi qator indeksi (.xlsx: 1 048 575). Undan keyingi qatorlar
+     * sarlavhasi takrorlangan keyingi varaqqa yoziladi.
      */
-    public ByteArrayOutputStream exportAuditLogs(
-            List<AuditLogResponse> logs,
-            String reportTitle
-    ) throws IOException {
-        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
-            SXSSFSheet sheet = workbook.createSheet("Audit Logs");
-
-            // Track columns for auto-sizing (required for SXSSFWorkbook)
-            for (int i = 0; i < 7; i++) {
-                sheet.trackColumnForAutoSizing(i);
-            }
-
-            // Create styles
-            CellStyle headerStyle = createHeaderStyle(workbook);
-            CellStyle titleStyle = createTitleStyle(workbook);
-            CellStyle dataStyle = createDataStyle(workbook);
-            CellStyle dateStyle = createDateStyle(workbook);
+    private final int lastRowIndex;
 
-            int rowNum = 0;
-
-            // Title row
-            Row titleRow = sheet.createRow(rowNum++);
-            Cell titleCell = titleRow.createCell(0);
-            titleCell.setCellValue(reportTitle != null ? reportTitle : "Tizim Auditlari Hisoboti");
-            titleCell.setCellStyle(titleStyle);
-            sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 6));
-
-            // Metadata row
-            Row metaRow = sheet.createRow(rowNum++);
-            Cell metaCell = metaRow.createCell(0);
-            metaCell.setCellValue("Sana: " + LocalDateTime.now().format(DATE_FORMATTER));
-            metaCell.setCellStyle(dataStyle);
-            sheet.addMergedRegion(new CellRangeAddress(1, 1, 0, 6));
-
-            // Empty row
-            rowNum++;
-
-            // Header row
-            Row headerRow = sheet.createRow(rowNum++);
-            String[] headers = {"ID", "Harakat", "Obyekt turi", "Obyekt ID", "Foydalanuvchi", "Sana", "IP manzil"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Data rows
-            for (AuditLogResponse log : logs) {
-                Row row = sheet.createRow(rowNum++);
-
-                row.createCell(0).setCellValue(log.getId());
-                row.createCell(1).setCellValue(translateAction(log.getAction()));
-                row.createCell(2).setCellValue(log.getEntityType());
-                row.createCell(3).setCellValue(log.getEntityId());
-                row.createCell(4).setCellValue(log.getUsername() != null ? log.getUsername() : "Sistema");
-
-                Cell dateCell = row.createCell(5);
-                dateCell.setCellValue(log.getCreatedAt().format(DATE_FORMATTER));
-                dateCell.setCellStyle(dateStyle);
-
-                row.createCell(6).setCellValue(log.getIpAddress() != null ? log.getIpAddress() : "-");
+    public ExcelExportService() {
+        this(SpreadsheetVersion.EXCEL2007.getLastRowIndex());
+    }
 
-                // Apply data style to all cells
-                for (int i = 0; i < 7; i++) {
-                    if (i != 5) { // Skip date cell (already has style)
-                        row.getCell(i).setCellStyle(dataStyle);
-                    }
-                }
-            }
+    /** Testlar uchun: varaqni kichraytirib, o'tishni bir necha qatorda tekshirish. */
+    ExcelExportService(int lastRowIndex) {
+        this.lastRowIndex = lastRowIndex;
+    }
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+    /**
+     * Audit loglarni Excel'ga to'g'ridan-to'g'ri {@code out}ga yozadi.
+     *
+     * <p>Qatorlar kelishi bilan yoziladi: SXSSF xotirada faqat oxirgi 100
+     * qatorni tutadi, qolgani vaqtinchalik faylga tushadi. Ustun kengliklari
+     * oldindan belgilangan — {@code autoSizeColumn} har qatorni o'lchab
+     * chiqardi. Qatorlar soni cheklanmaydi: varaq to'lsa ({@link #lastRowIndex})
+     * "Audit Logs (2)" kabi keyingi varaq ochiladi, ustun sarlavhalari bilan.
+     */
+    public void writeAuditLogs(Stream<AuditLogResponse> logs, String reportTitle, OutputStream out) throws IOException {
+        String[] headers = {"ID", "Harakat", "Obyekt turi", "Obyekt ID", "Foydalanuvchi", "Sana", "IP manzil"};
+        writeStreaming(out, "Audit Logs",
+                reportTitle != null ? reportTitle : "Tizim Auditlari Hisoboti",
+                headers, AUDIT_COLUMN_WIDTHS, logs, (log, row) -> {
+                    row[0] = log.getId();
+                    row[1] = translateAction(log.getAction());
+                    row[2] = log.getEntityType();
+                    row[3] = log.getEntityId();
+                    row[4] = log.getUsername() != null ? log.getUsername() : "Sistema";
+                    row[5] = log.getCreatedAt().format(DATE_FORMATTER);
+                    row[6] = log.getIpAddress() != null ? log.getIpAddress() : "-";
+                });
+    }
 
-            // Write to output stream
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            workbook.write(out);
-            return out;
-        }
+    /** Kirish tarixi — {@link #writeAuditLogs} kabi oqimli. */
+    public void writeLoginActivity(Stream<LoginAttemptResponse> attempts, String reportTitle, OutputStream out) throws IOException {
+        String[] headers = {"ID", "Foydalanuvchi", "Holat", "Qurilma", "Brauzer", "Sana", "IP manzil"};
+        writeStreaming(out, "Login Activity",
+                reportTitle != null ? reportTitle : "Kirish Tarixi Hisoboti",
+                headers, LOGIN_COLUMN_WIDTHS, attempts, (attempt, row) -> {
+                    row[0] = attempt.getId();
+                    row[1] = attempt.getUsername();
+                    row[2] = "SUCCESS".equals(attempt.getStatus()) ? "Muvaffaqiyatli" : "Xato";
+                    row[3] = attempt.getDeviceType() != null ? attempt.getDeviceType() : "-";
+                    row[4] = attempt.getBrowser() != null ? attempt.getBrowser() : "-";
+                    row[5] = attempt.getCreatedAt().format(DATE_FORMATTER);
+                    row[6] = attempt.getIpAddress() != null ? attempt.getIpAddress() : "-";
+                });
     }
 
     /**
-     * Export login attempts to Excel format
+     * Hisobot nomi, sana, ustun sarlavhalari va qatorlar; {@code columns}
+     * bitta elementni ustun qiymatlariga yoyadi. "Sana" ustuni markazlanadi.
      */
-    public ByteArrayOutputStream exportLoginActivity(
-            List<LoginAttemptResponse> attempts,
-            String reportTitle
-    ) throws IOException {
-        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
-            SXSSFSheet sheet = workbook.createSheet("Login Activity");
-
-            // Track columns for auto-sizing (required for SXSSFWorkbook)
-            for (int i = 0; i < 7; i++) {
-                sheet.trackColumnForAutoSizing(i);
-            }
+    private <T> void writeStreaming(OutputStream out, String sheetName, String title, String[] headers,
+                                    int[] widths, Stream<T> items, BiConsumer<T, Object[]> columns) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet first = workbook.createSheet(sheetName);
+            setColumnWidths(first, widths);
 
-            // Create styles
             CellStyle headerStyle = createHeaderStyle(workbook);
             CellStyle titleStyle = createTitleStyle(workbook);
             CellStyle dataStyle = createDataStyle(workbook);
             CellStyle dateStyle = createDateStyle(workbook);
+            int dateColumn = List.of(headers).indexOf("Sana");
 
-            int rowNum = 0;
-
-            // Title row
-            Row titleRow = sheet.createRow(rowNum++);
+            Row titleRow = first.createRow(0);
             Cell titleCell = titleRow.createCell(0);
-            titleCell.setCellValue(reportTitle != null ? reportTitle : "Kirish Tarixi Hisoboti");
+            titleCell.setCellValue(title);
             titleCell.setCellStyle(titleStyle);
-            sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 6));
+            first.addMergedRegion(new CellRangeAddress(0, 0, 0, headers.length - 1));
 
-            // Metadata row
-            Row metaRow = sheet.createRow(rowNum++);
+            Row metaRow = first.createRow(1);
             Cell metaCell = metaRow.createCell(0);
             metaCell.setCellValue("Sana: " + LocalDateTime.now().format(DATE_FORMATTER));
             metaCell.setCellStyle(dataStyle);
-            sheet.addMergedRegion(new CellRangeAddress(1, 1, 0, 6));
-
-            // Empty row
-            rowNum++;
-
-            // Header row
-            Row headerRow = sheet.createRow(rowNum++);
-            String[] headers = {"ID", "Foydalanuvchi", "Holat", "Qurilma", "Brauzer", "Sana", "IP manzil"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Data rows
-            for (LoginAttemptResponse attempt : attempts) {
-                Row row = sheet.createRow(rowNum++);
-
-                row.createCell(0).setCellValue(attempt.getId());
-                row.createCell(1).setCellValue(attempt.getUsername());
-                row.createCell(2).setCellValue("SUCCESS".equals(attempt.getStatus()) ? "Muvaffaqiyatli" : "Xato");
-                row.createCell(3).setCellValue(attempt.getDeviceType() != null ? attempt.getDeviceType() : "-");
-                row.createCell(4).setCellValue(attempt.getBrowser() != null ? attempt.getBrowser() : "-");
-
-                Cell dateCell = row.createCell(5);
-                dateCell.setCellValue(attempt.getCreatedAt().format(DATE_FORMATTER));
-                dateCell.setCellStyle(dateStyle);
-
-                row.createCell(6).setCellValue(attempt.getIpAddress() != null ? attempt.getIpAddress() : "-");
-
-                // Apply data style to all cells
-                for (int i = 0; i < 7; i++) {
-                    if (i != 5) { // Skip date cell (already has style)
-                        row.getCell(i).setCellStyle(dataStyle);
+            first.addMergedRegion(new CellRangeAddress(1, 1, 0, headers.length - 1));
+
+            writeHeaderRow(first, 3, headers, headerStyle);
+
+            SXSSFSheet[] sheet = {first};
+            int[] rowNum = {4};
+            Object[] values = new Object[headers.length];
+            items.forEach(item -> {
+                if (rowNum[0] > lastRowIndex) {
+                    // Davomi: sarlavha va sana qatorisiz, faqat ustun sarlavhalari
+                    sheet[0] = workbook.createSheet(continuationName(sheetName, workbook.getNumberOfSheets() + 1));
+                    setColumnWidths(sheet[0], widths);
+                    writeHeaderRow(sheet[0], 0, headers, headerStyle);
+                    rowNum[0] = 1;
+                }
+                columns.accept(item, values);
+                Row row = sheet[0].createRow(rowNum[0]++);
+                for (int i = 0; i < values.length; i++) {
+                    Cell cell = row.createCell(i);
+                    if (values[i] instanceof Number number) {
+                        cell.setCellValue(number.doubleValue());
+                    } else if (values[i] != null) {
+                        cell.setCellValue(values[i].toString());
                     }
+                    cell.setCellStyle(i == dateColumn ? dateStyle : dataStyle);
                 }
-            }
+            });
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            // Write to output stream
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
             workbook.write(out);
-            return out;
+            out.flush();
+        } finally {
+            // Vaqtinchalik fayllar — close() ularni o'chirmaydi
+            workbook.dispose();
+            workbook.close();
         }
     }
 
+    private static void setColumnWidths(Sheet sheet, int[] widths) {
+        for (int i = 0; i < widths.length; i++) {
+            sheet.setColumnWidth(i, widths[i] * 256);
+        }
+    }
+
+    private static void writeHeaderRow(Sheet sheet, int rowIndex, String[] headers, CellStyle headerStyle) {
+        Row headerRow = sheet.createRow(rowIndex);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerStyle);
+        }
+    }
+
+    /** "Audit Logs (2)" — Excel varaq nomi 31 belgigacha. */
+    private static String continuationName(String sheetName, int number) {
+        String suffix = " (" + number + ")";
+        return sheetName.substring(0, Math.min(sheetName.length(), 31 - suffix.length())) + suffix;
+    }
+
     /**
      * Export user activity to Excel format
      */
@@ -347,113 +323,80 @@ public class ExcelExportService {
     }
 
     /**
-     * Generic Excel export - works with any annotated entity
+     * Generic Excel eksport - istalgan annotatsiyalangan entity uchun.
      *
-     * @param rows List of data rows (each row is a map of column header -> value)
-     * @param columns List of column configurations
-     * @param entityConfig Entity-level export configuration
-     * @param title Report title
-     * @return ByteArrayOutputStream containing the Excel file
+     * <p>Qatorlar kelishi bilan yoziladi (SXSSF, xotirada 100 qator). Ustun
+     * kengligi oxirida eng uzun qiymatdan belgilanadi — {@code autoSizeColumn}
+     * har ustunni barcha qatorlar bo'yicha qayta o'lchardi. Varaq to'lsa
+     * ({@link #lastRowIndex}) keyingi varaq ustun sarlavhalari bilan ochiladi.
      */
-    public ByteArrayOutputStream exportToExcel(
-            List<Map<String, Object>> rows,
-            List<ExportColumnConfig> columns,
-            ExportEntity entityConfig,
-            String title
-    ) throws IOException {
-        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
-            SXSSFSheet sheet = workbook.createSheet(
-                entityConfig.sheetName().isEmpty() ? "Export" : entityConfig.sheetName()
-            );
-
-            // Track columns for auto-sizing
-            IntStream.range(0, columns.size()).forEach(sheet::trackColumnForAutoSizing);
+    ExportSink openSink(List<ExportColumnConfig> columns, ExportEntity entityConfig,
+                        String title, OutputStream out) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        workbook.setCompressTempFiles(true);
+        String sheetName = entityConfig.sheetName().isEmpty() ? "Export" : entityConfig.sheetName();
+        SXSSFSheet first = workbook.createSheet(sheetName);
+        CellStyle dataStyle = createDataStyle(workbook);
+        String[] headers = new String[columns.size()];
+        int[] widths = new int[columns.size()];
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = columns.get(i).getHeader();
+            widths[i] = headers[i].length();
+        }
 
-            // Create styles
-            Map<String, CellStyle> styles = createStandardStyles(workbook);
+        int firstRow = 0;
+        if (title != null && !title.isEmpty()) {
+            Cell titleCell = first.createRow(0).createCell(0);
+            titleCell.setCellValue(title);
+            titleCell.setCellStyle(createTitleStyle(workbook));
+            first.addMergedRegion(new CellRangeAddress(0, 0, 0, Math.max(columns.size() - 1, 1)));
+            firstRow = 2;
+        }
 
-            int rowNum = 0;
+        CellStyle headerStyle = createHeaderStyle(workbook);
+        writeHeaderRow(first, firstRow, headers, headerStyle);
 
-            // Title
-            if (!title.isEmpty()) {
-                Row titleRow = sheet.createRow(rowNum++);
-                Cell titleCell = titleRow.createCell(0);
-                titleCell.setCellValue(title);
-                titleCell.setCellStyle(styles.get("title"));
-                sheet.addMergedRegion(new CellRangeAddress(rowNum - 1, rowNum - 1, 0, columns.size() - 1));
-                rowNum++; // Empty row
-            }
+        int dataStart = firstRow + 1;
+        return new ExportSink() {
+            private SXSSFSheet sheet = first;
+            private int rowNum = dataStart;
 
-            // Headers
-            Row headerRow = sheet.createRow(rowNum++);
-            for (int i = 0; i < columns.size(); i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns.get(i).getHeader());
-                cell.setCellStyle(styles.get("header"));
+            @Override
+            public void row(Object[] cells) {
+                if (rowNum > lastRowIndex) {
+                    sheet = workbook.createSheet(continuationName(sheetName, workbook.getNumberOfSheets() + 1));
+                    writeHeaderRow(sheet, 0, headers, headerStyle);
+                    rowNum = 1;
+                }
+                Row row = sheet.createRow(rowNum++);
+                for (int i = 0; i < widths.length; i++) {
+                    String value = cells[i] != null ? cells[i].toString() : "";
+                    Cell cell = row.createCell(i);
+                    cell.setCellValue(value);
+                    cell.setCellStyle(dataStyle);
+                    widths[i] = Math.max(widths[i], value.length());
+                }
             }
 
-            // Data rows
-            for (Map<String, Object> rowData : rows) {
-                Row dataRow = sheet.createRow(rowNum++);
-                int colIndex = 0;
-                for (ExportColumnConfig col : columns) {
-                    Cell cell = dataRow.createCell(colIndex++);
-                    Object value = rowData.get(col.getHeader());
-                    cell.setCellValue(value != null ? value.toString() : "");
-                    cell.setCellStyle(styles.get("data"));
+            @Override
+            public void finish() throws IOException {
+                int[] capped = new int[widths.length];
+                for (int i = 0; i < widths.length; i++) {
+                    capped[i] = Math.min(widths[i] + 2, MAX_COLUMN_WIDTH);
+                }
+                for (Sheet written : workbook) {
+                    setColumnWidths(written, capped);
                 }
+                workbook.write(out);
+                out.flush();
             }
 
-            // Auto-size
-            for (int i = 0; i < columns.size(); i++) {
-                sheet.autoSizeColumn(i);
+            @Override
+            public void close() throws IOException {
+                // Vaqtinchalik fayllar — close() ularni o'chirmaydi
+                workbook.dispose();
+                workbook.close();
             }
-
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            return outputStream;
-        }
-    }
-
-    private Map<String, CellStyle> createStandardStyles(SXSSFWorkbook workbook) {
-        Map<String, CellStyle> styles = new HashMap<>();
-
-        // Header style
-        CellStyle headerStyle = workbook.createCellStyle();
-        headerStyle.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        Font headerFont = workbook.createFont();
-        headerFont.setColor(IndexedColors.WHITE.getIndex());
-        headerFont.setBold(true);
-        headerFont.setFontHeightInPoints((short) 12);
-        headerStyle.setFont(headerFont);
-        headerStyle.setAlignment(HorizontalAlignment.CENTER);
-        headerStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-        headerStyle.setBorderBottom(BorderStyle.THIN);
-        headerStyle.setBorderTop(BorderStyle.THIN);
-        headerStyle.setBorderLeft(BorderStyle.THIN);
-        headerStyle.setBorderRight(BorderStyle.THIN);
-        styles.put("header", headerStyle);
-
-        // Title style
-        CellStyle titleStyle = workbook.createCellStyle();
-        Font titleFont = workbook.createFont();
-        titleFont.setBold(true);
-        titleFont.setFontHeightInPoints((short) 16);
-        titleStyle.setFont(titleFont);
-        titleStyle.setAlignment(HorizontalAlignment.CENTER);
-        titleStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-        styles.put("title", titleStyle);
-
-        // Data style
-        CellStyle dataStyle = workbook.createCellStyle();
-        dataStyle.setBorderBottom(BorderStyle.THIN);
-        dataStyle.setBorderTop(BorderStyle.THIN);
-        dataStyle.setBorderLeft(BorderStyle.THIN);
-        dataStyle.setBorderRight(BorderStyle.THIN);
-        dataStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-        styles.put("data", dataStyle);
-
-        return styles;
+        };
     }
 }
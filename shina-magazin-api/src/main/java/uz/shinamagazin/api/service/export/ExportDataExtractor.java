@@ -4,19 +4,35 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import uz.shinamagazin.api.annotation.ExportColumn;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Service for extracting export column configurations from annotated classes.
- * Uses reflection with caching for performance optimization.
+ *
+ * <p>Har ustunning accessor'i sinf bo'yicha bir marta quriladi: getter bo'lsa
+ * {@link LambdaMetafactory} bilan getter'ni to'g'ridan-to'g'ri chaqiruvchi
+ * {@link Function}, bo'lmasa maydonning {@link MethodHandle} getteri.
+ * {@code nestedField} yo'li ham shu yerda — maydonning e'lon qilingan turi
+ * bo'yicha — hal qilinadi; noto'g'ri yo'l har qatorda emas, bir marta
+ * logga tushadi. Ilgari ichki maydon uchun har qatorda
+ * {@code getDeclaredField} + {@code setAccessible} chaqirilardi.
  */
 @Slf4j
 @Component
 public class ExportDataExtractor {
 
+    private static final MethodType EXTRACTOR = MethodType.methodType(Object.class, Object.class);
+
     private final Map<Class<?>, List<ExportColumnConfig>> cache = new ConcurrentHashMap<>();
 
     /**
@@ -36,7 +52,6 @@ public class ExportDataExtractor {
 
     private ExportColumnConfig createColumnConfig(Field field) {
         ExportColumn annotation = field.getAnnotation(ExportColumn.class);
-        field.setAccessible(true);
 
         return ExportColumnConfig.builder()
                 .header(annotation.header())
@@ -45,25 +60,101 @@ public class ExportDataExtractor {
                 .format(annotation.format())
                 .sensitive(annotation.sensitive())
                 .nestedField(annotation.nestedField())
-                .valueExtractor(entity -> extractValue(field, entity, annotation.nestedField()))
+                .valueExtractor(valueExtractor(field, annotation.nestedField()))
                 .build();
     }
 
-    private Object extractValue(Field field, Object entity, String nestedField) {
+    /**
+     * Maydon va ixtiyoriy ichki yo'l ({@code "brand.name"} kabi nuqtali ham)
+     * uchun accessor. Oraliq qiymat null bo'lsa natija null.
+     */
+    private Function<Object, Object> valueExtractor(Field field, String nestedField) {
         try {
-            Object value = field.get(entity);
+            Function<Object, Object> extractor = accessor(field);
+            Class<?> type = field.getType();
 
             // Handle nested objects (e.g., brand.name)
-            if (value != null && !nestedField.isEmpty()) {
-                Field nestedFieldObj = value.getClass().getDeclaredField(nestedField);
-                nestedFieldObj.setAccessible(true);
-                return nestedFieldObj.get(value);
+            if (!nestedField.isEmpty()) {
+                for (String name : nestedField.split("\\.")) {
+                    Field nested = findField(type, name);
+                    Function<Object, Object> outer = extractor;
+                    Function<Object, Object> inner = accessor(nested);
+                    extractor = entity -> {
+                        Object value = outer.apply(entity);
+                        return value != null ? inner.apply(value) : null;
+                    };
+                    type = nested.getType();
+                }
+            }
+            return extractor;
+        } catch (ReflectiveOperationException e) {
+            log.error("Failed to build export accessor for field: {}.{}",
+                    field.getDeclaringClass().getSimpleName(), field.getName(), e);
+            return entity -> null;
+        }
+    }
+
+    /** Getter bo'lsa — LambdaMetafactory, aks holda maydon getteri. */
+    static Function<Object, Object> accessor(Field field) throws IllegalAccessException {
+        Method getter = findGetter(field);
+        if (getter != null) {
+            try {
+                return generatedGetter(getter);
+            } catch (Throwable e) {
+                log.debug("LambdaMetafactory unavailable for {}, using MethodHandle", getter, e);
             }
+        }
+        return fieldHandle(field);
+    }
 
-            return value;
-        } catch (IllegalAccessException | NoSuchFieldException e) {
-            log.error("Failed to extract value from field: {}", field.getName(), e);
-            return null;
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> generatedGetter(Method getter) throws Throwable {
+        Class<?> owner = getter.getDeclaringClass();
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+        MethodHandle target = lookup.unreflect(getter);
+        CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                MethodType.methodType(Function.class), EXTRACTOR, target,
+                MethodType.methodType(Object.class, owner));
+        return (Function<Object, Object>) site.getTarget().invokeExact();
+    }
+
+    static Function<Object, Object> fieldHandle(Field field) throws IllegalAccessException {
+        MethodHandle handle = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+                .unreflectGetter(field)
+                .asType(EXTRACTOR);
+        return entity -> {
+            try {
+                return handle.invokeExact(entity);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to extract value from field: " + field.getName(), e);
+            }
+        };
+    }
+
+    /** Lombok nomlari: {@code getX()}, primitiv boolean uchun {@code isX()}. */
+    private static Method findGetter(Field field) {
+        String suffix = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        for (String prefix : field.getType() == boolean.class ? new String[]{"is", "get"} : new String[]{"get"}) {
+            try {
+                Method method = field.getDeclaringClass().getMethod(prefix + suffix);
+                if (method.getReturnType() == field.getType()) {
+                    return method;
+                }
+            } catch (NoSuchMethodException ignored) {
+                // keyingi nom yoki maydon getteri
+            }
+        }
+        return null;
+    }
+
+    private static Field findField(Class<?> type, String name) throws NoSuchFieldException {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                return current.getDeclaredField(name);
+            } catch (NoSuchFieldException ignored) {
+                // ota sinfda qidiriladi
+            }
         }
+        throw new NoSuchFieldException(type.getName() + "." + name);
     }
 }
@@ -0,0 +1,19 @@
+package uz.shinamagazin.api.service.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Eksport faylining oqimli yozuvchisi: sarlavhalar ochilganda yoziladi,
+ * so'ng qatorlar kelishi bilan bittadan qabul qilinadi.
+ *
+ * <p>{@link #row} massivni saqlab qolmaydi — chaqiruvchi uni har qatorda
+ * qayta ishlatadi. {@link #finish} faylni {@code out}ga yakunlaydi,
+ * {@link #close} esa (xato bo'lsa ham) vaqtinchalik resurslarni bo'shatadi.
+ */
+interface ExportSink extends Closeable {
+
+    void row(Object[] cells) throws IOException;
+
+    void finish() throws IOException;
+}
@@ -5,9 +5,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import uz.shinamagazin.api.exception.BadRequestException;
 
+import java.time.LocalDate;
+
 /**
  * Eksport endpointlari uchun umumiy qorovullar.
  *
@@ -36,7 +40,9 @@ public final class ExportSupport {
      * <p>Excel/PDF butunlay xotirada quriladi (Apache POI + ByteArrayOutputStream),
      * shuning uchun chegara heap bilan bevosita bog'liq. 50 000 qator shina
      * do'koni uchun har qanday real hisobotdan ancha katta, lekin OOM
-     * chegarasidan uzoq.
+     * chegarasidan uzoq. Audit, kirish tarixi, mijozlar va ta'minotchilar
+     * eksporti bu chegarasiz — kursordan oqim bilan yoziladi
+     * ({@link SecurityLogExportService}, {@link GenericExportService#writeCursor}).
      */
     public static final int MAX_EXPORT_ROWS = 50_000;
 
@@ -67,6 +73,31 @@ public final class ExportSupport {
         return PageRequest.of(0, validate(maxRecords), sort);
     }
 
+    /**
+     * {@code ?format=} qiymati. Noma'lum format — 400; ilgari
+     * {@code valueOf} xatosi umumiy catch'da 500 ga aylanardi.
+     */
+    public static GenericExportService.ExportFormat format(String format) {
+        try {
+            return GenericExportService.ExportFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Noma'lum format: " + format);
+        }
+    }
+
+    /** Yuklab olish sarlavhalari: {@code <prefix>_<sana>.xlsx|pdf} va mos content-type. */
+    public static HttpHeaders attachment(String filePrefix, GenericExportService.ExportFormat format) {
+        boolean excel = format == GenericExportService.ExportFormat.EXCEL;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(filePrefix + "_" + LocalDate.now() + (excel ? ".xlsx" : ".pdf"))
+                .build());
+        headers.setContentType(excel
+                ? MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                : MediaType.APPLICATION_PDF);
+        return headers;
+    }
+
     private static int validate(int maxRecords) {
         if (maxRecords < 1) {
             throw new BadRequestException("maxRecords kamida 1 bo'lishi kerak");
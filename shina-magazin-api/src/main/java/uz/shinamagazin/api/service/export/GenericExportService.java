@@ -1,26 +1,40 @@
 package uz.shinamagazin.api.service.export;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import uz.shinamagazin.api.annotation.ExportEntity;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.*;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Generic export service that works with any annotated entity.
  * Provides unified export functionality for Excel and PDF formats.
  *
+ * <p>Qatorlar oqim bilan yoziladi: har element ustun ekstraktorlaridan
+ * to'g'ridan-to'g'ri yacheykalarga o'tadi va {@link ExportSink}ga beriladi.
+ * Ilgari avval butun ro'yxat {@code Map<String, Object>} qatorlariga
+ * aylantirilib, so'ng fayl {@code ByteArrayOutputStream}da qurilardi —
+ * xotirada bir vaqtda ro'yxat, xaritalar va tayyor fayl turardi.
+ *
  * Usage:
  * <pre>
  * {@code
- * ByteArrayOutputStream output = genericExportService.export(
- *     products,
- *     ProductResponse.class,
- *     ExportFormat.EXCEL,
- *     "Mahsulotlar Hisoboti"
- * );
+ * return ResponseEntity.ok()
+ *     .headers(ExportSupport.attachment("products", format))
+ *     .body(out -> genericExportService.write(
+ *         products.stream(), ProductResponse.class, format, "Mahsulotlar Hisoboti", out));
  * }
  * </pre>
  */
@@ -28,13 +42,26 @@ import java.util.*;
 @RequiredArgsConstructor
 public class GenericExportService {
 
+    /** Kursordan o'qishda persistence context shuncha qatorda tozalanadi. */
+    static final int CLEAR_EVERY = 1000;
+
     private final ExportDataExtractor dataExtractor;
     private final ExportFormatter formatter;
     private final ExcelExportService excelService;
     private final PdfExportService pdfService;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
 
     /**
-     * Universal export method - works with any annotated entity
+     * Tayyor ro'yxatni xotiradagi faylga eksport qiladi (fon hisobotlari uchun).
      *
      * @param data List of entities to export
      * @param entityClass Class of the entity (must have @ExportColumn annotations)
@@ -47,6 +74,22 @@ public class GenericExportService {
             Class<T> entityClass,
             ExportFormat format,
             String title
+    ) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(data.stream(), entityClass, format, title, out);
+        return out;
+    }
+
+    /**
+     * Elementlarni kelishi bilan {@code out}ga yozadi. Oqim bitta o'tishda
+     * o'qiladi; bir qator uchun faqat bitta qayta ishlatiladigan massiv bor.
+     */
+    public <T> void write(
+            Stream<T> data,
+            Class<T> entityClass,
+            ExportFormat format,
+            String title,
+            OutputStream out
     ) throws IOException {
         // Extract column configurations
         List<ExportColumnConfig> columns = dataExtractor.extractColumns(entityClass);
@@ -57,28 +100,60 @@ public class GenericExportService {
             entityConfig = createDefaultConfig();
         }
 
-        // Transform to rows
-        List<Map<String, Object>> rows = data.stream()
-                .map(entity -> transformToRow(entity, columns))
-                .toList();
-
-        // Delegate to format-specific service
-        return switch (format) {
-            case EXCEL -> excelService.exportToExcel(rows, columns, entityConfig, title);
-            case PDF -> pdfService.exportToPdf(rows, columns, entityConfig, title);
-        };
+        try (ExportSink sink = switch (format) {
+            case EXCEL -> excelService.openSink(columns, entityConfig, title, out);
+            case PDF -> pdfService.openSink(columns, entityConfig, title, out);
+        }) {
+            Object[] cells = new Object[columns.size()];
+            Iterator<T> rows = data.iterator();
+            while (rows.hasNext()) {
+                T entity = rows.next();
+                for (int i = 0; i < cells.length; i++) {
+                    ExportColumnConfig col = columns.get(i);
+                    cells[i] = formatter.format(col.getValueExtractor().apply(entity), col);
+                }
+                sink.row(cells);
+            }
+            sink.finish();
+        }
     }
 
-    private <T> Map<String, Object> transformToRow(T entity, List<ExportColumnConfig> columns) {
-        Map<String, Object> row = new LinkedHashMap<>();
-
-        for (ExportColumnConfig col : columns) {
-            Object value = col.getValueExtractor().apply(entity);
-            Object formatted = formatter.format(value, col);
-            row.put(col.getHeader(), formatted);
+    /**
+     * Kursorli manba: {@code query} o'z read-only tranzaksiyasida ochiladi
+     * (PostgreSQL kursori faqat tranzaksiya ichida qismlab o'qiydi), har
+     * entity {@code mapper} bilan DTO'ga o'giriladi va persistence context
+     * har {@value #CLEAR_EVERY} qatorda tozalanadi — aks holda o'qilgan
+     * barcha entity'lar eksport oxirigacha xotirada qolardi.
+     *
+     * <p>Javob oqimida (so'rov oqimidan tashqarida) chaqirish uchun
+     * mo'ljallangan: tranzaksiya yuklab olish davomida ochiq turadi.
+     */
+    public <E, T> void writeCursor(
+            Supplier<Stream<E>> query,
+            Function<? super E, T> mapper,
+            Class<T> entityClass,
+            ExportFormat format,
+            String title,
+            OutputStream out
+    ) throws IOException {
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                int[] read = {0};
+                try (Stream<E> rows = query.get()) {
+                    write(rows.map(row -> {
+                        T item = mapper.apply(row);
+                        if (++read[0] % CLEAR_EVERY == 0) {
+                            entityManager.clear();
+                        }
+                        return item;
+                    }), entityClass, format, title, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-
-        return row;
     }
 
     private ExportEntity createDefaultConfig() {
@@ -14,10 +14,10 @@ import uz.shinamagazin.api.dto.response.UserActivityResponse;
 
 import java.awt.Color;
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +28,8 @@ public class PdfExportService {
     private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18, Color.BLACK);
     private static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12, Color.WHITE);
     private static final Font DATA_FONT = FontFactory.getFont(FontFactory.HELVETICA, 10, Color.BLACK);
+    /** Generic eksportda jadval hujjatga shuncha qatordan keyin qo'shiladi. */
+    private static final int PDF_FLUSH_ROWS = 500;
 
     /**
      * Export audit logs to PDF format
@@ -267,22 +269,23 @@ public class PdfExportService {
     }
 
     /**
-     * Generic PDF export - works with any annotated entity
+     * Generic PDF eksport - istalgan annotatsiyalangan entity uchun.
+     *
+     * <p>Jadval to'liq bo'lmagan ({@code setComplete(false)}) holda ochiladi va
+     * har {@value #PDF_FLUSH_ROWS} qatorda hujjatga qo'shiladi: yozilgan
+     * qatorlar jadvaldan chiqariladi, sarlavha har sahifada takrorlanadi.
      */
-    public ByteArrayOutputStream exportToPdf(
-            List<Map<String, Object>> rows,
-            List<ExportColumnConfig> columns,
-            ExportEntity entityConfig,
-            String title
-    ) throws DocumentException {
+    ExportSink openSink(List<ExportColumnConfig> columns, ExportEntity entityConfig,
+                        String title, OutputStream out) throws DocumentException {
         // Determine orientation
         Rectangle pageSize = entityConfig != null && entityConfig.orientation() == ExportEntity.Orientation.LANDSCAPE
                 ? PageSize.A4.rotate()
                 : PageSize.A4;
 
         Document document = new Document(pageSize);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        PdfWriter.getInstance(document, out);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        // Servlet oqimini yopish konteynerning ishi
+        writer.setCloseStream(false);
 
         document.open();
 
@@ -298,6 +301,8 @@ public class PdfExportService {
         PdfPTable table = new PdfPTable(columns.size());
         table.setWidthPercentage(100);
         table.setSpacingBefore(10);
+        table.setHeaderRows(1);
+        table.setComplete(false);
 
         // Header row
         for (ExportColumnConfig column : columns) {
@@ -309,28 +314,41 @@ public class PdfExportService {
             table.addCell(headerCell);
         }
 
-        // Data rows
-        for (Map<String, Object> row : rows) {
-            for (ExportColumnConfig column : columns) {
-                Object value = row.get(column.getHeader());
-                String cellValue = value != null ? value.toString() : "";
-                addTableCell(table, cellValue);
+        return new ExportSink() {
+            private int pending;
+
+            @Override
+            public void row(Object[] cells) {
+                for (int i = 0; i < columns.size(); i++) {
+                    addTableCell(table, cells[i] != null ? cells[i].toString() : "");
+                }
+                if (++pending == PDF_FLUSH_ROWS) {
+                    document.add(table);
+                    pending = 0;
+                }
             }
-        }
-
-        document.add(table);
-
-        // Footer with timestamp
-        Paragraph footer = new Paragraph(
-                "Yaratilgan: " + LocalDateTime.now().format(DATE_FORMATTER),
-                FontFactory.getFont(FontFactory.HELVETICA, 8, Color.GRAY)
-        );
-        footer.setAlignment(Element.ALIGN_RIGHT);
-        footer.setSpacingBefore(10);
-        document.add(footer);
 
-        document.close();
+            @Override
+            public void finish() {
+                table.setComplete(true);
+                document.add(table);
+
+                // Footer with timestamp
+                Paragraph footer = new Paragraph(
+                        "Yaratilgan: " + LocalDateTime.now().format(DATE_FORMATTER),
+                        FontFactory.getFont(FontFactory.HELVETICA, 8, Color.GRAY)
+                );
+                footer.setAlignment(Element.ALIGN_RIGHT);
+                footer.setSpacingBefore(10);
+                document.add(footer);
+
+                document.close();
+            }
 
-        return out;
+            @Override
+            public void close() {
+                // Yozuvchi faqat bufer tutadi; xatoda yarim hujjat yopilmaydi
+            }
+        };
     }
 }
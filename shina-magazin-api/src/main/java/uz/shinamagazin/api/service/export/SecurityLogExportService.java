@@ -0,0 +1,81 @@
+package uz.shinamagazin.api.service.export;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uz.shinamagazin.api.dto.response.AuditLogResponse;
+import uz.shinamagazin.api.dto.response.LoginAttemptResponse;
+import uz.shinamagazin.api.entity.LoginAttempt;
+import uz.shinamagazin.api.repository.AuditLogRepository;
+import uz.shinamagazin.api.repository.LoginAttemptRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Audit va kirish tarixi Excel eksporti — bazadan javobgacha oqim bilan.
+ *
+ * <p>Ilgari ro'yxat {@code ExportSupport.pageable(MAX_EXPORT_ROWS)} bilan
+ * to'liq yuklanib, fayl {@code ByteArrayOutputStream}da qurilardi: butun
+ * fayl heap'da, 50 000 dan ortig'i esa kesilardi. Endi qatorlar kursordan
+ * (fetch size 1000, skalyar ustunlar) birma-bir {@link ExcelExportService}ga
+ * o'tadi va u servlet oqimiga yozadi — chegara yo'q, xotira o'zgarmas.
+ *
+ * <p>Tranzaksiya yuklab olish davomida ochiq turadi (PostgreSQL kursori
+ * faqat tranzaksiya ichida qismlab o'qiydi); u read-only va faqat shu
+ * so'rovning ulanishini band qiladi.
+ */
+@Service
+@RequiredArgsConstructor
+public class SecurityLogExportService {
+
+    private final AuditLogRepository auditLogRepository;
+    private final LoginAttemptRepository loginAttemptRepository;
+    private final ExcelExportService excelExportService;
+
+    @Transactional(readOnly = true)
+    public void writeAuditLogs(String entityType, String action, Long userId, String search,
+                               String reportTitle, OutputStream out) throws IOException {
+        String trimmedSearch = (search == null || search.isBlank()) ? null : search.trim();
+        try (Stream<Object[]> rows = auditLogRepository.streamForExport(entityType, action, userId, trimmedSearch)) {
+            excelExportService.writeAuditLogs(rows.map(SecurityLogExportService::auditLog), reportTitle, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeLoginActivity(String username, LoginAttempt.LoginStatus status, String ipAddress,
+                                   LocalDateTime fromDate, LocalDateTime toDate,
+                                   String reportTitle, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = loginAttemptRepository.streamForExport(username, status, ipAddress, fromDate, toDate)) {
+            excelExportService.writeLoginActivity(rows.map(SecurityLogExportService::loginAttempt), reportTitle, out);
+        }
+    }
+
+    /** [id, action, entityType, entityId, username, createdAt, ipAddress] */
+    private static AuditLogResponse auditLog(Object[] row) {
+        return AuditLogResponse.builder()
+                .id((Long) row[0])
+                .action((String) row[1])
+                .entityType((String) row[2])
+                .entityId((Long) row[3])
+                .username((String) row[4])
+                .createdAt((LocalDateTime) row[5])
+                .ipAddress((String) row[6])
+                .build();
+    }
+
+    /** [id, username, status, deviceType, browser, createdAt, ipAddress] */
+    private static LoginAttemptResponse loginAttempt(Object[] row) {
+        return LoginAttemptResponse.builder()
+                .id((Long) row[0])
+                .username((String) row[1])
+                .status(((LoginAttempt.LoginStatus) row[2]).name())
+                .deviceType((String) row[3])
+                .browser((String) row[4])
+                .createdAt((LocalDateTime) row[5])
+                .ipAddress((String) row[6])
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package uz.shinamagazin.api.service.job;
+
+import lombok.Getter;
+import uz.shinamagazin.api.enums.ReportJobStatus;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bitta fon hisobot/eksport vazifasi — faqat xotirada yashaydi.
+ *
+ * <p>Holat maydonlari {@code volatile}: ularni worker oqimi yozadi, status
+ * so'rovlari esa HTTP oqimlaridan o'qiydi. O'zgartirish faqat
+ * {@link ReportJobService} orqali.
+ */
+@Getter
+public class ReportJob {
+
+    private final String id;
+    private final String type;
+    private final String dedupKey;
+    private final Long ownerId;
+    private final String fileName;
+    private final String contentType;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    /**
+     * Natijani ko'ra oladigan foydalanuvchilar. Bir xil so'rovni yuborgan
+     * boshqa xodim yangi vazifa emas, shu vazifaga qo'shiladi — ruxsati esa
+     * yuborish paytida endpointda tekshirilgan.
+     */
+    private final Set<Long> subscribers = ConcurrentHashMap.newKeySet();
+
+    private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+    private volatile int progress;
+    private volatile String message;
+    private volatile Path file;
+    private volatile long size;
+    private volatile LocalDateTime finishedAt;
+
+    ReportJob(String id, String type, String dedupKey, Long ownerId, String fileName, String contentType) {
+        this.id = id;
+        this.type = type;
+        this.dedupKey = dedupKey;
+        this.ownerId = ownerId;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.subscribers.add(ownerId);
+    }
+
+    public boolean isActive() {
+        return status == ReportJobStatus.QUEUED || status == ReportJobStatus.RUNNING;
+    }
+
+    void running() {
+        status = ReportJobStatus.RUNNING;
+    }
+
+    void progress(int percent, String message) {
+        this.progress = percent;
+        this.message = message;
+    }
+
+    void done(Path file, long size) {
+        this.file = file;
+        this.size = size;
+        this.progress = 100;
+        this.message = null;
+        this.finishedAt = LocalDateTime.now();
+        this.status = ReportJobStatus.DONE;
+    }
+
+    void failed(String message) {
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+        this.status = ReportJobStatus.FAILED;
+    }
+}
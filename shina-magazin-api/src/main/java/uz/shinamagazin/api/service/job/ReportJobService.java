@@ -0,0 +1,284 @@
+package uz.shinamagazin.api.service.job;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import uz.shinamagazin.api.dto.response.ReportJobResponse;
+import uz.shinamagazin.api.enums.ReportJobStatus;
+import uz.shinamagazin.api.exception.BadRequestException;
+import uz.shinamagazin.api.exception.ResourceNotFoundException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Uzoq hisobot va eksportlar uchun fon vazifalari.
+ *
+ * <p>Ilgari katta davrdagi hisobot yoki eksport so'rov oqimida bajarilardi:
+ * sekin kunlarda proxy timeout'iga urilar, Tomcat oqimlari esa band qolardi.
+ * Endi endpoint vazifani shu yerga topshirib, darhol ID qaytaradi:
+ * <ul>
+ *   <li>vazifalar cheklangan pulda ({@code app.report-jobs.workers}) bajariladi,
+ *       navbat to'lsa — 503, bitta xodimning bir vaqtdagi vazifalari ham
+ *       cheklangan ({@code per-user-limit}) — 429;</li>
+ *   <li>bajarilish foizi {@code /user/queue/report-jobs} ga yuboriladi;</li>
+ *   <li>natija diskka yoziladi, {@code ttl-minutes} dan keyin o'chiriladi va
+ *       Range so'rovlari bilan (uzilgan yuklashni davom ettirib) olinadi;</li>
+ *   <li>bir xil parametrli parallel so'rovlar bitta vazifaga birlashtiriladi.</li>
+ * </ul>
+ *
+ * <p>Vazifalar ro'yxati xotirada: qayta ishga tushishda tugallanmaganlar
+ * yo'qoladi va eski fayllar tozalanadi — mijoz shunchaki qayta so'raydi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportJobService {
+
+    public static final String USER_QUEUE = "/queue/report-jobs";
+
+    /** Bizning fayllarimiz: {@code <uuid>} yoki {@code <uuid>.part}. */
+    private static final Pattern JOB_FILE = Pattern.compile("[0-9a-f-]{36}(\\.part)?");
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.report-jobs.dir:${java.io.tmpdir}/shina-report-jobs}")
+    private String dir;
+
+    @Value("${app.report-jobs.workers:2}")
+    private int workers;
+
+    @Value("${app.report-jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${app.report-jobs.per-user-limit:2}")
+    private int perUserLimit;
+
+    @Value("${app.report-jobs.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    /** Faol (navbatdagi yoki bajarilayotgan) vazifalar — dedup kaliti bo'yicha. */
+    private final Map<String, ReportJob> activeByKey = new ConcurrentHashMap<>();
+
+    private Path baseDir;
+    private ExecutorService executor;
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    void start() throws IOException {
+        baseDir = Paths.get(dir).toAbsolutePath().normalize();
+        Files.createDirectories(baseDir);
+        purgeLeftovers();
+
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        // CallerRuns EMAS: to'lgan navbat so'rov oqimida bajarilsa, butun
+        // mexanizmning ma'nosi yo'qoladi — aniq 503 yaxshiroq.
+        executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "report-job-" + threadCounter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Vazifani topshiradi.
+     *
+     * @param dedupKey so'rovni to'liq aniqlovchi kalit (tur + barcha parametrlar).
+     *                 Shu kalitli vazifa hali tugamagan bo'lsa, yangisi
+     *                 yaratilmaydi — foydalanuvchi o'shanga qo'shiladi
+     * @throws ResponseStatusException 429 — foydalanuvchining faol vazifalari
+     *                                 chegarada; 503 — umumiy navbat to'lgan
+     */
+    public synchronized ReportJobResponse submit(Long userId, String type, String dedupKey,
+                                                 String fileName, String contentType, ReportJobTask task) {
+        ReportJob existing = activeByKey.get(dedupKey);
+        if (existing != null) {
+            existing.getSubscribers().add(userId);
+            log.debug("Report job {} reused for user {} ({})", existing.getId(), userId, dedupKey);
+            return ReportJobResponse.from(existing);
+        }
+
+        long active = jobs.values().stream()
+                .filter(j -> j.isActive() && userId.equals(j.getOwnerId()))
+                .count();
+        if (active >= perUserLimit) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, String.format(
+                    "Bir vaqtda %d tadan ortiq hisobot tayyorlab bo'lmaydi. Oldingilari tugashini kuting.",
+                    perUserLimit));
+        }
+
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), type, dedupKey, userId, fileName, contentType);
+        // Xaritalarga worker'dan OLDIN: aks holda tez tugagan vazifa
+        // activeByKey'dan o'chirilgach qayta qo'shilib, abadiy "faol" qolardi.
+        jobs.put(job.getId(), job);
+        activeByKey.put(dedupKey, job);
+        try {
+            executor.execute(() -> execute(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            activeByKey.remove(dedupKey, job);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Hisobotlar navbati to'la. Birozdan keyin qayta urinib ko'ring.");
+        }
+        log.info("Report job {} queued: {} by user {}", job.getId(), dedupKey, userId);
+        return ReportJobResponse.from(job);
+    }
+
+    public ReportJobResponse getJob(String id, Long userId) {
+        return ReportJobResponse.from(find(id, userId));
+    }
+
+    public List<ReportJobResponse> getJobs(Long userId) {
+        return jobs.values().stream()
+                .filter(j -> j.getSubscribers().contains(userId))
+                .sorted(Comparator.comparing(ReportJob::getCreatedAt).reversed())
+                .map(ReportJobResponse::from)
+                .toList();
+    }
+
+    /** Tayyor natija. Fayl yo'li va turi {@link ReportJob} da. */
+    public ReportJob getResult(String id, Long userId) {
+        ReportJob job = find(id, userId);
+        if (job.isActive()) {
+            throw new BadRequestException("Hisobot hali tayyor emas");
+        }
+        if (job.getStatus() == ReportJobStatus.FAILED) {
+            throw new BadRequestException("Hisobotni tayyorlab bo'lmadi: " + job.getMessage());
+        }
+        return job;
+    }
+
+    /** Muddati o'tgan natijalarni (fayli bilan) o'chiradi. */
+    @Scheduled(fixedDelayString = "${app.report-jobs.cleanup-interval-ms:300000}")
+    public void evictExpired() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(ttlMinutes);
+        jobs.values().removeIf(job -> {
+            if (job.isActive() || job.getFinishedAt() == null || job.getFinishedAt().isAfter(threshold)) {
+                return false;
+            }
+            deleteQuietly(job.getFile());
+            log.debug("Report job {} expired", job.getId());
+            return true;
+        });
+    }
+
+    private ReportJob find(String id, Long userId) {
+        ReportJob job = jobs.get(id);
+        // Boshqa xodimning vazifasi "topilmadi" — mavjudligi ham oshkor qilinmaydi.
+        if (job == null || !job.getSubscribers().contains(userId)) {
+            throw new ResourceNotFoundException("Hisobot", "id", id);
+        }
+        return job;
+    }
+
+    private void execute(ReportJob job, ReportJobTask task) {
+        job.running();
+        publish(job);
+
+        Path part = baseDir.resolve(job.getId() + ".part");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+                // Hisobot servislari lazy kolleksiyalarni o'qiydi; so'rov
+                // oqimidagi open-in-view sessiyasi bu yerda yo'q.
+                readOnlyTx.executeWithoutResult(status -> {
+                    try {
+                        task.run((percent, message) -> onProgress(job, percent, message), out);
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                });
+            }
+            Path result = baseDir.resolve(job.getId());
+            Files.move(part, result, StandardCopyOption.REPLACE_EXISTING);
+            job.done(result, Files.size(result));
+            log.info("Report job {} done ({} bytes)", job.getId(), job.getSize());
+        } catch (Exception e) {
+            deleteQuietly(part);
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            // Foydalanuvchiga faqat biznes xatosining matni ko'rsatiladi;
+            // ichki xato (SQL, IO) logda qoladi.
+            job.failed(cause instanceof BadRequestException ? cause.getMessage() : "Ichki xatolik");
+            log.error("Report job {} failed", job.getId(), cause);
+        } finally {
+            activeByKey.remove(job.getDedupKey(), job);
+        }
+        publish(job);
+    }
+
+    private void onProgress(ReportJob job, int percent, String message) {
+        int clamped = Math.max(0, Math.min(99, percent));
+        if (clamped == job.getProgress()) {
+            return;
+        }
+        job.progress(clamped, message);
+        publish(job);
+    }
+
+    private void publish(ReportJob job) {
+        ReportJobResponse message = ReportJobResponse.from(job);
+        for (Long userId : job.getSubscribers()) {
+            try {
+                messagingTemplate.convertAndSendToUser(userId.toString(), USER_QUEUE, message);
+            } catch (Exception e) {
+                log.error("Failed to send report job update to user {}", userId, e);
+            }
+        }
+    }
+
+    private void purgeLeftovers() throws IOException {
+        try (Stream<Path> files = Files.list(baseDir)) {
+            files.filter(f -> Files.isRegularFile(f) && JOB_FILE.matcher(f.getFileName().toString()).matches())
+                    .forEach(ReportJobService::deleteQuietly);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete report job file {}", file, e);
+        }
+    }
+}
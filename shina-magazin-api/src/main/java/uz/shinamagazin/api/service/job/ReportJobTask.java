@@ -0,0 +1,21 @@
+package uz.shinamagazin.api.service.job;
+
+import java.io.OutputStream;
+
+/**
+ * Fon vazifasi: natijani {@code out} ga yozadi.
+ *
+ * <p>Oqim diskdagi vaqtinchalik faylga ochilgan — natija xotirada
+ * to'planmasligi uchun imkon qadar to'g'ridan-to'g'ri shu yerga yozing.
+ */
+@FunctionalInterface
+public interface ReportJobTask {
+
+    void run(Progress progress, OutputStream out) throws Exception;
+
+    /** Bajarilish foizi (0–100) va qisqa izoh — foydalanuvchi navbatiga yuboriladi. */
+    @FunctionalInterface
+    interface Progress {
+        void update(int percent, String message);
+    }
+}
@@ -0,0 +1,111 @@
+package uz.shinamagazin.api.service.seo;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.shinamagazin.api.dto.response.CatalogProductResponse;
+import uz.shinamagazin.api.event.CatalogRowsChangedEvent;
+import uz.shinamagazin.api.repository.CatalogProductRepository;
+import uz.shinamagazin.api.repository.ProductRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Mahsulotlarning oldindan yig'ilgan SEO sahifalari ({@link SeoPage}).
+ *
+ * <p>Crawler link-preview so'ragan har safar mahsulot sahifasi atributlari
+ * bilan o'qilib, HTML qaytadan yig'ilardi. Endi sahifalar
+ * {@code catalog_products} jadvalidan yasaladi va xotirada turadi — bot
+ * so'rovi bazaga tegmaydi.
+ *
+ * <p>Yangilanish {@link CatalogRowsChangedEvent} orqali: jadval qatorlari
+ * qayta yozilgandan keyin faqat shu mahsulotlar sahifasi qayta yasaladi,
+ * to'liq qayta qurishda esa hammasi (kursor bilan, butun jadval xotiraga
+ * olinmaydi). Qatori hali yo'q mahsulot birinchi so'rovda {@code products}dan
+ * yasaladi.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSeoPages {
+
+    private final CatalogProductRepository catalogProductRepository;
+    private final ProductRepository productRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<Long, SeoPage> pages = new ConcurrentHashMap<>();
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    /** Mahsulot sahifasi; faol mahsulot bo'lmasa — "topilmadi" sahifasi (keshlanmaydi). */
+    public SeoPage page(Long productId) {
+        SeoPage page = pages.get(productId);
+        if (page != null) {
+            return page;
+        }
+        List<Object[]> rows = catalogProductRepository.findListRowsByIdIn(List.of(productId));
+        if (!rows.isEmpty()) {
+            return remember(CatalogProductResponse.fromRow(rows.get(0)));
+        }
+        // Jadvalga hali yozilmagan — avvalgi yo'l
+        return productRepository.findById(productId)
+                .filter(p -> Boolean.TRUE.equals(p.getActive()))
+                .map(p -> SeoPage.product(CatalogProductResponse.from(p)))
+                .orElseGet(() -> SeoPage.notFound(productId));
+    }
+
+    @EventListener
+    public void onCatalogRowsChanged(CatalogRowsChangedEvent event) {
+        if (event.isFullRebuild()) {
+            rebuild();
+            return;
+        }
+        List<Long> ids = event.productIds();
+        Set<Long> present = new HashSet<>();
+        for (Object[] row : catalogProductRepository.findListRowsByIdIn(ids)) {
+            CatalogProductResponse product = CatalogProductResponse.fromRow(row);
+            remember(product);
+            present.add(product.getId());
+        }
+        // Qatori yo'q — nofaol bo'lgan yoki o'chirilgan
+        ids.stream().filter(id -> !present.contains(id)).forEach(pages::remove);
+    }
+
+    /** Barcha sahifalarni jadvaldan qayta yasaydi. */
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        Set<Long> seen = new HashSet<>();
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = catalogProductRepository.streamListRows()) {
+                rows.forEach(row -> {
+                    CatalogProductResponse product = CatalogProductResponse.fromRow(row);
+                    remember(product);
+                    seen.add(product.getId());
+                });
+            }
+        });
+        pages.keySet().retainAll(seen);
+        log.info("SEO pages rendered: {} products in {} ms",
+                seen.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private SeoPage remember(CatalogProductResponse product) {
+        SeoPage page = SeoPage.product(product);
+        pages.put(product.getId(), page);
+        return page;
+    }
+}
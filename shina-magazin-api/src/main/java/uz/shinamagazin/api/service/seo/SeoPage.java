@@ -0,0 +1,138 @@
+package uz.shinamagazin.api.service.seo;
+
+import uz.shinamagazin.api.dto.response.CatalogProductResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Oldindan yig'ilgan link-preview meta HTML (og/twitter) — bitta mahsulot uchun.
+ *
+ * <p>Sahifadagi yagona so'rovga bog'liq qism — sayt domeni (reverse-proxy
+ * orqasida {@code X-Forwarded-*}dan olinadi). Shuning uchun HTML domen
+ * o'rnida bo'laklarga ajratib saqlanadi va {@link #render} faqat ularni
+ * domen bilan ulaydi: escape, tavsif va narx formatlash yig'ish paytida
+ * bir marta bajariladi.
+ */
+public final class SeoPage {
+
+    private final String[] parts;
+
+    private SeoPage(List<String> parts) {
+        this.parts = parts.toArray(String[]::new);
+    }
+
+    /** @param base sayt manzili, masalan {@code https://protektor.uz} */
+    public String render(String base) {
+        String b = esc(base);
+        StringBuilder html = new StringBuilder(parts.length * 64 + 1024);
+        html.append(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            html.append(b).append(parts[i]);
+        }
+        return html.toString();
+    }
+
+    public static SeoPage product(CatalogProductResponse p) {
+        return page(p.getName() + " — Protektor", buildDescription(p), p.getImageUrl(), p.getId());
+    }
+
+    public static SeoPage notFound(Long id) {
+        return page("Mahsulot topilmadi — Protektor",
+                "Bunday mahsulot mavjud emas yoki sotuvdan olingan.", null, id);
+    }
+
+    /** description bo'lsa o'shani, aks holda brend · o'lcham · narx dan yasaydi. */
+    private static String buildDescription(CatalogProductResponse p) {
+        if (p.getDescription() != null && !p.getDescription().isBlank()) {
+            return p.getDescription().trim();
+        }
+        StringBuilder sb = new StringBuilder();
+        appendPart(sb, p.getBrandName());
+        appendPart(sb, p.getSizeString());
+        if (p.getSellingPrice() != null) {
+            appendPart(sb, String.format("%,.0f so'm", p.getSellingPrice().doubleValue()));
+        }
+        return sb.length() > 0 ? sb.toString() : "Protektor — shinalar onlayn do'koni.";
+    }
+
+    private static void appendPart(StringBuilder sb, String part) {
+        if (part == null || part.isBlank()) return;
+        if (sb.length() > 0) sb.append(" · ");
+        sb.append(part);
+    }
+
+    static String esc(String s) {
+        if (s == null) return "";
+        return s.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static SeoPage page(String title, String desc, String imageUrl, Long id) {
+        String t = esc(title);
+        String d = esc(desc);
+        Parts out = new Parts();
+        out.text("<!doctype html><html lang=\"uz\"><head>"
+                + "<meta charset=\"UTF-8\"/>"
+                + "<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\"/>"
+                + "<title>" + t + "</title>"
+                + "<meta name=\"description\" content=\"" + d + "\"/>"
+                + "<meta property=\"og:type\" content=\"product\"/>"
+                + "<meta property=\"og:site_name\" content=\"Protektor\"/>"
+                + "<meta property=\"og:title\" content=\"" + t + "\"/>"
+                + "<meta property=\"og:description\" content=\"" + d + "\"/>"
+                + "<meta property=\"og:image\" content=\"");
+        out.image(imageUrl);
+        out.text("\"/><meta property=\"og:url\" content=\"");
+        out.url(id);
+        out.text("\"/><meta property=\"og:locale\" content=\"uz\"/>"
+                + "<meta name=\"twitter:card\" content=\"summary_large_image\"/>"
+                + "<meta name=\"twitter:title\" content=\"" + t + "\"/>"
+                + "<meta name=\"twitter:description\" content=\"" + d + "\"/>"
+                + "<meta name=\"twitter:image\" content=\"");
+        out.image(imageUrl);
+        out.text("\"/><link rel=\"canonical\" href=\"");
+        out.url(id);
+        out.text("\"/></head><body><h1>" + t + "</h1><p>" + d + "</p><p><a href=\"");
+        out.url(id);
+        out.text("\">Protektor'da ko'rish</a></p></body></html>");
+        return out.build();
+    }
+
+    /** HTML bo'laklari; domen kelishi kerak bo'lgan joyda bo'lak yopiladi. */
+    private static final class Parts {
+        private final List<String> parts = new ArrayList<>();
+        private final StringBuilder current = new StringBuilder();
+
+        void text(String s) {
+            current.append(s);
+        }
+
+        void base() {
+            parts.add(current.toString());
+            current.setLength(0);
+        }
+
+        /** imageUrl to'liq URL bo'lsa o'zi; nisbiy bo'lsa domen bilan; yo'q bo'lsa og-cover. */
+        void image(String imageUrl) {
+            if (imageUrl == null || imageUrl.isBlank()) {
+                base();
+                text("/og-cover.jpg");
+            } else if (imageUrl.startsWith("http://") || imageUrl.startsWith("https://")) {
+                text(esc(imageUrl));
+            } else {
+                base();
+                text(esc((imageUrl.startsWith("/") ? "" : "/") + imageUrl));
+            }
+        }
+
+        void url(Long id) {
+            base();
+            text("/mahsulot/" + id);
+        }
+
+        SeoPage build() {
+            parts.add(current.toString());
+            return new SeoPage(parts);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package uz.shinamagazin.api.service.seo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.shinamagazin.api.repository.ProductRepository;
+import uz.shinamagazin.api.service.catalog.CatalogVersion;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@code sitemap.xml} — indeks va mahsulot bo'laklari — to'g'ridan-to'g'ri
+ * javob oqimiga yoziladi.
+ *
+ * <p>Mahsulotlar bazadan kursor bilan (fetch size) o'qiladi va har qator
+ * darhol yoziladi: xotira katalog hajmiga bog'liq emas. Protokol cheklovi
+ * bo'yicha bir faylda ko'pi bilan {@value #URLS_PER_PART} URL; undan ko'p
+ * bo'lsa indeks bir nechta {@code sitemap-products-N.xml} ni sanaydi.
+ *
+ * <p>Bo'lak OFFSET bilan emas, birinchi id'sidan ({@code id >= :start})
+ * o'qiladi: OFFSET oxirgi bo'laklar uchun oldingi barcha qatorlarni
+ * o'tkazib yuborardi. Bo'lak chegaralari bitta so'rov bilan topiladi va
+ * {@link CatalogVersion} o'zgarguncha xotirada turadi.
+ *
+ * <p>Manzillar sayt domenidan: nginx {@code /sitemap*.xml} ni
+ * {@code /api/v1/seo/...} ga yo'naltiradi.
+ */
+@Service
+@RequiredArgsConstructor
+public class SitemapWriter {
+
+    static final int URLS_PER_PART = 50_000;
+    private static final int FETCH_SIZE = 1000;
+
+    /** Storefront'ning mahsulotdan tashqari ommaviy sahifalari. */
+    private static final List<String> STATIC_PAGES = List.of("/", "/katalog");
+
+    private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+    private static final String NS = "http://www.sitemaps.org/schemas/sitemap/0.9";
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final CatalogVersion catalogVersion;
+
+    /** Bo'lakdagi URL soni — testlarda kichraytiriladi. */
+    int urlsPerPart = URLS_PER_PART;
+    private TransactionTemplate readOnlyTx;
+    private volatile PartStarts partStarts;
+
+    @PostConstruct
+    void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    /** Mahsulot bo'laklari soni (kamida 1 — bo'sh katalogda ham bo'sh fayl). */
+    public int productParts() {
+        return Math.max(1, partStarts().size());
+    }
+
+    /** Har bo'lakning birinchi mahsulot id'si; katalog o'zgargandagina qayta so'raladi. */
+    private List<Long> partStarts() {
+        long version = catalogVersion.current();
+        PartStarts cached = partStarts;
+        if (cached == null || cached.version() != version) {
+            cached = new PartStarts(version, productRepository.findActivePartStartIds(urlsPerPart));
+            partStarts = cached;
+        }
+        return cached.ids();
+    }
+
+    public void writeIndex(OutputStream out, String base) throws IOException {
+        int parts = productParts();
+        Writer w = writer(out);
+        w.write(HEADER);
+        w.write("<sitemapindex xmlns=\"" + NS + "\">\n");
+        writeEntry(w, "sitemap", base + "/sitemap-pages.xml", null);
+        for (int part = 1; part <= parts; part++) {
+            writeEntry(w, "sitemap", base + "/sitemap-products-" + part + ".xml", null);
+        }
+        w.write("</sitemapindex>\n");
+        w.flush();
+    }
+
+    public void writePages(OutputStream out, String base) throws IOException {
+        Writer w = writer(out);
+        w.write(HEADER);
+        w.write("<urlset xmlns=\"" + NS + "\">\n");
+        for (String page : STATIC_PAGES) {
+            writeEntry(w, "url", base + page, null);
+        }
+        w.write("</urlset>\n");
+        w.flush();
+    }
+
+    /** @param part 1 dan boshlanadi */
+    public void writeProducts(OutputStream out, String base, int part) throws IOException {
+        List<Long> starts = partStarts();
+        Writer w = writer(out);
+        w.write(HEADER);
+        w.write("<urlset xmlns=\"" + NS + "\">\n");
+        if (part > starts.size()) {
+            // Bo'sh katalog yoki indeks o'qilgandan keyin qisqargan
+            w.write("</urlset>\n");
+            w.flush();
+            return;
+        }
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = entityManager.createQuery("""
+                            SELECT p.id, p.updatedAt FROM Product p
+                            WHERE p.active = true AND p.id >= :start ORDER BY p.id""", Object[].class)
+                    .setParameter("start", starts.get(part - 1))
+                    .setMaxResults(urlsPerPart)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                rows.forEach(row -> {
+                    LocalDateTime updated = (LocalDateTime) row[1];
+                    try {
+                        writeEntry(w, "url", base + "/mahsulot/" + row[0],
+                                updated != null ? updated.toLocalDate().toString() : null);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        });
+        w.write("</urlset>\n");
+        w.flush();
+    }
+
+    private record PartStarts(long version, List<Long> ids) {
+    }
+
+    private static void writeEntry(Writer w, String tag, String loc, String lastmod) throws IOException {
+        w.write("  <" + tag + "><loc>");
+        w.write(SeoPage.esc(loc));
+        w.write("</loc>");
+        if (lastmod != null) {
+            w.write("<lastmod>" + lastmod + "</lastmod>");
+        }
+        w.write("</" + tag + ">\n");
+    }
+
+    private static Writer writer(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+    }
+}
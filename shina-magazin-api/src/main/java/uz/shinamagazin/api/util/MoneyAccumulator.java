@@ -0,0 +1,145 @@
+package uz.shinamagazin.api.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Hisobot sikllari uchun o'zgaruvchan pul yig'uvchisi — tiyinlarda, {@code long}.
+ *
+ * <p>{@code BigDecimal} o'zgarmas: {@code total = total.add(x)} har qadamda
+ * yangi obyekt yaratadi, 100k qatorli hisobotda bu yuz minglab vaqtinchalik
+ * obyekt. Bu yig'uvchi esa bitta {@code long} ni o'zgartiradi va
+ * {@code BigDecimal} ga faqat javob chegarasida ({@link #toBigDecimal()})
+ * aylantiriladi.
+ *
+ * <p>Natija {@code BigDecimal} zanjiri bilan BIT-BA-BIT bir xil, jumladan
+ * {@code scale} ham: {@code BigDecimal.add} natijasining scale'i qo'shiluvchilar
+ * scale'larining eng kattasi, shuning uchun bu yerda ham eng katta scale
+ * kuzatib boriladi ({@code 0} bilan {@code 0.00} JSON'da farq qiladi).
+ *
+ * <p>Tiyinga sig'maydigan qiymat (scale &gt; 2) yoki {@code long} to'lib
+ * ketishi aniqlansa, yig'uvchi jimgina aniq {@code BigDecimal} rejimiga
+ * o'tadi — natija hech qachon yaxlitlanmaydi va buzilmaydi.
+ *
+ * <p>Oqimlar orasida bo'lishilmaydi (thread-safe emas) — bitta sikl uchun.
+ */
+public final class MoneyAccumulator {
+
+    private static final int MINOR_SCALE = 2;
+    private static final int[] POW10 = {1, 10, 100};
+
+    /** Tiyinlar (scale 2). {@link #exact} {@code null} bo'lsagina amal qiladi. */
+    private long minor;
+
+    /** Natija scale'i — qo'shilgan qiymatlar scale'larining eng kattasi. */
+    private int scale;
+
+    /** To'lib ketgandan keyingi aniq rejim; odatda {@code null}. */
+    private BigDecimal exact;
+
+    public MoneyAccumulator add(BigDecimal value) {
+        return addScaled(value, 1);
+    }
+
+    public MoneyAccumulator subtract(BigDecimal value) {
+        return addScaled(value, -1);
+    }
+
+    /** {@code += unitPrice × quantity} — {@code unitPrice.multiply(BigDecimal.valueOf(quantity))} bilan bir xil. */
+    public MoneyAccumulator addProduct(BigDecimal unitPrice, long quantity) {
+        return addScaled(unitPrice, quantity);
+    }
+
+    public MoneyAccumulator add(MoneyAccumulator other) {
+        if (other.exact != null) {
+            return addExact(other.exact);
+        }
+        return addMinor(other.minor, other.scale);
+    }
+
+    public MoneyAccumulator subtract(MoneyAccumulator other) {
+        if (other.exact != null || other.minor == Long.MIN_VALUE) {
+            return addExact(other.toBigDecimal().negate());
+        }
+        return addMinor(-other.minor, other.scale);
+    }
+
+    /** Qayta ishlatish uchun nolga qaytaradi ({@code BigDecimal.ZERO} holatiga, scale 0). */
+    public MoneyAccumulator clear() {
+        minor = 0;
+        scale = 0;
+        exact = null;
+        return this;
+    }
+
+    /** {@code BigDecimal.signum} kabi, lekin obyekt yaratmasdan. */
+    public int signum() {
+        return exact == null ? Long.signum(minor) : exact.signum();
+    }
+
+    /**
+     * Yig'indi — {@code BigDecimal.ZERO} dan boshlab {@code add}/{@code subtract}
+     * zanjiri qaytaradigan qiymat bilan aynan bir xil (qiymat ham, scale ham).
+     */
+    public BigDecimal toBigDecimal() {
+        if (exact != null) {
+            return exact;
+        }
+        // scale ≤ 2 bo'lsa, tiyinlar 10^(2-scale) ga albatta bo'linadi: har bir
+        // qo'shiluvchining scale'i `scale` dan oshmagan.
+        return BigDecimal.valueOf(minor, MINOR_SCALE).setScale(scale, RoundingMode.UNNECESSARY);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private MoneyAccumulator addScaled(BigDecimal value, long factor) {
+        if (exact != null) {
+            return addExact(value.multiply(BigDecimal.valueOf(factor)));
+        }
+        int valueScale = value.scale();
+        if (valueScale > MINOR_SCALE || valueScale < 0) {
+            return addExact(value.multiply(BigDecimal.valueOf(factor)));
+        }
+        try {
+            // unscaledValue() har safar BigInteger yaratadi; scale 0 dagi
+            // longValueExact() esa ixcham qiymatni to'g'ridan-to'g'ri qaytaradi.
+            long unscaled = valueScale == 0
+                    ? value.longValueExact()
+                    : value.movePointRight(valueScale).longValueExact();
+            long valueMinor = Math.multiplyExact(unscaled, POW10[MINOR_SCALE - valueScale]);
+            minor = Math.addExact(minor, Math.multiplyExact(valueMinor, factor));
+            scale = Math.max(scale, valueScale);
+            return this;
+        } catch (ArithmeticException overflow) {
+            return addExact(value.multiply(BigDecimal.valueOf(factor)));
+        }
+    }
+
+    private MoneyAccumulator addMinor(long otherMinor, int otherScale) {
+        if (exact == null) {
+            try {
+                minor = Math.addExact(minor, otherMinor);
+                scale = Math.max(scale, otherScale);
+                return this;
+            } catch (ArithmeticException overflow) {
+                // pastda aniq rejimda qo'shiladi
+            }
+        }
+        return addExact(BigDecimal.valueOf(otherMinor, MINOR_SCALE)
+                .setScale(otherScale, RoundingMode.UNNECESSARY));
+    }
+
+    private MoneyAccumulator addExact(BigDecimal value) {
+        if (exact == null) {
+            // Shu paytgacha yig'ilgani joriy scale bilan — aniq rejimga o'tishda ham
+            // natija scale'i BigDecimal zanjiridagidek qoladi.
+            exact = toBigDecimal();
+            minor = 0;
+        }
+        exact = exact.add(value);
+        return this;
+    }
+}
@@ -0,0 +1,157 @@
+package uz.shinamagazin.api.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Mahsulot qidiruvi uchun matnni bir xil ko'rinishga keltiradi.
+ *
+ * <p>Mijozlar brendni kirillcha ham, lotincha ham yozadi: "мишлен", "michelin",
+ * "mishlen". Oddiy transliteratsiya yetmaydi — "мишлен" -> "mishlen", lekin
+ * "michelin" emas. Shuning uchun ikki qatlam:
+ * <ul>
+ *   <li>{@link #normalize} — kichik harf, kirill -> lotin (rus va o'zbek
+ *       kirill yozuvi), tinish belgilarisiz. SKU, o'lcham va oddiy substring
+ *       qidiruvi shu bo'yicha;</li>
+ *   <li>{@link #phoneticKey} — so'zning undosh "skeleti": o'xshash
+ *       tovushlar bitta belgiga birlashtiriladi (ch/sh/ш/ч, g/h/х, dg/dzh/дж,
+ *       c/k/q ...), unlilar tashlanadi. "michelin" va "мишлен" ikkalasi ham
+ *       {@code mSln}.</li>
+ * </ul>
+ * Ikkala qatlam ham mahsulotda saqlanadi ({@code products.search_text},
+ * {@code products.search_key}) va {@code pg_trgm} GIN indeksi bilan qidiriladi.
+ */
+public final class SearchNormalizer {
+
+    /** Fonetik kalit shundan qisqa bo'lsa, ishlatilmaydi — juda ko'p narsaga mos keladi. */
+    public static final int MIN_KEY_LENGTH = 3;
+
+    private static final Map<Character, String> CYRILLIC = Map.ofEntries(
+            Map.entry('а', "a"), Map.entry('б', "b"), Map.entry('в', "v"), Map.entry('г', "g"),
+            Map.entry('д', "d"), Map.entry('е', "e"), Map.entry('ё', "yo"), Map.entry('ж', "zh"),
+            Map.entry('з', "z"), Map.entry('и', "i"), Map.entry('й', "y"), Map.entry('к', "k"),
+            Map.entry('л', "l"), Map.entry('м', "m"), Map.entry('н', "n"), Map.entry('о', "o"),
+            Map.entry('п', "p"), Map.entry('р', "r"), Map.entry('с', "s"), Map.entry('т', "t"),
+            Map.entry('у', "u"), Map.entry('ф', "f"), Map.entry('х', "kh"), Map.entry('ц', "ts"),
+            Map.entry('ч', "ch"), Map.entry('ш', "sh"), Map.entry('щ', "shch"), Map.entry('ъ', ""),
+            Map.entry('ы', "y"), Map.entry('ь', ""), Map.entry('э', "e"), Map.entry('ю', "yu"),
+            Map.entry('я', "ya"),
+            // o'zbek kirill
+            Map.entry('ў', "o"), Map.entry('қ', "q"), Map.entry('ғ', "g"), Map.entry('ҳ', "h"),
+            // ukrain/qozoq harflari ba'zan klaviaturadan tushadi
+            Map.entry('і', "i"), Map.entry('ї', "i"), Map.entry('є', "e"));
+
+    /** Harf, raqam va o'lcham/SKU ajratgichlaridan boshqa hamma narsa bo'sh joy. */
+    private static final Pattern NON_WORD = Pattern.compile("[^a-z0-9/.\\-]+");
+
+    /** O'zbek lotinidagi o'/g' apostroflari — so'zni bo'lmasligi kerak. */
+    private static final Pattern APOSTROPHES = Pattern.compile("['`’‘ʻʼ]");
+
+    /**
+     * Fonetik almashtirishlar — TARTIB MUHIM (uzunroq birikmalar oldin).
+     * Katta harflar — ichki belgilar (kirish allaqachon kichik harfda).
+     * Ikki bosqich orasida yakka {@code c} yechiladi: e/i/y oldidan "s", aks holda "k".
+     */
+    private static final String[][] DIGRAPHS = {
+            {"shch", "S"}, {"sch", "S"}, {"dzh", "J"}, {"sh", "S"}, {"ch", "S"}, {"zh", "J"},
+            {"dj", "J"}, {"dg", "J"}, {"kh", "H"}, {"ph", "f"}, {"th", "t"}, {"ck", "k"}, {"ts", "s"},
+    };
+    private static final String[][] LETTERS = {
+            {"x", "ks"}, {"w", "v"}, {"q", "k"}, {"j", "J"}, {"g", "H"}, {"h", "H"}, {"z", "s"},
+    };
+    private static final Pattern SOFT_C = Pattern.compile("c(?=[eiy])");
+
+    private SearchNormalizer() {
+    }
+
+    /** Kichik harf, lotin yozuvi, so'zlar bitta bo'sh joy bilan. null -> "". */
+    public static String normalize(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String lower = APOSTROPHES.matcher(text.toLowerCase(Locale.ROOT)).replaceAll("");
+        StringBuilder latin = new StringBuilder(lower.length() + 8);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            String mapped = CYRILLIC.get(c);
+            latin.append(mapped != null ? mapped : String.valueOf(c));
+        }
+        return NON_WORD.matcher(latin).replaceAll(" ").trim();
+    }
+
+    /** Qidiruv so'rovining so'zlari (normalizatsiyadan keyin). */
+    public static List<String> tokens(String query) {
+        String normalized = normalize(query);
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+    }
+
+    /**
+     * Bitta normallashtirilgan so'zning fonetik kaliti. Raqamli so'z (SKU,
+     * o'lcham) uchun bo'sh — ular {@link #normalize} bo'yicha aniq qidiriladi.
+     */
+    public static String phoneticKey(String word) {
+        if (word == null || word.isEmpty() || word.chars().anyMatch(Character::isDigit)) {
+            return "";
+        }
+        String s = word;
+        for (String[] rule : DIGRAPHS) {
+            s = s.replace(rule[0], rule[1]);
+        }
+        s = SOFT_C.matcher(s).replaceAll("s").replace('c', 'k');
+        for (String[] rule : LETTERS) {
+            s = s.replace(rule[0], rule[1]);
+        }
+        StringBuilder key = new StringBuilder(s.length());
+        char previous = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ("aeiouy".indexOf(c) >= 0 || !Character.isLetter(c)) {
+                continue;
+            }
+            if (c != previous) {
+                key.append(c);
+            }
+            previous = c;
+        }
+        return key.toString();
+    }
+
+    /**
+     * {@code products.search_text}: berilgan qismlarning normallashtirilgan
+     * so'zlari, chetlarida bo'sh joy bilan — so'z boshini {@code "% so'z%"}
+     * bilan topish uchun.
+     */
+    public static String searchText(String... parts) {
+        StringBuilder text = new StringBuilder(" ");
+        for (String part : parts) {
+            String normalized = normalize(part);
+            if (!normalized.isEmpty()) {
+                text.append(normalized).append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    /** Shina o'lchamining qidiruvdagi ko'rinishi: {@code 205/55r16}. Bo'lak yetishmasa null. */
+    public static String compactSize(Integer width, Integer profile, Integer diameter) {
+        return width != null && profile != null && diameter != null
+                ? width + "/" + profile + "r" + diameter : null;
+    }
+
+    /** {@code products.search_key}: har bir so'zning fonetik kaliti, chetlarida bo'sh joy bilan. */
+    public static String searchKey(String... parts) {
+        List<String> keys = new ArrayList<>();
+        for (String part : parts) {
+            for (String word : tokens(part)) {
+                String key = phoneticKey(word);
+                if (key.length() >= MIN_KEY_LENGTH) {
+                    keys.add(key);
+                }
+            }
+        }
+        return keys.isEmpty() ? " " : " " + String.join(" ", keys) + " ";
+    }
+}
@@ -0,0 +1,25 @@
+-- Mahsulot qidiruvi: LIKE '%...%' to'liq skan o'rniga trigram indeks.
+--
+-- Ilgari qidiruv LOWER(name)/LOWER(sku)/LOWER(brand.name) LIKE '%q%' edi —
+-- boshida '%' bo'lgani uchun B-tree indeks ishlamaydi, har so'rov butun
+-- products jadvalini (va brands JOIN'ini) o'qirdi.
+--
+-- Nega tsvector (full-text) EMAS: do'konda qidiruvning katta qismi SKU va
+-- o'lcham bo'laklari ("205/55", "r16", "MIC-20") — bular so'z emas, substring.
+-- pg_trgm GIN indeksi LIKE '%q%' ni to'g'ridan-to'g'ri tezlashtiradi.
+--
+-- Qidiruv matni bitta ustunda (sku + nom + brend + o'lcham), lotin yozuvida
+-- va kichik harfda saqlanadi; search_key — nom va brendning fonetik kalitlari
+-- ("мишлен" = "michelin"). Ikkalasini ham ilova hisoblaydi (SearchNormalizer):
+-- Postgres'da kirill -> lotin transliteratsiyasi yo'q. Mavjud qatorlar ilova
+-- ishga tushganda to'ldiriladi (ProductSearchTextBackfill).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_text VARCHAR(1000);
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_key VARCHAR(500);
+
+CREATE INDEX IF NOT EXISTS idx_products_search_text_trgm
+    ON products USING gin (search_text gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_search_key_trgm
+    ON products USING gin (search_key gin_trgm_ops);
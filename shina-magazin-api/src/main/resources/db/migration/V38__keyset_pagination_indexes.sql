@@ -0,0 +1,13 @@
+-- Keyset (cursor) sahifalash uchun (kalit, id) indekslari.
+--
+-- Cursor rejimida har sahifa WHERE (kalit, id) < (oxirgi kalit, oxirgi id)
+-- ORDER BY kalit, id LIMIT n — shu tartibdagi ikki ustunli indeks bo'lsa,
+-- sahifa chuqurligidan qat'i nazar bitta diapazon o'qish bo'ladi.
+-- Mavjud bir ustunli indekslar (idx_sales_date, idx_stock_movements_date)
+-- bir xil kalitli qatorlar ichida id bo'yicha tartibni bermaydi.
+
+CREATE INDEX IF NOT EXISTS idx_audit_logs_created_id ON audit_logs (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_created_id ON stock_movements (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_sales_date_id ON sales (sale_date, id);
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products (selling_price, id);
+CREATE INDEX IF NOT EXISTS idx_products_created_id ON products (created_at, id);
@@ -0,0 +1,39 @@
+-- Storefront uchun tekis (denormalizatsiya qilingan) katalog jadvali.
+--
+-- Vitrina ro'yxati va mahsulot sahifasi ilgari products + brands + categories
+-- JOIN'lari va to'liq JPA entity'lari (dirty-checking bilan), sahifada esa
+-- yana atribut qiymatlari JOIN'i bilan o'qilardi. Endi bitta qator — bitta
+-- mahsulot, hamma kerakli narsa ichida: brend nomi, kategoriya yo'li,
+-- o'lcham satri, variant id'lari massivi va sahifa uchun atributlar (jsonb).
+--
+-- Faqat faol mahsulotlar saqlanadi. Jadvalni ilova yuritadi (CatalogReadModel):
+-- mahsulot o'zgarsa — shu qatorlar; brend, kategoriya (avlodlari bilan),
+-- atribut yoki variant o'zgarsa — faqat ularga tegishli mahsulotlar qatorlari
+-- yangilanadi. To'liq qayta qurish — ishga tushganda va navbat juda katta
+-- bo'lganda.
+
+CREATE TABLE IF NOT EXISTS catalog_products (
+    product_id BIGINT PRIMARY KEY REFERENCES products(id) ON DELETE CASCADE,
+    sku VARCHAR(50) NOT NULL,
+    name VARCHAR(200) NOT NULL,
+    brand_id BIGINT,
+    brand_name VARCHAR(100),
+    category_id BIGINT,
+    category_name VARCHAR(100),
+    category_path VARCHAR(500),
+    width INTEGER,
+    profile INTEGER,
+    diameter INTEGER,
+    size_string VARCHAR(20),
+    load_index VARCHAR(10),
+    speed_rating VARCHAR(5),
+    season VARCHAR(20),
+    selling_price DECIMAL(15, 2) NOT NULL,
+    quantity INTEGER NOT NULL,
+    in_stock BOOLEAN NOT NULL,
+    low_stock BOOLEAN NOT NULL,
+    description VARCHAR(1000),
+    image_url VARCHAR(500),
+    option_ids BIGINT[] NOT NULL DEFAULT '{}',
+    attributes JSONB NOT NULL DEFAULT '[]'
+);
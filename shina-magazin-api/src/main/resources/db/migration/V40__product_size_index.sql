@@ -0,0 +1,12 @@
+-- Shina o'lchami (kenglik, profil, diametr) bo'yicha kompozit indeks.
+--
+-- Vitrinadagi aniq o'lcham filtri, o'lcham facetlari va muqobil o'lchamlar
+-- xotiradagi indeksdan (CatalogFacetIndex) beriladi. Bazaga faqat SQL yo'li
+-- qoladi: matnli qidiruv + o'lcham, cursor (scroll) rejimi va admin ro'yxati
+-- (ProductSpecs.sizeIs) — ular endi uch ustunli bitta indeks diapazonini o'qiydi.
+--
+-- `WHERE active = true` predikatisiz: admin ro'yxati nofaol mahsulotlarni ham
+-- ko'rsatadi, qisman indeks esa bunday so'rovga ishlatilmasdi. Nofaol
+-- mahsulotlar oz — indeks deyarli kattalashmaydi.
+
+CREATE INDEX IF NOT EXISTS idx_products_size ON products (width, profile, diameter);
@@ -0,0 +1,160 @@
+-- audit_logs, login_attempts va stock_movements — oylik RANGE (created_at) bo'limlari.
+--
+-- Bu uch jadval har yozuv/kirish/zaxira harakati bilan o'sadi. Saqlash muddati
+-- ilgari katta DELETE bilan (deleteByCreatedAtBefore, deleteOldAttempts)
+-- bajarilardi: jadval shishadi, VACUUM ishi va qulflar uzoq. Endi:
+--   * har oy — alohida bo'lim (<jadval>_pYYYY_MM), sana bo'yicha filtrlangan
+--     so'rovlar keraksiz oylarni o'qimaydi (partition pruning);
+--   * saqlash muddati butun bo'limni DROP qiladi — bir zumda, shishishsiz;
+--   * kelgusi oylar bo'limlarini ilova oldindan yaratadi
+--     (PartitionMaintenanceScheduler -> ensure_monthly_partitions);
+--   * <jadval>_default — oraliqdan tashqari yozuv uchun sug'urta (odatda bo'sh).
+--     Saqlash muddati uning eskirgan qatorlarini ham o'chiradi (qatorma-qator),
+--     ilova esa unda qator qolsa ogohlantiradi.
+--
+-- Mavjud ma'lumot: eski jadval <jadval>_legacy ga qayta nomlanadi, yangi
+-- bo'limlangan jadvalga to'liq ko'chiriladi, keyin o'chiriladi — hammasi bitta
+-- Flyway tranzaksiyasida (xato bo'lsa hech narsa o'zgarmaydi). id ketma-ketligi
+-- o'sha qoladi. Bo'limlangan jadvalda PRIMARY KEY bo'lim kalitini o'z ichiga
+-- olishi shart — (id, created_at); id'ning o'zi ketma-ketlikdan, yagona.
+-- Indekslar va tashqi kalitlar eski jadvaldagi ta'riflaridan qayta yaratiladi.
+
+-- Bitta oy bo'limi. Default bo'limda shu oyga tegishli qatorlar bo'lsa (masalan
+-- texnik xizmat ishlamay qolgan oy) ular yangi bo'limga ko'chiriladi — aks holda
+-- ATTACH xato beradi.
+CREATE OR REPLACE FUNCTION create_monthly_partition(parent TEXT, month DATE)
+RETURNS BOOLEAN LANGUAGE plpgsql AS $$
+DECLARE
+    from_date DATE := date_trunc('month', month)::DATE;
+    till_date DATE := (date_trunc('month', month) + INTERVAL '1 month')::DATE;
+    child TEXT := parent || '_p' || to_char(from_date, 'YYYY_MM');
+    fallback TEXT := parent || '_default';
+BEGIN
+    IF to_regclass(child) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', child, parent);
+    IF to_regclass(fallback) IS NOT NULL THEN
+        EXECUTE format('WITH moved AS (DELETE FROM %I WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM moved', fallback, from_date, till_date, child);
+    END IF;
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent, child, from_date, till_date);
+    RETURN TRUE;
+END;
+$$;
+
+-- Joriy oydan boshlab months_ahead oy oldinga bo'limlar; yaratilganlar soni.
+CREATE OR REPLACE FUNCTION ensure_monthly_partitions(parent TEXT, months_ahead INT)
+RETURNS INT LANGUAGE plpgsql AS $$
+DECLARE
+    created INT := 0;
+    i INT;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        IF create_monthly_partition(parent, (date_trunc('month', now()) + make_interval(months => i))::DATE) THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- Butunlay cutoff'dan oldin tugaydigan oy bo'limlarini o'chiradi; o'chirilganlar soni.
+-- Chegaradagi oy qolgan qatorlari bilan to'liq eskirguncha turadi. Default
+-- bo'limning o'sha oylarga tegishli qatorlari ham o'chiriladi — aks holda
+-- o'chirilgan oyga kechikib yozilgan qator default'da abadiy qolardi.
+CREATE OR REPLACE FUNCTION drop_monthly_partitions_before(parent TEXT, cutoff TIMESTAMP)
+RETURNS INT LANGUAGE plpgsql AS $$
+DECLARE
+    dropped INT := 0;
+    child RECORD;
+    month DATE;
+    fallback TEXT := parent || '_default';
+BEGIN
+    FOR child IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = parent::regclass
+          AND c.relname ~ ('^' || parent || '_p[0-9]{4}_[0-9]{2}$')
+    LOOP
+        month := to_date(right(child.relname, 7), 'YYYY_MM');
+        IF month + INTERVAL '1 month' <= cutoff THEN
+            EXECUTE format('DROP TABLE %I', child.relname);
+            dropped := dropped + 1;
+        END IF;
+    END LOOP;
+    IF to_regclass(fallback) IS NOT NULL THEN
+        EXECUTE format('DELETE FROM %I WHERE created_at < %L', fallback, date_trunc('month', cutoff));
+    END IF;
+    RETURN dropped;
+END;
+$$;
+
+-- Bir martalik: oddiy jadvalni ma'lumoti bilan bo'limlangan jadvalga aylantiradi.
+CREATE OR REPLACE FUNCTION convert_to_monthly_partitions(parent TEXT, months_ahead INT)
+RETURNS VOID LANGUAGE plpgsql AS $$
+DECLARE
+    legacy TEXT := parent || '_legacy';
+    seq TEXT;
+    ddl TEXT[];
+    stmt TEXT;
+    first_month DATE;
+    month DATE;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = parent::regclass) THEN
+        RETURN;
+    END IF;
+
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', parent, legacy);
+    seq := pg_get_serial_sequence(legacy, 'id');
+
+    -- Tashqi kalitlar va (PK'dan boshqa) indekslar ta'rifi — eski jadval o'chirilishidan oldin
+    SELECT array_agg(def ORDER BY ord) INTO ddl FROM (
+        SELECT 1 AS ord, format('ALTER TABLE %I ADD CONSTRAINT %I %s', parent, conname, pg_get_constraintdef(oid)) AS def
+        FROM pg_constraint
+        WHERE conrelid = legacy::regclass AND contype = 'f'
+        UNION ALL
+        SELECT 2, regexp_replace(pg_get_indexdef(indexrelid), ' ON \S+ USING ', format(' ON %I USING ', parent))
+        FROM pg_index
+        WHERE indrelid = legacy::regclass AND NOT indisprimary AND NOT indisunique
+    ) defs;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING COMMENTS) '
+                   'PARTITION BY RANGE (created_at)', parent, legacy);
+    IF seq IS NOT NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s OWNED BY %I.id', seq, parent);
+    END IF;
+
+    EXECUTE format('SELECT date_trunc(''month'', min(created_at))::DATE FROM %I', legacy) INTO first_month;
+    month := COALESCE(first_month, date_trunc('month', now())::DATE);
+    WHILE month <= date_trunc('month', now()) + make_interval(months => months_ahead) LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       parent || '_p' || to_char(month, 'YYYY_MM'), parent, month, month + INTERVAL '1 month');
+        month := (month + INTERVAL '1 month')::DATE;
+    END LOOP;
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', parent || '_default', parent);
+
+    EXECUTE format('INSERT INTO %I SELECT * FROM %I', parent, legacy);
+    EXECUTE format('DROP TABLE %I', legacy);
+
+    -- PK eski jadval bilan birga ketgan <jadval>_pkey nomini oladi
+    EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id, created_at)', parent);
+    IF ddl IS NOT NULL THEN
+        FOREACH stmt IN ARRAY ddl LOOP
+            EXECUTE stmt;
+        END LOOP;
+    END IF;
+    EXECUTE format('ANALYZE %I', parent);
+END;
+$$;
+
+SELECT convert_to_monthly_partitions('audit_logs', 3);
+SELECT convert_to_monthly_partitions('login_attempts', 3);
+SELECT convert_to_monthly_partitions('stock_movements', 3);
+
+DROP FUNCTION convert_to_monthly_partitions(TEXT, INT);
+
+COMMENT ON TABLE audit_logs IS 'Tracks all important changes in the system (monthly partitions by created_at)';
+COMMENT ON TABLE login_attempts IS 'Audit trail of all login attempts (monthly partitions by created_at)';
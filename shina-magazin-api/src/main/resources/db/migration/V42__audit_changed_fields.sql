@@ -0,0 +1,29 @@
+-- Maydon darajasidagi audit so'rovlari: "X mahsulot narxini kim o'zgartirdi",
+-- "Customer.balance'ning barcha tahrirlari". Ilgari audit qatorlari ilovaga
+-- o'qilib, calculateFieldChanges bilan birma-bir solishtirilardi.
+--
+-- changed_fields — old_value va new_value'da farq qilgan kalitlar, yozish
+-- paytida AuditLogWriter hisoblaydi. GIN indeksi bilan
+-- `changed_fields @> ARRAY['sellingPrice']` indeksdan o'qiladi; new_value
+-- ustidagi jsonb_path_ops GIN — aniq qiymat bo'yicha (`new_value @> {...}`).
+-- Bo'limlangan jadvalda (V41) indekslar har bo'limga, kelgusi bo'limlarga ham tushadi.
+--
+-- CREATE va DELETE yozuvlarida changed_fields — barcha to'ldirilgan kalitlar
+-- (yo'qdan qiymatga / qiymatdan yo'qqa): maydon tarixi boshlang'ich qiymatdan
+-- boshlanadi va o'chirish bilan tugaydi.
+--
+-- Mavjud yozuvlar to'ldirilmaydi (NULL qoladi): butun jadvalni bitta UPDATE
+-- bilan qayta yozish katta audit jadvalida soatlab qulf va ikki barobar hajm
+-- degani. Maydon so'rovi (AuditLogRepository.findFieldChanges) bunday
+-- qatorlar uchun farqni o'qish paytida JSON'dan hisoblaydi; ularni tez topish
+-- uchun quyidagi qisman indeks — yangi yozuvlar unga tushmaydi, hajmi o'smaydi.
+
+ALTER TABLE audit_logs ADD COLUMN IF NOT EXISTS changed_fields TEXT[];
+
+CREATE INDEX IF NOT EXISTS idx_audit_logs_changed_fields ON audit_logs USING GIN (changed_fields);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_legacy_entity ON audit_logs (entity_type, created_at DESC)
+    WHERE changed_fields IS NULL;
+CREATE INDEX IF NOT EXISTS idx_audit_logs_new_value ON audit_logs USING GIN (new_value jsonb_path_ops);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_entity_created ON audit_logs (entity_type, created_at DESC);
+
+ANALYZE audit_logs;
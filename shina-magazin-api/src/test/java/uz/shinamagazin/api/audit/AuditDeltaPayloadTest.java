@@ -0,0 +1,265 @@
+package uz.shinamagazin.api.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uz.shinamagazin.api.dto.response.AuditLogDetailResponse;
+import uz.shinamagazin.api.entity.AuditLog;
+import uz.shinamagazin.api.repository.AuditLogRepository;
+import uz.shinamagazin.api.repository.EmployeeRepository;
+import uz.shinamagazin.api.repository.UserRepository;
+import uz.shinamagazin.api.service.AuditLogService;
+import uz.shinamagazin.api.service.FieldLabelService;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * UPDATE audit'i faqat o'zgargan maydonlarni saqlaydi, batafsil ko'rinish
+ * to'liq holatni tarixdan qayta yig'adi.
+ *
+ * <p>{@link #syntheticWorkload}: 2 000 ta mahsulot UPDATE'i, faqat
+ * {@code quantity} o'zgaradi — old+new JSON to'liq nusxada 714 bayt/qator,
+ * delta (har 50-si to'liq nusxa bilan) ~52 bayt/qator. Baytlar aniq, testda
+ * tekshiriladi; PostgreSQL'da jsonb va TOAST hajmi shunga mos kichrayadi.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:audit-delta-payload;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Yozuvchi o'z oqimi va ulanishida ishlaydi
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuditDeltaPayloadTest {
+
+    private static final int UPDATES = 2_000;
+
+    @Autowired private DataSource dataSource;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private AuditLogRepository auditLogRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private UserRepository userRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AuditPolicy policy = new AuditPolicy();
+    private AuditLogWriter writer;
+    private AuditLogService service;
+
+    @BeforeEach
+    void setUp() {
+        auditLogRepository.deleteAll();
+        writer = new AuditLogWriter(new JdbcTemplate(dataSource), transactionManager, userRepository, objectMapper,
+                new SimpleMeterRegistry(), 10_000, 500, 20, AuditLogWriter.OverflowPolicy.BLOCK, 2_000);
+        service = new AuditLogService(auditLogRepository, employeeRepository, objectMapper,
+                new FieldLabelService(), null, writer, null, policy);
+    }
+
+    @Test
+    @DisplayName("UPDATE — delta, batafsil ko'rinish — to'liq oldin/keyin")
+    void storesDeltaAndRebuildsFullViews() throws Exception {
+        Map<String, Object> created = product(10, "1000000");
+        Map<String, Object> v1 = new HashMap<>(created);
+        v1.put("quantity", 8);
+        Map<String, Object> v2 = new HashMap<>(v1);
+        v2.put("sellingPrice", new BigDecimal("1100000"));
+        v2.put("description", null);
+
+        writer.start();
+        service.logCreate("Product", 7L, created, 1L);
+        service.logUpdate("Product", 7L, created, v1, 1L);
+        service.logUpdate("Product", 7L, v1, v2, 1L);
+        service.logDelete("Product", 7L, v2, 1L);
+        writer.stop();
+
+        List<AuditLog> logs = auditLogRepository.findByEntityTypeAndEntityIdOrderByCreatedAtDesc("Product", 7L)
+                .stream().sorted(Comparator.comparing(AuditLog::getId)).toList();
+        // Jarayon ko'rgan birinchi UPDATE — to'liq nusxa, keyingisi delta
+        assertThat(logs.get(1).getNewValue()).hasSize(v1.size());
+        AuditLog priceUpdate = logs.get(2);
+        assertThat(priceUpdate.getOldValue()).containsOnlyKeys("sellingPrice", "description");
+        assertThat(priceUpdate.getNewValue()).containsOnlyKeys("sellingPrice", "description")
+                .containsEntry("description", null);
+        assertThat(priceUpdate.getChangedFields()).containsExactly("description", "sellingPrice");
+        assertThat(logs.get(0).getNewValue()).hasSize(created.size());
+        assertThat(logs.get(3).getOldValue()).hasSize(v2.size());
+
+        AuditLogDetailResponse detail = service.getAuditLogDetail(priceUpdate.getId());
+        assertThat(detail.getOldValue()).containsEntry("quantity", 8)
+                .containsEntry("sku", "P-7")
+                .containsEntry("description", "Yozgi shina")
+                .hasSize(created.size());
+        assertThat(detail.getNewValue()).containsEntry("quantity", 8)
+                .containsEntry("sellingPrice", 1100000)
+                .containsEntry("description", null);
+        assertThat(detail.getFieldChanges()).extracting(AuditLogDetailResponse.FieldChange::getFieldName)
+                .containsExactlyInAnyOrder("sellingPrice", "description");
+    }
+
+    @Test
+    @DisplayName("Birinchi va har N-UPDATE to'liq nusxa; ko'rinish CREATE'siz ham eng yaqin nusxadan yig'iladi")
+    void periodicSnapshotsBoundReplay() throws Exception {
+        policy.setSnapshotEvery(3);
+        Map<String, Object> state = product(10, "1000000");
+
+        writer.start();
+        service.logCreate("Product", 7L, state, 1L);
+        for (int i = 0; i < 7; i++) {
+            Map<String, Object> next = new HashMap<>(state);
+            next.put("quantity", (Integer) state.get("quantity") - 1);
+            service.logUpdate("Product", 7L, state, next, 1L);
+            state = next;
+        }
+        writer.stop();
+
+        List<AuditLog> updates = auditLogRepository.findByEntityTypeAndEntityIdOrderByCreatedAtDesc("Product", 7L)
+                .stream().filter(log -> "UPDATE".equals(log.getAction()))
+                .sorted(Comparator.comparing(AuditLog::getId)).toList();
+        assertThat(updates).extracting(log -> log.getNewValue().size())
+                .containsExactly(state.size(), 1, 1, state.size(), 1, 1, state.size());
+        assertThat(updates).allSatisfy(log -> assertThat(log.getChangedFields()).containsExactly("quantity"));
+
+        // Saqlash muddati CREATE'ni o'chirgandek — holat baribir to'liq
+        auditLogRepository.deleteAll(auditLogRepository.findAll().stream()
+                .filter(log -> "CREATE".equals(log.getAction())).toList());
+        AuditLogDetailResponse detail = service.getAuditLogDetail(updates.get(5).getId());
+        assertThat(detail.getOldValue()).hasSize(state.size()).containsEntry("quantity", 5)
+                .containsEntry("sku", "P-7");
+        assertThat(detail.getNewValue()).containsEntry("quantity", 4);
+        assertThat(detail.getFieldChanges()).extracting(AuditLogDetailResponse.FieldChange::getFieldName)
+                .containsExactly("quantity");
+    }
+
+    @Test
+    @DisplayName("Qayta ishga tushgan nusxa entity'ning birinchi UPDATE'ini to'liq yozadi")
+    void restartWritesSnapshotFirst() throws Exception {
+        policy.setSnapshotEvery(50);
+        Map<String, Object> state = product(10, "1000000");
+
+        writer.start();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> next = new HashMap<>(state);
+            next.put("quantity", (Integer) state.get("quantity") - 1);
+            service.logUpdate("Product", 7L, state, next, 1L);
+            state = next;
+            // Har UPDATE'dan keyin deploy — xotiradagi belgilar yo'qoladi
+            service = new AuditLogService(auditLogRepository, employeeRepository, objectMapper,
+                    new FieldLabelService(), null, writer, null, policy);
+        }
+        writer.stop();
+
+        assertThat(auditLogRepository.findByEntityTypeAndEntityIdOrderByCreatedAtDesc("Product", 7L))
+                .hasSize(3)
+                .allSatisfy(log -> assertThat(log.getNewValue()).hasSize(product(0, "0").size()));
+    }
+
+    @Test
+    @DisplayName("Siyosat: FULL — to'liq nusxa, CREATE_DELETE — UPDATE yozilmaydi, OFF — hech narsa")
+    void policyPerEntityType() throws Exception {
+        policy.setEntities(Map.of("product", AuditPolicy.Mode.FULL,
+                "Session", AuditPolicy.Mode.CREATE_DELETE,
+                "LoginAttempt", AuditPolicy.Mode.OFF));
+        Map<String, Object> created = product(10, "1000000");
+        Map<String, Object> v1 = new HashMap<>(created);
+        v1.put("quantity", 8);
+
+        writer.start();
+        service.logUpdate("Product", 7L, created, v1, 1L);
+        service.logCreate("Session", 1L, created, 1L);
+        service.logUpdate("Session", 1L, created, v1, 1L);
+        service.logCreate("LoginAttempt", 1L, created, 1L);
+        writer.stop();
+
+        assertThat(auditLogRepository.findAll()).extracting(AuditLog::getEntityType, AuditLog::getAction)
+                .containsExactlyInAnyOrder(tuple("Product", "UPDATE"), tuple("Session", "CREATE"));
+        AuditLog full = auditLogRepository.findByEntityTypeAndEntityIdOrderByCreatedAtDesc("Product", 7L).get(0);
+        assertThat(full.getNewValue()).hasSize(created.size());
+        assertThat(full.getChangedFields()).containsExactly("quantity");
+    }
+
+    @Test
+    @DisplayName("Sintetik yuk: delta to'liq nusxadan kamida 10 marta kichik")
+    void syntheticWorkload() throws Exception {
+        Map<String, Object> state = product(1_000_000, "1000000");
+        long fullBytes = 0;
+        long deltaBytes = 0;
+
+        writer.start();
+        for (int i = 0; i < UPDATES; i++) {
+            Map<String, Object> next = new HashMap<>(state);
+            next.put("quantity", (Integer) state.get("quantity") - 1);
+            // Avvalgi format: ikkala to'liq nusxa
+            writer.submit(AuditLog.builder().entityType("Product").entityId(1L).action("UPDATE")
+                    .oldValue(state).newValue(next).build());
+            fullBytes += json(state) + json(next);
+            state = next;
+        }
+        writer.stop();
+
+        writer.start();
+        for (int i = 0; i < UPDATES; i++) {
+            Map<String, Object> next = new HashMap<>(state);
+            next.put("quantity", (Integer) state.get("quantity") - 1);
+            service.logUpdate("Product", 2L, state, next, 1L);
+            state = next;
+        }
+        writer.stop();
+
+        for (AuditLog log : auditLogRepository.findByEntityTypeAndEntityIdOrderByCreatedAtDesc("Product", 2L)) {
+            deltaBytes += json(log.getOldValue()) + json(log.getNewValue());
+        }
+
+        assertThat(auditLogRepository.count()).isEqualTo(2L * UPDATES);
+        assertThat(deltaBytes * 10).isLessThan(fullBytes);
+    }
+
+    private long json(Object value) throws Exception {
+        return objectMapper.writeValueAsBytes(value).length;
+    }
+
+    private static Map<String, Object> product(int quantity, String price) {
+        Map<String, Object> product = new HashMap<>();
+        product.put("id", 7);
+        product.put("sku", "P-7");
+        product.put("name", "Michelin Primacy 4 205/55R16");
+        product.put("width", 205);
+        product.put("profile", 55);
+        product.put("diameter", 16);
+        product.put("loadIndex", "91");
+        product.put("speedRating", "V");
+        product.put("season", "SUMMER");
+        product.put("purchasePrice", 800000);
+        product.put("sellingPrice", new BigDecimal(price));
+        product.put("quantity", quantity);
+        product.put("minStockLevel", 4);
+        product.put("description", "Yozgi shina");
+        product.put("imageUrl", "/uploads/products/p-7.webp");
+        product.put("active", true);
+        product.put("brandId", 3);
+        product.put("categoryId", 5);
+        product.put("createdById", 1);
+        return product;
+    }
+}
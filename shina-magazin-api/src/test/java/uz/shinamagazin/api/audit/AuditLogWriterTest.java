@@ -0,0 +1,222 @@
+package uz.shinamagazin.api.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import uz.shinamagazin.api.entity.AuditLog;
+import uz.shinamagazin.api.entity.User;
+import uz.shinamagazin.api.enums.Role;
+import uz.shinamagazin.api.repository.AuditLogRepository;
+import uz.shinamagazin.api.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Audit yozuvchisi: partiyalab yozish, nom keshi, o'zgargan maydonlar,
+ * to'lgan navbat siyosati va to'xtashda navbatni oxirigacha yozish.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:audit-log-writer;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Yozuvchi o'z oqimi va ulanishida ishlaydi — test tranzaksiyasiz, ma'lumot commit bo'lgan bo'lishi kerak
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuditLogWriterTest {
+
+    @Autowired private DataSource dataSource;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AuditLogRepository auditLogRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meters;
+
+    @BeforeEach
+    void setUp() {
+        auditLogRepository.deleteAll();
+        userRepository.deleteAll();
+        meters = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Yozuvlar partiyalab yoziladi, nom bitta so'rov bilan olinadi, JSON o'qiladi")
+    void writesInBatches() throws Exception {
+        User kassir = userRepository.save(User.builder().username("kassir").password("x")
+                .fullName("Kassir").role(Role.SELLER).build());
+        AuditLogWriter writer = writer(userRepository, 10_000, AuditLogWriter.OverflowPolicy.BLOCK, 2_000);
+        writer.start();
+
+        for (int i = 0; i < 1_200; i++) {
+            writer.submit(entry(i, kassir.getId()));
+        }
+        writer.stop();
+
+        assertThat(auditLogRepository.count()).isEqualTo(1_200);
+        assertThat(meters.counter("audit.writer.written").count()).isEqualTo(1_200);
+        // 500 talik partiyalar: har submit uchun alohida INSERT emas
+        assertThat(meters.timer("audit.writer.flush").count()).isBetween(3L, 1_200L / 2);
+        AuditLog first = auditLogRepository.findAll().stream()
+                .filter(a -> a.getEntityId() == 0L).findFirst().orElseThrow();
+        assertThat(first.getUsername()).isEqualTo("kassir");
+        assertThat(first.getNewValue()).containsEntry("name", "Mahsulot 0");
+        assertThat(first.getOldValue()).isNull();
+        assertThat(first.getChangedFields()).containsExactly("name", "price");
+        assertThat(first.getCreatedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("changed_fields: faqat qiymati farq qilgan kalitlar; null va kalit yo'qligi bir xil")
+    void changedFields() {
+        Map<String, Object> before = new HashMap<>(Map.of("name", "Shina", "price", 1000, "quantity", 10));
+        before.put("note", null);
+        Map<String, Object> after = Map.of("name", "Shina", "price", 1100, "quantity", 10, "sku", "P-1");
+
+        assertThat(AuditLogWriter.changedFields(before, after)).containsExactly("price", "sku");
+        assertThat(AuditLogWriter.changedFields(null, after)).containsExactly("name", "price", "quantity", "sku");
+        assertThat(AuditLogWriter.changedFields(before, null)).containsExactly("name", "price", "quantity");
+        assertThat(AuditLogWriter.changedFields(null, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Navbat to'la: DROP — tashlanadi va hisoblanadi, BLOCK — joy bo'shashini kutadi")
+    void overflowPolicies() throws Exception {
+        for (AuditLogWriter.OverflowPolicy policy : AuditLogWriter.OverflowPolicy.values()) {
+            auditLogRepository.deleteAll();
+            meters = new SimpleMeterRegistry();
+            CountDownLatch release = new CountDownLatch(1);
+            // Yozuvchi birinchi partiyada nom kutib turadi — navbat aniq to'ladi
+            UserRepository slowUsers = mock(UserRepository.class);
+            when(slowUsers.findUsernamesByIds(any())).thenAnswer(invocation -> {
+                release.await(10, TimeUnit.SECONDS);
+                return List.of();
+            });
+            AuditLogWriter writer = writer(slowUsers, 2, policy, 10_000);
+            writer.start();
+
+            writer.submit(entry(0, 1L));
+            awaitEmptyQueue(writer);
+            writer.submit(entry(1, null));
+            writer.submit(entry(2, null));
+            // BLOCK'da chaqiruvchi kutib qoladi — yozuvchini boshqa oqim bo'shatadi
+            Thread releaser = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+                release.countDown();
+            });
+            if (policy == AuditLogWriter.OverflowPolicy.BLOCK) {
+                releaser.start();
+            }
+            writer.submit(entry(3, null));
+
+            assertThat(meters.counter("audit.writer.overflow").count()).as(policy.name()).isEqualTo(1);
+            release.countDown();
+            writer.stop();
+
+            assertThat(meters.counter("audit.writer.dropped").count()).as(policy.name())
+                    .isEqualTo(policy == AuditLogWriter.OverflowPolicy.DROP ? 1 : 0);
+            assertThat(auditLogRepository.count()).as(policy.name())
+                    .isEqualTo(policy == AuditLogWriter.OverflowPolicy.DROP ? 3 : 4);
+        }
+    }
+
+    @Test
+    @DisplayName("BLOCK: kutish tugasa yozuv tashlanadi — chaqiruvchi o'zi yozmaydi")
+    void blockGivesUpAfterWait() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        UserRepository slowUsers = mock(UserRepository.class);
+        when(slowUsers.findUsernamesByIds(any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+        AuditLogWriter writer = writer(slowUsers, 1, AuditLogWriter.OverflowPolicy.BLOCK, 50);
+        writer.start();
+
+        writer.submit(entry(0, 1L));
+        awaitEmptyQueue(writer);
+        writer.submit(entry(1, null));
+        long start = System.nanoTime();
+        writer.submit(entry(2, null));
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(50);
+        assertThat(meters.counter("audit.writer.dropped").count()).isEqualTo(1);
+        release.countDown();
+        writer.stop();
+        assertThat(auditLogRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Yozuv biznes tranzaksiyasi rollback'ida ham qoladi")
+    void callerWriteSurvivesRollback() throws Exception {
+        AuditLogWriter writer = writer(userRepository, 10_000, AuditLogWriter.OverflowPolicy.BLOCK, 2_000);
+        User kassir = userRepository.save(User.builder().username("kassir").password("x")
+                .fullName("Kassir").role(Role.SELLER).build());
+        writer.start();
+        writer.stop();
+
+        // To'xtagan yozuvchi — sinxron yo'l, lekin baribir o'z tranzaksiyasida
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            writer.submit(entry(1, kassir.getId()));
+            status.setRollbackOnly();
+        });
+
+        assertThat(auditLogRepository.findAll()).singleElement()
+                .satisfies(log -> assertThat(log.getUsername()).isEqualTo("kassir"));
+        assertThat(meters.counter("audit.writer.written").count()).isEqualTo(1);
+    }
+
+    // --- helpers ---
+
+    private AuditLogWriter writer(UserRepository users, int capacity, AuditLogWriter.OverflowPolicy policy,
+                                  long overflowWaitMs) {
+        return new AuditLogWriter(new JdbcTemplate(dataSource), transactionManager, users, objectMapper, meters,
+                capacity, 500, 20, policy, overflowWaitMs);
+    }
+
+    private static AuditLog entry(long entityId, Long userId) {
+        return AuditLog.builder()
+                .entityType("Product")
+                .entityId(entityId)
+                .action("CREATE")
+                .newValue(Map.of("name", "Mahsulot " + entityId, "price", 1000))
+                .userId(userId)
+                .build();
+    }
+
+    private static void awaitEmptyQueue(AuditLogWriter writer) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (writer.queueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package uz.shinamagazin.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uz.shinamagazin.api.annotation.ExportColumn;
+import uz.shinamagazin.api.dto.response.CustomerResponse;
+import uz.shinamagazin.api.enums.CustomerType;
+import uz.shinamagazin.api.service.export.ExcelExportService;
+import uz.shinamagazin.api.service.export.ExportColumnConfig;
+import uz.shinamagazin.api.service.export.ExportDataExtractor;
+import uz.shinamagazin.api.service.export.ExportFormatter;
+import uz.shinamagazin.api.service.export.GenericExportService;
+import uz.shinamagazin.api.service.export.PdfExportService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Eksport yacheykasini o'qish narxi: {@code Field.get} (avvalgi
+ * {@code ExportDataExtractor}), maydonning {@link MethodHandle} getteri va
+ * LambdaMetafactory getteri (hozirgi). Ichki ustun uchun avvalgi yo'l har
+ * qatorda {@code getDeclaredField} + {@code setAccessible} qilardi.
+ * {@code export100k*} — 100 000 {@code CustomerResponse} ni Excel'ga
+ * to'liq yozish, ikkala accessor bilan.
+ *
+ * <p>Surefire ishga tushirmaydi (nomi {@code *Test} emas). Qo'lda:
+ * <pre>
+ * mvn -q test-compile
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     uz.shinamagazin.api.benchmark.ExportAccessorBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExportAccessorBenchmark {
+
+    private static final int ROWS = 1_000;
+    private static final int EXPORT_ROWS = 100_000;
+
+    private CustomerResponse[] customers;
+    private Line[] lines;
+    private Field[] fields;
+    private Field brandField;
+    private Function<Object, Object>[] handles;
+    private Function<Object, Object>[] generated;
+    private Function<Object, Object> generatedNested;
+    private GenericExportService reflectionExport;
+    private GenericExportService generatedExport;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        customers = IntStream.range(0, ROWS).mapToObj(ExportAccessorBenchmark::customer)
+                .toArray(CustomerResponse[]::new);
+        lines = IntStream.range(0, ROWS).mapToObj(i -> new Line(new Brand("Brend " + i)))
+                .toArray(Line[]::new);
+
+        fields = exportFields(CustomerResponse.class);
+        brandField = Line.class.getDeclaredField("brand");
+        brandField.setAccessible(true);
+
+        handles = new Function[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            MethodHandle handle = MethodHandles.privateLookupIn(CustomerResponse.class, MethodHandles.lookup())
+                    .unreflectGetter(fields[i])
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            handles[i] = entity -> {
+                try {
+                    return handle.invokeExact(entity);
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        }
+
+        ExportDataExtractor extractor = new ExportDataExtractor();
+        generated = extractor.extractColumns(CustomerResponse.class).stream()
+                .map(ExportColumnConfig::getValueExtractor).toArray(Function[]::new);
+        generatedNested = extractor.extractColumns(Line.class).get(0).getValueExtractor();
+
+        reflectionExport = exportService(new ReflectionExtractor());
+        generatedExport = exportService(extractor);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS * 11)
+    public void fieldGet(Blackhole bh) throws IllegalAccessException {
+        for (CustomerResponse customer : customers) {
+            for (Field field : fields) {
+                bh.consume(field.get(customer));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS * 11)
+    public void methodHandle(Blackhole bh) {
+        for (CustomerResponse customer : customers) {
+            for (Function<Object, Object> handle : handles) {
+                bh.consume(handle.apply(customer));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS * 11)
+    public void lambdaMetafactory(Blackhole bh) {
+        for (CustomerResponse customer : customers) {
+            for (Function<Object, Object> getter : generated) {
+                bh.consume(getter.apply(customer));
+            }
+        }
+    }
+
+    /** Avvalgi ichki ustun: har qatorda maydon qidirish. */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void nestedLookupPerRow(Blackhole bh) throws ReflectiveOperationException {
+        for (Line line : lines) {
+            Object brand = brandField.get(line);
+            Field name = brand.getClass().getDeclaredField("name");
+            name.setAccessible(true);
+            bh.consume(name.get(brand));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void nestedGenerated(Blackhole bh) {
+        for (Line line : lines) {
+            bh.consume(generatedNested.apply(line));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public long export100kFieldGet() throws IOException {
+        return export(reflectionExport);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public long export100kGenerated() throws IOException {
+        return export(generatedExport);
+    }
+
+    private long export(GenericExportService service) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        service.write(IntStream.range(0, EXPORT_ROWS).mapToObj(i -> customers[i % ROWS]),
+                CustomerResponse.class, GenericExportService.ExportFormat.EXCEL, "Mijozlar", out);
+        return out.count;
+    }
+
+    private static GenericExportService exportService(ExportDataExtractor extractor) {
+        // write(Stream) bazaga tegmaydi — EntityManager va tranzaksiyalar kerak emas
+        return new GenericExportService(extractor, new ExportFormatter(),
+                new ExcelExportService(), new PdfExportService(), null, null);
+    }
+
+    private static Field[] exportFields(Class<?> type) {
+        return Arrays.stream(type.getDeclaredFields())
+                .filter(field -> field.isAnnotationPresent(ExportColumn.class))
+                .peek(field -> field.setAccessible(true))
+                .toArray(Field[]::new);
+    }
+
+    private static CustomerResponse customer(int i) {
+        return CustomerResponse.builder()
+                .id((long) i)
+                .fullName("Mijoz " + i)
+                .phone("+998 90 " + (1_000_000 + i))
+                .address("Toshkent sh., " + i + "-uy")
+                .customerType(i % 3 == 0 ? CustomerType.BUSINESS : CustomerType.INDIVIDUAL)
+                .balance(BigDecimal.valueOf(-i * 1000L))
+                .hasDebt(i % 2 == 0)
+                .active(true)
+                .build();
+    }
+
+    /** Avvalgi extractor: ustunlar bir xil, qiymat {@code Field.get} bilan. */
+    private static final class ReflectionExtractor extends ExportDataExtractor {
+        @Override
+        public <T> List<ExportColumnConfig> extractColumns(Class<T> clazz) {
+            Map<String, Field> byHeader = Arrays.stream(exportFields(clazz))
+                    .collect(Collectors.toMap(f -> f.getAnnotation(ExportColumn.class).header(), f -> f));
+            return super.extractColumns(clazz).stream()
+                    .map(col -> {
+                        Field field = byHeader.get(col.getHeader());
+                        return ExportColumnConfig.builder()
+                                .header(col.getHeader())
+                                .order(col.getOrder())
+                                .type(col.getType())
+                                .format(col.getFormat())
+                                .sensitive(col.isSensitive())
+                                .nestedField(col.getNestedField())
+                                .valueExtractor(entity -> {
+                                    try {
+                                        return field.get(entity);
+                                    } catch (IllegalAccessException e) {
+                                        return null;
+                                    }
+                                })
+                                .build();
+                    })
+                    .toList();
+        }
+    }
+
+    public static class Line {
+        @ExportColumn(header = "Brend", nestedField = "name")
+        private final Brand brand;
+
+        Line(Brand brand) {
+            this.brand = brand;
+        }
+    }
+
+    public static class Brand {
+        private final String name;
+
+        Brand(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExportAccessorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package uz.shinamagazin.api.benchmark;
+
+import uz.shinamagazin.api.dto.response.CustomerResponse;
+import uz.shinamagazin.api.enums.CustomerType;
+import uz.shinamagazin.api.service.export.ExcelExportService;
+import uz.shinamagazin.api.service.export.ExportDataExtractor;
+import uz.shinamagazin.api.service.export.ExportFormatter;
+import uz.shinamagazin.api.service.export.GenericExportService;
+import uz.shinamagazin.api.service.export.PdfExportService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Generic Excel eksportining heap'i: 200 000 {@code CustomerResponse}
+ * oqimdan yoziladi, har 50 000 qatorda {@code System.gc()} dan keyingi band
+ * heap boshlang'ich holatga nisbatan o'lchanadi. Taqqoslash uchun — xuddi
+ * shu DTO'larni ro'yxatda ushlab turish. O'lchangan:
+ * <pre>
+ *   oqimli eksport, eng katta o'sish   |   ~4 MB  (11 MB xlsx)
+ *   faqat DTO ro'yxatini ushlab turish |  ~80 MB
+ * </pre>
+ * Avvalgi yo'l ro'yxatdan tashqari har qator uchun {@code LinkedHashMap}
+ * va tayyor faylni ham xotirada tutardi — ikkinchi qator uning pastki
+ * chegarasi. GC'ga bog'liq, shuning uchun test emas.
+ *
+ * <p>Surefire ishga tushirmaydi (nomi {@code *Test} emas). Qo'lda:
+ * <pre>
+ * mvn -q test-compile
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     uz.shinamagazin.api.benchmark.GenericExportHeapBenchmark
+ * </pre>
+ */
+public class GenericExportHeapBenchmark {
+
+    private static final int ROWS = 200_000;
+    private static final int CHECKPOINT = 50_000;
+
+    public static void main(String[] args) throws IOException {
+        // Oqim manbasi — EntityManager va tranzaksiya kerak emas
+        GenericExportService service = new GenericExportService(new ExportDataExtractor(), new ExportFormatter(),
+                new ExcelExportService(), new PdfExportService(), null, null);
+
+        long baseline = usedHeapAfterGc();
+        long[] peak = {0};
+        CountingOutputStream out = new CountingOutputStream();
+        service.write(IntStream.range(0, ROWS)
+                        .mapToObj(GenericExportHeapBenchmark::customer)
+                        .peek(c -> {
+                            if (c.getId() % CHECKPOINT == 0) {
+                                peak[0] = Math.max(peak[0], usedHeapAfterGc() - baseline);
+                            }
+                        }),
+                CustomerResponse.class, GenericExportService.ExportFormat.EXCEL, "Mijozlar Hisoboti", out);
+        peak[0] = Math.max(peak[0], usedHeapAfterGc() - baseline);
+
+        List<CustomerResponse> materialized = new ArrayList<>(ROWS);
+        IntStream.range(0, ROWS).mapToObj(GenericExportHeapBenchmark::customer).forEach(materialized::add);
+        long listHeap = usedHeapAfterGc() - baseline;
+
+        System.out.printf("generic export %,d rows: %,d B written, peak heap growth %.1f MB, "
+                        + "materialized list (%,d) %.1f MB%n",
+                ROWS, out.count, peak[0] / 1048576.0, materialized.size(), listHeap / 1048576.0);
+    }
+
+    private static CustomerResponse customer(int i) {
+        return CustomerResponse.builder()
+                .id((long) i)
+                .fullName("Mijoz " + i)
+                .phone("+998 90 " + (1_000_000 + i))
+                .address("Toshkent sh., Chilonzor tumani, " + i + "-uy")
+                .companyName(i % 3 == 0 ? "Avto Servis " + i : null)
+                .customerType(i % 3 == 0 ? CustomerType.BUSINESS : CustomerType.INDIVIDUAL)
+                .balance(BigDecimal.valueOf(-i % 5_000_000))
+                .hasDebt(i % 2 == 0)
+                .notes("Izoh " + i)
+                .active(true)
+                .build();
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package uz.shinamagazin.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uz.shinamagazin.api.util.MoneyAccumulator;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hisobot sikli: 100 000 savdo qatori — tushum, tannarx ({@code narx × miqdor})
+ * va foyda yig'indisi. {@code BigDecimal} zanjiri va {@link MoneyAccumulator}.
+ *
+ * <p>Surefire ishga tushirmaydi (nomi {@code *Test} emas). Qo'lda:
+ * <pre>
+ * mvn -q test-compile
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     uz.shinamagazin.api.benchmark.MoneyAccumulatorBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyAccumulatorBenchmark {
+
+    private static final int LINES = 100_000;
+
+    private BigDecimal[] totals;
+    private BigDecimal[] unitCosts;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        totals = new BigDecimal[LINES];
+        unitCosts = new BigDecimal[LINES];
+        quantities = new int[LINES];
+        for (int i = 0; i < LINES; i++) {
+            // Narxlar so'mda, tiyin bilan: 50 000 .. 3 000 000
+            long cost = 5_000_000L + random.nextInt(295_000_000);
+            int qty = 1 + random.nextInt(4);
+            unitCosts[i] = BigDecimal.valueOf(cost, 2);
+            quantities[i] = qty;
+            totals[i] = BigDecimal.valueOf(cost * qty * 13 / 10, 2);
+        }
+    }
+
+    @Benchmark
+    public void bigDecimalChain(Blackhole bh) {
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal cost = BigDecimal.ZERO;
+        for (int i = 0; i < LINES; i++) {
+            revenue = revenue.add(totals[i]);
+            cost = cost.add(unitCosts[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        bh.consume(revenue.subtract(cost));
+    }
+
+    @Benchmark
+    public void moneyAccumulator(Blackhole bh) {
+        MoneyAccumulator revenue = new MoneyAccumulator();
+        MoneyAccumulator cost = new MoneyAccumulator();
+        for (int i = 0; i < LINES; i++) {
+            revenue.add(totals[i]);
+            cost.addProduct(unitCosts[i], quantities[i]);
+        }
+        bh.consume(revenue.subtract(cost).toBigDecimal());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyAccumulatorBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,176 @@
+package uz.shinamagazin.api.benchmark;
+
+import uz.shinamagazin.api.util.SearchNormalizer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Mahsulot qidiruvi: eski {@code LOWER(...) LIKE '%q%'} (uch ustun, brend
+ * JOIN) va V37 dagi {@code search_text}/{@code search_key} + pg_trgm GIN.
+ * 100 000 sintetik mahsulot, har so'rov uchun p50/p99.
+ *
+ * <p>H2 bu yerda ma'nosiz — trigram indeks faqat Postgres'da. Vaqtinchalik
+ * {@code bench_*} jadvallarida ishlaydi, asosiy sxemaga tegmaydi. Qo'lda
+ * (masalan docker-compose.dev dagi postgres bilan):
+ * <pre>
+ * mvn -q test-compile
+ * java -Dbench.jdbc.url=jdbc:postgresql://localhost:5432/shina_magazin \
+ *      -Dbench.jdbc.user=postgres -Dbench.jdbc.password=postgres \
+ *      -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *      uz.shinamagazin.api.benchmark.ProductSearchBenchmark
+ * </pre>
+ */
+public class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int RUNS = 200;
+
+    private static final String[] BRANDS = {"Michelin", "Bridgestone", "Hankook", "Yokohama",
+            "Continental", "Nokian", "Pirelli", "Kumho", "Goodyear", "Dunlop", "Toyo", "Nexen"};
+    private static final String[] MODELS = {"Pilot Sport", "Blizzak", "Ventus", "Geolandar", "Winter Contact",
+            "Hakkapeliitta", "Cinturato", "Ecsta", "Eagle", "Grandtrek", "Proxes", "Winguard"};
+
+    private static final List<String> QUERIES = List.of("michelin", "мишлен", "pilot", "205/55r16",
+            "hakka", "BR-12345", "нокиан r17");
+
+    public static void main(String[] args) throws SQLException {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/shina_magazin");
+        try (Connection connection = DriverManager.getConnection(url,
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "postgres"))) {
+            setUp(connection);
+            for (String query : QUERIES) {
+                long[] like = measure(connection, likeQuery(), likeParams(query));
+                long[] trigram = measure(connection, trigramQuery(query), trigramParams(query));
+                System.out.printf("%-12s LIKE p50=%6.2fms p99=%6.2fms | trigram p50=%6.2fms p99=%6.2fms%n",
+                        query, ms(like, 50), ms(like, 99), ms(trigram, 50), ms(trigram, 99));
+            }
+            try (Statement st = connection.createStatement()) {
+                st.execute("DROP TABLE bench_products");
+                st.execute("DROP TABLE bench_brands");
+            }
+        }
+    }
+
+    private static void setUp(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            st.execute("DROP TABLE IF EXISTS bench_products");
+            st.execute("DROP TABLE IF EXISTS bench_brands");
+            st.execute("CREATE TABLE bench_brands (id BIGINT PRIMARY KEY, name VARCHAR(100))");
+            st.execute("CREATE TABLE bench_products (id BIGINT PRIMARY KEY, sku VARCHAR(50), name VARCHAR(200), "
+                    + "brand_id BIGINT, active BOOLEAN, search_text VARCHAR(1000), search_key VARCHAR(500))");
+        }
+        try (PreparedStatement ps = connection.prepareStatement("INSERT INTO bench_brands VALUES (?, ?)")) {
+            for (int i = 0; i < BRANDS.length; i++) {
+                ps.setLong(1, i);
+                ps.setString(2, BRANDS[i]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO bench_products VALUES (?, ?, ?, ?, true, ?, ?)")) {
+            for (int i = 0; i < PRODUCTS; i++) {
+                int brand = random.nextInt(BRANDS.length);
+                String sku = BRANDS[brand].substring(0, 2).toUpperCase() + "-" + i;
+                String name = MODELS[random.nextInt(MODELS.length)] + " " + (1 + random.nextInt(9));
+                String size = SearchNormalizer.compactSize(175 + 10 * random.nextInt(10),
+                        35 + 5 * random.nextInt(8), 13 + random.nextInt(8));
+                ps.setLong(1, i);
+                ps.setString(2, sku);
+                ps.setString(3, name);
+                ps.setLong(4, brand);
+                ps.setString(5, SearchNormalizer.searchText(sku, name, BRANDS[brand], size));
+                ps.setString(6, SearchNormalizer.searchKey(name, BRANDS[brand]));
+                ps.addBatch();
+                if (i % 5_000 == 4_999) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE INDEX ON bench_products USING gin (search_text gin_trgm_ops)");
+            st.execute("CREATE INDEX ON bench_products USING gin (search_key gin_trgm_ops)");
+            st.execute("ANALYZE bench_products");
+        }
+    }
+
+    private static String likeQuery() {
+        return "SELECT p.id FROM bench_products p LEFT JOIN bench_brands b ON b.id = p.brand_id "
+                + "WHERE p.active AND (LOWER(p.name) LIKE ? OR LOWER(p.sku) LIKE ? OR LOWER(b.name) LIKE ?) "
+                + "ORDER BY p.id LIMIT 20";
+    }
+
+    private static String[] likeParams(String query) {
+        String like = "%" + query.toLowerCase() + "%";
+        return new String[]{like, like, like};
+    }
+
+    /** {@code ProductSpecs.matchesSearch} bilan bir xil shakl. */
+    private static String trigramQuery(String query) {
+        StringBuilder sql = new StringBuilder("SELECT p.id FROM bench_products p WHERE p.active");
+        for (String token : SearchNormalizer.tokens(query)) {
+            sql.append(SearchNormalizer.phoneticKey(token).length() >= SearchNormalizer.MIN_KEY_LENGTH
+                    ? " AND (p.search_text LIKE ? OR p.search_key LIKE ?)"
+                    : " AND p.search_text LIKE ?");
+        }
+        return sql.append(" ORDER BY p.id LIMIT 20").toString();
+    }
+
+    private static String[] trigramParams(String query) {
+        return SearchNormalizer.tokens(query).stream()
+                .flatMap(token -> {
+                    String key = SearchNormalizer.phoneticKey(token);
+                    return key.length() >= SearchNormalizer.MIN_KEY_LENGTH
+                            ? Stream.of("%" + token + "%", "% " + key + "%")
+                            : Stream.of("%" + token + "%");
+                })
+                .toArray(String[]::new);
+    }
+
+    private static long[] measure(Connection connection, String sql, String[] params) throws SQLException {
+        long[] nanos = new long[RUNS];
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setString(i + 1, params[i]);
+            }
+            for (int warmup = 0; warmup < 20; warmup++) {
+                drain(ps);
+            }
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                drain(ps);
+                nanos[run] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void drain(PreparedStatement ps) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                rs.getLong(1);
+            }
+        }
+    }
+
+    private static double ms(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,138 @@
+package uz.shinamagazin.api.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import uz.shinamagazin.api.service.catalog.CatalogVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Katalog HTTP keshi: 304 controller'siz, takroriy so'rov keshdan, katalog
+ * o'zgarsa yangi javob va yangi ETag.
+ */
+class CatalogHttpCacheFilterTest {
+
+    private CatalogVersion version;
+    private CatalogHttpCacheFilter filter;
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+
+    /** Controller o'rnida: har chaqiruvda boshqa tana yozadi. */
+    private final FilterChain controller = (request, response) -> {
+        int call = controllerCalls.incrementAndGet();
+        response.setContentType("application/json");
+        response.getOutputStream().write(("{\"call\":" + call + "}").getBytes(StandardCharsets.UTF_8));
+    };
+
+    @BeforeEach
+    void setUp() {
+        version = new CatalogVersion();
+        filter = new CatalogHttpCacheFilter(version, 60, 300, 100);
+    }
+
+    @Test
+    @DisplayName("Takroriy so'rov keshdan; parametrlar tartibi ahamiyatsiz; ETag va Cache-Control")
+    void servesRepeatedRequestFromCache() throws Exception {
+        MockHttpServletResponse first = get(catalog("/v1/catalog", "season", "WINTER", "page", "1"));
+        MockHttpServletResponse second = get(catalog("/v1/catalog", "page", "1", "season", "WINTER"));
+
+        assertThat(controllerCalls).hasValue(1);
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("{\"call\":1}");
+        assertThat(second.getHeader("ETag")).isEqualTo(first.getHeader("ETag")).isNotBlank();
+        assertThat(second.getHeader("Cache-Control")).isEqualTo("public, max-age=60, stale-while-revalidate=300");
+        assertThat(second.getHeaders("Vary")).contains("Accept-Encoding");
+
+        get(catalog("/v1/catalog", "season", "SUMMER"));
+        assertThat(controllerCalls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("If-None-Match mos kelsa — 304, controller chaqirilmaydi (zaif W/ shakli ham)")
+    void answersNotModifiedWithoutController() throws Exception {
+        String etag = get(catalog("/v1/catalog/facets")).getHeader("ETag");
+
+        MockHttpServletRequest conditional = catalog("/v1/catalog/42");
+        conditional.addHeader("If-None-Match", "\"other\", W/" + etag);
+        MockHttpServletResponse response = get(conditional);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getHeader("ETag")).isEqualTo(etag);
+        assertThat(controllerCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Katalog o'zgarsa: eski ETag 304 olmaydi, javob qayta quriladi")
+    void versionBumpInvalidates() throws Exception {
+        MockHttpServletResponse before = get(catalog("/v1/catalog/42"));
+
+        version.bump();
+        MockHttpServletRequest conditional = catalog("/v1/catalog/42");
+        conditional.addHeader("If-None-Match", before.getHeader("ETag"));
+        MockHttpServletResponse after = get(conditional);
+
+        assertThat(after.getStatus()).isEqualTo(200);
+        assertThat(after.getContentAsString()).isEqualTo("{\"call\":2}");
+        assertThat(after.getHeader("ETag")).isNotEqualTo(before.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("Xato javob keshlanmaydi; scroll/suggest va POST filtrdan o'tmaydi")
+    void skipsErrorsAndOtherEndpoints() throws Exception {
+        FilterChain notFound = (request, response) -> {
+            controllerCalls.incrementAndGet();
+            ((jakarta.servlet.http.HttpServletResponse) response).setStatus(404);
+        };
+        MockHttpServletResponse missing = new MockHttpServletResponse();
+        filter.doFilter(catalog("/v1/catalog/7"), missing, notFound);
+        filter.doFilter(catalog("/v1/catalog/7"), new MockHttpServletResponse(), notFound);
+
+        assertThat(controllerCalls).hasValue(2);
+        assertThat(missing.getHeader("ETag")).isNull();
+
+        MockHttpServletResponse scroll = get(catalog("/v1/catalog/scroll"));
+        assertThat(scroll.getHeader("ETag")).isNull();
+        MockHttpServletRequest post = catalog("/v1/catalog");
+        post.setMethod("POST");
+        assertThat(get(post).getHeader("ETag")).isNull();
+    }
+
+    @Test
+    @DisplayName("SEO meta: domen kalitga va Vary'ga kiradi")
+    void seoKeyIncludesForwardedHost() throws Exception {
+        MockHttpServletRequest uz = catalog("/v1/seo/products/5");
+        uz.addHeader("X-Forwarded-Host", "protektor.uz");
+        MockHttpServletRequest staging = catalog("/v1/seo/products/5");
+        staging.addHeader("X-Forwarded-Host", "staging.protektor.uz");
+
+        MockHttpServletResponse response = get(uz);
+        get(uz);
+        get(staging);
+
+        assertThat(controllerCalls).hasValue(2);
+        assertThat(String.join(",", response.getHeaders("Vary"))).contains("X-Forwarded-Host");
+    }
+
+    // --- helpers ---
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, controller);
+        return response;
+    }
+
+    private static MockHttpServletRequest catalog(String path, String... params) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api" + path);
+        request.setContextPath("/api");
+        for (int i = 0; i < params.length; i += 2) {
+            request.addParameter(params[i], params[i + 1]);
+        }
+        return request;
+    }
+}
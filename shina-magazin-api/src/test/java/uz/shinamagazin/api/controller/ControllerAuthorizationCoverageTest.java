@@ -57,7 +57,10 @@ class ControllerAuthorizationCoverageTest {
             "CustomerPortalController",
             "AccountOrderController",
             "SessionController",
-            "StaffNotificationController"
+            "StaffNotificationController",
+            // Faqat o'z vazifalari; vazifa yaratish esa hisobot/eksport
+            // endpointlarida o'sha hisobotning ruxsati bilan
+            "ReportJobController"
     );
 
     /**
@@ -0,0 +1,159 @@
+package uz.shinamagazin.api.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uz.shinamagazin.api.entity.Brand;
+import uz.shinamagazin.api.entity.Product;
+import uz.shinamagazin.api.repository.spec.ProductSpecs;
+import uz.shinamagazin.api.service.ProductSearchTextBackfill;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matn qidiruvi {@code search_text}/{@code search_key} ustunlari orqali (H2;
+ * prod'da shu LIKE'lar pg_trgm GIN indeksidan yechiladi).
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:product-search;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductSearchTextBackfill.class)
+class ProductSearchTest {
+
+    @Autowired private ProductRepository productRepository;
+    @Autowired private BrandRepository brandRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManager entityManager;
+    @Autowired private ProductSearchTextBackfill backfill;
+
+    private Brand michelin;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        brandRepository.deleteAll();
+        michelin = brandRepository.save(Brand.builder().name("Michelin").active(true).build());
+        Brand nokian = brandRepository.save(Brand.builder().name("Nokian").active(true).build());
+        productRepository.saveAll(List.of(
+                tire("MIC-PS4", "Pilot Sport 4", michelin, 205, 55, 16),
+                tire("MIC-XI", "X-Ice North", michelin, 215, 60, 17),
+                tire("NOK-HK", "Hakkapeliitta R5", nokian, 205, 55, 16),
+                tire("PS4", "Zapasnoy disk", null, null, null, null)));
+        productRepository.flush();
+    }
+
+    @Test
+    @DisplayName("Kirillcha brend nomi lotincha brendni topadi")
+    void cyrillicBrandFindsLatin() {
+        assertThat(skus("мишлен")).containsExactlyInAnyOrder("MIC-PS4", "MIC-XI");
+        assertThat(skus("Мишлен пилот")).containsExactly("MIC-PS4");
+    }
+
+    @Test
+    @DisplayName("So'zlar istalgan tartibda, o'lcham bilan aralash")
+    void tokensInAnyOrder() {
+        assertThat(skus("205/55r16 michelin")).containsExactly("MIC-PS4");
+        assertThat(skus("r16 205")).containsExactlyInAnyOrder("MIC-PS4", "NOK-HK");
+        assertThat(skus("hakka")).containsExactly("NOK-HK");
+        assertThat(skus("bridgestone")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Aniq SKU birinchi, so'z boshidan moslik keyin")
+    void ranksExactSkuFirst() {
+        assertThat(skus("ps4")).containsExactly("PS4", "MIC-PS4");
+    }
+
+    @Test
+    @DisplayName("Aniq sort berilsa moslik tartibini bosib o'tadi; COUNT to'g'ri")
+    void explicitSortWins() {
+        Page<Product> page = productRepository.findAll(
+                Specification.allOf(ProductSpecs.activeTrue(), ProductSpecs.matchesSearch("ps4")),
+                PageRequest.of(0, 1, Sort.by("sku")));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(Product::getSku).containsExactly("MIC-PS4");
+    }
+
+    @Test
+    @DisplayName("Nom o'zgarsa qidiruv ustuni yangilanadi; faqat qoldiq o'zgarsa — tegilmaydi")
+    void recomputesOnRelevantChange() {
+        Product product = productRepository.findBySku("MIC-XI").orElseThrow();
+        product.setName("Alpin 6");
+        productRepository.saveAndFlush(product);
+
+        assertThat(skus("alpin")).containsExactly("MIC-XI");
+        assertThat(skus("ice")).isEmpty();
+
+        // Yuklangan mahsulotda faqat qoldiq o'zgaradi — ustun qayta hisoblanmaydi
+        jdbcTemplate.update("UPDATE products SET search_text = 'saqlangan' WHERE sku = 'MIC-PS4'");
+        entityManager.clear();
+        Product stocked = productRepository.findBySku("MIC-PS4").orElseThrow();
+        stocked.setQuantity(stocked.getQuantity() + 4);
+        productRepository.saveAndFlush(stocked);
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT search_text FROM products WHERE sku = 'MIC-PS4'", String.class)).isEqualTo("saqlangan");
+    }
+
+    @Test
+    @DisplayName("Eski (NULL) qatorlar ishga tushishda to'ldiriladi")
+    void backfillsNullRows() {
+        jdbcTemplate.update("UPDATE products SET search_text = NULL, search_key = NULL");
+
+        backfill.backfill();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM products WHERE search_text IS NULL", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT search_key FROM products WHERE sku = 'MIC-PS4'", String.class))
+                .isEqualTo(" plt sprt mSln ");
+    }
+
+    // --- helpers ---
+
+    private List<String> skus(String search) {
+        return productRepository.findAll(
+                        Specification.allOf(ProductSpecs.activeTrue(), ProductSpecs.matchesSearch(search)),
+                        PageRequest.of(0, 50))
+                .getContent().stream()
+                .map(Product::getSku)
+                .toList();
+    }
+
+    private static Product tire(String sku, String name, Brand brand, Integer width, Integer profile, Integer diameter) {
+        return Product.builder()
+                .sku(sku)
+                .name(name)
+                .brand(brand)
+                .width(width)
+                .profile(profile)
+                .diameter(diameter)
+                .sellingPrice(BigDecimal.valueOf(1_000_000))
+                .quantity(10)
+                .active(true)
+                .build();
+    }
+}
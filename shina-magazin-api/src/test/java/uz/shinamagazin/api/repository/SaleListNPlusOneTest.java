@@ -34,8 +34,8 @@ import static org.assertj.core.api.Assertions.assertThat;
  * <p>Muammo shu edi: `SaleResponse.from` har bir savdo uchun `customer`,
  * `createdBy`, `items` va har bir pozitsiya uchun `item.getProduct()` ga tegadi —
  * hammasi LAZY. Bundan tashqari `AuditEntityListener` har `@PostLoad`da
- * `toAuditMap()` chaqiradi, u esa `items.size()` va `payments.size()` bilan yana
- * ikkita kolleksiyani ishga tushiradi. Natijada 20 qatorlik sahifa yuzdan ortiq
+ * `toAuditMap()` chaqirardi, u esa `items.size()` va `payments.size()` bilan yana
+ * ikkita kolleksiyani ishga tushirardi. Natijada 20 qatorlik sahifa yuzdan ortiq
  * so'rov qilardi. `open-in-view` yoqiq bo'lgani uchun bu xato bermasdi — faqat
  * sekinlashardi, ya'ni ma'lumot hajmi oshgani sari sezilardi.
  *
@@ -0,0 +1,130 @@
+package uz.shinamagazin.api.repository.keyset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import uz.shinamagazin.api.entity.Brand;
+import uz.shinamagazin.api.entity.Product;
+import uz.shinamagazin.api.exception.BadRequestException;
+import uz.shinamagazin.api.repository.BrandRepository;
+import uz.shinamagazin.api.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset sahifalash: bir xil kalitli qatorlar sahifa chegarasida tushib
+ * qolmaydi va takrorlanmaydi, natija OFFSET ro'yxati bilan bir xil.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:keyset-executor;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(KeysetExecutor.class)
+class KeysetExecutorTest {
+
+    private static final Set<String> SORTABLE = Set.of("sellingPrice", "name");
+
+    @Autowired private KeysetExecutor keysetExecutor;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private BrandRepository brandRepository;
+
+    private Brand brand;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        brandRepository.deleteAll();
+        brand = brandRepository.save(Brand.builder().name("Michelin").active(true).build());
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            // Faqat 4 xil narx — sahifa chegaralari bir xil narxli qatorlar ichiga tushadi
+            products.add(Product.builder()
+                    .sku("SKU-" + i)
+                    .name("Tire " + (char) ('A' + i % 5))
+                    .brand(brand)
+                    .sellingPrice(BigDecimal.valueOf(100_000L * (1 + i % 4)))
+                    .quantity(i)
+                    .active(i != 7)
+                    .build());
+        }
+        productRepository.saveAllAndFlush(products);
+    }
+
+    @Test
+    @DisplayName("Narx bo'yicha varaqlash OFFSET ro'yxati bilan bir xil, takror va tushib qolishsiz")
+    void pagesThroughTiesWithoutGapsOrDuplicates() {
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            List<Long> expected = productRepository.findAll(Sort.by(direction, "sellingPrice")
+                            .and(Sort.by(direction, "id"))).stream()
+                    .map(Product::getId).toList();
+            assertThat(scrollAll(null, "sellingPrice," + direction, 5)).containsExactlyElementsOf(expected);
+        }
+        List<Long> byName = productRepository.findAll(Sort.by("name").and(Sort.by("id"))).stream()
+                .map(Product::getId).toList();
+        assertThat(scrollAll(null, "name,asc", 4)).containsExactlyElementsOf(byName);
+    }
+
+    @Test
+    @DisplayName("Filtr va jami son; oxirgi sahifada nextCursor yo'q")
+    void filterTotalAndLastPage() {
+        Specification<Product> active = (root, query, cb) -> cb.isTrue(root.get("active"));
+
+        KeysetSlice<Product> first = keysetExecutor.find(Product.class, active,
+                KeysetRequest.of(null, 20, "id,desc", "id,desc", true), SORTABLE, "brand");
+        assertThat(first.totalElements()).isEqualTo(22);
+        assertThat(first.content()).hasSize(20).allMatch(Product::getActive);
+        assertThat(first.hasNext()).isTrue();
+
+        KeysetSlice<Product> last = keysetExecutor.find(Product.class, active,
+                KeysetRequest.of(first.nextCursor(), 20, null, "id,desc", false), SORTABLE);
+        assertThat(last.content()).hasSize(2);
+        assertThat(last.nextCursor()).isNull();
+        assertThat(last.totalElements()).isNull();
+        assertThat(scrollAll(active, "id,desc", 20)).hasSize(22);
+    }
+
+    @Test
+    @DisplayName("Noto'g'ri cursor va ruxsat etilmagan saralash — 400")
+    void rejectsBadInput() {
+        assertThatThrownBy(() -> keysetExecutor.find(Product.class, null,
+                KeysetRequest.of("not-a-cursor", 10, null, "id,desc", false), SORTABLE))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> keysetExecutor.find(Product.class, null,
+                KeysetRequest.of(null, 10, "quantity,asc", "id,desc", false), SORTABLE))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> KeysetRequest.of(null, 500, null, "id,desc", false))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private List<Long> scrollAll(Specification<Product> spec, String sort, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetSlice<Product> slice = keysetExecutor.find(Product.class, spec,
+                    KeysetRequest.of(cursor, size, sort, "id,desc", false), SORTABLE);
+            slice.content().forEach(p -> ids.add(p.getId()));
+            cursor = slice.nextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+}
@@ -0,0 +1,138 @@
+package uz.shinamagazin.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import uz.shinamagazin.api.audit.AuditPolicy;
+import uz.shinamagazin.api.dto.response.AuditFieldChangeResponse;
+import uz.shinamagazin.api.repository.AuditLogRepository;
+import uz.shinamagazin.api.repository.EmployeeRepository;
+import uz.shinamagazin.api.repository.keyset.KeysetRequest;
+import uz.shinamagazin.api.repository.keyset.KeysetSlice;
+import uz.shinamagazin.api.support.PostgresTestDatabase;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Maydon bo'yicha audit so'rovi (V42) — jsonb operatorlari, faqat PostgreSQL:
+ * {@code changed_fields} bo'yicha, V42 gacha yozilgan (NULL) qatorlarda
+ * JSON'dan hisoblab, aniq qiymat, oraliq va keyset sahifalash.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIf("uz.shinamagazin.api.support.PostgresTestDatabase#available")
+class AuditFieldChangesPostgresTest {
+
+    private static PostgresTestDatabase database;
+
+    @Autowired private AuditLogRepository auditLogRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private AuditLogService service;
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        database = PostgresTestDatabase.create();
+        registry.add("spring.datasource.url", database::url);
+        registry.add("spring.datasource.username", database::user);
+        registry.add("spring.datasource.password", database::password);
+    }
+
+    @AfterAll
+    static void dropDatabase() {
+        if (database != null) {
+            database.drop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        service = new AuditLogService(auditLogRepository, employeeRepository,
+                new ObjectMapper().findAndRegisterModules(), new FieldLabelService(), null, null, null,
+                new AuditPolicy());
+    }
+
+    @Test
+    @DisplayName("changed_fields va V42 gacha yozilgan qatorlar; qiymat, oraliq, keyset")
+    void findsFieldChanges() {
+        long created = log(1L, "CREATE", null, "{\"name\": \"Pilot\", \"sellingPrice\": 1000}", "{name,sellingPrice}", 10);
+        long priced = log(1L, "UPDATE", "{\"sellingPrice\": 1000}", "{\"sellingPrice\": 1200}", "{sellingPrice}", 5);
+        log(1L, "UPDATE", "{\"quantity\": 5}", "{\"quantity\": 4}", "{quantity}", 4);
+        // V42 gacha: to'liq holatlar, changed_fields NULL
+        long legacyPriced = log(1L, "UPDATE", "{\"sellingPrice\": 900, \"quantity\": 5}",
+                "{\"sellingPrice\": 1000, \"quantity\": 5}", null, 20);
+        log(1L, "UPDATE", "{\"sellingPrice\": 900, \"quantity\": 5, \"note\": null}",
+                "{\"sellingPrice\": 900, \"quantity\": 6}", null, 15);
+        long other = log(2L, "UPDATE", "{\"sellingPrice\": 500}", "{\"sellingPrice\": 1500}", "{sellingPrice}", 3);
+
+        assertThat(changes(1L, null, null, 10))
+                .extracting(AuditFieldChangeResponse::getAuditLogId, AuditFieldChangeResponse::getAction,
+                        AuditFieldChangeResponse::getOldValue, AuditFieldChangeResponse::getNewValue)
+                .containsExactly(
+                        tuple(priced, "UPDATE", 1000, 1200),
+                        tuple(created, "CREATE", null, 1000),
+                        tuple(legacyPriced, "UPDATE", 900, 1000));
+        assertThat(service.findFieldChanges("Product", "sellingPrice", null, null, "1200", null, null,
+                null, null, request(null, 10)).content())
+                .extracting(AuditFieldChangeResponse::getAuditLogId).containsExactly(priced);
+        assertThat(service.findFieldChanges("Product", "sellingPrice", null, null, null,
+                new BigDecimal("1100"), null, null, null, request(null, 10)).content())
+                .extracting(AuditFieldChangeResponse::getAuditLogId).containsExactly(other, priced);
+        assertThat(service.findFieldChanges("Product", "note", 1L, null, null, null, null,
+                null, null, request(null, 10)).content()).isEmpty();
+
+        // Bittadan sahifalash — bir xil tartib
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetSlice<AuditFieldChangeResponse> slice = service.findFieldChanges("Product", "sellingPrice",
+                    1L, null, null, null, null, null, null, request(cursor, 1));
+            slice.content().forEach(change -> paged.add(change.getAuditLogId()));
+            cursor = slice.nextCursor();
+        } while (cursor != null);
+        assertThat(paged).containsExactly(priced, created, legacyPriced);
+    }
+
+    private List<AuditFieldChangeResponse> changes(Long entityId, String value, BigDecimal min, int size) {
+        return service.findFieldChanges("Product", "sellingPrice", entityId, null, value, min, null,
+                null, null, request(null, size)).content();
+    }
+
+    private static KeysetRequest request(String cursor, int size) {
+        return new KeysetRequest(cursor, size, Sort.Order.desc("createdAt"), false);
+    }
+
+    private long log(Long entityId, String action, String oldValue, String newValue, String changedFields,
+                     int minutesAgo) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO audit_logs (entity_type, entity_id, action, old_value, new_value, changed_fields, created_at)
+                VALUES ('Product', ?, ?, CAST(? AS jsonb), CAST(? AS jsonb), CAST(? AS TEXT[]), ?)
+                RETURNING id""", Long.class, entityId, action, oldValue, newValue, changedFields,
+                Timestamp.valueOf(now.minusMinutes(minutesAgo)));
+    }
+}
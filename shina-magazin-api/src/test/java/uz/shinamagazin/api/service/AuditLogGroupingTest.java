@@ -0,0 +1,151 @@
+package uz.shinamagazin.api.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uz.shinamagazin.api.dto.response.AuditLogGroupResponse;
+import uz.shinamagazin.api.exception.BadRequestException;
+import uz.shinamagazin.api.repository.AuditLogRepository;
+import uz.shinamagazin.api.repository.keyset.KeysetRequest;
+import uz.shinamagazin.api.repository.keyset.KeysetSlice;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Guruhlangan audit: guruhlar bazada aniqlanadi, cursor guruh chegarasidan
+ * davom etadi va sahifa faqat o'z guruhlari yozuvlarini o'qiydi.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:audit-log-grouping;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF",
+        "logging.level.org.hibernate.stat=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class AuditLogGroupingTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private AuditLogRepository auditLogRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private AuditLogService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AuditLogService(auditLogRepository, null, null, null, null, null, null, null);
+
+        UUID sale = UUID.randomUUID();
+        UUID order = UUID.randomUUID();
+        UUID stock = UUID.randomUUID();
+        // A: bitta operatsiya (correlation)
+        log("Sale", 1L, "kassir1", sale, 0);
+        log("Payment", 1L, "kassir1", sale, 0);
+        // B: bitta foydalanuvchi, oraliqlar <= 3 s
+        log("Product", 1L, "kassir1", null, 10);
+        log("Product", 1L, "kassir1", null, 11);
+        log("Product", 1L, "kassir1", null, 12.5);
+        // C: boshqa foydalanuvchi; D: 7 s keyin
+        log("Customer", 2L, "kassir2", null, 13);
+        log("Customer", 2L, "kassir2", null, 20);
+        // E: correlation, yozuvlari orasida F tushadi
+        log("PurchaseOrder", 1L, "kassir1", order, 21);
+        log("Product", 1L, "kassir1", null, 22);
+        log("PurchasePayment", 1L, "kassir1", order, 30);
+        // G: -40 va -42 bitta guruh, H (correlation) -41 da ular orasida; I — oxirgi
+        log("Brand", 1L, "kassir1", null, 40);
+        log("StockMovement", 1L, "kassir1", stock, 41);
+        log("Brand", 1L, "kassir1", null, 42);
+        log("Category", 3L, "admin", null, 50);
+    }
+
+    @Test
+    @DisplayName("Cursor guruh bo'yicha: har guruh bir marta, yozuvlari to'liq")
+    void scrollWalksGroups() {
+        List<List<Integer>> pages = new ArrayList<>();
+        List<AuditLogGroupResponse> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetSlice<AuditLogGroupResponse> slice = service.scrollGroupedAuditLogs(null, null, null, null,
+                    KeysetRequest.of(cursor, 2, null, "createdAt,desc", false));
+            pages.add(slice.content().stream().map(AuditLogGroupResponse::getLogCount).toList());
+            all.addAll(slice.content());
+            cursor = slice.nextCursor();
+        } while (cursor != null);
+
+        // A B | C D | E F | G H | I — G'ning -42 yozuvi H'dan keyingi sahifada alohida guruh bo'lmaydi
+        assertThat(pages).containsExactly(List.of(2, 3), List.of(1, 1), List.of(2, 1), List.of(2, 1), List.of(1));
+        assertThat(all).extracting(g -> g.getTimestamp().toLocalTime().toSecondOfDay() % 60)
+                .containsExactly(0, 50, 47, 40, 39, 38, 20, 19, 10);
+        assertThat(all.get(0).getCorrelationId()).isNotNull();
+        assertThat(all.get(0).getPrimaryAction()).isEqualTo("Sotuv yaratish");
+        assertThat(all.get(4).getEntityTypes()).containsExactlyInAnyOrder("PurchaseOrder", "PurchasePayment");
+        assertThat(all.stream().mapToInt(AuditLogGroupResponse::getLogCount).sum()).isEqualTo(14);
+    }
+
+    @Test
+    @DisplayName("Keyingi sahifa: uchta so'rov, faqat sahifa yozuvlari")
+    void pageReadsOnlyItsLogs() {
+        KeysetSlice<AuditLogGroupResponse> first = service.scrollGroupedAuditLogs(null, null, null, null,
+                KeysetRequest.of(null, 4, null, "createdAt,desc", false));
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        KeysetSlice<AuditLogGroupResponse> second = service.scrollGroupedAuditLogs(null, null, null, null,
+                KeysetRequest.of(first.nextCursor(), 4, null, "createdAt,desc", false));
+
+        // boshlar, correlation guruhlari, vaqt guruhlari diapazoni
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(6);
+        assertThat(second.content()).extracting(AuditLogGroupResponse::getLogCount).containsExactly(2, 1, 2, 1);
+    }
+
+    @Test
+    @DisplayName("Sahifa raqamli rejim va qidiruv ham bazadagi guruhlardan")
+    void pagedAndSearch() {
+        Page<AuditLogGroupResponse> page = service.searchGroupedAuditLogs(null, null, null, null, PageRequest.of(1, 3));
+        assertThat(page.getTotalElements()).isEqualTo(9);
+        assertThat(page.getContent()).extracting(AuditLogGroupResponse::getLogCount).containsExactly(1, 2, 1);
+
+        Page<AuditLogGroupResponse> search = service.searchGroupedAuditLogs(null, null, null, "KASSIR2", PageRequest.of(0, 20));
+        assertThat(search.getTotalElements()).isEqualTo(2);
+        assertThat(search.getContent()).allSatisfy(g -> assertThat(g.getUsername()).isEqualTo("kassir2"));
+
+        assertThatThrownBy(() -> service.scrollGroupedAuditLogs(null, null, null, null,
+                KeysetRequest.of("bm90LWEtY3Vyc29y", 2, null, "createdAt,desc", false)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    /** JDBC orqali — entity {@code @PrePersist} vaqtni hozirgisiga almashtiradi. */
+    private void log(String entityType, Long userId, String username, UUID correlationId, double secondsAgo) {
+        jdbcTemplate.update("INSERT INTO audit_logs (entity_type, entity_id, action, user_id, username, "
+                        + "correlation_id, created_at) VALUES (?, 1, 'CREATE', ?, ?, ?, ?)",
+                entityType, userId, username, correlationId,
+                Timestamp.valueOf(BASE.minusNanos((long) (secondsAgo * 1_000_000_000L))));
+    }
+}
@@ -0,0 +1,186 @@
+package uz.shinamagazin.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+import uz.shinamagazin.api.dto.response.ChartDataResponse;
+import uz.shinamagazin.api.repository.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * {@code getChartData} so'rovlari parallel bajarilishi — kechikish o'lchovi.
+ *
+ * <p>Har bir repozitoriy chaqiruvi {@value #QUERY_MS} ms "uxlaydi" (sekin
+ * agregat so'rov o'rnida). O'n ikkita so'rov ketma-ket bo'lsa ~12×, to'rtta
+ * oqimda esa ~3× chiqadi. Bir vaqtda ishlayotgan so'rovlar soni ham
+ * o'lchanadi: u sozlangan parallellikdan oshsa, dashboard kassa
+ * tranzaksiyalarining ulanishlarini egallab qo'yardi.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DashboardChartFanOutTest {
+
+    private static final long QUERY_MS = 40;
+    private static final int QUERIES = 12;
+
+    @Mock private SaleRepository saleRepository;
+    @Mock private SaleItemRepository saleItemRepository;
+    @Mock private ProductRepository productRepository;
+    @Mock private CustomerRepository customerRepository;
+    @Mock private DebtRepository debtRepository;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger callerRuns = new AtomicInteger();
+    private DashboardService service;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(slow(List.of())).when(saleRepository).getSalesTrend(any());
+        doAnswer(slow(List.of())).when(saleRepository).getPaymentMethodStats(any());
+        doAnswer(slow(List.of())).when(saleRepository).getWeekdaySales(any());
+        doAnswer(slow(List.of())).when(saleRepository).getHourlySales(any(), any());
+        doAnswer(slow(BigDecimal.TEN)).when(saleRepository).getRevenueForPeriod(any(), any());
+        doAnswer(slow(3L)).when(saleRepository).getSalesCountForPeriod(any(), any());
+        doAnswer(slow(List.of())).when(saleItemRepository).getTopProductsByRevenue(any(), any());
+        doAnswer(slow(List.of())).when(saleItemRepository).getCategorySales(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.stopQueryExecutor();
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel so'rovlar ketma-ketdan sezilarli tez")
+    void parallelFanOutBeatsSequential() {
+        long sequential = measure(1);
+        assertThat(maxInFlight).hasValue(1);
+
+        maxInFlight.set(0);
+        long parallel = measure(4);
+
+        assertThat(sequential).isGreaterThanOrEqualTo(QUERIES * QUERY_MS);
+        assertThat(parallel)
+                .as("12 ta so'rov 4 oqimda ~3 bosqich — ketma-ketning yarmidan kam bo'lishi kerak")
+                .isLessThan(sequential / 2);
+    }
+
+    @Test
+    @DisplayName("Bir vaqtdagi so'rovlar soni sozlangan parallellikdan oshmaydi")
+    void concurrencyIsCapped() {
+        measure(3);
+
+        assertThat(maxInFlight.get()).isBetween(2, 3);
+    }
+
+    @Test
+    @DisplayName("Navbat to'lsa so'rov chaqiruvchida bajariladi, chegara baribir saqlanadi")
+    void overflowRunsOnCallerWithinCap() throws Exception {
+        DashboardService s = start(3);
+        int callers = 8; // 8 × 12 so'rov — 64 o'rinli navbatdan ko'p
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<ChartDataResponse>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    go.await();
+                    return s.getChartData(7);
+                }));
+            }
+            go.countDown();
+            for (Future<ChartDataResponse> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS).getThisWeekRevenue()).isEqualByComparingTo("10");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(callerRuns.get()).as("rad etilgan vazifalar chaqiruvchida").isPositive();
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Natija ketma-ket hisobdagi bilan bir xil")
+    void resultIsAssembled() {
+        ChartDataResponse charts = start(4).getChartData(7);
+
+        assertThat(charts.getSalesTrend()).hasSize(7);
+        assertThat(charts.getHourlySales()).hasSize(15);
+        assertThat(charts.getThisWeekRevenue()).isEqualByComparingTo("10");
+        assertThat(charts.getRevenueGrowthPercent()).isZero();
+        assertThat(charts.getSalesGrowthPercent()).isZero();
+    }
+
+    @Test
+    @DisplayName("So'rov xatosi asl turida chiqadi")
+    void queryFailureIsPropagated() {
+        doThrow(new IllegalStateException("db down")).when(saleRepository).getWeekdaySales(any());
+
+        assertThatThrownBy(() -> start(4).getChartData(30))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("db down");
+    }
+
+    // --- helpers ---
+
+    private long measure(int parallelism) {
+        DashboardService s = start(parallelism);
+        s.getChartData(30); // isitish: oqimlar yaratilsin
+        long begin = System.nanoTime();
+        s.getChartData(30);
+        return (System.nanoTime() - begin) / 1_000_000;
+    }
+
+    private DashboardService start(int parallelism) {
+        if (service != null) {
+            service.stopQueryExecutor();
+        }
+        service = new DashboardService(saleRepository, saleItemRepository, productRepository,
+                customerRepository, debtRepository);
+        ReflectionTestUtils.setField(service, "queryParallelism", parallelism);
+        service.startQueryExecutor();
+        return service;
+    }
+
+    private Answer<Object> slow(Object result) {
+        return inv -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            if (!Thread.currentThread().getName().startsWith("dashboard-query-")) {
+                callerRuns.incrementAndGet();
+            }
+            try {
+                Thread.sleep(QUERY_MS);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return result;
+        };
+    }
+}
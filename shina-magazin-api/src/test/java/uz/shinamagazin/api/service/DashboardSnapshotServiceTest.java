@@ -0,0 +1,120 @@
+package uz.shinamagazin.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import uz.shinamagazin.api.dto.response.ChartDataResponse;
+import uz.shinamagazin.api.dto.response.DashboardSnapshotResponse;
+import uz.shinamagazin.api.dto.response.DashboardStatsResponse;
+import uz.shinamagazin.api.event.SaleChangedEvent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Jonli dashboard: baza yuki tomoshabinlar soniga bog'liq bo'lmasligi kerak.
+ *
+ * <p>Ilgari har bir ochiq tab {@code getStats}/{@code getChartData} ni o'zi
+ * so'rardi. Bu testlar REST so'rovlari nusxadan berilishini va savdo
+ * hodisalari to'lqini birlashtirilishini qulflaydi.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DashboardSnapshotServiceTest {
+
+    @Mock private DashboardService dashboardService;
+    @Mock private SimpMessagingTemplate messagingTemplate;
+
+    private DashboardSnapshotService service;
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        service = new DashboardSnapshotService(dashboardService, messagingTemplate);
+        ReflectionTestUtils.setField(service, "chartDays", 30);
+
+        when(dashboardService.getStats()).thenAnswer(inv -> {
+            builds.incrementAndGet();
+            return DashboardStatsResponse.builder().todaySalesCount(builds.get()).build();
+        });
+        when(dashboardService.getChartData(30)).thenReturn(new ChartDataResponse());
+    }
+
+    @Test
+    @DisplayName("Ko'p REST so'rovi — bitta hisoblash")
+    void restRequestsShareOneSnapshot() {
+        DashboardSnapshotResponse first = service.getSnapshot();
+        for (int i = 0; i < 50; i++) {
+            assertThat(service.getSnapshot()).isSameAs(first);
+        }
+
+        assertThat(builds).as("50 ta tab bazaga 50 marta bormasligi kerak").hasValue(1);
+        verify(dashboardService, times(1)).getChartData(30);
+    }
+
+    @Test
+    @DisplayName("Savdo hodisasi nusxani yangilaydi va topic'ga yuboradi")
+    void saleEventRefreshesAndBroadcasts() {
+        DashboardSnapshotResponse before = service.getSnapshot();
+
+        service.onSaleChanged(new SaleChangedEvent(1L));
+
+        DashboardSnapshotResponse after = service.getSnapshot();
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.getStats().getTodaySalesCount()).isEqualTo(2);
+        verify(messagingTemplate).convertAndSend(eq(DashboardSnapshotService.DESTINATION), same(after));
+    }
+
+    @Test
+    @DisplayName("Hisoblash paytida kelgan hodisalar bitta qayta hisoblashga birlashadi")
+    void eventsDuringRefreshAreCoalesced() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            if (builds.incrementAndGet() == 1) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return new DashboardStatsResponse();
+        }).when(dashboardService).getStats();
+
+        Thread slow = new Thread(() -> service.onSaleChanged(new SaleChangedEvent(1L)));
+        slow.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 20; i++) {
+            service.onSaleChanged(new SaleChangedEvent((long) i));
+        }
+        release.countDown();
+        slow.join(5_000);
+
+        assertThat(builds)
+                .as("20 ta savdo hodisasi — birinchi hisoblashdan keyin faqat bitta qo'shimcha")
+                .hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Hisoblash xatosi eski nusxani o'chirmaydi")
+    void failedRefreshKeepsPreviousSnapshot() {
+        DashboardSnapshotResponse before = service.getSnapshot();
+        doThrow(new IllegalStateException("db down")).when(dashboardService).getStats();
+
+        service.scheduledRefresh();
+
+        assertThat(service.getSnapshot()).isSameAs(before);
+        verify(messagingTemplate, times(1)).convertAndSend(eq(DashboardSnapshotService.DESTINATION), any(Object.class));
+    }
+}
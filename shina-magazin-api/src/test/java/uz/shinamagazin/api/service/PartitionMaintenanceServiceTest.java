@@ -0,0 +1,64 @@
+package uz.shinamagazin.api.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Bo'limlar funksiyalari (V41) faqat PostgreSQL'da — H2'da xizmat bo'lim
+ * yaratishga urinmaydi, saqlash muddati esa qatorlarni o'chiradi.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:partition-maintenance;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PartitionMaintenanceServiceTest {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("PostgreSQL bo'lmasa: bo'lim yaratilmaydi, muddat DELETE bilan")
+    void fallsBackToDeleteOutsidePostgres() {
+        LocalDateTime now = LocalDateTime.now();
+        attempt("eski", now.minusDays(120));
+        attempt("chegara", now.minusDays(91));
+        attempt("yangi", now.minusDays(10));
+        PartitionMaintenanceService service = new PartitionMaintenanceService(jdbcTemplate, 3, 90, 0);
+
+        assertThat(service.ensurePartitions()).isZero();
+        assertThat(service.dropOlderThan("login_attempts", now.minusDays(90))).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT username FROM login_attempts", String.class))
+                .containsExactly("yangi");
+    }
+
+    @Test
+    @DisplayName("Faqat bo'limlangan jadvallar — ixtiyoriy jadval nomi SQL'ga tushmaydi")
+    void rejectsUnknownTable() {
+        PartitionMaintenanceService service = new PartitionMaintenanceService(jdbcTemplate, 3, 90, 0);
+
+        assertThatThrownBy(() -> service.dropOlderThan("users", LocalDateTime.now()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void attempt(String username, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO login_attempts (username, ip_address, status, created_at) VALUES (?, ?, ?, ?)",
+                username, "127.0.0.1", "FAILED", Timestamp.valueOf(createdAt));
+    }
+}
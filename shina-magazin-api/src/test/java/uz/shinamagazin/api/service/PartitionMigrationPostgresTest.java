@@ -0,0 +1,132 @@
+package uz.shinamagazin.api.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uz.shinamagazin.api.support.PostgresTestDatabase;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * V41 migratsiyasi va bo'limlarga texnik xizmat haqiqiy PostgreSQL'da:
+ * mavjud qatorlar bo'limlarga ko'chadi, id ketma-ketligi, PK, indeks va
+ * tashqi kalitlar saqlanadi, saqlash muddati default bo'limni ham tozalaydi.
+ * Baza — {@link PostgresTestDatabase}.
+ */
+@EnabledIf("uz.shinamagazin.api.support.PostgresTestDatabase#available")
+class PartitionMigrationPostgresTest {
+
+    private static PostgresTestDatabase database;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void createDatabase() {
+        database = PostgresTestDatabase.create();
+        jdbc = database.jdbcTemplate();
+    }
+
+    @AfterAll
+    static void dropDatabase() {
+        if (database != null) {
+            database.drop();
+        }
+    }
+
+    @Test
+    @DisplayName("V41: ma'lumot bilan bo'limlarga o'tkazish, keyin muddat default bo'limni ham tozalaydi")
+    void migratesAndPrunesDefaultPartition() {
+        migrate("40");
+        LocalDateTime now = LocalDateTime.now();
+        long userId = jdbc.queryForObject("INSERT INTO users (username, password, full_name, role) "
+                + "VALUES ('admin_pt', 'x', 'Admin', 'ADMIN') RETURNING id", Long.class);
+        long productId = jdbc.queryForObject("INSERT INTO products (sku, name, selling_price) "
+                + "VALUES ('PT-1', 'Shina', 1000) RETURNING id", Long.class);
+        attempt("uch-yil-oldin", now.minusYears(3));
+        attempt("besh-oy-oldin", now.minusMonths(5));
+        attempt("bugun", now);
+        attempt("kelajak", now.plusYears(2));
+        jdbc.update("INSERT INTO audit_logs (entity_type, entity_id, action, new_value, user_id, created_at) "
+                + "VALUES ('Product', ?, 'CREATE', '{\"name\": \"Shina\"}'::jsonb, ?, ?)", productId, userId, ts(now));
+        jdbc.update("INSERT INTO stock_movements (product_id, movement_type, quantity, previous_stock, new_stock, "
+                + "created_by, created_at) VALUES (?, 'IN', 5, 0, 5, ?, ?)", productId, userId, ts(now.minusMonths(2)));
+        List<Long> idsBefore = jdbc.queryForList("SELECT id FROM login_attempts ORDER BY id", Long.class);
+        List<String> indexesBefore = indexes("login_attempts");
+        List<String> foreignKeysBefore = foreignKeys("stock_movements");
+
+        migrate("latest");
+
+        for (String table : PartitionMaintenanceService.PARTITIONED_TABLES) {
+            assertThat(jdbc.queryForObject("SELECT count(*) FROM pg_partitioned_table WHERE partrelid = ?::regclass",
+                    Long.class, table)).as(table).isEqualTo(1);
+            assertThat(jdbc.queryForObject("SELECT pg_get_constraintdef(oid) FROM pg_constraint "
+                    + "WHERE conrelid = ?::regclass AND contype = 'p'", String.class, table))
+                    .as(table).isEqualTo("PRIMARY KEY (id, created_at)");
+        }
+        assertThat(jdbc.queryForList("SELECT id FROM login_attempts ORDER BY id", Long.class)).isEqualTo(idsBefore);
+        assertThat(indexes("login_attempts")).containsAll(indexesBefore);
+        assertThat(jdbc.queryForList("SELECT username FROM login_attempts_default", String.class))
+                .containsExactly("kelajak");
+        assertThat(foreignKeys("stock_movements")).isNotEmpty().isEqualTo(foreignKeysBefore);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM audit_logs", Long.class)).isEqualTo(1);
+        long next = jdbc.queryForObject("INSERT INTO login_attempts (username, ip_address, status) "
+                + "VALUES ('yangi', '127.0.0.1', 'SUCCESS') RETURNING id", Long.class);
+        assertThat(next).isGreaterThan(idsBefore.get(idsBefore.size() - 1));
+
+        PartitionMaintenanceService service = new PartitionMaintenanceService(jdbc, 3, 90, 0);
+        assertThat(service.ensurePartitions()).isZero();
+        assertThat(service.defaultPartitionRows("login_attempts")).isEqualTo(1);
+
+        service.dropOlderThan("login_attempts", now.minusDays(90));
+        // Bo'limi o'chirilgan oyga kechikib yozilgan qator default'ga tushadi — keyingi tozalash uni ham oladi
+        attempt("kechikkan", now.minusYears(2));
+        assertThat(service.defaultPartitionRows("login_attempts")).isEqualTo(2);
+        service.maintain();
+
+        assertThat(jdbc.queryForList("SELECT username FROM login_attempts ORDER BY created_at", String.class))
+                .containsExactly("bugun", "yangi", "kelajak");
+        assertThat(service.defaultPartitionRows("login_attempts")).isEqualTo(1);
+        // Muddat chegarasidagi oydan joriy oy + 3 gacha, va default
+        long months = ChronoUnit.MONTHS.between(YearMonth.from(now.minusDays(90)), YearMonth.from(now).plusMonths(3)) + 1;
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM pg_inherits "
+                + "WHERE inhparent = 'login_attempts'::regclass", Long.class))
+                .isEqualTo(months + 1);
+    }
+
+    private static void migrate(String target) {
+        Flyway.configure()
+                .dataSource(database.url(), database.user(), database.password())
+                .locations("classpath:db/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private List<String> indexes(String table) {
+        return jdbc.queryForList("SELECT indexname FROM pg_indexes WHERE tablename = ? AND indexname NOT LIKE '%pkey'",
+                String.class, table);
+    }
+
+    private List<String> foreignKeys(String table) {
+        return jdbc.queryForList("SELECT pg_get_constraintdef(oid) FROM pg_constraint "
+                + "WHERE conrelid = ?::regclass AND contype = 'f' ORDER BY 1", String.class, table);
+    }
+
+    private void attempt(String username, LocalDateTime createdAt) {
+        jdbc.update("INSERT INTO login_attempts (username, ip_address, status, created_at) VALUES (?, ?, ?, ?)",
+                username, "127.0.0.1", "FAILED", ts(createdAt));
+    }
+
+    private static Timestamp ts(LocalDateTime value) {
+        return Timestamp.valueOf(value);
+    }
+}
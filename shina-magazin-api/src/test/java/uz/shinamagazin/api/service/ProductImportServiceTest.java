@@ -23,6 +23,9 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 /**
  * Excel import.
@@ -58,6 +61,7 @@ class ProductImportServiceTest {
     @Autowired private BrandRepository brandRepository;
     @Autowired private CategoryRepository categoryRepository;
 
+    private final AuditLogService auditLogService = mock(AuditLogService.class);
     private ProductImportService service;
 
     @BeforeEach
@@ -66,7 +70,7 @@ class ProductImportServiceTest {
         brandRepository.deleteAll();
         brandRepository.saveAndFlush(Brand.builder().name("Michelin").active(true).build());
 
-        service = new ProductImportService(productRepository, brandRepository, categoryRepository);
+        service = new ProductImportService(productRepository, brandRepository, categoryRepository, auditLogService);
     }
 
     @Test
@@ -104,6 +108,8 @@ class ProductImportServiceTest {
         assertThat(productRepository.findBySku("MCH-1"))
                 .get()
                 .satisfies(p -> assertThat(p.getName()).isEqualTo("Yangi nom"));
+        // Har import — bitta yakuniy audit yozuvi
+        verify(auditLogService, times(2)).logBulk(eq("Product"), eq("IMPORT"), anyMap());
     }
 
     @Test
@@ -120,6 +126,7 @@ class ProductImportServiceTest {
         assertThat(productRepository.findAll())
                 .as("lekin baza o'zgarmaydi")
                 .isEmpty();
+        verifyNoInteractions(auditLogService);
     }
 
     // Bu shartnomaning mag'zi: 2 ta to'g'ri qator va 1 ta xato qator bo'lsa,
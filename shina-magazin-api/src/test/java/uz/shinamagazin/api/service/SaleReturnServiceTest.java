@@ -82,7 +82,7 @@ class SaleReturnServiceTest {
                 new CashShiftService(shiftRepository, userRepository, saleReturnRepository, expenseRepository);
         service = new SaleReturnService(saleReturnRepository, saleRepository, saleItemRepository,
                 productRepository, stockMovementRepository, customerRepository, userRepository,
-                new SequentialNumbers(), shiftService);
+                new SequentialNumbers(), shiftService, event -> { });
     }
 
     @Test
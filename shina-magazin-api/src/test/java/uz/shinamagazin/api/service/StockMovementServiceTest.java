@@ -22,6 +22,7 @@ import uz.shinamagazin.api.repository.ProductRepository;
 import uz.shinamagazin.api.repository.StockMovementRepository;
 import uz.shinamagazin.api.repository.SupplierRepository;
 import uz.shinamagazin.api.repository.UserRepository;
+import uz.shinamagazin.api.repository.keyset.KeysetExecutor;
 import uz.shinamagazin.api.security.CustomUserDetails;
 
 import java.util.Optional;
@@ -54,6 +55,7 @@ class StockMovementServiceTest {
     @Mock private ProductRepository productRepository;
     @Mock private UserRepository userRepository;
     @Mock private SupplierRepository supplierRepository;
+    @Mock private KeysetExecutor keysetExecutor;
 
     private StockMovementService service;
     private Product product;
@@ -61,7 +63,7 @@ class StockMovementServiceTest {
     @BeforeEach
     void setUp() {
         service = new StockMovementService(
-                stockMovementRepository, productRepository, userRepository, supplierRepository);
+                stockMovementRepository, productRepository, userRepository, supplierRepository, keysetExecutor);
 
         product = Product.builder().name("Michelin Primacy 4").quantity(10).build();
         when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
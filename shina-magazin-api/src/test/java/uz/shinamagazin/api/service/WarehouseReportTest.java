@@ -0,0 +1,253 @@
+package uz.shinamagazin.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import uz.shinamagazin.api.dto.response.WarehouseReportResponse;
+import uz.shinamagazin.api.entity.*;
+import uz.shinamagazin.api.enums.MovementType;
+import uz.shinamagazin.api.enums.Role;
+import uz.shinamagazin.api.repository.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ombor hisoboti.
+ *
+ * <p>Hisobot endi bazadagi guruhlashdan quriladi (ilgari hamma faol mahsulot
+ * va davrdagi hamma harakat xotiraga yuklanardi). Bu testlar SQL yig'indilari
+ * eski xotiradagi hisob bilan bir xil natija berishini qulflaydi.
+ *
+ * <p>{@code hibernate.jdbc.time_zone} JVM zonasiga tenglanadi: prod'da
+ * ikkalasi ham Toshkent ({@code TimezoneConfig}), test JVM esa boshqa zonada
+ * bo'lishi mumkin — aks holda kunlik guruhlash yarim tunga yaqin bir kunga
+ * siljirdi.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:warehouse-report;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class WarehouseReportTest {
+
+    @Autowired private SaleRepository saleRepository;
+    @Autowired private SaleReturnRepository saleReturnRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private StockMovementRepository stockMovementRepository;
+    @Autowired private DebtRepository debtRepository;
+    @Autowired private PaymentRepository paymentRepository;
+    @Autowired private ExpenseRepository expenseRepository;
+    @Autowired private BrandRepository brandRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private UserRepository userRepository;
+
+    private ReportService service;
+    private User user;
+    private Brand michelin;
+    private Brand bridgestone;
+    private Category summer;
+    private int seq;
+
+    // Harakatlarning `createdAt` ni JPA auditing "hozir" qilib qo'yadi,
+    // shuning uchun davr bugun atrofida olinadi.
+    private final LocalDate today = LocalDate.now();
+
+    @DynamicPropertySource
+    static void jdbcTimeZone(DynamicPropertyRegistry registry) {
+        registry.add("spring.jpa.properties.hibernate.jdbc.time_zone", () -> TimeZone.getDefault().getID());
+    }
+
+    @BeforeEach
+    void setUp() {
+        stockMovementRepository.deleteAll();
+        productRepository.deleteAll();
+        brandRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+
+        service = new ReportService(saleRepository, productRepository, stockMovementRepository,
+                debtRepository, paymentRepository, expenseRepository, saleReturnRepository);
+        user = userRepository.saveAndFlush(user());
+        michelin = brandRepository.saveAndFlush(Brand.builder().name("Michelin").build());
+        bridgestone = brandRepository.saveAndFlush(Brand.builder().name("Bridgestone").build());
+        summer = categoryRepository.saveAndFlush(Category.builder().name("Yozgi").build());
+    }
+
+    @Test
+    @DisplayName("Umumiy ko'rsatkichlar: soni, qoldiq, kam qolgan, tugagan, qiymat")
+    void totalsAreAggregated() {
+        product(michelin, summer, 10, 5, "700000", "1000000");
+        product(michelin, summer, 3, 5, "500000", "800000");     // kam qolgan
+        product(bridgestone, null, 0, 5, "400000", "600000");    // tugagan
+        Product inactive = product(bridgestone, null, 50, 5, "100", "200");
+        inactive.setActive(false);
+        productRepository.saveAndFlush(inactive);
+
+        WarehouseReportResponse report = report();
+
+        assertThat(report.getTotalProducts()).as("nofaol mahsulot sanalmaydi").isEqualTo(3);
+        assertThat(report.getTotalStock()).isEqualTo(13);
+        assertThat(report.getLowStockCount())
+                .as("tugagan mahsulot 'kam qolgan' emas — u alohida sanaladi")
+                .isEqualTo(1);
+        assertThat(report.getOutOfStockCount()).isEqualTo(1);
+        assertThat(report.getTotalStockValue()).isEqualByComparingTo("8500000");
+        assertThat(report.getTotalPotentialRevenue()).isEqualByComparingTo("12400000");
+    }
+
+    @Test
+    @DisplayName("Xarid narxi noma'lum mahsulot qiymatga nol bo'lib kiradi")
+    void unknownPurchasePriceCountsAsZero() {
+        product(michelin, summer, 10, 5, "700000", "1000000");
+        product(michelin, summer, 4, 1, null, "800000");
+
+        WarehouseReportResponse report = report();
+
+        assertThat(report.getTotalStockValue()).isEqualByComparingTo("7000000");
+        assertThat(report.getStockByBrand().get(0).getStockValue()).isEqualByComparingTo("7000000");
+        assertThat(report.getStockByBrand().get(0).getProductCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Brend va kategoriya kesimi qoldiq bo'yicha kamayish tartibida")
+    void stockIsGroupedByBrandAndCategory() {
+        product(michelin, summer, 10, 5, "700000", "1000000");
+        product(bridgestone, summer, 30, 5, "500000", "800000");
+        product(bridgestone, null, 5, 1, "400000", "600000");
+
+        WarehouseReportResponse report = report();
+
+        assertThat(report.getStockByBrand())
+                .extracting(WarehouseReportResponse.StockByBrand::getBrandName)
+                .containsExactly("Bridgestone", "Michelin");
+        WarehouseReportResponse.StockByBrand top = report.getStockByBrand().get(0);
+        assertThat(top.getProductCount()).isEqualTo(2);
+        assertThat(top.getTotalStock()).isEqualTo(35);
+        assertThat(top.getStockValue()).isEqualByComparingTo("17000000");
+
+        assertThat(report.getStockByCategory())
+                .as("kategoriyasiz mahsulot kategoriya kesimiga kirmaydi")
+                .singleElement()
+                .satisfies(c -> {
+                    assertThat(c.getCategoryName()).isEqualTo("Yozgi");
+                    assertThat(c.getProductCount()).isEqualTo(2);
+                    assertThat(c.getTotalStock()).isEqualTo(40);
+                });
+    }
+
+    @Test
+    @DisplayName("Kam qolganlar ro'yxati qoldiq bo'yicha o'sish tartibida va 20 ta bilan cheklangan")
+    void lowStockListIsSortedAndLimited() {
+        for (int i = 0; i < 25; i++) {
+            product(michelin, summer, 25 - i, 30, "1000", "2000");
+        }
+        product(michelin, summer, 100, 5, "1000", "2000");
+
+        WarehouseReportResponse report = report();
+
+        assertThat(report.getLowStockProducts()).hasSize(20);
+        assertThat(report.getLowStockProducts().get(0).getCurrentStock()).isEqualTo(1);
+        assertThat(report.getLowStockProducts())
+                .extracting(WarehouseReportResponse.LowStockProduct::getCurrentStock)
+                .isSorted();
+    }
+
+    @Test
+    @DisplayName("Harakatlar kunlar va tur bo'yicha yig'iladi, ADJUSTMENT hisobga olinmaydi")
+    void movementsAreSummarizedPerDay() {
+        Product p = product(michelin, summer, 10, 5, "700000", "1000000");
+        LocalDate movementDay = movement(p, MovementType.IN, 20);
+        movement(p, MovementType.IN, 5);
+        movement(p, MovementType.OUT, -7);
+        movement(p, MovementType.ADJUSTMENT, -2);
+
+        WarehouseReportResponse report = report();
+
+        assertThat(report.getTotalIncoming()).isEqualTo(25);
+        assertThat(report.getTotalOutgoing()).as("OUT miqdori musbat ko'rsatiladi").isEqualTo(7);
+        assertThat(report.getInMovementsCount()).isEqualTo(2);
+        assertThat(report.getOutMovementsCount()).isEqualTo(1);
+
+        assertThat(report.getRecentMovements()).as("davrning har bir kuni bor").hasSize(3);
+        WarehouseReportResponse.MovementSummary day = report.getRecentMovements().stream()
+                .filter(m -> m.getDate().equals(movementDay.toString()))
+                .findFirst().orElseThrow();
+        assertThat(day.getInCount()).isEqualTo(2);
+        assertThat(day.getInQuantity()).isEqualTo(25);
+        assertThat(day.getOutCount()).isEqualTo(1);
+        assertThat(day.getOutQuantity()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Bo'sh ombor — nollar, xato emas")
+    void emptyWarehouse() {
+        WarehouseReportResponse report = report();
+
+        assertThat(report.getTotalProducts()).isZero();
+        assertThat(report.getTotalStock()).isZero();
+        assertThat(report.getTotalStockValue()).isEqualByComparingTo("0");
+        assertThat(report.getStockByBrand()).isEmpty();
+        assertThat(report.getLowStockProducts()).isEmpty();
+    }
+
+    // --- helpers ---
+
+    private WarehouseReportResponse report() {
+        return service.getWarehouseReport(today.minusDays(1), today.plusDays(1));
+    }
+
+    private Product product(Brand brand, Category category, int quantity, int minStock,
+                            String purchasePrice, String sellingPrice) {
+        Product p = new Product();
+        p.setName("Shina " + (++seq));
+        p.setSku("SKU-" + seq);
+        p.setBrand(brand);
+        p.setCategory(category);
+        p.setQuantity(quantity);
+        p.setMinStockLevel(minStock);
+        p.setPurchasePrice(purchasePrice == null ? null : new BigDecimal(purchasePrice));
+        p.setSellingPrice(new BigDecimal(sellingPrice));
+        p.setActive(true);
+        return productRepository.saveAndFlush(p);
+    }
+
+    private LocalDate movement(Product product, MovementType type, int quantity) {
+        StockMovement m = StockMovement.builder()
+                .product(product)
+                .movementType(type)
+                .quantity(quantity)
+                .previousStock(0)
+                .newStock(0)
+                .createdBy(user)
+                .build();
+        m.setCreatedAt(LocalDateTime.now());
+        return stockMovementRepository.saveAndFlush(m).getCreatedAt().toLocalDate();
+    }
+
+    private static User user() {
+        User u = new User();
+        u.setUsername("omborchi");
+        u.setPassword("x");
+        u.setFullName("Omborchi");
+        u.setRole(Role.ADMIN);
+        u.setActive(true);
+        return u;
+    }
+}
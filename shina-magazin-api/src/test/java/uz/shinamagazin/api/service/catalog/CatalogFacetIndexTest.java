@@ -0,0 +1,509 @@
+package uz.shinamagazin.api.service.catalog;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uz.shinamagazin.api.dto.request.ProductRequest;
+import uz.shinamagazin.api.dto.response.AlternativeSizeResponse;
+import uz.shinamagazin.api.dto.response.CatalogFacetsResponse;
+import uz.shinamagazin.api.entity.*;
+import uz.shinamagazin.api.enums.AttributeType;
+import uz.shinamagazin.api.enums.Season;
+import uz.shinamagazin.api.repository.*;
+import uz.shinamagazin.api.repository.spec.ProductSpecs;
+import uz.shinamagazin.api.service.CategoryService;
+import uz.shinamagazin.api.service.ProductService;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+/**
+ * Facet indeksi: avvalgi SQL facetlari va katalog filtrlari bilan bir xil
+ * natija, tanlangan filtrlarni hisobga olish va bo'laklab yangilanish.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:catalog-facet-index;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CatalogFacetIndexTest {
+
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductAttributeValueRepository valueRepository;
+    @Autowired private BrandRepository brandRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private CategoryAttributeRepository categoryAttributeRepository;
+    @Autowired private AttributeRepository attributeRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+
+    private CatalogFacetIndex index;
+
+    private Brand michelin;
+    private Brand nokian;
+    private Category tires;
+    private Category passenger;
+    private Category wheels;
+    private Attribute runflat;
+    private AttributeOption yes;
+    private AttributeOption no;
+
+    @BeforeEach
+    void setUp() {
+        CategoryService categoryService = categoryService();
+        index = new CatalogFacetIndex(productRepository, valueRepository, categoryRepository,
+                brandRepository, categoryService, new CatalogVersion(), transactionManager);
+        index.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        new CatalogIndexEntityListener().init(null);
+    }
+
+    @Test
+    @DisplayName("Filtrsiz facetlar avvalgi SQL so'rovlari bilan bir xil")
+    void matchesSqlFacets() {
+        fixture();
+        List<Long> subtree = List.of(tires.getId(), passenger.getId());
+
+        CatalogFacetsResponse facets = index.getFacets(tires.getId(), CatalogFilter.none());
+
+        assertThat(facets.getBrands())
+                .extracting(CatalogFacetsResponse.BrandFacet::getName, CatalogFacetsResponse.BrandFacet::getCount)
+                .containsExactlyElementsOf(productRepository.brandFacets(false, subtree).stream()
+                        .map(row -> tuple(row[1], ((Number) row[2]).longValue()))
+                        .toList());
+        assertThat(facets.getSizes().getWidths()).isEqualTo(productRepository.distinctWidths(false, subtree));
+        assertThat(facets.getSizes().getDiameters()).isEqualTo(productRepository.distinctDiameters(false, subtree));
+        Object[] range = productRepository.priceRange(false, subtree).get(0);
+        assertThat(facets.getPriceMin()).isEqualByComparingTo((BigDecimal) range[0]);
+        assertThat(facets.getPriceMax()).isEqualByComparingTo((BigDecimal) range[1]);
+
+        Map<Long, Long> sqlCounts = new java.util.HashMap<>();
+        valueRepository.countProductsByOption(false, subtree)
+                .forEach(row -> sqlCounts.put((Long) row[0], (Long) row[1]));
+        assertThat(facets.getAttributes()).singleElement().satisfies(attribute -> {
+            assertThat(attribute.getCode()).isEqualTo("runflat");
+            attribute.getOptions().forEach(o -> assertThat(o.getCount()).isEqualTo(sqlCounts.get(o.getId())));
+        });
+    }
+
+    @Test
+    @DisplayName("Kategoriyasiz: butun katalog, atribut facetlarisiz")
+    void wholeCatalog() {
+        fixture();
+
+        CatalogFacetsResponse facets = index.getFacets(null, CatalogFilter.none());
+
+        assertThat(facets.getBrands())
+                .extracting(CatalogFacetsResponse.BrandFacet::getName, CatalogFacetsResponse.BrandFacet::getCount)
+                .containsExactly(tuple("Michelin", 3L), tuple("Nokian", 2L));
+        assertThat(facets.getAttributes()).isEmpty();
+        assertThat(facets.getSizes().getWidths()).containsExactly(195, 205, 225);
+    }
+
+    @Test
+    @DisplayName("Guruh hisoblagichi boshqa guruhlarning filtrini hisobga oladi, o'zinikini emas")
+    void selectedFiltersNarrowOtherGroups() {
+        fixture();
+
+        CatalogFacetsResponse facets = index.getFacets(tires.getId(),
+                new CatalogFilter(michelin.getId(), null, null, null, 16, null, null, null, Map.of()));
+
+        // Brendlar: faqat diametr filtri — Nokian R16 ham ko'rinadi
+        assertThat(facets.getBrands())
+                .extracting(CatalogFacetsResponse.BrandFacet::getName, CatalogFacetsResponse.BrandFacet::getCount)
+                .containsExactly(tuple("Michelin", 2L), tuple("Nokian", 1L));
+        // Diametrlar: faqat brend filtri — Michelin'ning barcha diametrlari
+        assertThat(facets.getSizes().getDiameters()).containsExactly(16, 17);
+        // Kengliklar: ikkala filtr — Michelin R16
+        assertThat(facets.getSizes().getWidths()).containsExactly(205);
+        assertThat(facets.getAttributes().get(0).getOptions())
+                .extracting(CatalogFacetsResponse.OptionFacet::getValue, CatalogFacetsResponse.OptionFacet::getCount)
+                .containsExactly(tuple("Ha", 1L), tuple("Yo'q", 1L));
+    }
+
+    @Test
+    @DisplayName("Atribut, narx va qoldiq filtrlari")
+    void attributePriceAndStockFilters() {
+        fixture();
+
+        CatalogFacetsResponse facets = index.getFacets(tires.getId(), new CatalogFilter(
+                null, null, null, null, null, new BigDecimal("950000"), null, true,
+                Map.of(runflat.getId(), List.of(yes.getId()))));
+
+        assertThat(facets.getBrands())
+                .extracting(CatalogFacetsResponse.BrandFacet::getName, CatalogFacetsResponse.BrandFacet::getCount)
+                .containsExactly(tuple("Michelin", 1L));
+        // Runflat guruhining o'z hisoblagichi uning tanlovisiz
+        assertThat(facets.getAttributes().get(0).getOptions())
+                .extracting(CatalogFacetsResponse.OptionFacet::getValue, CatalogFacetsResponse.OptionFacet::getCount)
+                .containsExactly(tuple("Ha", 1L), tuple("Yo'q", 1L));
+        // Narx diapazoni narx filtrisiz hisoblanadi — slayder chegarasi siljimaydi
+        assertThat(facets.getPriceMin()).isEqualByComparingTo("900000");
+    }
+
+    @Test
+    @DisplayName("O'zgargan mahsulot bo'laklab qayta o'qiladi")
+    void incrementalUpdate() {
+        fixture();
+        assertThat(brandCount(null, "Nokian")).isEqualTo(2L);
+
+        Product hidden = productRepository.findAll().stream()
+                .filter(p -> p.getSku().equals("N-205-16")).findFirst().orElseThrow();
+        hidden.setActive(false);
+        Product moved = productRepository.findAll().stream()
+                .filter(p -> p.getSku().equals("N-195-15")).findFirst().orElseThrow();
+        moved.setBrand(michelin);
+        productRepository.flush();
+
+        index.productsChanged(List.of(hidden.getId(), moved.getId()));
+        index.applyPendingChanges();
+
+        assertThat(brandCount(null, "Nokian")).isZero();
+        assertThat(brandCount(null, "Michelin")).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("Katalog filtrlari: bitmap natijasi SQL spec natijasi bilan bir xil")
+    void filterMatchesSqlSpecification() {
+        fixture();
+        List<CatalogFilter> filters = List.of(
+                CatalogFilter.none(),
+                new CatalogFilter(michelin.getId(), null, null, null, 16, null, null, null, Map.of()),
+                new CatalogFilter(null, Season.SUMMER, 205, 55, null, new BigDecimal("850000"),
+                        new BigDecimal("1000000"), true, Map.of()),
+                new CatalogFilter(null, null, null, null, null, null, null, null,
+                        Map.of(runflat.getId(), List.of(yes.getId(), no.getId()))),
+                new CatalogFilter(nokian.getId(), null, null, null, null, null, null, null,
+                        Map.of(runflat.getId(), List.of(no.getId()))));
+
+        for (Long categoryId : java.util.Arrays.asList(null, tires.getId(), wheels.getId())) {
+            for (CatalogFilter filter : filters) {
+                Page<Long> page = index.findProductIds(categoryId, filter, PageRequest.of(0, 50)).orElseThrow();
+                Specification<Product> spec = Specification.allOf(
+                        ProductSpecs.activeTrue(),
+                        ProductSpecs.brandIs(filter.brandId()),
+                        ProductSpecs.categoryIn(categoryId == null ? null
+                                : categoryService().collectDescendantIds(categoryId)),
+                        ProductSpecs.seasonIs(filter.season()),
+                        ProductSpecs.sizeIs(filter.width(), filter.profile(), filter.diameter()),
+                        ProductSpecs.priceGte(filter.priceMin()),
+                        ProductSpecs.priceLte(filter.priceMax()),
+                        ProductSpecs.inStock(filter.inStock()),
+                        ProductSpecs.hasAttributeOptions(filter.attributes()));
+                List<Long> expected = productRepository.findAll(spec).stream().map(Product::getId).toList();
+
+                assertThat(page.getContent()).as("%s / %s", categoryId, filter)
+                        .containsExactlyInAnyOrderElementsOf(expected);
+                assertThat(page.getTotalElements()).isEqualTo(expected.size());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Sahifalash va narx bo'yicha saralash indeksda; boshqa saralash — SQL yo'li")
+    void pagesInSortOrder() {
+        fixture();
+        Map<Long, String> skuById = new java.util.HashMap<>();
+        productRepository.findAll().forEach(p -> skuById.put(p.getId(), p.getSku()));
+
+        Page<Long> first = index.findProductIds(null, CatalogFilter.none(),
+                PageRequest.of(0, 2, Sort.by("sellingPrice").descending())).orElseThrow();
+        Page<Long> second = index.findProductIds(null, CatalogFilter.none(),
+                PageRequest.of(1, 2, Sort.by("sellingPrice").descending())).orElseThrow();
+
+        assertThat(first.getContent()).extracting(skuById::get).containsExactly("M-225-17", "M-205-16");
+        assertThat(second.getContent()).extracting(skuById::get).containsExactly("N-205-16", "M-205-16b");
+        assertThat(second.getTotalElements()).isEqualTo(5);
+        assertThat(index.findProductIds(null, CatalogFilter.none(),
+                PageRequest.of(0, 2, Sort.by("name")))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Har sahifa, har yo'nalish: select() bilan sakrash SQL tartibi bilan bir xil")
+    void everyPageMatchesSqlOrder() {
+        fixture();
+        // Chegaralar mavjud narxlarga teng — oraliq ikkala tomondan ham yopiq
+        CatalogFilter band = new CatalogFilter(null, null, null, null, null,
+                new BigDecimal("900000"), new BigDecimal("1000000"), null, Map.of());
+        Specification<Product> spec = Specification.allOf(ProductSpecs.activeTrue(),
+                ProductSpecs.priceGte(band.priceMin()), ProductSpecs.priceLte(band.priceMax()));
+
+        for (Sort sort : List.of(Sort.by("id"), Sort.by("id").descending(),
+                Sort.by("sellingPrice"), Sort.by("sellingPrice").descending())) {
+            Sort.Direction direction = sort.iterator().next().getDirection();
+            List<Long> expected = productRepository.findAll(spec, sort.and(Sort.by(direction, "id"))).stream()
+                    .map(Product::getId).toList();
+            List<Long> paged = new java.util.ArrayList<>();
+            for (int page = 0; page <= expected.size() / 2; page++) {
+                paged.addAll(index.findProductIds(null, band, PageRequest.of(page, 2, sort))
+                        .orElseThrow().getContent());
+            }
+            assertThat(expected).as("%s", sort).isNotEmpty();
+            assertThat(paged).as("%s", sort).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Muqobil o'lchamlar: ±3% ichida, filtr bilan sanaladi, yangi o'lcham bo'laklab qo'shiladi")
+    void alternativeSizes() {
+        fixture();
+        TireSize size = new TireSize(205, 55, 16);
+        // 225/55R17 (+7.5%) va 195/55R15 (-5.8%) chegaradan tashqarida
+        assertThat(index.findAlternativeSizes(size, null, CatalogFilter.none())).isEmpty();
+
+        Product lowProfile = product(michelin, passenger, "M-225-45-17", 225, 17, "1200000");
+        lowProfile.setProfile(45);
+        Product highProfile = product(nokian, tires, "N-195-65-15", 195, 15, "700000");
+        highProfile.setProfile(65);
+        productRepository.saveAll(List.of(lowProfile, highProfile));
+        productRepository.flush();
+        index.productsChanged(List.of(lowProfile.getId(), highProfile.getId()));
+        index.applyPendingChanges();
+
+        assertThat(index.findAlternativeSizes(size, tires.getId(), CatalogFilter.none()))
+                .extracting(AlternativeSizeResponse::getSize, a -> a.getDeviationPercent().toPlainString(),
+                        AlternativeSizeResponse::getProductCount)
+                .containsExactly(tuple("225/45 R17", "0.4", 1L), tuple("195/65 R15", "0.4", 1L));
+        // Filtr so'ralgan o'lchamning o'ziga emas, muqobillarga qo'llanadi
+        assertThat(index.findAlternativeSizes(size, null,
+                new CatalogFilter(michelin.getId(), null, 205, 55, 16, null, null, null, Map.of())))
+                .extracting(AlternativeSizeResponse::getSize)
+                .containsExactly("225/45 R17");
+        assertThat(index.findAlternativeSizes(size, wheels.getId(), CatalogFilter.none())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Indeksga commit'dan keyin xabar beriladi, rollback'da — yo'q")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void listenerNotifiesAfterCommitOnly() {
+        CatalogFacetIndex target = mock(CatalogFacetIndex.class);
+        new CatalogIndexEntityListener().init(target);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        Product rolledBack = tx.execute(status -> {
+            Product p = productRepository.saveAndFlush(product(null, null, "RB", 205, 16, "1"));
+            verifyNoInteractions(target);
+            status.setRollbackOnly();
+            return p;
+        });
+        verify(target, never()).productsChanged(List.of(rolledBack.getId()));
+
+        Product committed = tx.execute(status -> productRepository.saveAndFlush(product(null, null, "OK", 205, 16, "1")));
+        try {
+            verify(target).productsChanged(List.of(committed.getId()));
+        } finally {
+            tx.executeWithoutResult(status -> productRepository.deleteById(committed.getId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Tranzaksiyaga bitta synchronization; faqat qoldiq o'zgarsa versiya oshmaydi")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void listenerBatchesPerTransactionAndSkipsStockOnlyChanges() {
+        CatalogFacetIndex target = mock(CatalogFacetIndex.class);
+        CatalogVersion version = new CatalogVersion();
+        new CatalogIndexEntityListener().init(target, null, null, null, version, entityManager);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        List<Product> saved = tx.execute(status -> {
+            int before = TransactionSynchronizationManager.getSynchronizations().size();
+            Product a = productRepository.saveAndFlush(product(null, null, "TX-A", 205, 16, "1"));
+            Product b = productRepository.saveAndFlush(product(null, null, "TX-B", 205, 16, "1"));
+            assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(before + 1);
+            return List.of(a, b);
+        });
+        Long a = saved.get(0).getId();
+        Long b = saved.get(1).getId();
+        try {
+            verify(target).productsChanged(List.of(a, b));
+            assertThat(version.current()).isEqualTo(1);
+
+            // 10 -> 5: bor, kam emas (min 2) — vitrinada hech narsa o'zgarmaydi
+            clearInvocations(target);
+            tx.executeWithoutResult(status -> productRepository.findById(a).orElseThrow().setQuantity(5));
+            verifyNoInteractions(target);
+            assertThat(version.current()).isEqualTo(1);
+
+            // 5 -> 0: "bor" belgisi o'zgardi
+            tx.executeWithoutResult(status -> productRepository.findById(a).orElseThrow().setQuantity(0));
+            verify(target).productsChanged(List.of(a));
+            assertThat(version.current()).isEqualTo(2);
+
+            // Narx bilan birga — ko'rinadigan o'zgarish
+            clearInvocations(target);
+            tx.executeWithoutResult(status -> {
+                Product p = productRepository.findById(b).orElseThrow();
+                p.setQuantity(7);
+                p.setSellingPrice(new BigDecimal("2"));
+            });
+            verify(target).productsChanged(List.of(b));
+            assertThat(version.current()).isEqualTo(3);
+        } finally {
+            tx.executeWithoutResult(status -> productRepository.deleteAllById(List.of(a, b)));
+        }
+    }
+
+    @Test
+    @DisplayName("Faqat atributlar tozalansa (mahsulot o'zgarmagan) ham indeks va versiya yangilanadi")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void clearingAllAttributesNotifiesIndex() {
+        CatalogFacetIndex target = mock(CatalogFacetIndex.class);
+        CatalogVersion version = new CatalogVersion();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Product saved = tx.execute(status -> {
+            Attribute attribute = Attribute.builder().name("Runflat").code("runflat-clear")
+                    .type(AttributeType.SELECT).build();
+            AttributeOption option = AttributeOption.builder().attribute(attribute).value("Ha").sortOrder(0).build();
+            attribute.getOptions().add(option);
+            attributeRepository.save(attribute);
+            Product p = productRepository.save(product(null, null, "CLR", 205, 16, "1"));
+            withOption(p, option);
+            return p;
+        });
+        new CatalogIndexEntityListener().init(target, null, null, null, version, entityManager);
+        ProductService products = new ProductService(productRepository, brandRepository, categoryRepository,
+                null, attributeRepository, valueRepository, null, null, null, null);
+        ProductRequest request = ProductRequest.builder()
+                .sku(saved.getSku()).name(saved.getName())
+                .width(saved.getWidth()).profile(saved.getProfile()).diameter(saved.getDiameter())
+                .season(saved.getSeason()).sellingPrice(saved.getSellingPrice())
+                .minStockLevel(saved.getMinStockLevel())
+                .attributes(List.of())
+                .build();
+        try {
+            tx.executeWithoutResult(status -> products.updateProduct(saved.getId(), request));
+
+            verify(target).productsChanged(List.of(saved.getId()));
+            assertThat(version.current()).isEqualTo(1);
+            assertThat(valueRepository.findByProductIdWithAttribute(saved.getId())).isEmpty();
+        } finally {
+            tx.executeWithoutResult(status -> {
+                productRepository.deleteById(saved.getId());
+                attributeRepository.deleteAll(attributeRepository.findAll().stream()
+                        .filter(a -> "runflat-clear".equals(a.getCode())).toList());
+            });
+        }
+    }
+
+    /** Har safar yangi daraxt keshi bilan — test tranzaksiyasi commit bo'lmaydi, listener kelmaydi. */
+    private CategoryService categoryService() {
+        CategoryTreeCache tree = new CategoryTreeCache(
+                categoryRepository, categoryAttributeRepository, productRepository, transactionManager);
+        tree.init();
+        return new CategoryService(categoryRepository, categoryAttributeRepository, attributeRepository,
+                productRepository, tree);
+    }
+
+    private long brandCount(Long categoryId, String name) {
+        return index.getFacets(categoryId, CatalogFilter.none()).getBrands().stream()
+                .filter(b -> b.getName().equals(name))
+                .mapToLong(CatalogFacetsResponse.BrandFacet::getCount)
+                .findFirst().orElse(0);
+    }
+
+    /**
+     * Shinalar (+ Yengil avtomobil) va Disklar:
+     * <pre>
+     *   M-205-16  Michelin  Shinalar        205/16  1 000 000  runflat=Ha
+     *   M-225-17  Michelin  Yengil          225/17  1 500 000  runflat=Yo'q
+     *   M-205-16b Michelin  Yengil          205/16    800 000  runflat=Yo'q, qoldiq 0
+     *   N-205-16  Nokian    Shinalar        205/16    900 000  runflat=Ha
+     *   N-195-15  Nokian    Disklar         195/15    500 000
+     *   N-OFF     Nokian    Shinalar        nofaol
+     * </pre>
+     */
+    private void fixture() {
+        michelin = brandRepository.save(brand("Michelin"));
+        nokian = brandRepository.save(brand("Nokian"));
+        tires = categoryRepository.save(category("Shinalar", null));
+        passenger = categoryRepository.save(category("Yengil", tires));
+        wheels = categoryRepository.save(category("Disklar", null));
+
+        runflat = Attribute.builder().name("Runflat").code("runflat").type(AttributeType.SELECT).build();
+        yes = AttributeOption.builder().attribute(runflat).value("Ha").sortOrder(0).build();
+        no = AttributeOption.builder().attribute(runflat).value("Yo'q").sortOrder(1).build();
+        runflat.getOptions().addAll(List.of(yes, no));
+        attributeRepository.save(runflat);
+        categoryAttributeRepository.save(CategoryAttribute.builder().category(tires).attribute(runflat).build());
+
+        withOption(productRepository.save(product(michelin, tires, "M-205-16", 205, 16, "1000000")), yes);
+        withOption(productRepository.save(product(michelin, passenger, "M-225-17", 225, 17, "1500000")), no);
+        Product outOfStock = product(michelin, passenger, "M-205-16b", 205, 16, "800000");
+        outOfStock.setQuantity(0);
+        withOption(productRepository.save(outOfStock), no);
+        withOption(productRepository.save(product(nokian, tires, "N-205-16", 205, 16, "900000")), yes);
+        productRepository.save(product(nokian, wheels, "N-195-15", 195, 15, "500000"));
+        Product inactive = product(nokian, tires, "N-OFF", 205, 16, "100");
+        inactive.setActive(false);
+        withOption(productRepository.save(inactive), yes);
+        productRepository.flush();
+    }
+
+    private void withOption(Product product, AttributeOption option) {
+        valueRepository.save(ProductAttributeValue.builder()
+                .product(product).attribute(option.getAttribute()).option(option).build());
+    }
+
+    private static Product product(Brand brand, Category category, String sku,
+                                   int width, int diameter, String price) {
+        Product p = new Product();
+        p.setName(sku);
+        p.setSku(sku);
+        p.setBrand(brand);
+        p.setCategory(category);
+        p.setWidth(width);
+        p.setProfile(55);
+        p.setDiameter(diameter);
+        p.setSeason(Season.SUMMER);
+        p.setSellingPrice(new BigDecimal(price));
+        p.setPurchasePrice(BigDecimal.ONE);
+        p.setQuantity(10);
+        p.setMinStockLevel(2);
+        p.setActive(true);
+        return p;
+    }
+
+    private static Brand brand(String name) {
+        Brand b = new Brand();
+        b.setName(name);
+        b.setActive(true);
+        return b;
+    }
+
+    private static Category category(String name, Category parent) {
+        Category c = new Category();
+        c.setName(name);
+        c.setParent(parent);
+        c.setActive(true);
+        return c;
+    }
+}
@@ -0,0 +1,249 @@
+package uz.shinamagazin.api.service.catalog;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import uz.shinamagazin.api.dto.response.CatalogProductResponse;
+import uz.shinamagazin.api.entity.Attribute;
+import uz.shinamagazin.api.entity.AttributeOption;
+import uz.shinamagazin.api.entity.Brand;
+import uz.shinamagazin.api.entity.Category;
+import uz.shinamagazin.api.entity.Product;
+import uz.shinamagazin.api.entity.ProductAttributeValue;
+import uz.shinamagazin.api.enums.AttributeType;
+import uz.shinamagazin.api.event.CatalogRowsChangedEvent;
+import uz.shinamagazin.api.enums.Season;
+import uz.shinamagazin.api.repository.AttributeRepository;
+import uz.shinamagazin.api.repository.BrandRepository;
+import uz.shinamagazin.api.repository.CatalogProductRepository;
+import uz.shinamagazin.api.repository.CategoryAttributeRepository;
+import uz.shinamagazin.api.repository.CategoryRepository;
+import uz.shinamagazin.api.repository.ProductAttributeValueRepository;
+import uz.shinamagazin.api.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@code catalog_products}: qator mahsulotning entity xaritalashi bilan bir
+ * xil, o'qish JOIN'siz va entity'siz, o'zgarishlar qatorlarga yetib boradi.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:catalog-read-model;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CatalogReadModelTest {
+
+    @Autowired private CatalogProductRepository catalogProductRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductAttributeValueRepository valueRepository;
+    @Autowired private BrandRepository brandRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private CategoryAttributeRepository categoryAttributeRepository;
+    @Autowired private AttributeRepository attributeRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+
+    private CatalogReadModel readModel;
+    private CategoryTreeCache tree;
+    private Statistics statistics;
+    private final List<List<Long>> refreshed = new ArrayList<>();
+
+    private Brand michelin;
+    private Product pilot;
+    private Product xIce;
+    private Product hidden;
+    private AttributeOption yes;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        tree = new CategoryTreeCache(categoryRepository, categoryAttributeRepository,
+                productRepository, transactionManager);
+        tree.init();
+        readModel = new CatalogReadModel(catalogProductRepository, productRepository, valueRepository,
+                tree, new CatalogVersion(), event -> {
+                    if (event instanceof CatalogRowsChangedEvent changed && changed.productIds() != null) {
+                        refreshed.add(changed.productIds());
+                    }
+                }, entityManager, transactionManager);
+        readModel.init();
+
+        michelin = brandRepository.save(Brand.builder().name("Michelin").active(true).build());
+        Category tires = categoryRepository.save(category("Shinalar", null));
+        Category summer = categoryRepository.save(category("Yozgi", tires));
+
+        Attribute runflat = Attribute.builder().name("Runflat").code("runflat").type(AttributeType.SELECT).build();
+        yes = AttributeOption.builder().attribute(runflat).value("Ha").sortOrder(0).build();
+        runflat.getOptions().add(yes);
+        attributeRepository.save(runflat);
+
+        pilot = productRepository.save(tire("MIC-PS4", "Pilot Sport 4", summer, 12));
+        xIce = productRepository.save(tire("MIC-XI", "X-Ice North", tires, 0));
+        hidden = tire("MIC-OFF", "Eski model", summer, 3);
+        hidden.setActive(false);
+        hidden = productRepository.save(hidden);
+        valueRepository.save(ProductAttributeValue.builder().product(pilot).attribute(runflat).option(yes).build());
+        productRepository.flush();
+
+        readModel.rebuild();
+    }
+
+    @Test
+    @DisplayName("Qator mahsulot xaritalashi bilan bir xil; nofaol mahsulot yo'q")
+    void rowsMatchEntityMapping() {
+        assertThat(catalogProductRepository.count()).isEqualTo(2);
+        assertThat(catalogProductRepository.findListRowsByIdIn(List.of(hidden.getId()))).isEmpty();
+
+        CatalogProductResponse expected = CatalogProductResponse.from(productRepository.findById(pilot.getId()).orElseThrow());
+        CatalogProductResponse row = CatalogProductResponse.fromDetailRow(
+                catalogProductRepository.findDetailRowById(pilot.getId()).get(0));
+
+        assertThat(row).usingRecursiveComparison()
+                .ignoringFields("categoryPath", "optionIds", "attributes")
+                .isEqualTo(expected);
+        assertThat(row.getCategoryPath()).isEqualTo("Shinalar / Yozgi");
+        assertThat(row.isInStock()).isTrue();
+        assertThat(row.getOptionIds()).containsExactly(yes.getId());
+        assertThat(row.getAttributes()).singleElement().satisfies(a -> {
+            assertThat(a.getCode()).isEqualTo("runflat");
+            assertThat(a.getValues()).containsExactly("Ha");
+        });
+    }
+
+    @Test
+    @DisplayName("Ro'yxat bitta so'rov, persistence context'ga entity tushmaydi")
+    void listReadsNoEntities() {
+        entityManager.clear();
+        statistics.clear();
+
+        List<CatalogProductResponse> page = catalogProductRepository
+                .findListRowsByIdIn(List.of(pilot.getId(), xIce.getId())).stream()
+                .map(CatalogProductResponse::fromRow)
+                .toList();
+
+        assertThat(page).extracting(CatalogProductResponse::getSku).containsExactlyInAnyOrder("MIC-PS4", "MIC-XI");
+        assertThat(page).filteredOn(p -> p.getSku().equals("MIC-XI"))
+                .singleElement().satisfies(p -> assertThat(p.isInStock()).isFalse());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("O'zgargan mahsulotlar qayta yoziladi; brend nomi — shu brend qatorlari")
+    void appliesChanges() {
+        Product pilotNow = productRepository.findById(pilot.getId()).orElseThrow();
+        pilotNow.setSellingPrice(new BigDecimal("1250000"));
+        Product xIceNow = productRepository.findById(xIce.getId()).orElseThrow();
+        xIceNow.setActive(false);
+        Product hiddenNow = productRepository.findById(hidden.getId()).orElseThrow();
+        hiddenNow.setActive(true);
+        productRepository.saveAllAndFlush(List.of(pilotNow, xIceNow, hiddenNow));
+
+        readModel.productsChanged(List.of(pilot.getId(), xIce.getId(), hidden.getId()));
+        readModel.applyPendingChanges();
+
+        assertThat(skus()).containsExactlyInAnyOrder("MIC-PS4", "MIC-OFF");
+        assertThat(CatalogProductResponse.fromRow(
+                catalogProductRepository.findListRowsByIdIn(List.of(pilot.getId())).get(0)).getSellingPrice())
+                .isEqualByComparingTo("1250000");
+
+        Brand brand = brandRepository.findById(michelin.getId()).orElseThrow();
+        brand.setName("Michelin France");
+        brandRepository.saveAndFlush(brand);
+        readModel.brandChanged(brand.getId());
+        readModel.applyPendingChanges();
+
+        assertThat(rows()).extracting(CatalogProductResponse::getBrandName).containsOnly("Michelin France");
+        assertThat(catalogProductRepository.findDetailRowById(hidden.getId()).get(0)[22])
+                .asList().isEmpty();
+    }
+
+    @Test
+    @DisplayName("Nom o'zgarishi faqat unga bog'liq qatorlarni qayta yozadi")
+    void structureChangeRefreshesAffectedRowsOnly() {
+        Brand nokian = brandRepository.save(Brand.builder().name("Nokian").active(true).build());
+        Category tires = categoryRepository.findById(xIce.getCategory().getId()).orElseThrow();
+        tires.setName("Avtoshinalar");
+        categoryRepository.saveAndFlush(tires);
+
+        readModel.brandChanged(nokian.getId());
+        readModel.applyPendingChanges();
+        assertThat(refreshed).isEmpty(); // brendda mahsulot yo'q — hech narsa yozilmaydi
+
+        // Ildiz kategoriya: o'zi va avlodidagi (Yozgi) mahsulotlar — yo'l ikkalasida ham
+        tree.structureChanged();
+        readModel.categoryChanged(tires.getId());
+        readModel.applyPendingChanges();
+        assertThat(refreshed).singleElement()
+                .satisfies(ids -> assertThat(ids).containsExactlyInAnyOrder(pilot.getId(), xIce.getId()));
+        assertThat(rows()).extracting(CatalogProductResponse::getCategoryPath)
+                .containsExactlyInAnyOrder("Avtoshinalar / Yozgi", "Avtoshinalar");
+
+        refreshed.clear();
+        AttributeOption option = entityManager.find(AttributeOption.class, yes.getId());
+        option.setValue("Bor");
+        entityManager.flush();
+        readModel.optionChanged(option.getId());
+        readModel.applyPendingChanges();
+        assertThat(refreshed).singleElement()
+                .satisfies(ids -> assertThat(ids).containsExactly(pilot.getId()));
+        assertThat(catalogProductRepository.count()).isEqualTo(2);
+    }
+
+    // --- helpers ---
+
+    private List<CatalogProductResponse> rows() {
+        return catalogProductRepository.findListRowsByIdIn(List.of(pilot.getId(), xIce.getId(), hidden.getId()))
+                .stream().map(CatalogProductResponse::fromRow).toList();
+    }
+
+    private List<String> skus() {
+        return rows().stream().map(CatalogProductResponse::getSku).toList();
+    }
+
+    private static Category category(String name, Category parent) {
+        Category c = new Category();
+        c.setName(name);
+        c.setParent(parent);
+        c.setActive(true);
+        return c;
+    }
+
+    private Product tire(String sku, String name, Category category, int quantity) {
+        return Product.builder()
+                .sku(sku)
+                .name(name)
+                .brand(michelin)
+                .category(category)
+                .width(205)
+                .profile(55)
+                .diameter(16)
+                .season(Season.SUMMER)
+                .sellingPrice(BigDecimal.valueOf(1_000_000))
+                .quantity(quantity)
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,206 @@
+package uz.shinamagazin.api.service.catalog;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import uz.shinamagazin.api.dto.response.CategoryAttributeResponse;
+import uz.shinamagazin.api.dto.response.CategoryResponse;
+import uz.shinamagazin.api.entity.Attribute;
+import uz.shinamagazin.api.entity.Category;
+import uz.shinamagazin.api.entity.CategoryAttribute;
+import uz.shinamagazin.api.entity.Product;
+import uz.shinamagazin.api.enums.AttributeType;
+import uz.shinamagazin.api.exception.ResourceNotFoundException;
+import uz.shinamagazin.api.repository.AttributeRepository;
+import uz.shinamagazin.api.repository.CategoryAttributeRepository;
+import uz.shinamagazin.api.repository.CategoryRepository;
+import uz.shinamagazin.api.repository.ProductRepository;
+import uz.shinamagazin.api.service.CategoryService;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Xotiradagi kategoriya daraxti: avlodlar, yo'l, meros atributlar va
+ * daraxt javobi bazaga murojaatsiz; o'zgarishdan keyin yangi nusxa.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:category-tree;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CategoryTreeCacheTest {
+
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private CategoryAttributeRepository categoryAttributeRepository;
+    @Autowired private AttributeRepository attributeRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+
+    private CategoryTreeCache cache;
+    private CategoryService categoryService;
+    private Statistics statistics;
+
+    private Category tires;
+    private Category passenger;
+    private Category summer;
+    private Category legacy;
+    private Category legacyChild;
+    private Category wheels;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        cache = new CategoryTreeCache(categoryRepository, categoryAttributeRepository,
+                productRepository, transactionManager);
+        cache.init();
+        categoryService = new CategoryService(categoryRepository, categoryAttributeRepository,
+                attributeRepository, productRepository, cache);
+
+        tires = categoryRepository.save(category("Shinalar", null, 0));
+        wheels = categoryRepository.save(category("Disklar", null, 1));
+        passenger = categoryRepository.save(category("Yengil", tires, 0));
+        summer = categoryRepository.save(category("Yozgi", passenger, 0));
+        legacy = category("Eski", passenger, 1);
+        legacy.setActive(false);
+        legacy = categoryRepository.save(legacy);
+        legacyChild = categoryRepository.save(category("Eski bola", legacy, 0));
+
+        Attribute runflat = attributeRepository.save(attribute("Runflat", "runflat", true));
+        Attribute season = attributeRepository.save(attribute("Mavsum", "season", true));
+        Attribute hidden = attributeRepository.save(attribute("Eskirgan", "old", false));
+        categoryAttributeRepository.save(binding(tires, runflat));
+        categoryAttributeRepository.save(binding(passenger, season));
+        categoryAttributeRepository.save(binding(summer, runflat));
+        categoryAttributeRepository.save(binding(summer, hidden));
+
+        productRepository.save(product("P-1", summer));
+        productRepository.save(product("P-2", summer));
+        productRepository.save(product("P-3", tires));
+        productRepository.flush();
+    }
+
+    @Test
+    @DisplayName("Avlodlar faqat faol bolalar orqali; ajdodlar va yo'l")
+    void subtreeAncestorsAndPath() {
+        assertThat(categoryService.collectDescendantIds(tires.getId()))
+                .containsExactly(tires.getId(), passenger.getId(), summer.getId());
+        assertThat(categoryService.collectDescendantIds(legacy.getId()))
+                .containsExactlyInAnyOrder(legacy.getId(), legacyChild.getId());
+        assertThat(categoryService.collectDescendantIds(-1L)).containsExactly(-1L);
+
+        CategoryTree tree = cache.get();
+        assertThat(tree.ancestorIds(summer.getId())).containsExactly(passenger.getId(), tires.getId());
+        assertThat(tree.path(summer.getId())).containsExactly("Shinalar", "Yengil", "Yozgi");
+        assertThat(tree.path(-1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Meros atributlar: eng yaqini g'olib, nofaol atribut chiqmaydi")
+    void effectiveAttributes() {
+        List<CategoryAttributeResponse> attributes = categoryService.getEffectiveAttributes(summer.getId());
+
+        assertThat(attributes)
+                .extracting(a -> a.getAttribute().getCode(), CategoryAttributeResponse::isInherited,
+                        CategoryAttributeResponse::getSourceCategoryName)
+                .containsExactly(tuple("runflat", false, "Yozgi"), tuple("season", true, "Yengil"));
+        assertThat(categoryService.getEffectiveAttributes(legacyChild.getId()))
+                .extracting(a -> a.getAttribute().getCode())
+                .containsExactly("season", "runflat");
+        assertThatThrownBy(() -> categoryService.getEffectiveAttributes(-1L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Daraxt javobi: tartib, nofaollar yashirin, mahsulot sonlari")
+    void treeResponse() {
+        List<CategoryResponse> roots = categoryService.getCategoryTree();
+
+        assertThat(roots).extracting(CategoryResponse::getName).containsExactly("Shinalar", "Disklar");
+        CategoryResponse root = roots.get(0);
+        assertThat(root.getProductCount()).isEqualTo(1L);
+        assertThat(root.getChildren()).singleElement().satisfies(child -> {
+            assertThat(child.getParentName()).isEqualTo("Shinalar");
+            assertThat(child.getChildren()).extracting(CategoryResponse::getName).containsExactly("Yozgi");
+            assertThat(child.getChildren().get(0).getProductCount()).isEqualTo(2L);
+        });
+        assertThat(roots.get(1).getChildren()).isNull();
+        assertThat(categoryService.getAllCategories()).extracting(CategoryResponse::getName)
+                .containsExactlyInAnyOrder("Shinalar", "Disklar", "Yengil", "Yozgi", "Eski bola");
+    }
+
+    @Test
+    @DisplayName("Keyingi so'rovlar bazaga bormaydi; o'zgarishdan keyin yangi nusxa")
+    void servedFromMemoryUntilChanged() {
+        List<CategoryResponse> first = categoryService.getCategoryTree();
+
+        statistics.clear();
+        assertThat(categoryService.getCategoryTree()).isSameAs(first);
+        categoryService.collectDescendantIds(tires.getId());
+        categoryService.getEffectiveAttributes(summer.getId());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        wheels.setName("G'ildirak disklari");
+        categoryRepository.saveAndFlush(wheels);
+        productRepository.saveAndFlush(product("P-4", wheels));
+        assertThat(categoryService.getCategoryTree()).isSameAs(first); // hali xabar yo'q
+
+        cache.structureChanged();
+        cache.productsChanged();
+        List<CategoryResponse> updated = categoryService.getCategoryTree();
+        assertThat(updated.get(1).getName()).isEqualTo("G'ildirak disklari");
+        assertThat(updated.get(1).getProductCount()).isEqualTo(1L);
+    }
+
+    // --- helpers ---
+
+    private static Category category(String name, Category parent, int sortOrder) {
+        Category c = new Category();
+        c.setName(name);
+        c.setParent(parent);
+        c.setSortOrder(sortOrder);
+        c.setActive(true);
+        return c;
+    }
+
+    private static Attribute attribute(String name, String code, boolean active) {
+        return Attribute.builder().name(name).code(code).type(AttributeType.SELECT).active(active).build();
+    }
+
+    private static CategoryAttribute binding(Category category, Attribute attribute) {
+        return CategoryAttribute.builder().category(category).attribute(attribute).build();
+    }
+
+    private static Product product(String sku, Category category) {
+        return Product.builder()
+                .sku(sku)
+                .name(sku)
+                .category(category)
+                .sellingPrice(BigDecimal.valueOf(100_000))
+                .quantity(5)
+                .active(true)
+                .build();
+    }
+}
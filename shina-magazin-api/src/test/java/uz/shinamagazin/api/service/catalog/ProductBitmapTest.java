@@ -0,0 +1,96 @@
+package uz.shinamagazin.api.service.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link ProductBitmap} — tasodifiy to'plamlarda {@link BitSet} bilan solishtiriladi.
+ */
+class ProductBitmapTest {
+
+    @Test
+    @DisplayName("Kesishma, birlashma va quvvat BitSet bilan bir xil")
+    void matchesBitSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            BitSet expectedA = new BitSet();
+            BitSet expectedB = new BitSet();
+            // Har xil uzunlik — so'zlar soni farq qilganda ham to'g'ri ishlashi kerak
+            ProductBitmap a = fill(expectedA, random, random.nextInt(5000));
+            ProductBitmap b = fill(expectedB, random, random.nextInt(300));
+
+            BitSet and = (BitSet) expectedA.clone();
+            and.and(expectedB);
+            BitSet or = (BitSet) expectedA.clone();
+            or.or(expectedB);
+
+            assertThat(a.cardinality()).isEqualTo(expectedA.cardinality());
+            assertThat(a.andCardinality(b)).isEqualTo(and.cardinality());
+            assertThat(a.intersects(b)).isEqualTo(expectedA.intersects(expectedB));
+            assertThat(positions(a.copy().and(b))).isEqualTo(and);
+            assertThat(positions(b.copy().or(a))).isEqualTo(or);
+        }
+    }
+
+    @Test
+    @DisplayName("select va previousSetBit BitSet bilan bir xil")
+    void selectAndPreviousMatchBitSet() {
+        Random random = new Random(7);
+        for (int round = 0; round < 30; round++) {
+            BitSet expected = new BitSet();
+            ProductBitmap bitmap = fill(expected, random, 1 + random.nextInt(3000));
+
+            int n = 0;
+            for (int pos = expected.nextSetBit(0); pos >= 0; pos = expected.nextSetBit(pos + 1), n++) {
+                assertThat(bitmap.select(n)).isEqualTo(pos);
+            }
+            assertThat(bitmap.select(n)).isEqualTo(-1);
+            assertThat(bitmap.select(-1)).isEqualTo(-1);
+            for (int from = -1; from < expected.length() + 130; from += 1 + random.nextInt(40)) {
+                assertThat(bitmap.previousSetBit(from)).as("from %d", from)
+                        .isEqualTo(expected.previousSetBit(from));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("clear va get; copy asl nusxaga ta'sir qilmaydi")
+    void clearAndCopy() {
+        ProductBitmap bitmap = new ProductBitmap();
+        bitmap.set(3);
+        bitmap.set(130);
+        ProductBitmap copy = bitmap.copy();
+
+        bitmap.clear(130);
+        bitmap.clear(10_000); // chegaradan tashqari — xatosiz
+
+        assertThat(bitmap.get(130)).isFalse();
+        assertThat(copy.get(130)).isTrue();
+        assertThat(bitmap.nextSetBit(4)).isEqualTo(-1);
+        assertThat(copy.nextSetBit(4)).isEqualTo(130);
+        assertThat(new ProductBitmap().isEmpty()).isTrue();
+    }
+
+    private static ProductBitmap fill(BitSet expected, Random random, int bound) {
+        ProductBitmap bitmap = new ProductBitmap();
+        for (int i = 0; i < bound / 3; i++) {
+            int position = random.nextInt(bound);
+            bitmap.set(position);
+            expected.set(position);
+        }
+        return bitmap;
+    }
+
+    private static BitSet positions(ProductBitmap bitmap) {
+        BitSet result = new BitSet();
+        for (int pos = bitmap.nextSetBit(0); pos >= 0; pos = bitmap.nextSetBit(pos + 1)) {
+            result.set(pos);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,154 @@
+package uz.shinamagazin.api.service.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import uz.shinamagazin.api.dto.response.ProductSuggestion;
+import uz.shinamagazin.api.entity.Brand;
+import uz.shinamagazin.api.entity.Product;
+import uz.shinamagazin.api.repository.BrandRepository;
+import uz.shinamagazin.api.repository.ProductRepository;
+import uz.shinamagazin.api.repository.SaleItemRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Typeahead indeksi: prefiks bo'yicha topish (nom, brend, SKU, o'lcham,
+ * kirillcha), mashhurlik tartibi va bo'laklab yangilanish.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:product-suggest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductSuggestIndexTest {
+
+    @Autowired private ProductRepository productRepository;
+    @Autowired private BrandRepository brandRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final SaleItemRepository saleItemRepository = mock(SaleItemRepository.class);
+    private ProductSuggestIndex index;
+
+    private Product pilot;
+    private Product xIce;
+    private Product hakka;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        brandRepository.deleteAll();
+        Brand michelin = brandRepository.save(Brand.builder().name("Michelin").active(true).build());
+        Brand nokian = brandRepository.save(Brand.builder().name("Nokian").active(true).build());
+        pilot = productRepository.save(tire("MIC-PS4", "Pilot Sport 4", michelin, 205, 55, 16));
+        xIce = productRepository.save(tire("MIC-XI", "X-Ice North", michelin, 205, 60, 17));
+        hakka = productRepository.save(tire("NOK-HK", "Hakkapeliitta R5", nokian, 215, 55, 16));
+        productRepository.flush();
+
+        // X-Ice eng ko'p sotilgan, keyin Hakkapeliitta
+        List<Object[]> sold = new ArrayList<>();
+        sold.add(new Object[]{xIce.getId(), 40L});
+        sold.add(new Object[]{hakka.getId(), 7L});
+        when(saleItemRepository.sumSoldQuantityByProductSince(any())).thenReturn(sold);
+
+        index = new ProductSuggestIndex(productRepository, saleItemRepository, transactionManager);
+        index.init();
+    }
+
+    @Test
+    @DisplayName("Nom, brend, SKU bo'lagi va o'lcham boshi bo'yicha topadi")
+    void findsByPrefix() {
+        assertThat(skus("pil")).containsExactly("MIC-PS4");
+        assertThat(skus("hakkap")).containsExactly("NOK-HK");
+        assertThat(skus("ps4")).containsExactly("MIC-PS4");
+        assertThat(skus("205/")).containsExactlyInAnyOrder("MIC-PS4", "MIC-XI");
+        assertThat(skus("205/5")).containsExactly("MIC-PS4");
+        assertThat(skus("205/55R16")).containsExactly("MIC-PS4");
+        assertThat(skus("r16")).containsExactly("NOK-HK", "MIC-PS4");
+        assertThat(skus("bridg")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Kirillcha prefiks fonetik kalit orqali lotinchani topadi")
+    void cyrillicPrefix() {
+        assertThat(skus("миш")).containsExactly("MIC-XI", "MIC-PS4");
+        assertThat(skus("нокиа")).containsExactly("NOK-HK");
+    }
+
+    @Test
+    @DisplayName("Bir nechta so'z — har biri mos kelishi shart; tartib mashhurlik bo'yicha")
+    void multipleTokensAndPopularity() {
+        assertThat(skus("mich 205")).containsExactly("MIC-XI", "MIC-PS4");
+        assertThat(skus("michelin r16")).containsExactly("MIC-PS4");
+        assertThat(skus("5")).isEmpty(); // SKU/o'lchamning o'rtasi — prefiks emas
+
+        List<ProductSuggestion> top = index.suggest("mi", 1);
+        assertThat(top).singleElement().satisfies(s -> {
+            assertThat(s.getSku()).isEqualTo("MIC-XI");
+            assertThat(s.getBrandName()).isEqualTo("Michelin");
+            assertThat(s.getSizeString()).isEqualTo("205/60 R17");
+            assertThat(s.isInStock()).isTrue();
+        });
+        assertThat(index.suggest("  ", 5)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("O'zgargan mahsulotlar bo'laklab qo'llanadi")
+    void incrementalUpdate() {
+        assertThat(skus("pil")).containsExactly("MIC-PS4"); // indeks qurildi
+
+        pilot.setName("Primacy 4");
+        xIce.setActive(false);
+        hakka.setQuantity(0);
+        hakka.setSellingPrice(BigDecimal.valueOf(990_000));
+        productRepository.saveAllAndFlush(List.of(pilot, xIce, hakka));
+        index.productsChanged(List.of(pilot.getId(), xIce.getId(), hakka.getId()));
+        index.applyPendingChanges();
+
+        assertThat(skus("pil")).isEmpty();
+        assertThat(skus("prim")).containsExactly("MIC-PS4");
+        assertThat(skus("mich")).containsExactly("MIC-PS4");
+        assertThat(index.suggest("hakka", 5)).singleElement().satisfies(s -> {
+            assertThat(s.getSellingPrice()).isEqualByComparingTo("990000");
+            assertThat(s.isInStock()).isFalse();
+        });
+    }
+
+    // --- helpers ---
+
+    private List<String> skus(String query) {
+        return index.suggest(query, 10).stream().map(ProductSuggestion::getSku).toList();
+    }
+
+    private static Product tire(String sku, String name, Brand brand, int width, int profile, int diameter) {
+        return Product.builder()
+                .sku(sku)
+                .name(name)
+                .brand(brand)
+                .width(width)
+                .profile(profile)
+                .diameter(diameter)
+                .sellingPrice(BigDecimal.valueOf(1_000_000))
+                .quantity(10)
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package uz.shinamagazin.api.service.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * O'lcham kaliti va ±3% tashqi diametr bo'yicha muqobillar.
+ */
+class TireSizeEquivalentsTest {
+
+    private static final TireSize BASE = new TireSize(205, 55, 16);
+
+    @Test
+    @DisplayName("Kalit uchala bo'lakni saqlaydi, tashqi diametr mm'da")
+    void packsAndMeasures() {
+        assertThat(BASE.packed()).isEqualTo(205_055_016);
+        assertThat(TireSize.unpack(BASE.packed())).isEqualTo(BASE);
+        assertThat(TireSize.unpack(new TireSize(315, 35, 22).packed())).isEqualTo(new TireSize(315, 35, 22));
+        assertThat(BASE.rollingDiameterMm()).isCloseTo(631.9, within(0.01));
+        assertThat(BASE.label()).isEqualTo("205/55 R16");
+        assertThat(TireSize.of(205, null, 16)).isNull();
+    }
+
+    @Test
+    @DisplayName("0..999 dan tashqari bo'lak kalitga tushmaydi")
+    void rejectsPartsOutsideKeyRange() {
+        // 205/1055R16 kaliti 206_055_016 bo'lardi — 206/55R16 bilan bir xil
+        assertThat(TireSize.of(205, 1055, 16)).isNull();
+        assertThat(TireSize.of(1205, 55, 16)).isNull();
+        assertThat(TireSize.of(205, -5, 16)).isNull();
+        assertThat(TireSize.of(205, 55, 1000)).isNull();
+        assertThat(TireSize.of(999, 0, 999)).isEqualTo(new TireSize(999, 0, 999));
+        assertThatThrownBy(() -> new TireSize(205, 1055, 16)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Faqat ±3% ichidagilar, eng yaqini birinchi, o'lchamning o'zi kirmaydi")
+    void windowSortedByDeviation() {
+        TireSizeEquivalents equivalents = TireSizeEquivalents.of(List.of(
+                BASE.packed(),
+                new TireSize(225, 45, 17).packed(),   // +0.38%
+                new TireSize(195, 65, 15).packed(),   // +0.41%
+                new TireSize(215, 55, 16).packed(),   // +1.74%
+                new TireSize(195, 55, 16).packed(),   // -1.74%
+                new TireSize(225, 55, 17).packed(),   // +7.5%
+                new TireSize(195, 55, 15).packed())); // -5.8%
+
+        List<TireSizeEquivalents.Alternative> alternatives = equivalents.alternatives(BASE);
+
+        assertThat(alternatives).extracting(a -> a.size().label())
+                .containsExactly("225/45 R17", "195/65 R15", "195/55 R16", "215/55 R16");
+        assertThat(alternatives.get(0).deviationPercent()).isCloseTo(0.38, within(0.01));
+        assertThat(alternatives.get(2).deviationPercent()).isNegative();
+        assertThat(alternatives).allSatisfy(a ->
+                assertThat(Math.abs(a.deviationPercent())).isLessThanOrEqualTo(TireSizeEquivalents.MAX_DEVIATION_PERCENT));
+    }
+
+    @Test
+    @DisplayName("Katalogda yo'q o'lcham uchun ham oyna topiladi")
+    void absentSize() {
+        TireSizeEquivalents equivalents = TireSizeEquivalents.of(List.of(
+                new TireSize(225, 45, 17).packed(),
+                new TireSize(225, 55, 17).packed()));
+
+        assertThat(equivalents.alternatives(BASE)).extracting(a -> a.size().label())
+                .containsExactly("225/45 R17");
+        assertThat(TireSizeEquivalents.of(List.of()).alternatives(BASE)).isEmpty();
+    }
+}
@@ -0,0 +1,42 @@
+package uz.shinamagazin.api.service.export;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uz.shinamagazin.api.dto.response.AuditLogResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uz.shinamagazin.api.support.XlsxTestFiles.countRows;
+import static uz.shinamagazin.api.support.XlsxTestFiles.sheetNames;
+import static uz.shinamagazin.api.support.XlsxTestFiles.sheetXml;
+
+/**
+ * Oqimli Excel eksporti varaq to'lganda keyingisiga o'tadi — .xlsx varag'i
+ * 1 048 576 qatordan oshsa POI yozishni to'xtatardi.
+ */
+class ExcelExportServiceTest {
+
+    @Test
+    @DisplayName("Varaq to'lsa davomi keyingi varaqda, ustun sarlavhalari bilan")
+    void rollsOverToNextSheet() throws IOException {
+        ExcelExportService excel = new ExcelExportService(9);
+        LocalDateTime now = LocalDateTime.now();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        excel.writeAuditLogs(LongStream.rangeClosed(1, 20).mapToObj(id -> AuditLogResponse.builder()
+                .id(id).action("UPDATE").entityType("Product").entityId(id).createdAt(now).build()), null, out);
+
+        byte[] xlsx = out.toByteArray();
+        assertThat(sheetNames(xlsx)).containsExactly("Audit Logs", "Audit Logs (2)", "Audit Logs (3)");
+        // 1-varaq: sarlavha, sana, ustunlar + 6 qator (4..9); keyingilari: ustunlar + 9 qator
+        assertThat(countRows(sheetXml(xlsx, 1))).isEqualTo(3 + 6);
+        assertThat(countRows(sheetXml(xlsx, 2))).isEqualTo(1 + 9);
+        assertThat(countRows(sheetXml(xlsx, 3))).isEqualTo(1 + 5);
+        assertThat(sheetXml(xlsx, 3)).contains("Obyekt turi").doesNotContain("Tizim Auditlari Hisoboti");
+        assertThat(sheetXml(xlsx, 4)).isNull();
+    }
+}
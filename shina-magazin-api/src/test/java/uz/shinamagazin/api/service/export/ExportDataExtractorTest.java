@@ -0,0 +1,97 @@
+package uz.shinamagazin.api.service.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uz.shinamagazin.api.annotation.ExportColumn;
+import uz.shinamagazin.api.dto.response.CustomerResponse;
+import uz.shinamagazin.api.enums.CustomerType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Accessor'lar sinf bo'yicha bir marta quriladi: getter — LambdaMetafactory,
+ * getter'siz maydon — MethodHandle, ichki yo'l — qurish paytida.
+ */
+class ExportDataExtractorTest {
+
+    private final ExportDataExtractor extractor = new ExportDataExtractor();
+
+    @Test
+    @DisplayName("Lombok getterlari, shu jumladan primitiv boolean (isX)")
+    void readsThroughGeneratedGetters() {
+        CustomerResponse customer = CustomerResponse.builder()
+                .id(7L).fullName("Ali Valiyev").customerType(CustomerType.BUSINESS)
+                .balance(new BigDecimal("-1500.00")).hasDebt(true).active(true)
+                .build();
+
+        List<ExportColumnConfig> columns = extractor.extractColumns(CustomerResponse.class);
+
+        assertThat(columns).extracting(ExportColumnConfig::getHeader)
+                .startsWith("ID", "F.I.SH", "Telefon");
+        assertThat(columns).extracting(col -> col.getValueExtractor().apply(customer))
+                .containsExactly(7L, "Ali Valiyev", null, null, null, null, CustomerType.BUSINESS,
+                        new BigDecimal("-1500.00"), true, null, true);
+        assertThat(extractor.extractColumns(CustomerResponse.class)).isSameAs(columns);
+        // Getter chaqiruvchi sinf DTO'ning nest'ida yaratilgan — reflection emas
+        assertThat(columns).allSatisfy(col ->
+                assertThat(col.getValueExtractor().getClass().getNestHost()).isEqualTo(CustomerResponse.class));
+    }
+
+    @Test
+    @DisplayName("Ichki yo'l: nuqtali, oraliq null — null, getter'siz maydon ham o'qiladi")
+    void resolvesNestedPathsOnce() {
+        List<ExportColumnConfig> columns = extractor.extractColumns(Line.class);
+        Function<Object, Object> brand = columns.get(0).getValueExtractor();
+        Function<Object, Object> country = columns.get(1).getValueExtractor();
+        Function<Object, Object> missing = columns.get(2).getValueExtractor();
+
+        Line line = new Line(new Brand("Michelin", new Country("FR")), 4);
+        assertThat(brand.apply(line)).isEqualTo("Michelin");
+        assertThat(country.apply(line)).isEqualTo("FR");
+        assertThat(missing.apply(line)).isNull();
+        assertThat(columns.get(3).getValueExtractor().apply(line)).isEqualTo(4);
+        assertThat(columns.get(3).getValueExtractor().getClass().getNestHost()).isEqualTo(ExportDataExtractor.class);
+
+        Line noBrand = new Line(null, 1);
+        assertThat(brand.apply(noBrand)).isNull();
+        assertThat(country.apply(noBrand)).isNull();
+    }
+
+    @AllArgsConstructor
+    static class Line {
+        @Getter
+        @ExportColumn(header = "Brend", order = 1, nestedField = "name")
+        private Brand brand;
+
+        @ExportColumn(header = "Mamlakat", order = 2, nestedField = "country.code")
+        private Brand origin;
+
+        @ExportColumn(header = "Yo'q", order = 3, nestedField = "unknown")
+        private Brand broken;
+
+        // Getter yo'q — MethodHandle
+        @ExportColumn(header = "Soni", order = 4)
+        private int quantity;
+
+        Line(Brand brand, int quantity) {
+            this(brand, brand, brand, quantity);
+        }
+    }
+
+    @AllArgsConstructor
+    static class Brand {
+        private String name;
+        private Country country;
+    }
+
+    @AllArgsConstructor
+    static class Country {
+        private String code;
+    }
+}
@@ -0,0 +1,154 @@
+package uz.shinamagazin.api.service.export;
+
+import com.lowagie.text.pdf.PdfReader;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import uz.shinamagazin.api.dto.response.CustomerResponse;
+import uz.shinamagazin.api.enums.CustomerType;
+import uz.shinamagazin.api.repository.CustomerRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uz.shinamagazin.api.support.XlsxTestFiles.countRows;
+import static uz.shinamagazin.api.support.XlsxTestFiles.sheetNames;
+import static uz.shinamagazin.api.support.XlsxTestFiles.sheetXml;
+
+/**
+ * Generic eksport: qatorlar oqimdan to'g'ridan-to'g'ri faylga, oraliq
+ * {@code Map} qatorlarsiz; kursorli manbada persistence context tozalanadi.
+ * Heap o'lchovi — {@code benchmark.GenericExportHeapBenchmark}.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.datasource.url=jdbc:h2:mem:generic-export;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class GenericExportServiceTest {
+
+    /** Sarlavha va ustunlar qatori. */
+    private static final int HEADER_ROWS = 2;
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private CustomerRepository customerRepository;
+
+    private GenericExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new GenericExportService(new ExportDataExtractor(), new ExportFormatter(),
+                new ExcelExportService(), new PdfExportService(), entityManager, transactionManager);
+        service.init();
+    }
+
+    @Test
+    @DisplayName("Oqim bir o'tishda yoziladi; varaq to'lsa davomi keyingi varaqda, sarlavhalar bilan")
+    void excelStreamsAllRowsAcrossSheets() throws IOException {
+        GenericExportService rolling = new GenericExportService(new ExportDataExtractor(), new ExportFormatter(),
+                new ExcelExportService(999), new PdfExportService(), entityManager, transactionManager);
+        int[] read = {0};
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        rolling.write(IntStream.rangeClosed(1, 2_500).mapToObj(GenericExportServiceTest::customer)
+                        .peek(c -> read[0]++),
+                CustomerResponse.class, GenericExportService.ExportFormat.EXCEL, "Mijozlar Hisoboti", out);
+
+        byte[] xlsx = out.toByteArray();
+        assertThat(read[0]).isEqualTo(2_500);
+        assertThat(sheetNames(xlsx)).hasSize(3);
+        // 1-varaq: sarlavha, ustunlar + 997 qator (3..999); keyingilari: ustunlar + 999 qator
+        assertThat(countRows(sheetXml(xlsx, 1))).isEqualTo(HEADER_ROWS + 997);
+        assertThat(countRows(sheetXml(xlsx, 2))).isEqualTo(1 + 999);
+        assertThat(countRows(sheetXml(xlsx, 3))).isEqualTo(1 + 2_500 - 997 - 999);
+        assertThat(sheetXml(xlsx, 1)).contains("Mijozlar Hisoboti", "F.I.SH", "Mijoz 1<");
+        assertThat(sheetXml(xlsx, 3)).contains("F.I.SH", "Mijoz 2500<").doesNotContain("Mijozlar Hisoboti");
+        // Ustun kengligi barcha varaqlarda
+        assertThat(sheetXml(xlsx, 3)).contains("<cols>");
+    }
+
+    @Test
+    @DisplayName("Kursor: barcha faollar, qidiruv, context har CLEAR_EVERY qatorda tozalanadi")
+    void cursorSourceClearsPersistenceContext() throws IOException {
+        int customers = GenericExportService.CLEAR_EVERY * 2 + 500;
+        List<Object[]> rows = new ArrayList<>(customers);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 1; i <= customers; i++) {
+            rows.add(new Object[]{i % 10 == 0 ? "Ali " + i : "Mijoz " + i, "+998900" + i, i % 7 != 0, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO customers (full_name, phone, customer_type, balance, active, created_at) "
+                + "VALUES (?, ?, 'INDIVIDUAL', 0, ?, ?)", rows);
+        int[] maxManaged = {0};
+
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        service.writeCursor(() -> customerRepository.streamForExport(null), customer -> {
+            int managed = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+            maxManaged[0] = Math.max(maxManaged[0], managed);
+            return CustomerResponse.from(customer);
+        }, CustomerResponse.class, GenericExportService.ExportFormat.EXCEL, "Mijozlar Hisoboti", all);
+        ByteArrayOutputStream found = new ByteArrayOutputStream();
+        service.writeCursor(() -> customerRepository.streamForExport("ali"), CustomerResponse::from,
+                CustomerResponse.class, GenericExportService.ExportFormat.EXCEL, "Qidiruv", found);
+
+        long active = rows.stream().filter(r -> (Boolean) r[2]).count();
+        long named = rows.stream().filter(r -> (Boolean) r[2] && ((String) r[0]).startsWith("Ali")).count();
+        String sheet = sheetXml(all.toByteArray());
+        assertThat(countRows(sheet)).isEqualTo(HEADER_ROWS + active);
+        assertThat(sheet).contains("Mijozlar Hisoboti", "F.I.SH", "Mijoz 1<");
+        assertThat(countRows(sheetXml(found.toByteArray()))).isEqualTo(HEADER_ROWS + named);
+        assertThat(maxManaged[0]).isLessThanOrEqualTo(GenericExportService.CLEAR_EVERY);
+    }
+
+    @Test
+    @DisplayName("PDF: jadval qismlab qo'shiladi, barcha qatorlar sahifalarda")
+    void pdfIsWrittenInChunks() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.write(IntStream.range(0, 1_500).mapToObj(GenericExportServiceTest::customer),
+                CustomerResponse.class, GenericExportService.ExportFormat.PDF, "Mijozlar Hisoboti", out);
+
+        PdfReader reader = new PdfReader(out.toByteArray());
+        try {
+            assertThat(reader.getNumberOfPages()).isGreaterThan(25);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static CustomerResponse customer(int i) {
+        return CustomerResponse.builder()
+                .id((long) i)
+                .fullName("Mijoz " + i)
+                .phone("+998 90 " + (1_000_000 + i))
+                .address("Toshkent sh., Chilonzor tumani, " + i + "-uy")
+                .companyName(i % 3 == 0 ? "Avto Servis " + i : null)
+                .customerType(i % 3 == 0 ? CustomerType.BUSINESS : CustomerType.INDIVIDUAL)
+                .balance(BigDecimal.valueOf(-i % 5_000_000))
+                .hasDebt(i % 2 == 0)
+                .notes("Izoh " + i)
+                .active(true)
+                .build();
+    }
+}
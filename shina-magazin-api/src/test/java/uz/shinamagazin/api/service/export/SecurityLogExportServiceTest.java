@@ -0,0 +1,127 @@
+package uz.shinamagazin.api.service.export;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uz.shinamagazin.api.entity.LoginAttempt;
+import uz.shinamagazin.api.repository.AuditLogRepository;
+import uz.shinamagazin.api.repository.LoginAttemptRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uz.shinamagazin.api.support.XlsxTestFiles.countRows;
+import static uz.shinamagazin.api.support.XlsxTestFiles.sheetXml;
+
+/**
+ * Audit/kirish tarixi Excel eksporti: kursordan oqim bilan, 50 000 lik
+ * chegarasiz va entity yuklamasdan.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:security-log-export;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF",
+        "logging.level.org.hibernate.stat=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SecurityLogExportServiceTest {
+
+    /** Eski {@code MAX_EXPORT_ROWS}dan ko'p. */
+    private static final int AUDIT_ROWS = ExportSupport.MAX_EXPORT_ROWS + 5_000;
+    /** Sarlavha, sana, bo'sh qator, ustunlar. */
+    private static final int HEADER_ROWS = 3;
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private AuditLogRepository auditLogRepository;
+    @Autowired private LoginAttemptRepository loginAttemptRepository;
+
+    private SecurityLogExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SecurityLogExportService(auditLogRepository, loginAttemptRepository, new ExcelExportService());
+    }
+
+    @Test
+    @DisplayName("Audit: barcha qatorlar, skalyar kursor — entity yuklanmaydi")
+    void auditExportHasNoRowCap() throws IOException {
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>(AUDIT_ROWS);
+        for (int i = 0; i < AUDIT_ROWS; i++) {
+            rows.add(new Object[]{i % 2 == 0 ? "Product" : "Sale", (long) i, i % 3 == 0 ? null : "kassir",
+                    Timestamp.valueOf(base.plusSeconds(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO audit_logs (entity_type, entity_id, action, username, created_at) "
+                + "VALUES (?, ?, 'UPDATE', ?, ?)", rows);
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        service.writeAuditLogs(null, null, null, null, null, all);
+        ByteArrayOutputStream products = new ByteArrayOutputStream();
+        service.writeAuditLogs("Product", "UPDATE", null, " KASSIR ", "Mahsulotlar", products);
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        String sheet = sheetXml(all.toByteArray());
+        assertThat(countRows(sheet)).isEqualTo(HEADER_ROWS + AUDIT_ROWS);
+        // Eng yangisi birinchi; username bo'lmasa "Sistema"
+        assertThat(sheet).contains("Tizim Auditlari Hisoboti", "O'zgartirildi", "Sistema");
+        assertThat(firstDataId(sheet)).isEqualTo(AUDIT_ROWS);
+
+        String filtered = sheetXml(products.toByteArray());
+        long expected = rows.stream().filter(r -> "Product".equals(r[0]) && r[2] != null).count();
+        assertThat(countRows(filtered)).isEqualTo(HEADER_ROWS + expected);
+        assertThat(filtered).contains("Mahsulotlar").doesNotContain("Sale");
+    }
+
+    @Test
+    @DisplayName("Kirish tarixi: filtrlar findWithFilters bilan bir xil")
+    void loginExportAppliesFilters() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        attempt("admin", "SUCCESS", now.minusDays(1));
+        attempt("admin", "FAILED", now.minusHours(2));
+        attempt("kassir", "FAILED", now.minusHours(1));
+        attempt("admin", "FAILED", now.minusDays(10));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeLoginActivity("admin", LoginAttempt.LoginStatus.FAILED, null, now.minusDays(2), null, null, out);
+
+        String sheet = sheetXml(out.toByteArray());
+        assertThat(countRows(sheet)).isEqualTo(HEADER_ROWS + 1);
+        assertThat(sheet).contains("Kirish Tarixi Hisoboti", "Xato", "admin").doesNotContain("kassir");
+    }
+
+    private void attempt(String username, String status, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO login_attempts (username, ip_address, status, created_at) VALUES (?, ?, ?, ?)",
+                username, "10.0.0.1", status, Timestamp.valueOf(createdAt));
+    }
+
+    /** Birinchi ma'lumot qatorining (5-qator) ID ustuni. */
+    private static long firstDataId(String sheetXml) {
+        Matcher matcher = Pattern.compile("<row r=\"5\"[^>]*>\\s*<c r=\"A5\"[^>]*>\\s*<v>([^<]+)</v>").matcher(sheetXml);
+        assertThat(matcher.find()).isTrue();
+        return (long) Double.parseDouble(matcher.group(1));
+    }
+}
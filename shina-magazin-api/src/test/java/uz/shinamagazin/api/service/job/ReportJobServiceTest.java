@@ -0,0 +1,211 @@
+package uz.shinamagazin.api.service.job;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+import uz.shinamagazin.api.dto.response.ReportJobResponse;
+import uz.shinamagazin.api.enums.ReportJobStatus;
+import uz.shinamagazin.api.exception.BadRequestException;
+import uz.shinamagazin.api.exception.ResourceNotFoundException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Fon hisobot vazifalari: bajarilish, birlashtirish, cheklovlar va TTL.
+ */
+class ReportJobServiceTest {
+
+    private static final String JSON = "application/json";
+
+    @TempDir
+    Path dir;
+
+    private SimpMessagingTemplate messagingTemplate;
+    private ReportJobService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        service = new ReportJobService(messagingTemplate, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "dir", dir.toString());
+        ReflectionTestUtils.setField(service, "workers", 2);
+        ReflectionTestUtils.setField(service, "queueCapacity", 4);
+        ReflectionTestUtils.setField(service, "perUserLimit", 2);
+        ReflectionTestUtils.setField(service, "ttlMinutes", 60L);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    @DisplayName("Natija diskka yoziladi, holat va foiz foydalanuvchi navbatiga boradi")
+    void jobWritesResultAndPublishesProgress() throws Exception {
+        ReportJobResponse submitted = service.submit(1L, "sales", "k1", "r.json", JSON, (progress, out) -> {
+            progress.update(50, "yarmi");
+            out.write("{\"ok\":true}".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertThat(awaitFinished(submitted.getId(), 1L).getStatus()).isEqualTo(ReportJobStatus.DONE);
+
+        ReportJob job = service.getResult(submitted.getId(), 1L);
+        assertThat(Files.readString(job.getFile())).isEqualTo("{\"ok\":true}");
+        assertThat(job.getSize()).isEqualTo(11);
+        assertThat(service.getJob(submitted.getId(), 1L).getDownloadUrl())
+                .isEqualTo("/v1/report-jobs/" + submitted.getId() + "/download");
+        verify(messagingTemplate, atLeast(3))
+                .convertAndSendToUser(eq("1"), eq(ReportJobService.USER_QUEUE), any(ReportJobResponse.class));
+    }
+
+    @Test
+    @DisplayName("Bir xil parallel so'rovlar bitta vazifaga birlashadi")
+    void identicalRequestsShareOneJob() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ReportJobTask task = (progress, out) -> {
+            runs.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            out.write(1);
+        };
+
+        ReportJobResponse first = service.submit(1L, "sales", "same", "r.json", JSON, task);
+        ReportJobResponse second = service.submit(2L, "sales", "same", "r.json", JSON, task);
+        ReportJobResponse again = service.submit(1L, "sales", "same", "r.json", JSON, task);
+        release.countDown();
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(again.getId()).isEqualTo(first.getId());
+        awaitFinished(first.getId(), 1L);
+        assertThat(runs).hasValue(1);
+        assertThat(service.getResult(first.getId(), 2L).getFile())
+                .as("qo'shilgan xodim ham natijani oladi")
+                .exists();
+    }
+
+    @Test
+    @DisplayName("Tugagan vazifa kaliti bo'shaydi — keyingi so'rov yangi vazifa")
+    void finishedJobIsNotReused() throws Exception {
+        ReportJobResponse first = service.submit(1L, "sales", "k", "r.json", JSON, (p, out) -> out.write(1));
+        awaitFinished(first.getId(), 1L);
+
+        ReportJobResponse second = service.submit(1L, "sales", "k", "r.json", JSON, (p, out) -> out.write(2));
+
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+    }
+
+    @Test
+    @DisplayName("Bitta xodimning faol vazifalari cheklangan — 429")
+    void perUserLimitIsEnforced() {
+        CountDownLatch release = new CountDownLatch(1);
+        ReportJobTask blocking = (progress, out) -> release.await(5, TimeUnit.SECONDS);
+        try {
+            service.submit(1L, "sales", "a", "r.json", JSON, blocking);
+            service.submit(1L, "sales", "b", "r.json", JSON, blocking);
+
+            assertThatThrownBy(() -> service.submit(1L, "sales", "c", "r.json", JSON, blocking))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+            // boshqa xodim cheklanmaydi
+            assertThat(service.submit(2L, "sales", "c", "r.json", JSON, blocking).getId()).isNotNull();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Umumiy navbat to'lsa — 503, so'rov oqimida bajarilmaydi")
+    void fullQueueIsRejected() {
+        CountDownLatch release = new CountDownLatch(1);
+        ReportJobTask blocking = (progress, out) -> release.await(5, TimeUnit.SECONDS);
+        try {
+            // 2 ta worker + 4 o'rinli navbat
+            for (int i = 0; i < 6; i++) {
+                service.submit((long) i, "sales", "q" + i, "r.json", JSON, blocking);
+            }
+            assertThatThrownBy(() -> service.submit(99L, "sales", "q6", "r.json", JSON, blocking))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Xato: biznes matni ko'rsatiladi, yarim fayl qolmaydi")
+    void failureIsReported() throws Exception {
+        ReportJobResponse submitted = service.submit(1L, "sales", "bad", "r.json", JSON, (progress, out) -> {
+            out.write(new byte[1024]);
+            throw new BadRequestException("Davr juda katta");
+        });
+
+        ReportJobResponse job = awaitFinished(submitted.getId(), 1L);
+
+        assertThat(job.getStatus()).isEqualTo(ReportJobStatus.FAILED);
+        assertThat(job.getMessage()).isEqualTo("Davr juda katta");
+        try (var files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+        assertThatThrownBy(() -> service.getResult(submitted.getId(), 1L))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("Boshqa xodimning vazifasi ko'rinmaydi")
+    void foreignJobIsHidden() throws Exception {
+        ReportJobResponse submitted = service.submit(1L, "sales", "k", "r.json", JSON, (p, out) -> out.write(1));
+        awaitFinished(submitted.getId(), 1L);
+
+        assertThatThrownBy(() -> service.getResult(submitted.getId(), 2L))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(service.getJobs(2L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Muddati o'tgan natija fayli bilan o'chiriladi")
+    void expiredResultsAreEvicted() throws Exception {
+        ReportJobResponse submitted = service.submit(1L, "sales", "k", "r.json", JSON, (p, out) -> out.write(1));
+        awaitFinished(submitted.getId(), 1L);
+        Path file = service.getResult(submitted.getId(), 1L).getFile();
+
+        ReflectionTestUtils.setField(service, "ttlMinutes", -1L);
+        service.evictExpired();
+
+        assertThat(file).doesNotExist();
+        assertThatThrownBy(() -> service.getJob(submitted.getId(), 1L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private ReportJobResponse awaitFinished(String id, Long userId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline) {
+            ReportJobResponse job = service.getJob(id, userId);
+            if (job.getStatus() == ReportJobStatus.DONE || job.getStatus() == ReportJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("vazifa tugamadi: " + id);
+    }
+}
@@ -0,0 +1,209 @@
+package uz.shinamagazin.api.service.seo;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uz.shinamagazin.api.entity.Brand;
+import uz.shinamagazin.api.entity.Product;
+import uz.shinamagazin.api.enums.Season;
+import uz.shinamagazin.api.event.CatalogRowsChangedEvent;
+import uz.shinamagazin.api.repository.BrandRepository;
+import uz.shinamagazin.api.repository.CatalogProductRepository;
+import uz.shinamagazin.api.repository.CategoryAttributeRepository;
+import uz.shinamagazin.api.repository.CategoryRepository;
+import uz.shinamagazin.api.repository.ProductAttributeValueRepository;
+import uz.shinamagazin.api.repository.ProductRepository;
+import uz.shinamagazin.api.service.catalog.CatalogReadModel;
+import uz.shinamagazin.api.service.catalog.CatalogVersion;
+import uz.shinamagazin.api.service.catalog.CategoryTreeCache;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SEO sahifalari jadval qatorlaridan oldindan yig'iladi, bot so'rovi bazaga
+ * tegmaydi, o'zgarishdan keyin yangilanadi; sitemap faqat faol mahsulotlar.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:product-seo-pages;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.cloud.vault.enabled=false",
+        "logging.level.org.hibernate.SQL=OFF"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Sitemap o'z read-only tranzaksiyasini ochadi — test tranzaksiyasiz, ma'lumot commit bo'lgan bo'lishi kerak
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductSeoPagesTest {
+
+    private static final String BASE = "https://protektor.uz";
+
+    @Autowired private CatalogProductRepository catalogProductRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductAttributeValueRepository valueRepository;
+    @Autowired private BrandRepository brandRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private CategoryAttributeRepository categoryAttributeRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+
+    private ProductSeoPages pages;
+    private SitemapWriter sitemap;
+    private CatalogVersion catalogVersion;
+    private CatalogReadModel readModel;
+    private Statistics statistics;
+
+    private Product pilot;
+    private Product xIce;
+    private Product hidden;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        catalogProductRepository.deleteAll();
+        productRepository.deleteAll();
+        brandRepository.deleteAll();
+
+        pages = new ProductSeoPages(catalogProductRepository, productRepository, transactionManager);
+        pages.init();
+        catalogVersion = new CatalogVersion();
+        sitemap = new SitemapWriter(productRepository, entityManager, transactionManager, catalogVersion);
+        sitemap.init();
+        CategoryTreeCache tree = new CategoryTreeCache(categoryRepository, categoryAttributeRepository,
+                productRepository, transactionManager);
+        ReflectionTestUtils.invokeMethod(tree, "init");
+        readModel = new CatalogReadModel(catalogProductRepository, productRepository, valueRepository, tree,
+                new CatalogVersion(), event -> pages.onCatalogRowsChanged((CatalogRowsChangedEvent) event),
+                entityManager, transactionManager);
+        ReflectionTestUtils.invokeMethod(readModel, "init");
+
+        Brand michelin = brandRepository.save(Brand.builder().name("Michelin").active(true).build());
+        pilot = productRepository.save(tire(michelin, "MIC-PS4", "Pilot Sport 4", "/api/uploads/ps4.jpg", true));
+        xIce = productRepository.save(tire(michelin, "MIC-XI", "X-Ice \"North\"", null, true));
+        hidden = productRepository.save(tire(michelin, "MIC-OFF", "Eski model", null, false));
+
+        readModel.rebuild();
+    }
+
+    @Test
+    @DisplayName("Sahifa oldindan yig'ilgan: domen so'rovdan, takroriy so'rov bazaga bormaydi")
+    void rendersFromMemory() {
+        statistics.clear();
+        String html = pages.page(pilot.getId()).render(BASE);
+        String other = pages.page(pilot.getId()).render("http://localhost:5183");
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(html)
+                .contains("<title>Pilot Sport 4 — Protektor</title>")
+                .contains("content=\"Michelin · 205/55 R16 · 1,000,000 so'm\"")
+                .contains("og:image\" content=\"https://protektor.uz/api/uploads/ps4.jpg\"")
+                .contains("<link rel=\"canonical\" href=\"https://protektor.uz/mahsulot/" + pilot.getId() + "\"/>");
+        assertThat(other).contains("href=\"http://localhost:5183/mahsulot/" + pilot.getId() + "\"");
+        assertThat(pages.page(xIce.getId()).render(BASE))
+                .contains("X-Ice &quot;North&quot;")
+                .contains("og:image\" content=\"https://protektor.uz/og-cover.jpg\"");
+        assertThat(pages.page(hidden.getId()).render(BASE)).contains("Mahsulot topilmadi");
+    }
+
+    @Test
+    @DisplayName("Jadval qatorlari yangilangach sahifa ham yangilanadi; nofaol — topilmadi")
+    void refreshedAfterRowsChange() {
+        Product pilotNow = productRepository.findById(pilot.getId()).orElseThrow();
+        pilotNow.setName("Pilot Sport 5");
+        Product xIceNow = productRepository.findById(xIce.getId()).orElseThrow();
+        xIceNow.setActive(false);
+        productRepository.saveAllAndFlush(List.of(pilotNow, xIceNow));
+
+        readModel.productsChanged(List.of(pilot.getId(), xIce.getId()));
+        readModel.applyPendingChanges();
+
+        statistics.clear();
+        assertThat(pages.page(pilot.getId()).render(BASE)).contains("<title>Pilot Sport 5 — Protektor</title>");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(pages.page(xIce.getId()).render(BASE)).contains("Mahsulot topilmadi");
+    }
+
+    @Test
+    @DisplayName("Sitemap: indeks bo'laklarni sanaydi, mahsulot bo'lagida faqat faollar")
+    void streamsSitemap() throws Exception {
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        sitemap.writeIndex(index, BASE);
+        ByteArrayOutputStream products = new ByteArrayOutputStream();
+        sitemap.writeProducts(products, BASE, 1);
+
+        assertThat(index.toString(StandardCharsets.UTF_8))
+                .contains("<loc>https://protektor.uz/sitemap-pages.xml</loc>")
+                .contains("<loc>https://protektor.uz/sitemap-products-1.xml</loc>")
+                .doesNotContain("sitemap-products-2.xml");
+        String xml = products.toString(StandardCharsets.UTF_8);
+        assertThat(xml)
+                .startsWith("<?xml")
+                .contains("<loc>https://protektor.uz/mahsulot/" + pilot.getId() + "</loc><lastmod>")
+                .contains("/mahsulot/" + xIce.getId() + "</loc>")
+                .doesNotContain("/mahsulot/" + hidden.getId() + "<")
+                .endsWith("</urlset>\n");
+    }
+
+    @Test
+    @DisplayName("Sitemap bo'laklari birinchi id'dan o'qiladi; chegaralar katalog versiyasi bilan yangilanadi")
+    void splitsSitemapByIdRanges() throws Exception {
+        sitemap.urlsPerPart = 1;
+
+        assertThat(sitemap.productParts()).isEqualTo(2);
+        String first = productsPart(1);
+        String second = productsPart(2);
+        assertThat(first).contains("/mahsulot/" + pilot.getId() + "<").doesNotContain("/mahsulot/" + xIce.getId() + "<");
+        assertThat(second).contains("/mahsulot/" + xIce.getId() + "<").doesNotContain("/mahsulot/" + pilot.getId() + "<");
+        assertThat(productsPart(3)).doesNotContain("<url>").endsWith("</urlset>\n");
+
+        Product added = productRepository.save(tire(pilot.getBrand(), "MIC-NEW", "Yangi", null, true));
+        assertThat(sitemap.productParts()).isEqualTo(2);
+        catalogVersion.bump();
+        assertThat(sitemap.productParts()).isEqualTo(3);
+        assertThat(productsPart(3)).contains("/mahsulot/" + added.getId() + "<");
+    }
+
+    private String productsPart(int part) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sitemap.writeProducts(out, BASE, part);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    // --- helpers ---
+
+    private static Product tire(Brand brand, String sku, String name, String imageUrl, boolean active) {
+        return Product.builder()
+                .sku(sku)
+                .name(name)
+                .brand(brand)
+                .width(205)
+                .profile(55)
+                .diameter(16)
+                .season(Season.SUMMER)
+                .sellingPrice(BigDecimal.valueOf(1_000_000))
+                .quantity(4)
+                .imageUrl(imageUrl)
+                .active(active)
+                .build();
+    }
+}
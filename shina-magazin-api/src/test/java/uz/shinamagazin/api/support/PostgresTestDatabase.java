@@ -0,0 +1,80 @@
+package uz.shinamagazin.api.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.UUID;
+
+/**
+ * Faqat PostgreSQL'da ishlaydigan narsalar (V41 bo'limlari, jsonb so'rovlari)
+ * uchun vaqtinchalik baza.
+ *
+ * <p>Docker bo'lsa — Testcontainers, yoki mavjud server:
+ * {@code -Dtest.postgres.url=jdbc:postgresql://host:5432/postgres
+ * -Dtest.postgres.user=... -Dtest.postgres.password=...}. Har safar yangi
+ * baza yaratiladi va {@link #drop()} da o'chiriladi — serverdagi boshqa
+ * ma'lumotga tegilmaydi. Ikkalasi ham bo'lmasa test klassi
+ * {@code @EnabledIf("uz.shinamagazin.api.support.PostgresTestDatabase#available")}
+ * bilan o'tkazib yuboriladi.
+ */
+public final class PostgresTestDatabase {
+
+    private final PostgreSQLContainer<?> container;
+    private final JdbcTemplate admin;
+    private final String name;
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private PostgresTestDatabase(PostgreSQLContainer<?> container, String adminUrl, String user, String password) {
+        this.container = container;
+        this.user = user;
+        this.password = password;
+        this.admin = new JdbcTemplate(new DriverManagerDataSource(adminUrl, user, password));
+        this.name = "test_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        admin.execute("CREATE DATABASE " + name);
+        this.url = adminUrl.replaceFirst("/[^/?]*(\\?.*)?$", "/" + name);
+    }
+
+    public static boolean available() {
+        return System.getProperty("test.postgres.url") != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    public static PostgresTestDatabase create() {
+        String adminUrl = System.getProperty("test.postgres.url");
+        if (adminUrl != null) {
+            return new PostgresTestDatabase(null, adminUrl,
+                    System.getProperty("test.postgres.user", "postgres"),
+                    System.getProperty("test.postgres.password", ""));
+        }
+        PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine");
+        container.start();
+        return new PostgresTestDatabase(container, container.getJdbcUrl(), container.getUsername(),
+                container.getPassword());
+    }
+
+    public String url() {
+        return url;
+    }
+
+    public String user() {
+        return user;
+    }
+
+    public String password() {
+        return password;
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(new DriverManagerDataSource(url, user, password));
+    }
+
+    public void drop() {
+        admin.execute("DROP DATABASE IF EXISTS " + name + " WITH (FORCE)");
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package uz.shinamagazin.api.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Eksport qilingan .xlsx'ni POI bilan ochmasdan tekshirish: SXSSF matnni
+ * inline yozadi, shuning uchun varaq XML'i o'qish uchun yetarli (yuz
+ * minglab qatorli faylni XSSF bilan ochish heap'ni to'ldirardi).
+ */
+public final class XlsxTestFiles {
+
+    private static final Pattern ROW = Pattern.compile("<row ");
+    private static final Pattern SHEET_NAME = Pattern.compile("<sheet [^>]*name=\"([^\"]+)\"");
+
+    private XlsxTestFiles() {
+    }
+
+    /** Birinchi varaq XML'i. */
+    public static String sheetXml(byte[] xlsx) {
+        return sheetXml(xlsx, 1);
+    }
+
+    /** {@code number}-varaq XML'i (1 dan); bo'lmasa {@code null}. */
+    public static String sheetXml(byte[] xlsx, int number) {
+        return entry(xlsx, "xl/worksheets/sheet" + number + ".xml");
+    }
+
+    /** Varaq nomlari, kitobdagi tartibda. */
+    public static List<String> sheetNames(byte[] xlsx) {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = SHEET_NAME.matcher(entry(xlsx, "xl/workbook.xml"));
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+
+    public static int countRows(String sheetXml) {
+        Matcher matcher = ROW.matcher(sheetXml);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    /** ZipFile orqali: POI yozgan arxivni {@code ZipInputStream} o'qiy olmaydi (yozuv o'lchami oxirida). */
+    private static String entry(byte[] xlsx, String name) {
+        try {
+            Path file = Files.createTempFile("export", ".xlsx");
+            try {
+                Files.write(file, xlsx);
+                try (ZipFile zip = new ZipFile(file.toFile())) {
+                    ZipEntry entry = zip.getEntry(name);
+                    return entry != null
+                            ? new String(zip.getInputStream(entry).readAllBytes(), StandardCharsets.UTF_8)
+                            : null;
+                }
+            } finally {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
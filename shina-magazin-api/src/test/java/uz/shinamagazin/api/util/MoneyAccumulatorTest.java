@@ -0,0 +1,118 @@
+package uz.shinamagazin.api.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Yig'uvchi {@code BigDecimal} zanjiri bilan BIT-BA-BIT bir xil bo'lishi shart:
+ * hisobot javoblari JSON'da scale bilan chiqadi ({@code 0} va {@code 0.00}
+ * farq qiladi), shuning uchun {@code compareTo} emas, {@code equals} tekshiriladi.
+ */
+class MoneyAccumulatorTest {
+
+    @Test
+    @DisplayName("Tasodifiy add/subtract/addProduct — qiymat ham, scale ham bir xil")
+    void matchesBigDecimalChain() {
+        Random random = new Random(20261018L);
+        for (int run = 0; run < 500; run++) {
+            BigDecimal expected = BigDecimal.ZERO;
+            MoneyAccumulator acc = new MoneyAccumulator();
+
+            int steps = random.nextInt(200);
+            for (int i = 0; i < steps; i++) {
+                BigDecimal value = randomMoney(random);
+                switch (random.nextInt(3)) {
+                    case 0 -> {
+                        expected = expected.add(value);
+                        acc.add(value);
+                    }
+                    case 1 -> {
+                        expected = expected.subtract(value);
+                        acc.subtract(value);
+                    }
+                    default -> {
+                        int qty = random.nextInt(50);
+                        expected = expected.add(value.multiply(BigDecimal.valueOf(qty)));
+                        acc.addProduct(value, qty);
+                    }
+                }
+            }
+
+            assertThat(acc.toBigDecimal()).isEqualTo(expected);
+            assertThat(acc.signum()).isEqualTo(expected.signum());
+        }
+    }
+
+    @Test
+    @DisplayName("Bo'sh yig'uvchi BigDecimal.ZERO (scale 0)")
+    void emptyIsZero() {
+        assertThat(new MoneyAccumulator().toBigDecimal()).isEqualTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("Scale eng kattasi bo'yicha: 100 + 0.50 - 0.50 = 100.00")
+    void scaleIsTheMaximumSeen() {
+        MoneyAccumulator acc = new MoneyAccumulator()
+                .add(new BigDecimal("100"))
+                .add(new BigDecimal("0.50"))
+                .subtract(new BigDecimal("0.50"));
+
+        assertThat(acc.toBigDecimal()).isEqualTo(new BigDecimal("100.00"));
+    }
+
+    @Test
+    @DisplayName("Tiyinga sig'maydigan qiymat (scale > 2) aniq rejimga o'tadi")
+    void fractionalMinorUnitsFallBackToExact() {
+        BigDecimal expected = new BigDecimal("10.25").add(new BigDecimal("0.125")).add(new BigDecimal("3"));
+        MoneyAccumulator acc = new MoneyAccumulator()
+                .add(new BigDecimal("10.25"))
+                .add(new BigDecimal("0.125"))
+                .add(new BigDecimal("3"));
+
+        assertThat(acc.toBigDecimal()).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("long to'lib ketsa natija buzilmaydi")
+    void overflowFallsBackToExact() {
+        BigDecimal big = new BigDecimal("90000000000000000.00");
+        BigDecimal expected = big.add(big).add(big).subtract(new BigDecimal("0.01"));
+        MoneyAccumulator acc = new MoneyAccumulator()
+                .add(big).add(big).add(big)
+                .subtract(new BigDecimal("0.01"));
+
+        assertThat(acc.toBigDecimal()).isEqualTo(expected);
+
+        MoneyAccumulator product = new MoneyAccumulator()
+                .addProduct(new BigDecimal("99999999999999.99"), 1_000_000);
+        assertThat(product.toBigDecimal())
+                .isEqualTo(new BigDecimal("99999999999999.99").multiply(BigDecimal.valueOf(1_000_000)));
+    }
+
+    @Test
+    @DisplayName("Yig'uvchilarni qo'shish/ayirish va clear()")
+    void accumulatorArithmetic() {
+        MoneyAccumulator a = new MoneyAccumulator().add(new BigDecimal("1500.5"));
+        MoneyAccumulator b = new MoneyAccumulator().add(new BigDecimal("200.25"));
+
+        assertThat(new MoneyAccumulator().add(a).subtract(b).toBigDecimal())
+                .isEqualTo(BigDecimal.ZERO.add(new BigDecimal("1500.5")).subtract(new BigDecimal("200.25")));
+
+        MoneyAccumulator exact = new MoneyAccumulator().add(new BigDecimal("0.001"));
+        assertThat(new MoneyAccumulator().add(a).subtract(exact).toBigDecimal())
+                .isEqualTo(new BigDecimal("1500.499"));
+
+        a.clear();
+        assertThat(a.toBigDecimal()).isEqualTo(BigDecimal.ZERO);
+    }
+
+    private static BigDecimal randomMoney(Random random) {
+        long unscaled = random.nextLong() % 10_000_000_000L;
+        return BigDecimal.valueOf(unscaled, random.nextInt(3));
+    }
+}
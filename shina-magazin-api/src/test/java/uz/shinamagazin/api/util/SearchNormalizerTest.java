@@ -0,0 +1,64 @@
+package uz.shinamagazin.api.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mijozlar brendni kirillcha ham, lotincha ham yozadi — ikkalasi bitta
+ * fonetik kalitga tushishi kerak, aks holda "мишлен" Michelin'ni topmaydi.
+ */
+class SearchNormalizerTest {
+
+    @ParameterizedTest(name = "\"{0}\" = \"{1}\"")
+    @CsvSource({
+            "мишлен,       michelin",
+            "мишелин,      michelin",
+            "бриджстоун,   bridgestone",
+            "ханкук,       hankook",
+            "йокогама,     yokohama",
+            "континенталь, continental",
+            "нокиан,       nokian",
+            "пирелли,      pirelli",
+            "кумхо,        kumho",
+            "гудиер,       goodyear",
+    })
+    @DisplayName("Kirillcha va lotincha brend nomi bir xil fonetik kalit beradi")
+    void cyrillicAndLatinShareKey(String cyrillic, String latin) {
+        String key = SearchNormalizer.phoneticKey(SearchNormalizer.normalize(latin));
+
+        assertThat(key).hasSizeGreaterThanOrEqualTo(SearchNormalizer.MIN_KEY_LENGTH);
+        assertThat(SearchNormalizer.phoneticKey(SearchNormalizer.normalize(cyrillic))).isEqualTo(key);
+    }
+
+    @Test
+    @DisplayName("normalize: kichik harf, transliteratsiya, o'lcham/SKU ajratgichlari saqlanadi")
+    void normalizes() {
+        assertThat(SearchNormalizer.normalize("  Шина  MICHELIN, 205/55R16!")).isEqualTo("shina michelin 205/55r16");
+        assertThat(SearchNormalizer.normalize("MIC-20.5")).isEqualTo("mic-20.5");
+        assertThat(SearchNormalizer.normalize("Qo'shimcha g‘ildirak")).isEqualTo("qoshimcha gildirak");
+        assertThat(SearchNormalizer.normalize(null)).isEmpty();
+        assertThat(SearchNormalizer.tokens("  ")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Raqamli so'z fonetik kalit bermaydi — u aniq substring sifatida qidiriladi")
+    void digitsHaveNoKey() {
+        assertThat(SearchNormalizer.phoneticKey("r16")).isEmpty();
+        assertThat(SearchNormalizer.phoneticKey("205/55")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search_text va search_key chetlarida bo'sh joy bor")
+    void columnsAreDelimited() {
+        assertThat(SearchNormalizer.searchText("MIC-1", "Pilot Sport", null,
+                SearchNormalizer.compactSize(205, 55, 16)))
+                .isEqualTo(" mic-1 pilot sport 205/55r16 ");
+        assertThat(SearchNormalizer.searchKey("Pilot Sport", "Michelin")).isEqualTo(" plt sprt mSln ");
+        assertThat(SearchNormalizer.searchKey("A4")).isEqualTo(" ");
+        assertThat(SearchNormalizer.compactSize(205, null, 16)).isNull();
+    }
+}
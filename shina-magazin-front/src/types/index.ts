@@ -347,8 +347,14 @@ export interface AuditLog {
   entityType: string;
   entityId?: number;
   action: string;
+  /**
+   * UPDATE'da odatda faqat o'zgargan maydonlar (changedFields), to'liq holat emas.
+   * To'liq oldin/keyin — AuditLogDetailResponse (/audit-logs/{id}/detail).
+   */
   oldValue?: Record<string, unknown>;
   newValue?: Record<string, unknown>;
+  /** O'zgargan maydonlar; eski (V42 gacha) yozuvlarda null. */
+  changedFields?: string[] | null;
   userId?: number;
   username?: string;
   ipAddress?: string;